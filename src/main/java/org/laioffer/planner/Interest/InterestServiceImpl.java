@@ -72,6 +72,7 @@ public class InterestServiceImpl implements InterestService {
         // Update pinned status
         itineraryPlace.setPinned(request.isPinned());
         ItineraryPlaceEntity updatedItineraryPlace = itineraryPlaceRepository.save(itineraryPlace);
+        itineraryPlaceRepository.bumpItineraryContentVersion(itineraryId);
 
         logger.info("Updated pinned status to {} for place: {} in itinerary: {}",
                 request.isPinned(), placeId, itineraryId);
@@ -8,16 +8,25 @@ import org.laioffer.planner.model.place.DailyHours;
 import org.laioffer.planner.model.place.OpeningHoursDTO;
 import org.laioffer.planner.model.place.PlaceDTO;
 import org.laioffer.planner.model.place.TimeRange;
+import org.laioffer.planner.place.CompiledOpeningHours;
+import org.laioffer.planner.place.OpeningHoursIndex;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 @Component
 public class PlaceMapper {
+
+    private final OpeningHoursIndex openingHoursIndex;
+
+    public PlaceMapper(OpeningHoursIndex openingHoursIndex) {
+        this.openingHoursIndex = openingHoursIndex;
+    }
+
     /**
      * Convert ItineraryPlaceEntity to PlaceDTO using denormalized fields
      */
@@ -93,6 +102,40 @@ public class PlaceMapper {
         return dto;
     }
     
+    /**
+     * Convert a catalogue PlaceEntity to PlaceDTO (no itinerary-specific fields)
+     */
+    public PlaceDTO toPlaceDTO(PlaceEntity place) {
+        if (place == null) {
+            return null;
+        }
+
+        PlaceDTO dto = new PlaceDTO();
+        dto.setId(place.getId());
+        dto.setName(place.getName() != null ? place.getName() : "Unknown Place");
+        dto.setAddress(place.getAddress() != null ? place.getAddress() : "Address not available");
+        dto.setImageUrl(place.getImageUrl());
+        dto.setDescription(place.getDescription());
+
+        if (place.getLatitude() != null && place.getLongitude() != null) {
+            dto.setLocation(new GeoPoint(place.getLatitude().doubleValue(), place.getLongitude().doubleValue()));
+        } else {
+            dto.setLocation(new GeoPoint(0.0, 0.0));
+        }
+
+        ContactDTO contact = extractContactInfo(place);
+        if (contact != null) {
+            dto.setContact(contact);
+        }
+
+        OpeningHoursDTO openingHours = extractOpeningHours(place);
+        if (openingHours != null) {
+            dto.setOpeningHours(openingHours);
+        }
+
+        return dto;
+    }
+
     /**
      * Extract contact information from entity
      */
@@ -132,110 +175,47 @@ public class PlaceMapper {
     }
     
     /**
-     * Extract opening hours from entity
+     * Extract opening hours from entity, using the hours compiled once per place
      */
     private OpeningHoursDTO extractOpeningHours(PlaceEntity entity) {
         if (entity.getOpeningHours() == null) {
             return null;
         }
-        
-        Map<String, Object> hoursData = entity.getOpeningHours();
+
+        CompiledOpeningHours hours = openingHoursIndex.forPlace(entity);
         OpeningHoursDTO openingHours = new OpeningHoursDTO();
-        
-        try {
-            // Parse normalized hours from nested weekday objects
-            List<DailyHours> normalizedHours = parseNormalizedHours(hoursData);
-            openingHours.setNormalized(normalizedHours);
-            
-            // Generate readable raw text
-            String rawText = generateRawText(hoursData);
-            openingHours.setRaw(rawText);
-            
-        } catch (Exception e) {
-            // Fallback to raw string representation if parsing fails
-            openingHours.setRaw(hoursData.toString());
-        }
-        
-        return openingHours;
-    }
-    
-    /**
-     * Parse normalized hours from JSONB weekday objects
-     * Expected format: {"monday": {"open": "00:00", "close": "23:59"}, ...}
-     */
-    private List<DailyHours> parseNormalizedHours(Map<String, Object> hoursData) {
-        List<DailyHours> dailyHoursList = new ArrayList<>();
-        List<String> weekdays = Arrays.asList("monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday");
-        
-        for (String weekday : weekdays) {
-            Object dayData = hoursData.get(weekday);
-            if (dayData instanceof Map) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> dayMap = (Map<String, Object>) dayData;
-                
-                Object openTime = dayMap.get("open");
-                Object closeTime = dayMap.get("close");
-                
-                if (openTime instanceof String && closeTime instanceof String) {
-                    TimeRange timeRange = new TimeRange((String) openTime, (String) closeTime);
-                    List<TimeRange> timeRanges = new ArrayList<>();
-                    timeRanges.add(timeRange);
-                    
-                    DailyHours dailyHours = new DailyHours(weekday, timeRanges);
-                    dailyHoursList.add(dailyHours);
-                }
-            }
-        }
-        
-        return dailyHoursList;
-    }
-    
-    /**
-     * Generate readable raw text from hours data
-     */
-    private String generateRawText(Map<String, Object> hoursData) {
-        StringBuilder rawText = new StringBuilder();
-        List<String> weekdays = Arrays.asList("monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday");
-        
-        for (int i = 0; i < weekdays.size(); i++) {
-            String weekday = weekdays.get(i);
-            Object dayData = hoursData.get(weekday);
-            
-            if (i > 0) {
-                rawText.append(", ");
+
+        List<DailyHours> normalizedHours = new ArrayList<>();
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            int open = hours.declaredOpen(dayOfWeek);
+            int close = hours.declaredClose(dayOfWeek);
+            TimeRange range = null;
+            if (open >= 0 && close >= 0) {
+                range = new TimeRange(CompiledOpeningHours.formatMinute(open), CompiledOpeningHours.formatMinute(close));
+            } else if (open == CompiledOpeningHours.UNPARSED) {
+                // Times that could not be read are passed through as written
+                range = declaredTimeRange(entity.getOpeningHours().get(CompiledOpeningHours.weekdayKey(dayOfWeek)));
             }
-            
-            rawText.append(capitalizeFirst(weekday)).append(": ");
-            
-            if (dayData instanceof Map) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> dayMap = (Map<String, Object>) dayData;
-                Object openTime = dayMap.get("open");
-                Object closeTime = dayMap.get("close");
-                
-                if (openTime instanceof String && closeTime instanceof String) {
-                    rawText.append(openTime).append("-").append(closeTime);
-                } else {
-                    rawText.append("closed");
-                }
-            } else {
-                rawText.append("closed");
+            if (range != null) {
+                List<TimeRange> timeRanges = new ArrayList<>();
+                timeRanges.add(range);
+                normalizedHours.add(new DailyHours(CompiledOpeningHours.weekdayKey(dayOfWeek), timeRanges));
             }
         }
-        
-        return rawText.toString();
+        openingHours.setNormalized(normalizedHours);
+        openingHours.setRaw(hours.getDescription());
+
+        return openingHours;
     }
     
-    /**
-     * Utility method to capitalize first letter of a string
-     */
-    private String capitalizeFirst(String str) {
-        if (str == null || str.isEmpty()) {
-            return str;
+    private static TimeRange declaredTimeRange(Object dayData) {
+        if (dayData instanceof Map<?, ?> dayMap
+                && dayMap.get("open") instanceof String open && dayMap.get("close") instanceof String close) {
+            return new TimeRange(open, close);
         }
-        return str.substring(0, 1).toUpperCase() + str.substring(1);
+        return null;
     }
-    
+
     /**
      * Utility method to safely convert BigDecimal to double
      */
@@ -1,21 +1,31 @@
 package org.laioffer.planner.Recommendation;
 
+import org.laioffer.planner.cache.ItineraryResponseCache;
+import org.laioffer.planner.cache.ItineraryStamp;
 import org.laioffer.planner.model.itinerary.GetRecommendationsResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/itineraries")
 public class RecommendationController {
     
     private final RecommendationService recommendationService;
+    private final ItineraryResponseCache responseCache;
     
     @Autowired
-    public RecommendationController(RecommendationService recommendationService) {
+    public RecommendationController(RecommendationService recommendationService,
+                                    ItineraryResponseCache responseCache) {
         this.recommendationService = recommendationService;
+        this.responseCache = responseCache;
     }
     
     /**
@@ -25,20 +35,44 @@ public class RecommendationController {
      * @param query Optional keyword to search for in place names/descriptions
      * @param page Page number (0-based), default 0
      * @param size Page size (1-200), default 20
-     * @return Paginated list of recommended places
+     * @param cursor Optional nextCursor from a previous page; continues after that place without OFFSET
+     * @param includeTotal Whether a cursor page should also count the matching places
+     * @param ifNoneMatch ETag from a previous response, if any
+     * @return Paginated list of recommended places, 304 if unchanged
      */
     @GetMapping("/{itineraryId}/recommendations")
     public ResponseEntity<GetRecommendationsResponse> getRecommendations(
             @PathVariable UUID itineraryId,
             @RequestParam(name = "query", required = false) String query,
             @RequestParam(name = "page", defaultValue = "0") int page,
-            @RequestParam(name = "size", defaultValue = "20") int size) {
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
         try {
-            GetRecommendationsResponse response = recommendationService.getRecommendations(
-                    itineraryId, query, page, size);
+            Supplier<GetRecommendationsResponse> loader = () -> cursor != null
+                    ? recommendationService.getRecommendationsAfter(itineraryId, query, cursor, size, includeTotal)
+                    : recommendationService.getRecommendations(itineraryId, query, page, size);
+
+            Optional<ItineraryStamp> stamp = itineraryId != null ? responseCache.stamp(itineraryId) : Optional.empty();
+            if (stamp.isEmpty()) {
+                return ResponseEntity.ok(loader.get());
+            }
+
+            String etag = stamp.get().etag();
+            if (stamp.get().matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+
+            String resource = "recommendations?query=" + query + "&page=" + page + "&size=" + size
+                    + "&cursor=" + cursor + "&includeTotal=" + includeTotal;
+            GetRecommendationsResponse response = responseCache.get(stamp.get(), resource, loader);
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(response);
             
         } catch (IllegalArgumentException e) {
             // Return 400 Bad Request for invalid parameters
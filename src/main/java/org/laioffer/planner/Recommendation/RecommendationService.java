@@ -1,12 +1,18 @@
 package org.laioffer.planner.Recommendation;
 
+import org.laioffer.planner.config.DatabaseFeatures;
 import org.laioffer.planner.entity.ItineraryPlaceEntity;
+import org.laioffer.planner.model.common.PageCursor;
 import org.laioffer.planner.model.common.PageMeta;
 import org.laioffer.planner.model.itinerary.GetRecommendationsResponse;
 import org.laioffer.planner.model.place.PlaceDTO;
+import org.laioffer.planner.place.PlaceCatalogCounter;
+import org.laioffer.planner.place.PlaceTextQuery;
 import org.laioffer.planner.repository.ItineraryPlaceRepository;
 import org.laioffer.planner.repository.PlaceRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -23,19 +29,30 @@ public class RecommendationService {
     private final ItineraryPlaceRepository itineraryPlaceRepository;
     private final PlaceRepository placeRepository;
     private final PlaceMapper placeMapper;
+    private final PlaceCatalogCounter placeCatalogCounter;
+    private final DatabaseFeatures databaseFeatures;
+    private final double minSimilarity;
     
     @Autowired
     public RecommendationService(
             ItineraryPlaceRepository itineraryPlaceRepository,
             PlaceRepository placeRepository,
-            PlaceMapper placeMapper) {
+            PlaceMapper placeMapper,
+            PlaceCatalogCounter placeCatalogCounter,
+            DatabaseFeatures databaseFeatures,
+            @Value("${app.search.min-similarity:0.3}") double minSimilarity) {
         this.itineraryPlaceRepository = itineraryPlaceRepository;
         this.placeRepository = placeRepository;
         this.placeMapper = placeMapper;
+        this.placeCatalogCounter = placeCatalogCounter;
+        this.databaseFeatures = databaseFeatures;
+        this.minSimilarity = minSimilarity;
     }
     
     /**
-     * Get recommendations for an itinerary, excluding pinned places
+     * Get recommendations for an itinerary, excluding pinned places.
+     * With a keyword, results are ordered by relevance (prefix and typo tolerant) when the database
+     * has the ranked search schema, and by name otherwise.
      * 
      * @param itineraryId UUID of the itinerary
      * @param query Optional keyword search
@@ -47,15 +64,28 @@ public class RecommendationService {
         // Validate input parameters
         validateInputs(itineraryId, page, size);
         
-        // Create pageable with sorting (by name for consistent results)
-        Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
-        
-        // Query all itinerary places that belong to this itinerary (both pinned and unpinned)
-        Page<ItineraryPlaceEntity> itineraryPlacePage = placeRepository.findItineraryPlacesByItinerary(
-                itineraryId,
-                sanitizeQuery(query), 
-                pageable
-        );
+        String keyword = sanitizeQuery(query);
+        Page<ItineraryPlaceEntity> itineraryPlacePage;
+        if (keyword != null && databaseFeatures.rankedSearch()) {
+            // Ranked full-text + trigram search; the query itself orders by relevance
+            itineraryPlacePage = itineraryPlaceRepository.searchRankedByItineraryId(
+                    itineraryId,
+                    PlaceTextQuery.toPrefixTsQuery(keyword),
+                    keyword,
+                    minSimilarity,
+                    PageRequest.of(page, size)
+            );
+        } else {
+            // Create pageable with sorting (by name, then id, so cursors can continue from any row)
+            Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending().and(Sort.by("id")));
+            
+            // Query all itinerary places that belong to this itinerary (both pinned and unpinned)
+            itineraryPlacePage = placeRepository.findItineraryPlacesByItinerary(
+                    itineraryId,
+                    keyword,
+                    pageable
+            );
+        }
         
         // Convert itinerary place entities to DTOs
         List<PlaceDTO> placeDTOs = itineraryPlacePage.getContent().stream()
@@ -69,9 +99,49 @@ public class RecommendationService {
                 itineraryPlacePage.getTotalElements(),
                 itineraryPlacePage.getTotalPages()
         );
+        if (orderedByName(keyword) && itineraryPlacePage.hasNext()) {
+            List<ItineraryPlaceEntity> content = itineraryPlacePage.getContent();
+            pageMeta.setNextCursor(cursorOf(content.get(content.size() - 1)));
+        }
         
         return new GetRecommendationsResponse(itineraryId, placeDTOs, pageMeta);
     }
+
+    /**
+     * Get the next keyset page of recommendations, ordered by name, after the given cursor.
+     * Relevance-ranked keyword search has no stable key to seek on and keeps page numbers.
+     *
+     * @param itineraryId UUID of the itinerary
+     * @param query Optional keyword search
+     * @param cursor nextCursor from the previous page
+     * @param size Page size
+     * @param includeTotal Whether to also count the matching places
+     * @return GetRecommendationsResponse with the next page
+     */
+    public GetRecommendationsResponse getRecommendationsAfter(UUID itineraryId, String query, String cursor,
+                                                              int size, boolean includeTotal) {
+        validateInputs(itineraryId, 0, size);
+
+        String keyword = sanitizeQuery(query);
+        if (!orderedByName(keyword)) {
+            throw new IllegalArgumentException("Cursor paging is not available for ranked keyword search");
+        }
+        PageCursor after = PageCursor.decode(cursor);
+
+        // One extra row tells whether another page follows
+        List<ItineraryPlaceEntity> rows = placeRepository.findItineraryPlacesByItineraryAfter(
+                itineraryId, keyword, after.key(), after.id(), Limit.of(size + 1));
+        boolean hasNext = rows.size() > size;
+        List<ItineraryPlaceEntity> items = hasNext ? rows.subList(0, size) : rows;
+
+        List<PlaceDTO> placeDTOs = items.stream()
+                .map(this::convertItineraryPlaceToDTO)
+                .collect(Collectors.toList());
+        Long total = includeTotal ? placeRepository.countItineraryPlacesByItinerary(itineraryId, keyword) : null;
+        PageMeta pageMeta = new PageMeta(size, total, hasNext ? cursorOf(items.get(size - 1)) : null);
+
+        return new GetRecommendationsResponse(itineraryId, placeDTOs, pageMeta);
+    }
     
     /**
      * Get statistics about recommendations for an itinerary
@@ -80,10 +150,12 @@ public class RecommendationService {
      * @return Statistics object with counts
      */
     public RecommendationStats getRecommendationStats(UUID itineraryId) {
-        long totalPlaces = placeRepository.count();
-        long pinnedPlaces = itineraryPlaceRepository.countByItineraryIdAndPinned(itineraryId, true);
-        long unpinnedPlaces = itineraryPlaceRepository.countByItineraryIdAndPinned(itineraryId, false);
-        long totalSaved = pinnedPlaces + unpinnedPlaces;
+        // Catalogue size comes from the in-memory counter; per-itinerary numbers from one aggregate query
+        long totalPlaces = placeCatalogCounter.getTotalPlaces();
+        ItineraryPlaceRepository.PlaceCounts counts = itineraryPlaceRepository.countPlacesByItineraryId(itineraryId);
+        long pinnedPlaces = counts.getPinned();
+        long unpinnedPlaces = counts.getTotal() - pinnedPlaces;
+        long totalSaved = counts.getTotal();
         long availableRecommendations = totalPlaces - pinnedPlaces;
         
         return new RecommendationStats(
@@ -112,6 +184,17 @@ public class RecommendationService {
         }
     }
     
+    /**
+     * Whether results are in (name, id) order, which cursors seek on, rather than relevance order
+     */
+    private boolean orderedByName(String keyword) {
+        return keyword == null || !databaseFeatures.rankedSearch();
+    }
+
+    private static String cursorOf(ItineraryPlaceEntity itineraryPlace) {
+        return PageCursor.of(itineraryPlace.getName(), itineraryPlace.getId()).encode();
+    }
+
     /**
      * Sanitize and prepare query string for search
      */
@@ -0,0 +1,29 @@
+package org.laioffer.planner.cache;
+
+/**
+ * Conditional request helpers for handlers that compute their own ETags
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header names the given entity tag (weak comparison)
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
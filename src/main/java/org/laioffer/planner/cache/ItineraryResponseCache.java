@@ -0,0 +1,70 @@
+package org.laioffer.planner.cache;
+
+import org.laioffer.planner.repository.ItineraryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Read-side cache for itinerary responses (detail, recommendations), two tiers deep:
+ * clients revalidate with {@code If-None-Match} against {@link ItineraryStamp#etag()} and get 304
+ * while nothing changed; otherwise the response object is served from heap if it was built under
+ * the current stamp. Reading the stamp is a single primary-key lookup.
+ *
+ * There is no explicit invalidation: every write path moves the itinerary's version or content
+ * version, so entries built under an older stamp simply stop matching and age out of the LRU.
+ */
+@Component
+public class ItineraryResponseCache {
+
+    private final ItineraryRepository itineraryRepository;
+    private final TtlCache<Key, Entry> responses;
+
+    public ItineraryResponseCache(ItineraryRepository itineraryRepository,
+                                  @Value("${app.cache.itinerary-responses.max-entries:5000}") int maxEntries,
+                                  @Value("${app.cache.itinerary-responses.ttl:PT10M}") Duration ttl) {
+        this.itineraryRepository = itineraryRepository;
+        this.responses = new TtlCache<>(maxEntries, ttl);
+    }
+
+    /**
+     * Current stamp of an itinerary owned by the user; empty if it does not exist or is not theirs
+     */
+    public Optional<ItineraryStamp> stamp(UUID itineraryId, Long userId) {
+        return itineraryRepository.findStampByIdAndUserId(itineraryId, userId);
+    }
+
+    public Optional<ItineraryStamp> stamp(UUID itineraryId) {
+        return itineraryRepository.findStampById(itineraryId);
+    }
+
+    /**
+     * Returns the response built for {@code resource} under this stamp, building and caching it on a
+     * miss. A null result (e.g. nothing to return) is passed through and not cached.
+     *
+     * @param resource resource name plus any request parameters that shape the response
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ItineraryStamp stamp, String resource, Supplier<T> loader) {
+        Key key = new Key(stamp.itineraryId(), resource);
+        Entry entry = responses.get(key);
+        if (entry != null && entry.stamp.equals(stamp)) {
+            return (T) entry.response;
+        }
+        T response = loader.get();
+        if (response != null) {
+            responses.put(key, new Entry(stamp, response));
+        }
+        return response;
+    }
+
+    private record Key(UUID itineraryId, String resource) {
+    }
+
+    private record Entry(ItineraryStamp stamp, Object response) {
+    }
+}
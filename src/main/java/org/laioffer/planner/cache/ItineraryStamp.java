@@ -0,0 +1,25 @@
+package org.laioffer.planner.cache;
+
+import java.util.UUID;
+
+/**
+ * Version stamp of an itinerary and everything read through it. {@code version} moves on every
+ * write to the itinerary row (status, plan saves); {@code contentVersion} on writes to the rows it
+ * owns. A response built under one stamp is valid for as long as the stamp is unchanged.
+ */
+public record ItineraryStamp(UUID itineraryId, Long version, Long contentVersion) {
+
+    /**
+     * Strong entity tag for a representation of the itinerary built under this stamp
+     */
+    public String etag() {
+        return "\"" + itineraryId + "-" + version + "." + contentVersion + "\"";
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header names this stamp's entity tag (weak comparison)
+     */
+    public boolean matches(String ifNoneMatch) {
+        return EntityTags.matches(ifNoneMatch, etag());
+    }
+}
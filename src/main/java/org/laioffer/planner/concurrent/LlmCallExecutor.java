@@ -0,0 +1,119 @@
+package org.laioffer.planner.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs blocking LLM calls off the caller's thread.
+ *
+ * With spring.threads.virtual.enabled every call gets its own virtual thread, so thousands of
+ * in-flight model round trips cost no platform threads. Otherwise calls run on a cached pool of
+ * platform threads, as before.
+ *
+ * {@link #invokeAllSettled} is a structured fan-out: every subtask has finished, failed or been
+ * cancelled before it returns, and one failure does not stop the rest, so callers can use partial
+ * results.
+ */
+@Component
+public class LlmCallExecutor implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(LlmCallExecutor.class);
+
+    private final boolean virtualThreads;
+    private final Duration timeout;
+    private final ExecutorService executor;
+    private final Scheduler scheduler;
+
+    public LlmCallExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                           @Value("${app.llm.call-timeout:PT3M}") Duration timeout) {
+        this.virtualThreads = virtualThreads;
+        this.timeout = timeout;
+        if (virtualThreads) {
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("llm-", 0).factory());
+            this.scheduler = Schedulers.fromExecutorService(executor, "llm");
+        } else {
+            this.executor = Executors.newCachedThreadPool(Thread.ofPlatform().name("llm-", 0).daemon(true).factory());
+            this.scheduler = Schedulers.boundedElastic();
+        }
+        logger.info("LLM calls run on {} threads", virtualThreads ? "virtual" : "platform");
+    }
+
+    /**
+     * Runs all tasks concurrently and returns one outcome per task, in task order, without failing
+     * fast. Tasks still running when the call timeout passes are interrupted and reported as failed.
+     */
+    public <T> List<Outcome<T>> invokeAllSettled(List<? extends Callable<T>> tasks) throws InterruptedException {
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        try {
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+
+            long deadline = System.nanoTime() + timeout.toNanos();
+            List<Outcome<T>> outcomes = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                try {
+                    outcomes.add(Outcome.success(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)));
+                } catch (ExecutionException e) {
+                    outcomes.add(Outcome.failure(e.getCause()));
+                } catch (TimeoutException e) {
+                    future.cancel(true);
+                    outcomes.add(Outcome.failure(new TimeoutException("LLM call did not finish within " + timeout)));
+                }
+            }
+            return outcomes;
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Reactor scheduler for blocking model calls inside reactive pipelines
+     */
+    public Scheduler scheduler() {
+        return scheduler;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Result of one task of {@link #invokeAllSettled}: either a value or the failure
+     */
+    public record Outcome<T>(T value, Throwable failure) {
+
+        static <T> Outcome<T> success(T value) {
+            return new Outcome<>(value, null);
+        }
+
+        static <T> Outcome<T> failure(Throwable failure) {
+            return new Outcome<>(null, failure);
+        }
+
+        public boolean isSuccess() {
+            return failure == null;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.laioffer.planner.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier, which in Java 21 happens when
+ * they block inside a synchronized block or a native frame (e.g. an old JDBC driver or HTTP client).
+ * Pinned threads hold a carrier thread, so a few hot pinned paths can stall every virtual thread.
+ *
+ * Listens for the JFR jdk.VirtualThreadPinned event, counts it in "threads.virtual.pinned" and logs
+ * each distinct blocking site once with its stack trace.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final Duration threshold;
+    private final Counter pinnedCounter;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream recording;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${app.threads.pinned-threshold:20ms}") Duration threshold) {
+        this.threshold = threshold;
+        this.pinnedCounter = Counter.builder("threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier thread")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (recording != null) {
+            return;
+        }
+        try {
+            recording = new RecordingStream();
+            recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            recording.onEvent(PINNED_EVENT, this::onPinned);
+            recording.startAsync();
+            logger.info("Watching for virtual threads pinned longer than {}", threshold);
+        } catch (Exception e) {
+            // JFR can be unavailable (e.g. some minimal runtimes); pinning is then simply not reported
+            logger.warn("Virtual thread pinning detection unavailable: {}", e.getMessage());
+            recording = null;
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+        String site = frames.stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(VirtualThreadPinningMonitor::describe)
+                .filter(frame -> !frame.startsWith("java.") && !frame.startsWith("jdk."))
+                .findFirst()
+                .orElse("unknown");
+        if (reportedSites.add(site)) {
+            String trace = frames.stream()
+                    .limit(LOGGED_FRAMES)
+                    .map(frame -> "\tat " + describe(frame))
+                    .collect(Collectors.joining("\n"));
+            logger.warn("Virtual thread pinned for {} ms at {}; replace synchronized blocking there with a "
+                    + "java.util.concurrent lock or run it on a platform thread\n{}",
+                    event.getDuration().toMillis(), site, trace);
+        }
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
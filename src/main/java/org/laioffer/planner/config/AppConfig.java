@@ -19,7 +19,13 @@ import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.DispatcherTypeRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.client.RestTemplate;
+import jakarta.servlet.DispatcherType;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -27,6 +33,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import java.time.Clock;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Configuration
 @EnableMethodSecurity(prePostEnabled = true)
@@ -53,6 +62,9 @@ public class AppConfig {
         .cors(cors -> cors.configurationSource(corsConfigurationSource))
         .authorizeHttpRequests(auth ->
             auth
+                    // Streamed responses (SSE) complete on an async dispatch of the already authorized request,
+                    // which carries no JWT of its own; only the streaming endpoints are let through
+                    .requestMatchers(asyncDispatchOf("/api/itineraries/*/events", "/api/itineraries/*/plan/stream")).permitAll()
                     .requestMatchers(PathRequest.toStaticResources().atCommonLocations()).permitAll()
                     .requestMatchers(HttpMethod.GET, "/", "/index.html", "/*.json", "/*.png",
                     "/static/**").permitAll()
@@ -67,6 +79,13 @@ public class AppConfig {
     return http.build();
   }
 
+  private static RequestMatcher asyncDispatchOf(String... patterns) {
+    List<RequestMatcher> paths = Arrays.stream(patterns)
+        .map(AntPathRequestMatcher::antMatcher)
+        .collect(Collectors.toList());
+    return new AndRequestMatcher(new DispatcherTypeRequestMatcher(DispatcherType.ASYNC), new OrRequestMatcher(paths));
+  }
+
   @Bean
   public CorsConfigurationSource corsConfigurationSource() {
     CorsConfiguration configuration = new CorsConfiguration();
@@ -0,0 +1,145 @@
+package org.laioffer.planner.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * PostgreSQL schema that Hibernate's ddl-auto cannot express (extensions, generated columns, GiST/GIN
+ * and partial indexes), and which database-specific features it makes available.
+ * Each script runs at startup once Hibernate has created or updated the tables, and is safe to re-run.
+ * A feature whose schema is still missing afterwards, e.g. because the PostGIS package is not
+ * installed on the server, is reported as unavailable so callers can fall back to portable queries.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class DatabaseFeatures {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseFeatures.class);
+
+    private static final String SPATIAL_PROBE =
+            "SELECT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'postgis') " +
+            "AND EXISTS (SELECT 1 FROM information_schema.columns " +
+            "WHERE table_name = 'places' AND column_name = 'location')";
+    private static final String RANKED_SEARCH_PROBE =
+            "SELECT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm') " +
+            "AND (SELECT count(*) FROM information_schema.columns WHERE column_name = 'search_vector' " +
+            "AND table_name IN ('places', 'itinerary_places')) = 2";
+    private static final String ACTIVE_PLAN_INDEX_PROBE =
+            "SELECT EXISTS (SELECT 1 FROM pg_indexes WHERE indexname = 'ux_plans_active_itinerary')";
+    private static final String DUPLICATE_ACTIVE_PLANS_QUERY =
+            "SELECT count(*) FROM (SELECT itinerary_id FROM plans WHERE is_active " +
+            "GROUP BY itinerary_id HAVING count(*) > 1) duplicates";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean applyScripts;
+    private boolean postgres;
+    private boolean spatialSearch;
+    private boolean rankedSearch;
+
+    public DatabaseFeatures(JdbcTemplate jdbcTemplate,
+                            @Value("${app.database.apply-feature-scripts:true}") boolean applyScripts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.applyScripts = applyScripts;
+    }
+
+    @PostConstruct
+    void initialize() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        postgres = "PostgreSQL".equalsIgnoreCase(product);
+        if (!postgres) {
+            logger.info("Database is {}, not PostgreSQL; spatial and ranked search are disabled", product);
+            return;
+        }
+
+        spatialSearch = enable("spatial place search", "postgis_extension.sql", SPATIAL_PROBE);
+        rankedSearch = enable("ranked text search", "text_search.sql", RANKED_SEARCH_PROBE);
+        requireOneActivePlanPerItinerary();
+        enable("one active plan per itinerary", "plan_constraints.sql", ACTIVE_PLAN_INDEX_PROBE);
+    }
+
+    /**
+     * Whether the connected database is PostgreSQL
+     */
+    public boolean isPostgres() {
+        return postgres;
+    }
+
+    /**
+     * Whether places.location and its PostGIS functions are available for nearby and bounding-box search
+     */
+    public boolean spatialSearch() {
+        return spatialSearch;
+    }
+
+    /**
+     * Whether the search_vector columns and pg_trgm are available for relevance-ranked keyword search
+     */
+    public boolean rankedSearch() {
+        return rankedSearch;
+    }
+
+    /**
+     * Applies the feature's script, then checks that the schema it needs exists
+     */
+    private boolean enable(String feature, String script, String probe) {
+        if (applyScripts) {
+            try {
+                jdbcTemplate.execute(readScript(script));
+            } catch (DataAccessException e) {
+                logger.error("Failed to apply {} for {}", script, feature, e);
+            }
+        }
+
+        boolean available;
+        try {
+            available = Boolean.TRUE.equals(jdbcTemplate.queryForObject(probe, Boolean.class));
+        } catch (DataAccessException e) {
+            logger.error("Failed to check the schema for {}", feature, e);
+            available = false;
+        }
+        if (available) {
+            logger.info("{} is enabled", feature);
+        } else {
+            logger.warn("{} is disabled: the schema from {} is missing", feature, script);
+        }
+        return available;
+    }
+
+    /**
+     * Fails startup while plans the unique index would reject exist; which of them stays active is
+     * for a one-off migration to decide, not for a script that runs on every start
+     */
+    private void requireOneActivePlanPerItinerary() {
+        if (!applyScripts || Boolean.TRUE.equals(jdbcTemplate.queryForObject(ACTIVE_PLAN_INDEX_PROBE, Boolean.class))) {
+            return;
+        }
+        Long itineraries = jdbcTemplate.queryForObject(DUPLICATE_ACTIVE_PLANS_QUERY, Long.class);
+        if (itineraries != null && itineraries > 0) {
+            throw new IllegalStateException(itineraries + " itineraries have more than one active plan. "
+                    + "Deactivate all but one active plan per itinerary before starting, "
+                    + "so that ux_plans_active_itinerary from plan_constraints.sql can be created.");
+        }
+    }
+
+    private static String readScript(String script) {
+        try (InputStream in = new ClassPathResource(script).getInputStream()) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + script, e);
+        }
+    }
+}
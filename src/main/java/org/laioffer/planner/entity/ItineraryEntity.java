@@ -18,7 +18,9 @@ import java.util.Set;
 import java.util.UUID;
 
 @Entity
-@Table(name = "itineraries")
+@Table(name = "itineraries", indexes = {
+    @Index(name = "idx_itineraries_user_created_id", columnList = "user_id, created_at, id")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class ItineraryEntity {
 
@@ -92,6 +94,22 @@ public class ItineraryEntity {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Optimistic lock for entity writes
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version = 0L;
+
+    // Last plan version saved for this itinerary, advanced together with the optimistic version on
+    // each plan save; a generated plan is saved only if it is unchanged since planning started.
+    // Null until the first save (plan_constraints.sql seeds it for older plans)
+    @Column(name = "plan_version")
+    private Integer planVersion;
+
+    // Bumped by writes to the itinerary's places (links, pins, notes) so cached reads can tell they
+    // are stale; only advanced by ItineraryPlaceRepository.bumpItineraryContentVersion, never by flushes
+    @Column(name = "content_version", updatable = false, columnDefinition = "bigint default 0")
+    private Long contentVersion = 0L;
+
     // Relationships
     @OneToMany(mappedBy = "itinerary", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<ItineraryPlaceEntity> itineraryPlaces = new HashSet<>();
@@ -103,6 +121,13 @@ public class ItineraryEntity {
     public UUID getId() { return id; }
     public void setId(UUID id) { this.id = id; }
 
+    public Long getVersion() { return version; }
+
+    public Integer getPlanVersion() { return planVersion; }
+    public void setPlanVersion(Integer planVersion) { this.planVersion = planVersion; }
+
+    public Long getContentVersion() { return contentVersion; }
+
     public UserEntity getUser() { return user; }
     public void setUser(UserEntity user) { this.user = user; }
 
@@ -10,6 +10,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "itinerary_places", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"itinerary_id", "place_id"})
+}, indexes = {
+    @Index(name = "idx_itinerary_places_itinerary_name_id", columnList = "itinerary_id, name, id")
 })
 @EntityListeners(AuditingEntityListener.class)
 public class ItineraryPlaceEntity {
@@ -0,0 +1,63 @@
+package org.laioffer.planner.entity;
+
+import io.hypersistence.utils.hibernate.type.json.JsonType;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Type;
+import org.laioffer.planner.itinerary.model.llm.POIRecommendationResponse;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persistent tier of the POI recommendation cache.
+ * Rows are keyed by the content hash of the recommendation profile so hits survive restarts.
+ */
+@Entity
+@Table(name = "poi_recommendation_cache", indexes = {
+    @Index(name = "idx_poi_recommendation_cache_expires_at", columnList = "expires_at")
+})
+public class POIRecommendationCacheEntity {
+
+    @Id
+    @Column(name = "cache_key", length = 64)
+    private String cacheKey;
+
+    @Column(name = "destination_city")
+    private String destinationCity;
+
+    @Type(JsonType.class)
+    @Column(name = "payload", columnDefinition = "jsonb", nullable = false)
+    private POIRecommendationResponse payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Constructors
+    public POIRecommendationCacheEntity() {}
+
+    public POIRecommendationCacheEntity(String cacheKey, String destinationCity,
+                                        POIRecommendationResponse payload, LocalDateTime expiresAt) {
+        this.cacheKey = cacheKey;
+        this.destinationCity = destinationCity;
+        this.payload = payload;
+        this.createdAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and Setters
+    public String getCacheKey() { return cacheKey; }
+    public void setCacheKey(String cacheKey) { this.cacheKey = cacheKey; }
+
+    public String getDestinationCity() { return destinationCity; }
+    public void setDestinationCity(String destinationCity) { this.destinationCity = destinationCity; }
+
+    public POIRecommendationResponse getPayload() { return payload; }
+    public void setPayload(POIRecommendationResponse payload) { this.payload = payload; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -3,6 +3,7 @@ package org.laioffer.planner.entity;
 import io.hypersistence.utils.hibernate.type.json.JsonType;
 import jakarta.persistence.*;
 import org.hibernate.annotations.Type;
+import org.laioffer.planner.place.PlaceDedupKey;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -15,7 +16,9 @@ import java.util.Set;
 import java.util.UUID;
 
 @Entity
-@Table(name = "places")
+@Table(name = "places", indexes = {
+    @Index(name = "idx_places_dedup_key", columnList = "dedup_key")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class PlaceEntity {
     
@@ -67,6 +70,10 @@ public class PlaceEntity {
     @Column(length = 50)
     private String source;
     
+    // Normalized name + geohash cell; see PlaceDedupKey
+    @Column(name = "dedup_key", length = 300)
+    private String dedupKey;
+    
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -126,6 +133,22 @@ public class PlaceEntity {
     public String getSource() { return source; }
     public void setSource(String source) { this.source = source; }
     
+    public String getDedupKey() { return dedupKey; }
+    public void setDedupKey(String dedupKey) { this.dedupKey = dedupKey; }
+    
+    /**
+     * Recomputes the catalogue dedup key from name, coordinates and address
+     */
+    public void refreshDedupKey() {
+        this.dedupKey = PlaceDedupKey.of(name, latitude, longitude, address);
+    }
+    
+    @PrePersist
+    @PreUpdate
+    public void refreshDerivedColumns() {
+        refreshDedupKey();
+    }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     
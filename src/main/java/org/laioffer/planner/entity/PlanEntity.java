@@ -1,18 +1,20 @@
 package org.laioffer.planner.entity;
 
-import io.hypersistence.utils.hibernate.type.json.JsonType;
 import jakarta.persistence.*;
-import org.hibernate.annotations.Type;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
-import java.util.Map;
 import java.util.UUID;
 
 @Entity
-@Table(name = "plans")
+@Table(name = "plans", uniqueConstraints = {
+        // One row per plan version; the one-active-plan rule is a partial unique index in plan_constraints.sql
+        @UniqueConstraint(name = "uk_plans_itinerary_version", columnNames = {"itinerary_id", "version"})
+})
 @EntityListeners(AuditingEntityListener.class)
 public class PlanEntity {
 
@@ -24,13 +26,33 @@ public class PlanEntity {
     @JoinColumn(name = "itinerary_id", nullable = false)
     private ItineraryEntity itinerary;
 
-    @Type(JsonType.class)
+    // Serialized PlanItineraryResponse; read and written by PlanDocumentCodec
+    @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "plan_data", columnDefinition = "jsonb", nullable = false)
-    private Map<String, Object> planData;
+    private String planData;
+
+    // Layout of planData; null for plans stored before the document was versioned
+    @Column(name = "schema_version")
+    private Integer schemaVersion;
 
     @Column(name = "version", nullable = false)
     private Integer version;
 
+    // False when planData holds a PlanDelta against baseVersion (the next newer version) instead of
+    // a full plan; null for plans stored before history was delta-encoded, which are all full
+    @Column(name = "is_snapshot")
+    private Boolean snapshot;
+
+    @Column(name = "base_version")
+    private Integer baseVersion;
+
+    // Counts kept beside the document so history summaries need not decode it
+    @Column(name = "day_count")
+    private Integer dayCount;
+
+    @Column(name = "stop_count")
+    private Integer stopCount;
+
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
 
@@ -45,11 +67,13 @@ public class PlanEntity {
     // Constructors
     public PlanEntity() {}
 
-    public PlanEntity(ItineraryEntity itinerary, Map<String, Object> planData, Integer version) {
+    public PlanEntity(ItineraryEntity itinerary, String planData, Integer schemaVersion, Integer version) {
         this.itinerary = itinerary;
         this.planData = planData;
+        this.schemaVersion = schemaVersion;
         this.version = version;
         this.isActive = true;
+        this.snapshot = true;
     }
 
     // Getters and Setters
@@ -69,14 +93,22 @@ public class PlanEntity {
         this.itinerary = itinerary;
     }
 
-    public Map<String, Object> getPlanData() {
+    public String getPlanData() {
         return planData;
     }
 
-    public void setPlanData(Map<String, Object> planData) {
+    public void setPlanData(String planData) {
         this.planData = planData;
     }
 
+    public Integer getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    public void setSchemaVersion(Integer schemaVersion) {
+        this.schemaVersion = schemaVersion;
+    }
+
     public Integer getVersion() {
         return version;
     }
@@ -85,6 +117,41 @@ public class PlanEntity {
         this.version = version;
     }
 
+    /**
+     * Whether planData is a full plan rather than a delta
+     */
+    public boolean isSnapshot() {
+        return snapshot == null || snapshot;
+    }
+
+    public void setSnapshot(Boolean snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public Integer getBaseVersion() {
+        return baseVersion;
+    }
+
+    public void setBaseVersion(Integer baseVersion) {
+        this.baseVersion = baseVersion;
+    }
+
+    public Integer getDayCount() {
+        return dayCount;
+    }
+
+    public void setDayCount(Integer dayCount) {
+        this.dayCount = dayCount;
+    }
+
+    public Integer getStopCount() {
+        return stopCount;
+    }
+
+    public void setStopCount(Integer stopCount) {
+        this.stopCount = stopCount;
+    }
+
     public Boolean getIsActive() {
         return isActive;
     }
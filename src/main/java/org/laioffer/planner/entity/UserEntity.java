@@ -2,6 +2,7 @@ package org.laioffer.planner.entity;
 
 import jakarta.persistence.*;
 import org.laioffer.planner.user.model.UserRole;
+import org.laioffer.planner.user.security.UserPrincipalEvictionListener;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -16,7 +17,7 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "users")
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, UserPrincipalEvictionListener.class})
 public class UserEntity implements UserDetails {
     
     @Id
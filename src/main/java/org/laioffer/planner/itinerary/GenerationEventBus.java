@@ -0,0 +1,111 @@
+package org.laioffer.planner.itinerary;
+
+import org.laioffer.planner.model.itinerary.GenerationStreamEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process fan-out of POI generation events to the clients watching an itinerary.
+ * Listens for the generation events published by the itinerary service and worker and forwards them,
+ * as {@link GenerationStreamEvent}s, to every open subscription. With the Postgres NOTIFY bridge
+ * enabled, events are relayed to the other nodes as well.
+ */
+@Component
+public class GenerationEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationEventBus.class);
+
+    private final Map<UUID, Set<Sinks.Many<GenerationStreamEvent>>> subscribers = new ConcurrentHashMap<>();
+    private final ObjectProvider<GenerationEventNotifyBridge> notifyBridge;
+
+    public GenerationEventBus(ObjectProvider<GenerationEventNotifyBridge> notifyBridge) {
+        this.notifyBridge = notifyBridge;
+    }
+
+    /**
+     * Registers a subscription right away, so nothing published after this call is missed even if the
+     * returned Flux is subscribed later. Events are buffered until then.
+     */
+    public Flux<GenerationStreamEvent> subscribe(UUID itineraryId) {
+        Sinks.Many<GenerationStreamEvent> sink = Sinks.many().unicast().onBackpressureBuffer();
+        // Added inside compute so a concurrent unsubscribe cannot drop the set we are adding to
+        subscribers.compute(itineraryId, (id, sinks) -> {
+            Set<Sinks.Many<GenerationStreamEvent>> registered = sinks != null ? sinks : ConcurrentHashMap.newKeySet();
+            registered.add(sink);
+            return registered;
+        });
+        return sink.asFlux().doFinally(signal -> unsubscribe(itineraryId, sink));
+    }
+
+    public int getSubscriberCount(UUID itineraryId) {
+        Set<Sinks.Many<GenerationStreamEvent>> sinks = subscribers.get(itineraryId);
+        return sinks != null ? sinks.size() : 0;
+    }
+
+    @EventListener
+    public void onStatus(PoiGenerationStatusEvent event) {
+        GenerationStreamEvent streamEvent = switch (event.getStatus()) {
+            case COMPLETED -> GenerationStreamEvent.complete(event.getGeneratedCount());
+            case FAILED -> GenerationStreamEvent.error(event.getGeneratedCount(), event.getMessage());
+            default -> GenerationStreamEvent.status(event.getStatus());
+        };
+        publish(event.getItineraryId(), streamEvent);
+    }
+
+    @EventListener
+    public void onProgress(PoiGenerationProgressEvent event) {
+        publish(event.getItineraryId(), GenerationStreamEvent.places(event.getPlaces(), event.getGeneratedCount()));
+    }
+
+    /**
+     * Delivers to local subscribers and relays to other nodes
+     */
+    public void publish(UUID itineraryId, GenerationStreamEvent event) {
+        deliver(itineraryId, event);
+        GenerationEventNotifyBridge bridge = notifyBridge.getIfAvailable();
+        if (bridge != null) {
+            bridge.relay(itineraryId, event);
+        }
+    }
+
+    /**
+     * Delivers to subscribers on this node only; used for events relayed from other nodes
+     */
+    public void deliver(UUID itineraryId, GenerationStreamEvent event) {
+        Set<Sinks.Many<GenerationStreamEvent>> sinks = subscribers.get(itineraryId);
+        if (sinks == null) {
+            return;
+        }
+        for (Sinks.Many<GenerationStreamEvent> sink : sinks) {
+            // Publishers run on different threads; a unicast sink needs serialized emissions
+            synchronized (sink) {
+                Sinks.EmitResult result = sink.tryEmitNext(event);
+                if (result.isFailure()) {
+                    logger.debug("Dropped generation event for itinerary {}: {}", itineraryId, result);
+                } else if (event.isTerminal()) {
+                    sink.tryEmitComplete();
+                }
+            }
+        }
+        if (event.isTerminal()) {
+            logger.debug("Generation for itinerary {} finished; notified {} subscribers", itineraryId, sinks.size());
+        }
+    }
+
+    private void unsubscribe(UUID itineraryId, Sinks.Many<GenerationStreamEvent> sink) {
+        subscribers.computeIfPresent(itineraryId, (id, sinks) -> {
+            sinks.remove(sink);
+            return sinks.isEmpty() ? null : sinks;
+        });
+    }
+}
@@ -0,0 +1,153 @@
+package org.laioffer.planner.itinerary;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.laioffer.planner.model.itinerary.GenerationStreamEvent;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Relays generation events between nodes with Postgres LISTEN/NOTIFY, for deployments where the node
+ * running the generation is not the one holding the client's event stream.
+ *
+ * Outgoing events are sent with pg_notify; one dedicated connection LISTENs on a daemon thread and
+ * hands events from other nodes to the local {@link GenerationEventBus}. NOTIFY payloads are limited
+ * to 8000 bytes, so oversized events are relayed without their places.
+ */
+@Component
+@ConditionalOnProperty(name = "app.generation.events.notify-enabled", havingValue = "true")
+public class GenerationEventNotifyBridge implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationEventNotifyBridge.class);
+    private static final String CHANNEL = "itinerary_generation_events";
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final int POLL_TIMEOUT_MILLIS = 5000;
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    // Identifies this node, so its own notifications are not delivered twice
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final GenerationEventBus eventBus;
+    private volatile boolean running;
+    private Thread listener;
+
+    public GenerationEventNotifyBridge(DataSource dataSource,
+                                       JdbcTemplate jdbcTemplate,
+                                       ObjectMapper objectMapper,
+                                       GenerationEventBus eventBus) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.eventBus = eventBus;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (listener != null) {
+            return;
+        }
+        running = true;
+        listener = Thread.ofPlatform().name("generation-events-listener").daemon(true).start(this::listen);
+    }
+
+    /**
+     * Sends an event published on this node to the other nodes
+     */
+    public void relay(UUID itineraryId, GenerationStreamEvent event) {
+        try {
+            String payload = toPayload(itineraryId, event);
+            if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES && event.getPlaces() != null) {
+                // Clients fetch the itinerary for the places when a "places" event arrives without them
+                GenerationStreamEvent trimmed = objectMapper.convertValue(event, GenerationStreamEvent.class);
+                trimmed.setPlaces(null);
+                payload = toPayload(itineraryId, trimmed);
+            }
+            jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, CHANNEL, payload);
+        } catch (Exception e) {
+            logger.warn("Failed to relay generation event for itinerary {}: {}", itineraryId, e.getMessage());
+        }
+    }
+
+    private String toPayload(UUID itineraryId, GenerationStreamEvent event) throws Exception {
+        ObjectNode payload = objectMapper.createObjectNode();
+        payload.put("node", nodeId);
+        payload.put("itineraryId", itineraryId.toString());
+        payload.set("event", objectMapper.valueToTree(event));
+        return objectMapper.writeValueAsString(payload);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                logger.info("Listening for generation events from other nodes on {}", CHANNEL);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Generation event listener failed, reconnecting in {} ms: {}", RECONNECT_DELAY_MILLIS, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void handle(String rawPayload) {
+        try {
+            JsonNode payload = objectMapper.readTree(rawPayload);
+            if (nodeId.equals(payload.path("node").asText())) {
+                return;
+            }
+            UUID itineraryId = UUID.fromString(payload.path("itineraryId").asText());
+            GenerationStreamEvent event = objectMapper.treeToValue(payload.path("event"), GenerationStreamEvent.class);
+            eventBus.deliver(itineraryId, event);
+        } catch (Exception e) {
+            logger.warn("Ignoring malformed generation event notification: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+            listener = null;
+        }
+    }
+}
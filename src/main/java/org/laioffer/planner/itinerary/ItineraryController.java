@@ -1,31 +1,42 @@
 package org.laioffer.planner.itinerary;
 
+import org.laioffer.planner.cache.ItineraryResponseCache;
+import org.laioffer.planner.cache.ItineraryStamp;
 import org.laioffer.planner.entity.ItineraryEntity;
 import org.laioffer.planner.entity.ItineraryPlaceEntity;
 import org.laioffer.planner.entity.PlaceEntity;
 import org.laioffer.planner.model.common.ActivityIntensity;
 import org.laioffer.planner.model.common.AttractionCategory;
 import org.laioffer.planner.model.common.GeoPoint;
+import org.laioffer.planner.model.common.PageCursor;
 import org.laioffer.planner.model.common.PageMeta;
 import org.laioffer.planner.model.itinerary.CreateItineraryRequest;
 import org.laioffer.planner.model.itinerary.CreateItineraryResponse;
 import org.laioffer.planner.entity.UserEntity;
+import org.laioffer.planner.model.itinerary.GenerationStreamEvent;
 import org.laioffer.planner.model.itinerary.GetItinerariesResponse;
 import org.laioffer.planner.model.itinerary.ItineraryDetailResponse;
 import org.laioffer.planner.model.itinerary.ItinerarySummaryDTO;
 import org.laioffer.planner.model.place.PlaceDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -37,8 +48,15 @@ public class ItineraryController {
     
     private static final Logger logger = LoggerFactory.getLogger(ItineraryController.class);
     private final ItineraryService itineraryService;
-    public ItineraryController(ItineraryService itineraryService) {
+    private final ItineraryResponseCache responseCache;
+    private final Duration eventsHeartbeat;
+
+    public ItineraryController(ItineraryService itineraryService,
+                               ItineraryResponseCache responseCache,
+                               @Value("${app.generation.events.heartbeat:15s}") Duration eventsHeartbeat) {
         this.itineraryService = itineraryService;
+        this.responseCache = responseCache;
+        this.eventsHeartbeat = eventsHeartbeat;
     }
     
     /**
@@ -79,25 +97,30 @@ public class ItineraryController {
     /**
      * Retrieves a paginated list of itineraries for the authenticated user
      *
-     * @param page Page number (0-indexed)
+     * @param page Page number (0-indexed), ignored when a cursor is given
      * @param size Page size
+     * @param cursor Keyset cursor from a previous page's nextCursor; continues after that row without OFFSET
+     * @param includeTotal Whether a cursor page should also count the user's itineraries
      * @param user Authenticated user from JWT token
-     * @return HTTP 200 OK with GetItinerariesResponse
+     * @return HTTP 200 OK with GetItinerariesResponse, 400 for an invalid cursor or a cursor page size outside 1-100
      */
     @GetMapping
     public ResponseEntity<GetItinerariesResponse> getUserItineraries(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             @AuthenticationPrincipal UserEntity user) {
-        logger.info("Fetching itineraries for user: {}, page: {}, size: {}",
-                user.getEmail(), page, size);
+        logger.info("Fetching itineraries for user: {}, page: {}, size: {}, cursor: {}",
+                user.getEmail(), page, size, cursor);
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<ItineraryEntity> itinerariesPage = itineraryService.getUserItineraries(user.getId(), pageable);
+        if (cursor != null) {
+            return getUserItinerariesAfter(cursor, size, includeTotal, user);
+        }
 
-        List<ItinerarySummaryDTO> summaries = itinerariesPage.getContent().stream()
-                .map(this::convertToSummaryDTO)
-                .collect(Collectors.toList());
+        Pageable pageable = PageRequest.of(page, size,
+                Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")));
+        Page<ItinerarySummaryDTO> itinerariesPage = itineraryService.getUserItineraries(user.getId(), pageable);
 
         PageMeta pageMeta = new PageMeta(
                 itinerariesPage.getNumber(),
@@ -105,56 +128,113 @@ public class ItineraryController {
                 itinerariesPage.getTotalElements(),
                 itinerariesPage.getTotalPages()
         );
+        if (itinerariesPage.hasNext()) {
+            List<ItinerarySummaryDTO> content = itinerariesPage.getContent();
+            pageMeta.setNextCursor(cursorOf(content.get(content.size() - 1)));
+        }
 
-        GetItinerariesResponse response = new GetItinerariesResponse(summaries, pageMeta);
+        GetItinerariesResponse response = new GetItinerariesResponse(itinerariesPage.getContent(), pageMeta);
         return ResponseEntity.ok(response);
     }
 
+    private ResponseEntity<GetItinerariesResponse> getUserItinerariesAfter(
+            String cursor, int size, boolean includeTotal, UserEntity user) {
+        if (size < 1 || size > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<ItinerarySummaryDTO> rows;
+        try {
+            // One extra row tells whether another page follows
+            rows = itineraryService.getUserItinerariesAfter(user.getId(), PageCursor.decode(cursor), size + 1);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid itinerary cursor from user {}: {}", user.getEmail(), e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<ItinerarySummaryDTO> items = hasNext ? rows.subList(0, size) : rows;
+        Long total = includeTotal ? itineraryService.countUserItineraries(user.getId()) : null;
+        PageMeta pageMeta = new PageMeta(size, total, hasNext ? cursorOf(items.get(size - 1)) : null);
+        return ResponseEntity.ok(new GetItinerariesResponse(items, pageMeta));
+    }
+
+    private static String cursorOf(ItinerarySummaryDTO summary) {
+        return PageCursor.of(summary.getCreatedAt(), summary.getId()).encode();
+    }
+
     /**
      * Retrieves detailed information about a specific itinerary
      *
      * @param itineraryId UUID of the itinerary
+     * @param ifNoneMatch ETag from a previous response, if any
      * @param user Authenticated user from JWT token
-     * @return HTTP 200 OK with ItineraryDetailResponse, 403 if not owner, 404 if not found
+     * @return HTTP 200 OK with ItineraryDetailResponse, 304 if unchanged, 403 if not owner, 404 if not found
      */
     @GetMapping("/{itineraryId}")
     public ResponseEntity<ItineraryDetailResponse> getItineraryById(
             @PathVariable UUID itineraryId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             @AuthenticationPrincipal UserEntity user) {
         logger.info("Fetching itinerary {} for user: {}", itineraryId, user.getEmail());
 
-        // Check ownership
-        if (!itineraryService.isItineraryOwnedByUser(itineraryId, user.getId())) {
+        // Check ownership; the stamp lookup doubles as the ownership check
+        Optional<ItineraryStamp> stamp = responseCache.stamp(itineraryId, user.getId());
+        if (stamp.isEmpty()) {
             logger.warn("User {} attempted to access itinerary {} they don't own",
                     user.getEmail(), itineraryId);
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        Optional<ItineraryEntity> itineraryOpt = itineraryService.getItineraryWithPlaces(itineraryId);
+        String etag = stamp.get().etag();
+        if (stamp.get().matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
 
-        if (itineraryOpt.isEmpty()) {
+        ItineraryDetailResponse response = responseCache.get(stamp.get(), "detail",
+                () -> itineraryService.getItineraryWithPlaces(itineraryId)
+                        .map(this::convertToDetailResponse)
+                        .orElse(null));
+        if (response == null) {
             logger.warn("Itinerary {} not found", itineraryId);
             return ResponseEntity.notFound().build();
         }
 
-        ItineraryDetailResponse response = convertToDetailResponse(itineraryOpt.get());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(response);
     }
 
     /**
-     * Converts ItineraryEntity to ItinerarySummaryDTO
+     * Streams POI generation progress as Server-Sent Events instead of polling GET /{itineraryId}.
+     * The first "snapshot" event carries the current status and the places linked so far; "status" and
+     * "places" events follow as generation runs, and the stream ends with "complete" or "error".
+     * Comment-only heartbeats keep idle connections open through proxies.
+     *
+     * @param itineraryId UUID of the itinerary
+     * @param user Authenticated user from JWT token
+     * @return SSE stream of generation events, 403 if not owner, 404 if not found
      */
-    private ItinerarySummaryDTO convertToSummaryDTO(ItineraryEntity entity) {
-        return new ItinerarySummaryDTO(
-                entity.getId(),
-                entity.getDestinationCity(),
-                entity.getStartDate(),
-                entity.getEndDate(),
-                entity.getTravelMode(),
-                entity.getBudgetInCents(),
-                entity.getTravelPace(),
-                entity.getCreatedAt()
-        );
+    @GetMapping(value = "/{itineraryId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<GenerationStreamEvent>>> streamGenerationEvents(
+            @PathVariable UUID itineraryId,
+            @AuthenticationPrincipal UserEntity user) {
+
+        if (!itineraryService.isItineraryOwnedByUser(itineraryId, user.getId())) {
+            logger.warn("User {} attempted to watch itinerary {} they don't own", user.getEmail(), itineraryId);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return itineraryService.streamGenerationEvents(itineraryId)
+                .map(events -> {
+                    Flux<ServerSentEvent<GenerationStreamEvent>> data = events
+                            .map(event -> ServerSentEvent.builder(event).event(event.getType()).build());
+                    Flux<ServerSentEvent<GenerationStreamEvent>> heartbeats = Flux.interval(eventsHeartbeat)
+                            .map(tick -> ServerSentEvent.<GenerationStreamEvent>builder().comment("keep-alive").build());
+                    return ResponseEntity.ok(Flux.merge(data, heartbeats)
+                            .takeUntil(event -> event.data() != null && event.data().isTerminal()));
+                })
+                .orElse(ResponseEntity.notFound().build());
     }
 
     /**
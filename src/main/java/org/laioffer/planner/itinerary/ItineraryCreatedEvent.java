@@ -8,10 +8,12 @@ import java.util.UUID;
  */
 public class ItineraryCreatedEvent {
     private final UUID itineraryId;
+    private final Long userId;
     private final int poiCount;
 
-    public ItineraryCreatedEvent(UUID itineraryId, int poiCount) {
+    public ItineraryCreatedEvent(UUID itineraryId, Long userId, int poiCount) {
         this.itineraryId = itineraryId;
+        this.userId = userId;
         this.poiCount = poiCount;
     }
 
@@ -19,6 +21,10 @@ public class ItineraryCreatedEvent {
         return itineraryId;
     }
 
+    public Long getUserId() {
+        return userId;
+    }
+
     public int getPoiCount() {
         return poiCount;
     }
@@ -1,11 +1,16 @@
 package org.laioffer.planner.itinerary;
 
+import org.laioffer.planner.model.common.PageCursor;
 import org.laioffer.planner.model.itinerary.CreateItineraryRequest;
 import org.laioffer.planner.entity.ItineraryEntity;
 import org.laioffer.planner.entity.UserEntity;
+import org.laioffer.planner.model.itinerary.GenerationStreamEvent;
+import org.laioffer.planner.model.itinerary.ItinerarySummaryDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -39,19 +44,43 @@ public interface ItineraryService {
     boolean isItineraryOwnedByUser(UUID itineraryId, Long userId);
 
     /**
-     * Retrieves a paginated list of itineraries for a specific user
+     * Retrieves a paginated list of itinerary summaries for a specific user, read as a projection
      *
      * @param userId The ID of the user
      * @param pageable Pagination information
-     * @return Page of itinerary entities
+     * @return Page of itinerary summaries
      */
-    Page<ItineraryEntity> getUserItineraries(Long userId, Pageable pageable);
+    Page<ItinerarySummaryDTO> getUserItineraries(Long userId, Pageable pageable);
 
     /**
-     * Retrieves an itinerary with its associated places eagerly loaded
+     * Retrieves the next keyset page of itinerary summaries, newest first, after the given cursor
+     *
+     * @param userId The ID of the user
+     * @param after Cursor of the last summary already returned
+     * @param limit Maximum number of summaries to return
+     * @return Summaries following the cursor
+     */
+    List<ItinerarySummaryDTO> getUserItinerariesAfter(Long userId, PageCursor after, int limit);
+
+    /**
+     * Counts a user's itineraries
+     */
+    long countUserItineraries(Long userId);
+
+    /**
+     * Retrieves an itinerary with its associated places and their place rows in a single query
      *
      * @param itineraryId The UUID of the itinerary
      * @return Optional containing the itinerary with places if found
      */
     Optional<ItineraryEntity> getItineraryWithPlaces(UUID itineraryId);
-}
\ No newline at end of file
+
+    /**
+     * Live POI generation events for an itinerary: a snapshot of the current status and linked places,
+     * then status changes and newly linked places until generation completes or fails
+     *
+     * @param itineraryId The UUID of the itinerary
+     * @return Optional containing the event stream if the itinerary exists
+     */
+    Optional<Flux<GenerationStreamEvent>> streamGenerationEvents(UUID itineraryId);
+}
@@ -1,22 +1,28 @@
 package org.laioffer.planner.itinerary;
 
+import org.laioffer.planner.Recommendation.PlaceMapper;
+import org.laioffer.planner.model.common.PageCursor;
 import org.laioffer.planner.model.itinerary.CreateItineraryRequest;
-import org.laioffer.planner.model.place.PlaceDTO;
 import org.laioffer.planner.model.common.TravelPace;
 import org.laioffer.planner.entity.ItineraryEntity;
-import org.laioffer.planner.entity.PlaceEntity;
 import org.laioffer.planner.entity.UserEntity;
+import org.laioffer.planner.model.itinerary.GenerationStatus;
+import org.laioffer.planner.model.itinerary.GenerationStreamEvent;
+import org.laioffer.planner.model.itinerary.ItinerarySummaryDTO;
+import org.laioffer.planner.model.place.PlaceDTO;
+import org.laioffer.planner.repository.ItineraryPlaceRepository;
 import org.laioffer.planner.repository.ItineraryRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Flux;
 
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
@@ -33,18 +39,27 @@ public class ItineraryServiceImpl implements ItineraryService {
     private static final int MAX_STAYING_DAYS = 7;
 
     private final ItineraryRepository itineraryRepository;
-    private final LangChain4jLLMService llmService;
-    private final POIService poiService;
+    private final PoiGenerationScheduler generationScheduler;
+    private final PoiGenerationWorker generationWorker;
     private final ApplicationEventPublisher eventPublisher;
+    private final ItineraryPlaceRepository itineraryPlaceRepository;
+    private final PlaceMapper placeMapper;
+    private final GenerationEventBus generationEventBus;
 
     public ItineraryServiceImpl(ItineraryRepository itineraryRepository,
-                               LangChain4jLLMService llmService,
-                               POIService poiService,
-                               ApplicationEventPublisher eventPublisher) {
+                               PoiGenerationScheduler generationScheduler,
+                               PoiGenerationWorker generationWorker,
+                               ApplicationEventPublisher eventPublisher,
+                               ItineraryPlaceRepository itineraryPlaceRepository,
+                               PlaceMapper placeMapper,
+                               GenerationEventBus generationEventBus) {
         this.itineraryRepository = itineraryRepository;
-        this.llmService = llmService;
-        this.poiService = poiService;
+        this.generationScheduler = generationScheduler;
+        this.generationWorker = generationWorker;
         this.eventPublisher = eventPublisher;
+        this.itineraryPlaceRepository = itineraryPlaceRepository;
+        this.placeMapper = placeMapper;
+        this.generationEventBus = generationEventBus;
     }
 
     @Override
@@ -95,66 +110,17 @@ public class ItineraryServiceImpl implements ItineraryService {
         aiMetadata.put("generation_pending", true);
         itinerary.setAiMetadata(aiMetadata);
 
-        logger.info("🔍 DEBUG - Before saving to DB: travelPace={}, activityIntensity={}",
-                itinerary.getTravelPace(), itinerary.getActivityIntensity());
-
         ItineraryEntity savedItinerary = itineraryRepository.save(itinerary);
 
-        logger.info("🔍 DEBUG - After saving to DB: travelPace={}, activityIntensity={}",
-                savedItinerary.getTravelPace(), savedItinerary.getActivityIntensity());
-
         logger.info("Successfully created itinerary: {} for user: {}",
                 savedItinerary.getId(), user.getId());
 
         // Publish event to trigger async POI generation after transaction commits
-        eventPublisher.publishEvent(new ItineraryCreatedEvent(savedItinerary.getId(), poiCount));
+        eventPublisher.publishEvent(new ItineraryCreatedEvent(savedItinerary.getId(), user.getId(), poiCount));
 
         return savedItinerary;
     }
 
-    /**
-     * Generates POI recommendations using LLM
-     * Called from async event listener after transaction commits
-     */
-    @Transactional
-    public void generatePlacesAsync(UUID itineraryId, int poiCount) {
-        logger.info("Starting async POI generation for itinerary: {}", itineraryId);
-
-        // Re-fetch the itinerary in this transaction context
-        Optional<ItineraryEntity> itineraryOpt = itineraryRepository.findById(itineraryId);
-        if (itineraryOpt.isEmpty()) {
-            logger.error("Itinerary {} not found for async generation", itineraryId);
-            return;
-        }
-
-        ItineraryEntity itinerary = itineraryOpt.get();
-        Map<String, Object> aiMetadata = itinerary.getAiMetadata();
-        if (aiMetadata == null) {
-            aiMetadata = new HashMap<>();
-        }
-
-        try {
-            List<PlaceDTO> recommendedPlaces = llmService.generatePOIRecommendations(itinerary, poiCount);
-            List<PlaceEntity> createdPlaces = poiService.createAndAddPlacesToItinerary(recommendedPlaces, itinerary);
-
-            aiMetadata.put("generation_pending", false);
-            aiMetadata.put("generated_places_count", createdPlaces.size());
-            itinerary.setAiMetadata(aiMetadata);
-
-            itineraryRepository.save(itinerary);
-
-            logger.info("Successfully generated {} POI recommendations for itinerary: {}",
-                    createdPlaces.size(), itinerary.getId());
-
-        } catch (Exception e) {
-            logger.error("Failed to generate POI recommendations for itinerary: {}", itinerary.getId(), e);
-            aiMetadata.put("generation_pending", false);
-            aiMetadata.put("generation_error", e.getMessage());
-            itinerary.setAiMetadata(aiMetadata);
-            itineraryRepository.save(itinerary);
-        }
-    }
-
     @Override
     public Optional<ItineraryEntity> getItinerary(UUID itineraryId) {
         return itineraryRepository.findById(itineraryId);
@@ -224,32 +190,91 @@ public class ItineraryServiceImpl implements ItineraryService {
     }
 
     @Override
-    public Page<ItineraryEntity> getUserItineraries(Long userId, Pageable pageable) {
+    public Page<ItinerarySummaryDTO> getUserItineraries(Long userId, Pageable pageable) {
         logger.debug("Fetching itineraries for user: {} with pagination: {}", userId, pageable);
-        return itineraryRepository.findByUserId(userId, pageable);
+        return itineraryRepository.findSummariesByUserId(userId, pageable);
     }
 
     @Override
-    public Optional<ItineraryEntity> getItineraryWithPlaces(UUID itineraryId) {
-        logger.debug("Fetching itinerary with places: {}", itineraryId);
-        Optional<ItineraryEntity> itineraryOpt = itineraryRepository.findById(itineraryId);
+    public List<ItinerarySummaryDTO> getUserItinerariesAfter(Long userId, PageCursor after, int limit) {
+        logger.debug("Fetching {} itineraries for user: {} after {}", limit, userId, after);
+        return itineraryRepository.findSummariesByUserIdAfter(userId, after.keyAsDateTime(), after.id(), Limit.of(limit));
+    }
 
-        // Eagerly load the places to avoid lazy loading issues
-        itineraryOpt.ifPresent(itinerary -> {
-            itinerary.getItineraryPlaces().size(); // Force initialization
-        });
+    @Override
+    public long countUserItineraries(Long userId) {
+        return itineraryRepository.countByUserId(userId);
+    }
 
-        return itineraryOpt;
+    @Override
+    public Optional<ItineraryEntity> getItineraryWithPlaces(UUID itineraryId) {
+        logger.debug("Fetching itinerary with places: {}", itineraryId);
+        return itineraryRepository.findWithPlacesById(itineraryId);
     }
 
     /**
-     * Event listener that triggers async POI generation after transaction commits
-     * This ensures the itinerary is persisted before async processing begins
+     * Event listener that queues POI generation after transaction commits
+     * This ensures the itinerary is persisted before async processing begins.
+     * If the generation queue is full the itinerary is parked and retried later.
      */
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
-    @Async
     public void handleItineraryCreated(ItineraryCreatedEvent event) {
         logger.info("Handling ItineraryCreatedEvent for itinerary: {}", event.getItineraryId());
-        generatePlacesAsync(event.getItineraryId(), event.getPoiCount());
+        if (generationScheduler.submit(event.getItineraryId(), event.getUserId(), event.getPoiCount())) {
+            eventPublisher.publishEvent(new PoiGenerationStatusEvent(event.getItineraryId(), GenerationStatus.QUEUED, 0, null));
+        } else {
+            generationWorker.markForRetry(event.getItineraryId());
+            eventPublisher.publishEvent(new PoiGenerationStatusEvent(event.getItineraryId(), GenerationStatus.PARKED, 0, null));
+        }
+    }
+
+    /**
+     * Subscribes to the event bus before reading the snapshot, so no event falls between the two.
+     * An event published in between can repeat what the snapshot already shows; clients key places by id.
+     * Finished generations get the snapshot alone. The registration is released on every path that
+     * does not hand the live stream to the caller, including a failed snapshot read.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Flux<GenerationStreamEvent>> streamGenerationEvents(UUID itineraryId) {
+        Flux<GenerationStreamEvent> live = generationEventBus.subscribe(itineraryId);
+        boolean liveHandedOff = false;
+        try {
+            Optional<ItineraryEntity> itineraryOpt = itineraryRepository.findById(itineraryId);
+            if (itineraryOpt.isEmpty()) {
+                return Optional.empty();
+            }
+
+            Map<String, Object> aiMetadata = itineraryOpt.get().getAiMetadata() != null
+                    ? itineraryOpt.get().getAiMetadata()
+                    : Map.of();
+            List<PlaceDTO> places = itineraryPlaceRepository.findAllWithPlaceByItineraryId(itineraryId).stream()
+                    .map(itineraryPlace -> placeMapper.toPlaceDTO(itineraryPlace.getPlace()))
+                    .toList();
+            GenerationStatus status = currentStatus(aiMetadata, places.size());
+            Object error = aiMetadata.get("generation_error");
+            GenerationStreamEvent snapshot = GenerationStreamEvent.snapshot(status, places,
+                    status == GenerationStatus.FAILED && error != null ? error.toString() : null);
+
+            if (status.isTerminal()) {
+                return Optional.of(Flux.just(snapshot));
+            }
+            liveHandedOff = true;
+            return Optional.of(Flux.concat(Flux.just(snapshot), live));
+        } finally {
+            if (!liveHandedOff) {
+                live.subscribe().dispose(); // Releases the registration
+            }
+        }
+    }
+
+    private static GenerationStatus currentStatus(Map<String, Object> aiMetadata, int linkedPlaces) {
+        if (!Boolean.TRUE.equals(aiMetadata.get("generation_pending"))) {
+            return aiMetadata.containsKey("generation_error") ? GenerationStatus.FAILED : GenerationStatus.COMPLETED;
+        }
+        if (Boolean.TRUE.equals(aiMetadata.get("generation_retry"))) {
+            return GenerationStatus.PARKED;
+        }
+        return linkedPlaces > 0 ? GenerationStatus.RUNNING : GenerationStatus.QUEUED;
     }
 }
@@ -1,57 +1,182 @@
 package org.laioffer.planner.itinerary;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.input.PromptTemplate;
+import io.micrometer.core.instrument.Timer;
+import org.laioffer.planner.concurrent.LlmCallExecutor;
+import org.laioffer.planner.llm.LlmMetrics;
+import org.laioffer.planner.llm.NdjsonStreamingHandler;
 import org.laioffer.planner.model.place.PlaceDTO;
 import org.laioffer.planner.model.common.GeoPoint;
 import org.laioffer.planner.model.place.ContactDTO;
 import org.laioffer.planner.model.place.OpeningHoursDTO;
 import org.laioffer.planner.entity.ItineraryEntity;
+import org.laioffer.planner.itinerary.model.llm.POIRecommendationProfile;
 import org.laioffer.planner.itinerary.model.llm.POIRecommendationResponse;
 import org.laioffer.planner.itinerary.model.llm.LLMRecommendedPOI;
+import org.laioffer.planner.place.PlaceDedupKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Service
 public class LangChain4jLLMService {
     
     private static final Logger logger = LoggerFactory.getLogger(LangChain4jLLMService.class);
     private static final int MAX_RETRIES = 3;
+    private static final Object END_OF_STREAM = new Object();
+    private static final String OP_RECOMMEND = "poi.recommend";
+    private static final String OP_STREAM = "poi.stream";
+    private static final String OP_SHARD = "poi.shard";
     
     private final POIRecommendationService poiRecommendationService;
+    private final POIRecommendationCache recommendationCache;
+    private final LlmCallExecutor llmCallExecutor;
+    private final LlmMetrics llmMetrics;
+    private final boolean shardingEnabled;
+    private final int maxShards;
+    private final int minPlacesPerShard;
+    private final List<String> shardAreas;
+    private final ObjectProvider<StreamingChatLanguageModel> streamingChatModel;
+    private final ObjectReader poiReader;
+    private final boolean streamingEnabled;
+    private final Duration streamTimeout;
     
-    public LangChain4jLLMService(POIRecommendationService poiRecommendationService) {
+    public LangChain4jLLMService(POIRecommendationService poiRecommendationService,
+                                 POIRecommendationCache recommendationCache,
+                                 LlmCallExecutor llmCallExecutor,
+                                 LlmMetrics llmMetrics,
+                                 ObjectProvider<StreamingChatLanguageModel> streamingChatModel,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.generation.streaming-enabled:false}") boolean streamingEnabled,
+                                 @Value("${app.llm.call-timeout:PT3M}") Duration streamTimeout,
+                                 @Value("${app.generation.sharding.enabled:false}") boolean shardingEnabled,
+                                 @Value("${app.generation.sharding.max-shards:4}") int maxShards,
+                                 @Value("${app.generation.sharding.min-places-per-shard:3}") int minPlacesPerShard,
+                                 @Value("${app.generation.sharding.areas:city center,north,south,east,west}") List<String> shardAreas) {
         this.poiRecommendationService = poiRecommendationService;
+        this.recommendationCache = recommendationCache;
+        this.llmCallExecutor = llmCallExecutor;
+        this.llmMetrics = llmMetrics;
+        this.shardingEnabled = shardingEnabled;
+        this.maxShards = maxShards;
+        this.minPlacesPerShard = Math.max(1, minPlacesPerShard);
+        this.shardAreas = shardAreas;
+        this.streamingChatModel = streamingChatModel;
+        this.streamingEnabled = streamingEnabled;
+        this.streamTimeout = streamTimeout;
+        // The model may add fields we do not map; a streamed place should not be lost for that
+        this.poiReader = objectMapper.readerFor(LLMRecommendedPOI.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    /**
+     * Progressive variant of {@link #generatePOIRecommendations(ItineraryEntity, int)}: places are handed to
+     * onPlaces as soon as they are available. With a streaming model the model writes one place per line
+     * and each valid place is delivered on its own; cached, sharded and blocking results arrive in one batch.
+     * onPlaces runs on the calling thread, never on the model client's callback thread.
+     *
+     * @return Number of places handed to onPlaces
+     */
+    public int generatePOIRecommendations(ItineraryEntity itinerary, int maxRecommendations,
+                                          Consumer<List<PlaceDTO>> onPlaces) throws Exception {
+        // Sharding already splits the output; streaming applies to the single-completion path
+        StreamingChatLanguageModel model = streamingEnabled && !shardingEnabled ? streamingChatModel.getIfAvailable() : null;
+        if (model != null) {
+            POIRecommendationProfile profile = POIRecommendationProfile.from(itinerary, maxRecommendations);
+            List<PlaceDTO> cached = cachedPlaces(profile, itinerary.getId());
+            if (!cached.isEmpty()) {
+                onPlaces.accept(cached);
+                return cached.size();
+            }
+
+            int streamed = streamRecommendations(model, profile, itinerary.getId(), onPlaces);
+            if (streamed > 0) {
+                return streamed;
+            }
+            logger.warn("No POIs streamed for itinerary {}, using blocking generation", itinerary.getId());
+        }
+
+        List<PlaceDTO> places = generatePOIRecommendations(itinerary, maxRecommendations);
+        onPlaces.accept(places);
+        return places.size();
     }
     
     public List<PlaceDTO> generatePOIRecommendations(ItineraryEntity itinerary, int maxRecommendations) throws Exception {
+        POIRecommendationProfile profile = POIRecommendationProfile.from(itinerary, maxRecommendations);
+
+        // Serve identical trip profiles from the cache without an LLM round trip
+        List<PlaceDTO> cached = cachedPlaces(profile, itinerary.getId());
+        if (!cached.isEmpty()) {
+            return cached;
+        }
+
+        if (shardingEnabled) {
+            List<PlaceDTO> places = generateSharded(profile, itinerary.getId());
+            if (!places.isEmpty()) {
+                return places;
+            }
+        }
+
         List<String> errorLog = new ArrayList<>();
         
         for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
+            Timer.Sample sample = llmMetrics.start();
+            boolean responded = false;
             try {
                 logger.debug("LangChain4j generation attempt {} for itinerary {}", attempt, itinerary.getId());
                 
                 POIRecommendationResponse response;
                 if (attempt == 1) {
-                    response = generateInitialRecommendations(itinerary, maxRecommendations);
+                    response = generateInitialRecommendations(profile);
                 } else {
                     response = generateRecommendationsWithErrorFeedback(itinerary, maxRecommendations, errorLog);
                 }
+                responded = true;
                 
                 List<PlaceDTO> places = convertToDTOs(response);
                 
                 if (!places.isEmpty()) {
-                    logger.info("Successfully generated {} POI recommendations for itinerary {} using LangChain4j", 
+                    // Cache before recording success: a throw past this point would record the attempt twice
+                    recommendationCache.put(profile, response);
+                    llmMetrics.attempt(sample, OP_RECOMMEND, attempt, LlmMetrics.OUTCOME_SUCCESS);
+                    logger.info("Successfully generated {} POI recommendations for itinerary {} using LangChain4j",
                             places.size(), itinerary.getId());
                     return places;
                 }
                 
+                llmMetrics.attempt(sample, OP_RECOMMEND, attempt, LlmMetrics.OUTCOME_EMPTY);
+                if (attempt < MAX_RETRIES) {
+                    llmMetrics.retry(OP_RECOMMEND, LlmMetrics.CAUSE_EMPTY_RESPONSE);
+                }
                 errorLog.add("No valid places were returned from the AI service");
                 
             } catch (Exception e) {
+                llmMetrics.attempt(sample, OP_RECOMMEND, attempt, LlmMetrics.OUTCOME_ERROR);
+                // The model answered but none of its places passed validation
+                String cause = responded ? LlmMetrics.CAUSE_INVALID_OUTPUT : LlmMetrics.causeOf(e);
                 String errorMessage = "Attempt " + attempt + " failed: " + e.getMessage();
                 errorLog.add(errorMessage);
                 
@@ -59,68 +184,295 @@ public class LangChain4jLLMService {
                         attempt, itinerary.getId(), e.getMessage());
                 
                 if (attempt == MAX_RETRIES) {
+                    llmMetrics.failure(OP_RECOMMEND, cause);
                     throw new Exception("Failed to generate POI recommendations after " + MAX_RETRIES + " attempts using LangChain4j. Errors: " + String.join("; ", errorLog), e);
                 }
+                llmMetrics.retry(OP_RECOMMEND, cause);
             }
         }
         
+        llmMetrics.failure(OP_RECOMMEND, LlmMetrics.CAUSE_EMPTY_RESPONSE);
         throw new Exception("Failed to generate valid POI recommendations using LangChain4j. Errors: " + String.join("; ", errorLog));
     }
     
-    private POIRecommendationResponse generateInitialRecommendations(ItineraryEntity itinerary, int maxRecommendations) {
-        // Provide non-null default values for ALL fields to avoid LangChain4j template errors
-        // Mustache templates require all variables to exist, even in conditional blocks
+    private List<PlaceDTO> cachedPlaces(POIRecommendationProfile profile, UUID itineraryId) throws Exception {
+        Optional<POIRecommendationResponse> cached = recommendationCache.get(profile);
+        if (cached.isPresent()) {
+            List<PlaceDTO> places = convertToDTOs(cached.get());
+            if (!places.isEmpty()) {
+                logger.info("Served {} cached POI recommendations for itinerary {}", places.size(), itineraryId);
+                return places;
+            }
+        }
+        return new ArrayList<>();
+    }
 
-        Integer budgetInCents = itinerary.getBudgetInCents() != null ? itinerary.getBudgetInCents() : 0;
-        Double budgetInDollars = budgetInCents / 100.0;
-        String travelMode = itinerary.getTravelMode() != null ? itinerary.getTravelMode().toString() : "WALKING";
+    /**
+     * Streams newline-delimited POIs from the model. Lines are parsed, validated with the convertToDTO
+     * rules and deduplicated as they arrive; each valid place goes to onPlaces immediately. A stream that
+     * fails midway keeps what was already delivered. A fully streamed response is cached like a blocking one.
+     *
+     * @return Number of places delivered; 0 if the stream failed before producing a valid place
+     */
+    private int streamRecommendations(StreamingChatLanguageModel model, POIRecommendationProfile profile,
+                                      UUID itineraryId, Consumer<List<PlaceDTO>> onPlaces) throws InterruptedException {
+        List<ChatMessage> messages = List.of(
+                SystemMessage.from(POIRecommendationService.SYSTEM_PROMPT),
+                UserMessage.from(buildStreamingPrompt(profile)));
 
-        // Calculate staying days
-        Integer stayingDays = 1;
-        if (itinerary.getStartDate() != null && itinerary.getEndDate() != null) {
-            long daysBetween = java.time.temporal.ChronoUnit.DAYS.between(
-                itinerary.getStartDate().toLocalDate(),
-                itinerary.getEndDate().toLocalDate()
-            );
-            stayingDays = (int) daysBetween;
-            if (stayingDays == 0) {
-                stayingDays = 1;
-            }
-        }
-
-        // Extract user preferences with non-null defaults
-        String travelPace = itinerary.getTravelPace() != null ? itinerary.getTravelPace().toString() : "MODERATE";
-        String activityIntensity = itinerary.getActivityIntensity() != null ? itinerary.getActivityIntensity().toString() : "MODERATE";
-        Integer numberOfTravelers = itinerary.getNumberOfTravelers() != null ? itinerary.getNumberOfTravelers() : 1;
-        Boolean hasChildren = itinerary.getHasChildren() != null ? itinerary.getHasChildren() : false;
-        Boolean hasElderly = itinerary.getHasElderly() != null ? itinerary.getHasElderly() : false;
-        Boolean preferPopularAttractions = itinerary.getPreferPopularAttractions() != null ? itinerary.getPreferPopularAttractions() : true;
-        // Fetch from entity (now eagerly loaded)
-        java.util.List<String> preferredCategories = itinerary.getPreferredCategories();
-        if (preferredCategories == null) {
-            preferredCategories = new ArrayList<>();  // Ensure non-null for template
-        }
-        // Convert List to comma-separated string for Mustache template
-        String preferredCategoriesStr = preferredCategories.isEmpty() ? "Any" : String.join(", ", preferredCategories);
-        String additionalPreferences = (itinerary.getAdditionalPreferences() != null && !itinerary.getAdditionalPreferences().trim().isEmpty())
-            ? itinerary.getAdditionalPreferences()
-            : "None";
+        // Lines travel from the model client's thread to this one, so persistence never blocks the stream
+        BlockingQueue<Object> lines = new LinkedBlockingQueue<>();
+        NdjsonStreamingHandler handler = new NdjsonStreamingHandler() {
+            @Override
+            protected void onLine(String line) {
+                lines.add(line);
+            }
 
+            @Override
+            protected void onEnd() {
+                lines.add(END_OF_STREAM);
+            }
+
+            @Override
+            protected void onFailure(Throwable error) {
+                lines.add(error);
+            }
+        };
+        Timer.Sample sample = llmMetrics.start();
+        try {
+            model.generate(messages, handler);
+        } catch (RuntimeException e) {
+            // Rejected before the stream started; counted and answered like a stream that errors
+            handler.onError(e);
+        }
+
+        List<LLMRecommendedPOI> delivered = new ArrayList<>();
+        Set<String> seenKeys = new HashSet<>();
+        boolean complete = false;
+        String cause = null;
+        long deadline = System.nanoTime() + streamTimeout.toNanos();
+        try {
+            while (true) {
+                Object next = lines.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    logger.warn("POI stream for itinerary {} timed out after {} places", itineraryId, delivered.size());
+                    cause = LlmMetrics.CAUSE_TIMEOUT;
+                    break;
+                }
+                if (next == END_OF_STREAM) {
+                    complete = true;
+                    break;
+                }
+                if (next instanceof Throwable error) {
+                    logger.warn("POI stream for itinerary {} failed after {} places: {}", itineraryId, delivered.size(), error.getMessage());
+                    cause = LlmMetrics.causeOf(error);
+                    break;
+                }
+
+                LLMRecommendedPOI poi = parseLine((String) next, itineraryId);
+                if (poi == null || delivered.size() >= profile.getMaxRecommendations() || isDuplicate(poi, seenKeys)) {
+                    continue;
+                }
+                PlaceDTO place;
+                try {
+                    place = convertToDTO(poi);
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Skipping invalid streamed POI {} for itinerary {}: {}", poi.getName(), itineraryId, e.getMessage());
+                    continue;
+                }
+                onPlaces.accept(List.of(place));
+                delivered.add(poi);
+            }
+        } finally {
+            // Stop the model generating output nobody reads any more
+            if (!complete) {
+                handler.cancel();
+            }
+        }
+
+        if (complete) {
+            llmMetrics.attempt(sample, OP_STREAM, 1, delivered.isEmpty() ? LlmMetrics.OUTCOME_EMPTY : LlmMetrics.OUTCOME_SUCCESS);
+        } else {
+            llmMetrics.attempt(sample, OP_STREAM, 1, LlmMetrics.OUTCOME_ERROR);
+        }
+        // A partly delivered stream is kept; only a stream that produced nothing falls back
+        if (delivered.isEmpty()) {
+            llmMetrics.failure(OP_STREAM, complete ? LlmMetrics.CAUSE_EMPTY_RESPONSE : cause);
+        }
+
+        if (complete && !delivered.isEmpty()) {
+            logger.info("Streamed {} POI recommendations for itinerary {}", delivered.size(), itineraryId);
+            recommendationCache.put(profile, new POIRecommendationResponse(delivered));
+        }
+        return delivered.size();
+    }
+
+    private LLMRecommendedPOI parseLine(String rawLine, UUID itineraryId) {
+        String line = NdjsonStreamingHandler.jsonObject(rawLine);
+        if (line == null) {
+            return null;
+        }
+
+        try {
+            return poiReader.readValue(line);
+        } catch (Exception e) {
+            logger.warn("Skipping unparseable streamed POI for itinerary {}: {}", itineraryId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The blocking prompt, rendered from the same template, with the output format switched to one place per line
+     */
+    private String buildStreamingPrompt(POIRecommendationProfile profile) {
+        String prompt = PromptTemplate.from(POIRecommendationService.USER_PROMPT)
+                .apply(profile.toTemplateVariables())
+                .text();
+        return prompt + "\nOutput Format (IMPORTANT):\n"
+                + "- Respond with one JSON object per line, one line per place, most recommended first\n"
+                + "- Do NOT wrap the lines in a JSON array or markdown code fences, and add no other text\n"
+                + "- Each line must look like:\n"
+                + "{\"name\":\"...\",\"address\":\"...\",\"description\":\"...\","
+                + "\"location\":{\"latitude\":0.0,\"longitude\":0.0},"
+                + "\"contact\":{\"website\":\"...\",\"phone\":\"...\"},\"imageUrl\":\"...\","
+                + "\"openingHours\":{\"raw\":\"...\"}}\n";
+    }
+
+    /**
+     * Splits the request into several smaller completions run concurrently, one per group of preferred
+     * categories or, without categories, per part of the city. Output length drives latency, so N
+     * shards finish in roughly 1/N of the time. Results are merged and deduplicated with the catalogue
+     * dedup keys; failed shards are skipped. Returns an empty list if sharding does not apply or every
+     * shard failed, so the caller falls back to a single completion.
+     */
+    private List<PlaceDTO> generateSharded(POIRecommendationProfile profile, UUID itineraryId) throws InterruptedException {
+        List<POIRecommendationProfile> shards = shardProfiles(profile);
+        if (shards.size() < 2) {
+            return new ArrayList<>();
+        }
+
+        List<Callable<POIRecommendationResponse>> calls = new ArrayList<>();
+        for (POIRecommendationProfile shard : shards) {
+            calls.add(() -> {
+                Timer.Sample sample = llmMetrics.start();
+                try {
+                    POIRecommendationResponse response = generateInitialRecommendations(shard);
+                    boolean empty = response == null || response.getRecommendations() == null
+                            || response.getRecommendations().isEmpty();
+                    llmMetrics.attempt(sample, OP_SHARD, 1, empty ? LlmMetrics.OUTCOME_EMPTY : LlmMetrics.OUTCOME_SUCCESS);
+                    return response;
+                } catch (RuntimeException e) {
+                    llmMetrics.attempt(sample, OP_SHARD, 1, LlmMetrics.OUTCOME_ERROR);
+                    throw e;
+                }
+            });
+        }
+        List<LlmCallExecutor.Outcome<POIRecommendationResponse>> outcomes = llmCallExecutor.invokeAllSettled(calls);
+
+        List<LLMRecommendedPOI> merged = new ArrayList<>();
+        Set<String> seenKeys = new HashSet<>();
+        int failedShards = 0;
+        for (int i = 0; i < outcomes.size(); i++) {
+            LlmCallExecutor.Outcome<POIRecommendationResponse> outcome = outcomes.get(i);
+            if (!outcome.isSuccess() || outcome.value() == null || outcome.value().getRecommendations() == null) {
+                failedShards++;
+                llmMetrics.failure(OP_SHARD, outcome.failure() != null
+                        ? LlmMetrics.causeOf(outcome.failure()) : LlmMetrics.CAUSE_EMPTY_RESPONSE);
+                logger.warn("POI shard {}/{} failed for itinerary {}: {}", i + 1, shards.size(), itineraryId,
+                        outcome.failure() != null ? outcome.failure().getMessage() : "no recommendations");
+                continue;
+            }
+            for (LLMRecommendedPOI poi : outcome.value().getRecommendations()) {
+                if (merged.size() < profile.getMaxRecommendations() && !isDuplicate(poi, seenKeys)) {
+                    merged.add(poi);
+                }
+            }
+        }
+
+        POIRecommendationResponse response = new POIRecommendationResponse(merged);
+        List<PlaceDTO> places;
+        try {
+            places = convertToDTOs(response);
+        } catch (Exception e) {
+            logger.warn("No valid places from {} POI shards for itinerary {}: {}", shards.size(), itineraryId, e.getMessage());
+            return new ArrayList<>();
+        }
+
+        if (places.isEmpty()) {
+            logger.warn("All {} POI shards failed for itinerary {}; falling back to a single completion", shards.size(), itineraryId);
+        } else {
+            logger.info("Generated {} POI recommendations for itinerary {} from {} shards ({} failed)",
+                    places.size(), itineraryId, shards.size(), failedShards);
+            // Partial results are fine to return but should not be served to the next identical profile
+            if (failedShards == 0) {
+                recommendationCache.put(profile, response);
+            }
+        }
+        return places;
+    }
+
+    private List<POIRecommendationProfile> shardProfiles(POIRecommendationProfile profile) {
+        int total = profile.getMaxRecommendations();
+        List<String> categories = profile.getPreferredCategories();
+        int available = categories.isEmpty() ? shardAreas.size() : categories.size();
+        int shardCount = Math.min(Math.min(maxShards, available), total / minPlacesPerShard);
+
+        List<POIRecommendationProfile> shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            int count = total / shardCount + (i < total % shardCount ? 1 : 0);
+            if (categories.isEmpty()) {
+                shards.add(profile.forArea(shardAreas.get(i), count));
+            } else {
+                // More categories than shards: deal them out round-robin
+                List<String> shardCategories = new ArrayList<>();
+                for (int c = i; c < categories.size(); c += shardCount) {
+                    shardCategories.add(categories.get(c));
+                }
+                shards.add(profile.forCategories(shardCategories, count));
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Same place from two shards: same normalized name in the same or a neighbouring geohash cell
+     */
+    private static boolean isDuplicate(LLMRecommendedPOI poi, Set<String> seenKeys) {
+        if (poi == null) {
+            return false;
+        }
+        BigDecimal latitude = poi.getLocation() != null ? BigDecimal.valueOf(poi.getLocation().getLatitude()) : null;
+        BigDecimal longitude = poi.getLocation() != null ? BigDecimal.valueOf(poi.getLocation().getLongitude()) : null;
+        String key = PlaceDedupKey.of(poi.getName(), latitude, longitude, poi.getAddress());
+        if (key == null) {
+            // Nameless; conversion rejects it later
+            return false;
+        }
+        for (String candidate : PlaceDedupKey.candidates(poi.getName(), latitude, longitude, poi.getAddress())) {
+            if (seenKeys.contains(candidate)) {
+                return true;
+            }
+        }
+        seenKeys.add(key);
+        return false;
+    }
+
+    private POIRecommendationResponse generateInitialRecommendations(POIRecommendationProfile profile) {
         return poiRecommendationService.generatePOIRecommendations(
-                itinerary.getDestinationCity(),
-                maxRecommendations,
-                budgetInCents,  // Pass non-null value
-                budgetInDollars,
-                travelMode,
-                stayingDays,
-                travelPace,
-                activityIntensity,
-                numberOfTravelers,
-                hasChildren,
-                hasElderly,
-                preferPopularAttractions,
-                preferredCategoriesStr,
-                additionalPreferences
+                profile.getDestinationCity(),
+                profile.getMaxRecommendations(),
+                profile.getBudgetInCents(),  // Pass non-null value
+                profile.getBudgetInDollars(),
+                profile.getTravelMode(),
+                profile.getStayingDays(),
+                profile.getTravelPace(),
+                profile.getActivityIntensity(),
+                profile.getNumberOfTravelers(),
+                profile.isHasChildren(),
+                profile.isHasElderly(),
+                profile.isPreferPopularAttractions(),
+                profile.getPreferredCategoriesStr(),
+                profile.getAdditionalPreferences()
         );
     }
     
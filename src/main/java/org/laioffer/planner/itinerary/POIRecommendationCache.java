@@ -0,0 +1,228 @@
+package org.laioffer.planner.itinerary;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.laioffer.planner.cache.TtlCache;
+import org.laioffer.planner.entity.POIRecommendationCacheEntity;
+import org.laioffer.planner.itinerary.model.llm.POIRecommendationProfile;
+import org.laioffer.planner.itinerary.model.llm.POIRecommendationResponse;
+import org.laioffer.planner.repository.POIRecommendationCacheRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Content-addressed cache in front of the POI recommendation LLM call.
+ *
+ * The key is a SHA-256 hash of the normalized recommendation profile, so every itinerary with the
+ * same city, duration, pace, intensity, categories, family flags and budget bucket shares one entry.
+ * An in-process LRU tier serves hot keys; an optional Postgres tier keeps entries across restarts.
+ * The in-process tier holds serialized JSON, so every hit is a fresh copy that callers may modify.
+ */
+@Component
+public class POIRecommendationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(POIRecommendationCache.class);
+    private static final String KEY_VERSION = "v1";
+    private static final int BUDGET_BUCKET_DOLLARS = 500;
+    private static final int MAX_BUDGET_BUCKET = 20;
+
+    private final POIRecommendationCacheRepository cacheRepository;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    private final TtlCache<String, byte[]> localCache;
+    private final boolean enabled;
+    private final boolean persistentEnabled;
+    private final Duration ttl;
+
+    public POIRecommendationCache(
+            POIRecommendationCacheRepository cacheRepository,
+            ObjectMapper objectMapper,
+            @Value("${app.poi-cache.enabled:true}") boolean enabled,
+            @Value("${app.poi-cache.persistent-enabled:false}") boolean persistentEnabled,
+            @Value("${app.poi-cache.max-entries:500}") int maxEntries,
+            @Value("${app.poi-cache.ttl:7d}") Duration ttl) {
+        this.cacheRepository = cacheRepository;
+        this.reader = objectMapper.readerFor(POIRecommendationResponse.class);
+        this.writer = objectMapper.writerFor(POIRecommendationResponse.class);
+        this.enabled = enabled;
+        this.persistentEnabled = persistentEnabled;
+        this.ttl = ttl;
+        this.localCache = new TtlCache<>(maxEntries, ttl);
+    }
+
+    /**
+     * Looks up a cached LLM response for the given profile, checking the local tier first.
+     */
+    public Optional<POIRecommendationResponse> get(POIRecommendationProfile profile) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        String key = keyFor(profile);
+        byte[] cached = localCache.get(key);
+        if (cached != null) {
+            logger.debug("POI recommendation cache hit (memory) for {} key {}", profile.getDestinationCity(), key);
+            return Optional.of(deserialize(cached));
+        }
+
+        if (!persistentEnabled) {
+            return Optional.empty();
+        }
+
+        try {
+            Optional<POIRecommendationCacheEntity> row =
+                    cacheRepository.findByCacheKeyAndExpiresAtAfter(key, LocalDateTime.now());
+            if (row.isPresent()) {
+                logger.debug("POI recommendation cache hit (database) for {} key {}", profile.getDestinationCity(), key);
+                POIRecommendationResponse payload = row.get().getPayload();
+                // Promote to the local tier for the remainder of the row's lifetime
+                Duration remaining = Duration.between(LocalDateTime.now(), row.get().getExpiresAt());
+                if (payload != null) {
+                    localCache.put(key, serialize(payload), remaining.compareTo(ttl) < 0 ? remaining : ttl);
+                }
+                return Optional.ofNullable(payload);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to read persistent POI recommendation cache for key {}: {}", key, e.getMessage());
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Stores a successful LLM response in every enabled tier.
+     */
+    public void put(POIRecommendationProfile profile, POIRecommendationResponse response) {
+        if (!enabled || response == null || response.getRecommendations() == null
+                || response.getRecommendations().isEmpty()) {
+            return;
+        }
+
+        String key = keyFor(profile);
+        localCache.put(key, serialize(response));
+
+        if (persistentEnabled) {
+            try {
+                cacheRepository.save(new POIRecommendationCacheEntity(
+                        key, profile.getDestinationCity(), response, LocalDateTime.now().plus(ttl)));
+            } catch (Exception e) {
+                logger.warn("Failed to write persistent POI recommendation cache for key {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Periodically removes expired entries from both tiers
+     */
+    @Scheduled(fixedDelayString = "${app.poi-cache.purge-interval:PT1H}")
+    public void purgeExpired() {
+        int removedLocal = localCache.purgeExpired();
+        int removedPersistent = 0;
+        if (persistentEnabled) {
+            try {
+                removedPersistent = cacheRepository.deleteExpired(LocalDateTime.now());
+            } catch (Exception e) {
+                logger.warn("Failed to purge persistent POI recommendation cache: {}", e.getMessage());
+            }
+        }
+        if (removedLocal > 0 || removedPersistent > 0) {
+            logger.info("Purged {} in-memory and {} persistent expired POI recommendation cache entries",
+                    removedLocal, removedPersistent);
+        }
+    }
+
+    /**
+     * Builds the canonical cache key for a profile.
+     * Free-text fields are normalized and the budget is bucketed so near-identical trips share entries.
+     */
+    String keyFor(POIRecommendationProfile profile) {
+        List<String> categories = profile.getPreferredCategories().stream()
+                .map(POIRecommendationCache::normalize)
+                .filter(category -> !category.isEmpty())
+                .sorted()
+                .distinct()
+                .toList();
+
+        String canonical = String.join("|",
+                KEY_VERSION,
+                "city=" + normalize(profile.getDestinationCity()),
+                "count=" + profile.getMaxRecommendations(),
+                "days=" + profile.getStayingDays(),
+                "pace=" + profile.getTravelPace(),
+                "intensity=" + profile.getActivityIntensity(),
+                "mode=" + profile.getTravelMode(),
+                "travelers=" + travelerBucket(profile.getNumberOfTravelers()),
+                "children=" + profile.isHasChildren(),
+                "elderly=" + profile.isHasElderly(),
+                "popular=" + profile.isPreferPopularAttractions(),
+                "categories=" + String.join(",", categories),
+                "budget=" + budgetBucket(profile.getBudgetInCents()),
+                "prefs=" + normalize(profile.getAdditionalPreferences()));
+
+        return sha256(canonical);
+    }
+
+    private byte[] serialize(POIRecommendationResponse response) {
+        try {
+            return writer.writeValueAsBytes(response);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize POI recommendations", e);
+        }
+    }
+
+    private POIRecommendationResponse deserialize(byte[] json) {
+        try {
+            return reader.readValue(json);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to deserialize cached POI recommendations", e);
+        }
+    }
+
+    private static int budgetBucket(Integer budgetInCents) {
+        int dollars = budgetInCents != null ? budgetInCents / 100 : 0;
+        return Math.min(dollars / BUDGET_BUCKET_DOLLARS, MAX_BUDGET_BUCKET);
+    }
+
+    private static String travelerBucket(Integer numberOfTravelers) {
+        int travelers = numberOfTravelers != null ? numberOfTravelers : 1;
+        if (travelers <= 1) {
+            return "solo";
+        } else if (travelers == 2) {
+            return "pair";
+        } else if (travelers <= 4) {
+            return "small";
+        }
+        return "group";
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
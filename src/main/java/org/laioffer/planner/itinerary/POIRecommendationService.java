@@ -9,7 +9,10 @@ import org.laioffer.planner.itinerary.model.llm.POIRecommendationResponse;
 @AiService(chatModel = "openAiChatModel")
 public interface POIRecommendationService {
     
-    @SystemMessage("""
+    /**
+     * Shared with the streaming generator in LangChain4jLLMService
+     */
+    String SYSTEM_PROMPT = """
         You are a travel recommendation assistant that generates accurate point-of-interest (POI) recommendations for travelers.
         
         Your responsibilities:
@@ -30,8 +33,13 @@ public interface POIRecommendationService {
         - Return a structured POIRecommendationResponse object
         - Include the exact number of recommendations requested
         - Ensure all POI objects have complete required information
-        """)
-    @UserMessage("""
+        """;
+
+    /**
+     * Shared with the streaming generator, which renders it from POIRecommendationProfile.toTemplateVariables.
+     * The {{#flag}} sections are resolved by SectionPromptTemplateFactory
+     */
+    String USER_PROMPT = """
         Generate {{maxRecommendations}} popular tourist attractions and points of interest for {{destinationCity}}.
 
         Trip Details:
@@ -66,7 +74,10 @@ public interface POIRecommendationService {
         - Compelling description highlighting key features
         - Contact information (website, phone) when available
         - Opening hours information when relevant
-        """)
+        """;
+
+    @SystemMessage(SYSTEM_PROMPT)
+    @UserMessage(USER_PROMPT)
     POIRecommendationResponse generatePOIRecommendations(
             @V("destinationCity") String destinationCity,
             @V("maxRecommendations") int maxRecommendations,
@@ -4,19 +4,26 @@ import org.laioffer.planner.model.place.PlaceDTO;
 import org.laioffer.planner.entity.ItineraryEntity;
 import org.laioffer.planner.entity.ItineraryPlaceEntity;
 import org.laioffer.planner.entity.PlaceEntity;
+import org.laioffer.planner.place.PlaceCatalog;
+import org.laioffer.planner.place.PlaceCatalogCounter;
 import org.laioffer.planner.repository.ItineraryPlaceRepository;
+import org.laioffer.planner.repository.PlaceBulkWriter;
 import org.laioffer.planner.repository.PlaceRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 @Service
 @Transactional
@@ -26,44 +33,110 @@ public class POIService {
 
     private final PlaceRepository placeRepository;
     private final ItineraryPlaceRepository itineraryPlaceRepository;
+    private final PlaceBulkWriter placeBulkWriter;
+    private final PlaceCatalog placeCatalog;
+    private final PlaceCatalogCounter placeCatalogCounter;
+    private final int bulkInsertThreshold;
 
     @Autowired
-    public POIService(PlaceRepository placeRepository, ItineraryPlaceRepository itineraryPlaceRepository) {
+    public POIService(PlaceRepository placeRepository,
+                      ItineraryPlaceRepository itineraryPlaceRepository,
+                      PlaceBulkWriter placeBulkWriter,
+                      PlaceCatalog placeCatalog,
+                      PlaceCatalogCounter placeCatalogCounter,
+                      @Value("${app.places.bulk-insert-threshold:100}") int bulkInsertThreshold) {
         this.placeRepository = placeRepository;
         this.itineraryPlaceRepository = itineraryPlaceRepository;
+        this.placeBulkWriter = placeBulkWriter;
+        this.placeCatalog = placeCatalog;
+        this.placeCatalogCounter = placeCatalogCounter;
+        this.bulkInsertThreshold = bulkInsertThreshold;
     }
     
     /**
-     * Creates PlaceEntity records from PlaceDTO and adds them to the itinerary
+     * Resolves LLM suggestions against the place catalogue and links them to the itinerary.
+     * Places already in the catalogue (same normalized name in the same or a neighbouring geohash
+     * cell) are reused; only genuinely new places are inserted. Rows are written in JDBC batches;
+     * large imports on PostgreSQL use multi-row inserts instead.
      * 
      * @param placeDTOs List of places from LLM
      * @param itinerary The itinerary to add places to
-     * @return List of created PlaceEntity objects
+     * @return List of places linked to the itinerary, existing and new
      */
     public List<PlaceEntity> createAndAddPlacesToItinerary(List<PlaceDTO> placeDTOs, ItineraryEntity itinerary) {
-        List<PlaceEntity> createdPlaces = new ArrayList<>();
+        List<PlaceEntity> candidates = new ArrayList<>(placeDTOs.size());
 
         for (PlaceDTO placeDTO : placeDTOs) {
             try {
-                PlaceEntity placeEntity = createPlaceEntity(placeDTO);
-                PlaceEntity savedPlace = placeRepository.save(placeEntity);
+                candidates.add(createPlaceEntity(placeDTO));
+            } catch (Exception e) {
+                logger.error("Failed to create place: {}", placeDTO.getName(), e);
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            logger.info("Created 0 places for itinerary: {}", itinerary.getId());
+            return candidates;
+        }
 
-                // Directly create and save ItineraryPlaceEntity to avoid lazy initialization errors
-                // DO NOT use itinerary.addPlace() in async context as it accesses lazy-loaded collections
-                ItineraryPlaceEntity itineraryPlace = new ItineraryPlaceEntity(itinerary, savedPlace, false, null);
-                itineraryPlaceRepository.save(itineraryPlace);
+        PlaceCatalog.Resolution resolution = placeCatalog.resolve(candidates);
 
-                createdPlaces.add(savedPlace);
+        boolean bulk = resolution.getPlaces().size() >= bulkInsertThreshold && placeBulkWriter.isSupported();
+        if (bulk) {
+            // Order the JDBC writes after anything pending in the persistence context
+            placeRepository.flush();
+        }
+        insertPlaces(resolution.getNewPlaces(), bulk);
+        linkPlaces(resolution.getPlaces(), itinerary, bulk);
 
-                logger.debug("Created place: {} for itinerary: {}", savedPlace.getName(), itinerary.getId());
+        logger.info("Linked {} places to itinerary {} ({} reused from catalogue, {} new)",
+                resolution.getPlaces().size(), itinerary.getId(),
+                resolution.getReusedCount(), resolution.getNewPlaces().size());
+        return resolution.getPlaces();
+    }
 
-            } catch (Exception e) {
-                logger.error("Failed to create place: {}", placeDTO.getName(), e);
+    /**
+     * Inserts new catalogue rows. On the JPA path ids come from the UUID generator at persist time,
+     * so saveAll is grouped into JDBC batches (hibernate.jdbc.batch_size) without a SELECT per entity.
+     * On the bulk path ids are assigned here and rows go out as multi-row INSERTs.
+     */
+    private void insertPlaces(List<PlaceEntity> newPlaces, boolean bulk) {
+        if (newPlaces.isEmpty()) {
+            return;
+        }
+        if (bulk) {
+            for (PlaceEntity place : newPlaces) {
+                place.setId(UUID.randomUUID());
+            }
+            placeCatalogCounter.recordInserted(placeBulkWriter.insertPlaces(newPlaces));
+        } else {
+            placeRepository.saveAll(newPlaces);
+            placeCatalogCounter.recordInserted(newPlaces.size());
+        }
+    }
+
+    private void linkPlaces(List<PlaceEntity> places, ItineraryEntity itinerary, boolean bulk) {
+        // Regeneration may hit places that are already linked; the unique constraint would reject them
+        Set<UUID> alreadyLinked = new HashSet<>(itineraryPlaceRepository.findPlaceIdsByItineraryId(itinerary.getId()));
+
+        // Directly create and save ItineraryPlaceEntity to avoid lazy initialization errors
+        // DO NOT use itinerary.addPlace() in async context as it accesses lazy-loaded collections
+        List<ItineraryPlaceEntity> itineraryPlaces = new ArrayList<>(places.size());
+        for (PlaceEntity place : places) {
+            if (!alreadyLinked.contains(place.getId())) {
+                itineraryPlaces.add(new ItineraryPlaceEntity(itinerary, place, false, null));
             }
         }
 
-        logger.info("Created {} places for itinerary: {}", createdPlaces.size(), itinerary.getId());
-        return createdPlaces;
+        if (itineraryPlaces.isEmpty()) {
+            return;
+        }
+        if (bulk) {
+            placeBulkWriter.insertItineraryPlaces(itineraryPlaces);
+        } else {
+            itineraryPlaceRepository.saveAll(itineraryPlaces);
+        }
+        itineraryPlaceRepository.bumpItineraryContentVersion(itinerary.getId());
     }
     
     private PlaceEntity createPlaceEntity(PlaceDTO placeDTO) {
@@ -0,0 +1,40 @@
+package org.laioffer.planner.itinerary;
+
+import org.laioffer.planner.model.place.PlaceDTO;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Event published after each batch of generated places has been committed to an itinerary
+ * Lets clients render places while generation is still running
+ */
+public class PoiGenerationProgressEvent {
+    private final UUID itineraryId;
+    private final List<PlaceDTO> places;
+    private final int generatedCount;
+
+    public PoiGenerationProgressEvent(UUID itineraryId, List<PlaceDTO> places, int generatedCount) {
+        this.itineraryId = itineraryId;
+        this.places = places;
+        this.generatedCount = generatedCount;
+    }
+
+    public UUID getItineraryId() {
+        return itineraryId;
+    }
+
+    /**
+     * Places linked to the itinerary by this batch
+     */
+    public List<PlaceDTO> getPlaces() {
+        return places;
+    }
+
+    /**
+     * Places linked so far, including this batch
+     */
+    public int getGeneratedCount() {
+        return generatedCount;
+    }
+}
@@ -0,0 +1,240 @@
+package org.laioffer.planner.itinerary;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.laioffer.planner.repository.ItineraryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for background POI generation.
+ *
+ * - At most max-concurrency generation jobs call the chat model at once. There is one limit for the
+ *   one configured model, not a limit per model.
+ * - Waiting jobs sit in a bounded queue, one FIFO per user, served round-robin so a single user
+ *   creating many itineraries cannot starve everyone else.
+ * - When the queue (or the user's share of it) is full the itinerary is parked with
+ *   generation_retry=true and resubmitted by a periodic sweep instead of piling up threads.
+ *   The flag stays set until the job finishes, so parked jobs lost in a restart are picked up again;
+ *   the sweep skips the ones this instance has already admitted.
+ * - Admission itself is kept in memory only. A job that was admitted but had not started when the
+ *   instance stopped is not resubmitted; its itinerary stays pending.
+ */
+@Component
+public class PoiGenerationScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PoiGenerationScheduler.class);
+
+    private final PoiGenerationWorker worker;
+    private final ItineraryRepository itineraryRepository;
+    private final TaskExecutor executor;
+    private final int maxConcurrency;
+    private final int queueCapacity;
+    private final int maxQueuedPerUser;
+    private final int retryBatchSize;
+
+    // All guarded by "this". Insertion order of userQueues is the round-robin order.
+    private final LinkedHashMap<Long, ArrayDeque<Job>> userQueues = new LinkedHashMap<>();
+    private int running;
+    private final Set<UUID> admitted = new HashSet<>();
+    private int queued;
+
+    private final Timer waitTimer;
+    private final Timer runTimer;
+    private final Counter rejectedCounter;
+
+    public PoiGenerationScheduler(PoiGenerationWorker worker,
+                                  ItineraryRepository itineraryRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.generation.max-concurrency:4}") int maxConcurrency,
+                                  @Value("${app.generation.queue-capacity:200}") int queueCapacity,
+                                  @Value("${app.generation.max-queued-per-user:3}") int maxQueuedPerUser,
+                                  @Value("${app.generation.retry-batch-size:20}") int retryBatchSize,
+                                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.worker = worker;
+        this.itineraryRepository = itineraryRepository;
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.maxQueuedPerUser = maxQueuedPerUser;
+        this.retryBatchSize = retryBatchSize;
+        // Thread count is bounded by max-concurrency, so a thread per job is fine
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("poi-generation-");
+        taskExecutor.setVirtualThreads(virtualThreads);
+        this.executor = taskExecutor;
+
+        Gauge.builder("poi.generation.queue.depth", this, PoiGenerationScheduler::getQueuedCount)
+                .description("POI generation jobs waiting for a free model slot")
+                .register(meterRegistry);
+        Gauge.builder("poi.generation.running", this, PoiGenerationScheduler::getRunningCount)
+                .description("POI generation jobs currently calling the LLM")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("poi.generation.queue.wait")
+                .description("Time a POI generation job waited before starting")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("poi.generation.duration")
+                .description("Time spent generating POIs for one itinerary")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("poi.generation.rejected")
+                .description("POI generation jobs parked for retry because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues POI generation for an itinerary.
+     *
+     * @return false if the queue is full; the caller should park the itinerary for retry
+     */
+    public boolean submit(UUID itineraryId, Long userId, int poiCount) {
+        return admit(itineraryId, userId, poiCount) != Admission.REJECTED;
+    }
+
+    /**
+     * Resubmits itineraries that were parked because the queue was full
+     */
+    @Scheduled(fixedDelayString = "${app.generation.retry-interval:PT1M}")
+    public void resubmitParked() {
+        int capacity;
+        Set<UUID> inFlight;
+        synchronized (this) {
+            capacity = Math.min(retryBatchSize, queueCapacity - queued);
+            inFlight = new HashSet<>(admitted);
+        }
+        if (capacity <= 0) {
+            return;
+        }
+
+        try {
+            // Parked rows stay flagged while queued or running; read past the ones already admitted
+            int resubmitted = 0;
+            for (ItineraryRepository.PendingGeneration pending
+                    : itineraryRepository.findPendingGenerationRetries(capacity + inFlight.size())) {
+                if (resubmitted >= capacity) {
+                    break;
+                }
+                int poiCount = pending.getPoiCount() != null ? pending.getPoiCount() : 0;
+                if (poiCount <= 0 || inFlight.contains(pending.getItineraryId())) {
+                    continue;
+                }
+                if (admit(pending.getItineraryId(), pending.getUserId(), poiCount) == Admission.ADMITTED) {
+                    resubmitted++;
+                }
+            }
+            if (resubmitted > 0) {
+                logger.info("Resubmitted {} parked POI generation jobs", resubmitted);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to resubmit parked POI generation jobs: {}", e.getMessage());
+        }
+    }
+
+    public synchronized int getQueuedCount() {
+        return queued;
+    }
+
+    public synchronized int getRunningCount() {
+        return running;
+    }
+
+    private Admission admit(UUID itineraryId, Long userId, int poiCount) {
+        synchronized (this) {
+            if (admitted.contains(itineraryId)) {
+                // Already queued or running
+                return Admission.ALREADY_ADMITTED;
+            }
+            ArrayDeque<Job> userQueue = userQueues.get(userId);
+            int userQueued = userQueue != null ? userQueue.size() : 0;
+            if (queued >= queueCapacity || userQueued >= maxQueuedPerUser) {
+                rejectedCounter.increment();
+                logger.warn("POI generation queue full ({} queued, {} for user {}); parking itinerary {} for retry",
+                        queued, userQueued, userId, itineraryId);
+                return Admission.REJECTED;
+            }
+            userQueues.computeIfAbsent(userId, id -> new ArrayDeque<>())
+                    .add(new Job(itineraryId, poiCount, System.nanoTime()));
+            admitted.add(itineraryId);
+            queued++;
+        }
+        dispatch();
+        return Admission.ADMITTED;
+    }
+
+    /**
+     * Starts as many queued jobs as the concurrency limit allows, taking users in round-robin order
+     */
+    private void dispatch() {
+        List<Job> toStart = new ArrayList<>();
+        synchronized (this) {
+            boolean started = true;
+            while (started && queued > 0 && running < maxConcurrency) {
+                started = false;
+                Iterator<Map.Entry<Long, ArrayDeque<Job>>> users = userQueues.entrySet().iterator();
+                while (users.hasNext()) {
+                    Map.Entry<Long, ArrayDeque<Job>> entry = users.next();
+                    Job next = entry.getValue().peek();
+                    if (next == null) {
+                        continue;
+                    }
+                    entry.getValue().poll();
+                    queued--;
+                    running++;
+                    toStart.add(next);
+                    // Move the user to the back of the rotation (or drop them if nothing is left)
+                    users.remove();
+                    if (!entry.getValue().isEmpty()) {
+                        userQueues.put(entry.getKey(), entry.getValue());
+                    }
+                    started = true;
+                    break;
+                }
+            }
+        }
+        toStart.forEach(job -> executor.execute(() -> run(job)));
+    }
+
+    private void run(Job job) {
+        waitTimer.record(System.nanoTime() - job.enqueuedAtNanos, TimeUnit.NANOSECONDS);
+        try {
+            runTimer.record(() -> worker.generate(job.itineraryId, job.poiCount));
+        } catch (Exception e) {
+            logger.error("POI generation job for itinerary {} failed", job.itineraryId, e);
+        } finally {
+            synchronized (this) {
+                running--;
+                admitted.remove(job.itineraryId);
+            }
+            dispatch();
+        }
+    }
+
+    private enum Admission { ADMITTED, ALREADY_ADMITTED, REJECTED }
+
+    private static final class Job {
+        private final UUID itineraryId;
+        private final int poiCount;
+        private final long enqueuedAtNanos;
+
+        private Job(UUID itineraryId, int poiCount, long enqueuedAtNanos) {
+            this.itineraryId = itineraryId;
+            this.poiCount = poiCount;
+            this.enqueuedAtNanos = enqueuedAtNanos;
+        }
+    }
+}
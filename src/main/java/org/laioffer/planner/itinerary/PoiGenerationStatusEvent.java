@@ -0,0 +1,39 @@
+package org.laioffer.planner.itinerary;
+
+import org.laioffer.planner.model.itinerary.GenerationStatus;
+
+import java.util.UUID;
+
+/**
+ * Event published when POI generation for an itinerary changes status
+ * Published outside of any transaction, after the new status has been committed
+ */
+public class PoiGenerationStatusEvent {
+    private final UUID itineraryId;
+    private final GenerationStatus status;
+    private final int generatedCount;
+    private final String message;
+
+    public PoiGenerationStatusEvent(UUID itineraryId, GenerationStatus status, int generatedCount, String message) {
+        this.itineraryId = itineraryId;
+        this.status = status;
+        this.generatedCount = generatedCount;
+        this.message = message;
+    }
+
+    public UUID getItineraryId() {
+        return itineraryId;
+    }
+
+    public GenerationStatus getStatus() {
+        return status;
+    }
+
+    public int getGeneratedCount() {
+        return generatedCount;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
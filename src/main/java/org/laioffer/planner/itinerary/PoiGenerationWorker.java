@@ -0,0 +1,151 @@
+package org.laioffer.planner.itinerary;
+
+import org.laioffer.planner.Recommendation.PlaceMapper;
+import org.laioffer.planner.entity.ItineraryEntity;
+import org.laioffer.planner.entity.PlaceEntity;
+import org.laioffer.planner.model.itinerary.GenerationStatus;
+import org.laioffer.planner.model.place.PlaceDTO;
+import org.laioffer.planner.repository.ItineraryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs one POI generation for an itinerary. The LLM call happens outside any transaction, so no
+ * database connection is held while waiting on the model; reads and writes use short transactions.
+ * Places are linked as soon as the model produces them, while generation_pending stays true, and
+ * each committed batch is announced with a {@link PoiGenerationProgressEvent}.
+ */
+@Component
+public class PoiGenerationWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(PoiGenerationWorker.class);
+
+    private final ItineraryRepository itineraryRepository;
+    private final LangChain4jLLMService llmService;
+    private final POIService poiService;
+    private final PlaceMapper placeMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    public PoiGenerationWorker(ItineraryRepository itineraryRepository,
+                               LangChain4jLLMService llmService,
+                               POIService poiService,
+                               PlaceMapper placeMapper,
+                               ApplicationEventPublisher eventPublisher,
+                               PlatformTransactionManager transactionManager) {
+        this.itineraryRepository = itineraryRepository;
+        this.llmService = llmService;
+        this.poiService = poiService;
+        this.placeMapper = placeMapper;
+        this.eventPublisher = eventPublisher;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        // Always a fresh transaction: markForRetry is also called from after-commit listeners
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Generates POI recommendations using LLM and links them to the itinerary
+     */
+    public void generate(UUID itineraryId, int poiCount) {
+        logger.info("Starting POI generation for itinerary: {}", itineraryId);
+
+        ItineraryEntity itinerary = readTransaction.execute(status ->
+                itineraryRepository.findById(itineraryId).orElse(null));
+        if (itinerary == null) {
+            logger.error("Itinerary {} not found for async generation", itineraryId);
+            return;
+        }
+
+        eventPublisher.publishEvent(new PoiGenerationStatusEvent(itineraryId, GenerationStatus.RUNNING, 0, null));
+        AtomicInteger createdCount = new AtomicInteger();
+        try {
+            llmService.generatePOIRecommendations(itinerary, poiCount,
+                    places -> linkPlaces(itineraryId, places, createdCount));
+
+            writeTransaction.executeWithoutResult(status -> {
+                ItineraryEntity managed = itineraryRepository.findById(itineraryId).orElseThrow();
+                Map<String, Object> aiMetadata = copyMetadata(managed);
+                aiMetadata.put("generation_pending", false);
+                aiMetadata.remove("generation_retry");
+                aiMetadata.remove("generation_error");
+                aiMetadata.put("generated_places_count", createdCount.get());
+                managed.setAiMetadata(aiMetadata);
+                itineraryRepository.save(managed);
+            });
+            eventPublisher.publishEvent(new PoiGenerationStatusEvent(itineraryId, GenerationStatus.COMPLETED,
+                    createdCount.get(), null));
+
+            logger.info("Successfully generated {} POI recommendations for itinerary: {}", createdCount.get(), itineraryId);
+
+        } catch (Exception e) {
+            logger.error("Failed to generate POI recommendations for itinerary: {}", itineraryId, e);
+            updateMetadata(itineraryId, aiMetadata -> {
+                aiMetadata.put("generation_pending", false);
+                aiMetadata.remove("generation_retry");
+                aiMetadata.put("generation_error", e.getMessage());
+                // Places linked before the failure stay on the itinerary
+                aiMetadata.put("generated_places_count", createdCount.get());
+            });
+            eventPublisher.publishEvent(new PoiGenerationStatusEvent(itineraryId, GenerationStatus.FAILED,
+                    createdCount.get(), e.getMessage()));
+        }
+    }
+
+    /**
+     * Links one batch of generated places in its own short transaction and publishes it once committed
+     */
+    private void linkPlaces(UUID itineraryId, List<PlaceDTO> places, AtomicInteger createdCount) {
+        if (places.isEmpty()) {
+            return;
+        }
+        List<PlaceDTO> linked = writeTransaction.execute(status -> {
+            ItineraryEntity managed = itineraryRepository.findById(itineraryId).orElseThrow();
+            List<PlaceEntity> createdPlaces = poiService.createAndAddPlacesToItinerary(places, managed);
+
+            Map<String, Object> aiMetadata = copyMetadata(managed);
+            aiMetadata.put("generated_places_count", createdCount.addAndGet(createdPlaces.size()));
+            managed.setAiMetadata(aiMetadata);
+            itineraryRepository.save(managed);
+            return createdPlaces.stream().map(placeMapper::toPlaceDTO).toList();
+        });
+        eventPublisher.publishEvent(new PoiGenerationProgressEvent(itineraryId, linked, createdCount.get()));
+    }
+
+    /**
+     * Parks an itinerary the scheduler could not accept; the retry sweep resubmits it later
+     */
+    public void markForRetry(UUID itineraryId) {
+        updateMetadata(itineraryId, aiMetadata -> {
+            aiMetadata.put("generation_pending", true);
+            aiMetadata.put("generation_retry", true);
+        });
+    }
+
+    private void updateMetadata(UUID itineraryId, Consumer<Map<String, Object>> update) {
+        writeTransaction.executeWithoutResult(status -> itineraryRepository.findById(itineraryId).ifPresent(itinerary -> {
+            Map<String, Object> aiMetadata = copyMetadata(itinerary);
+            update.accept(aiMetadata);
+            itinerary.setAiMetadata(aiMetadata);
+            itineraryRepository.save(itinerary);
+        }));
+    }
+
+    private static Map<String, Object> copyMetadata(ItineraryEntity itinerary) {
+        return itinerary.getAiMetadata() != null ? new HashMap<>(itinerary.getAiMetadata()) : new HashMap<>();
+    }
+}
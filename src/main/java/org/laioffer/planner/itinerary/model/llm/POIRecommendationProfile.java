@@ -0,0 +1,151 @@
+package org.laioffer.planner.itinerary.model.llm;
+
+import org.laioffer.planner.entity.ItineraryEntity;
+
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Template variables for the initial POI recommendation prompt.
+ * Built once per generation so the prompt and the recommendation cache key see the same values.
+ */
+public class POIRecommendationProfile {
+
+    private final String destinationCity;
+    private final int maxRecommendations;
+    private final Integer budgetInCents;
+    private final Double budgetInDollars;
+    private final String travelMode;
+    private final Integer stayingDays;
+    private final String travelPace;
+    private final String activityIntensity;
+    private final Integer numberOfTravelers;
+    private final boolean hasChildren;
+    private final boolean hasElderly;
+    private final boolean preferPopularAttractions;
+    private final List<String> preferredCategories;
+    private final String additionalPreferences;
+
+    private POIRecommendationProfile(ItineraryEntity itinerary, int maxRecommendations) {
+        // Provide non-null default values for ALL fields to avoid LangChain4j template errors
+        // Mustache templates require all variables to exist, even in conditional blocks
+        this.destinationCity = itinerary.getDestinationCity();
+        this.maxRecommendations = maxRecommendations;
+        this.budgetInCents = itinerary.getBudgetInCents() != null ? itinerary.getBudgetInCents() : 0;
+        this.budgetInDollars = budgetInCents / 100.0;
+        this.travelMode = itinerary.getTravelMode() != null ? itinerary.getTravelMode().toString() : "WALKING";
+
+        // Calculate staying days
+        int days = 1;
+        if (itinerary.getStartDate() != null && itinerary.getEndDate() != null) {
+            days = (int) ChronoUnit.DAYS.between(
+                    itinerary.getStartDate().toLocalDate(),
+                    itinerary.getEndDate().toLocalDate()
+            );
+            if (days == 0) {
+                days = 1;
+            }
+        }
+        this.stayingDays = days;
+
+        this.travelPace = itinerary.getTravelPace() != null ? itinerary.getTravelPace().toString() : "MODERATE";
+        this.activityIntensity = itinerary.getActivityIntensity() != null ? itinerary.getActivityIntensity().toString() : "MODERATE";
+        this.numberOfTravelers = itinerary.getNumberOfTravelers() != null ? itinerary.getNumberOfTravelers() : 1;
+        this.hasChildren = itinerary.getHasChildren() != null ? itinerary.getHasChildren() : false;
+        this.hasElderly = itinerary.getHasElderly() != null ? itinerary.getHasElderly() : false;
+        this.preferPopularAttractions = itinerary.getPreferPopularAttractions() != null ? itinerary.getPreferPopularAttractions() : true;
+        this.preferredCategories = itinerary.getPreferredCategories() != null
+                ? new ArrayList<>(itinerary.getPreferredCategories())
+                : new ArrayList<>();
+        this.additionalPreferences = (itinerary.getAdditionalPreferences() != null && !itinerary.getAdditionalPreferences().trim().isEmpty())
+                ? itinerary.getAdditionalPreferences()
+                : "None";
+    }
+
+    private POIRecommendationProfile(POIRecommendationProfile base, List<String> preferredCategories,
+                                     String additionalPreferences, int maxRecommendations) {
+        this.destinationCity = base.destinationCity;
+        this.maxRecommendations = maxRecommendations;
+        this.budgetInCents = base.budgetInCents;
+        this.budgetInDollars = base.budgetInDollars;
+        this.travelMode = base.travelMode;
+        this.stayingDays = base.stayingDays;
+        this.travelPace = base.travelPace;
+        this.activityIntensity = base.activityIntensity;
+        this.numberOfTravelers = base.numberOfTravelers;
+        this.hasChildren = base.hasChildren;
+        this.hasElderly = base.hasElderly;
+        this.preferPopularAttractions = base.preferPopularAttractions;
+        this.preferredCategories = new ArrayList<>(preferredCategories);
+        this.additionalPreferences = additionalPreferences;
+    }
+
+    public static POIRecommendationProfile from(ItineraryEntity itinerary, int maxRecommendations) {
+        return new POIRecommendationProfile(itinerary, maxRecommendations);
+    }
+
+    /**
+     * Profile for one shard of a fanned-out generation, limited to some of the preferred categories
+     */
+    public POIRecommendationProfile forCategories(List<String> categories, int maxRecommendations) {
+        return new POIRecommendationProfile(this, categories, additionalPreferences, maxRecommendations);
+    }
+
+    /**
+     * Profile for one shard of a fanned-out generation, limited to one part of the city
+     */
+    public POIRecommendationProfile forArea(String area, int maxRecommendations) {
+        String areaPreference = "Only recommend places in the " + area + " part of " + destinationCity + ".";
+        String preferences = "None".equals(additionalPreferences)
+                ? areaPreference
+                : additionalPreferences + " " + areaPreference;
+        return new POIRecommendationProfile(this, preferredCategories, preferences, maxRecommendations);
+    }
+
+    public String getDestinationCity() { return destinationCity; }
+    public int getMaxRecommendations() { return maxRecommendations; }
+    public Integer getBudgetInCents() { return budgetInCents; }
+    public Double getBudgetInDollars() { return budgetInDollars; }
+    public String getTravelMode() { return travelMode; }
+    public Integer getStayingDays() { return stayingDays; }
+    public String getTravelPace() { return travelPace; }
+    public String getActivityIntensity() { return activityIntensity; }
+    public Integer getNumberOfTravelers() { return numberOfTravelers; }
+    public boolean isHasChildren() { return hasChildren; }
+    public boolean isHasElderly() { return hasElderly; }
+    public boolean isPreferPopularAttractions() { return preferPopularAttractions; }
+    public List<String> getPreferredCategories() { return preferredCategories; }
+    public String getAdditionalPreferences() { return additionalPreferences; }
+
+    /**
+     * Comma-separated categories for the Mustache template
+     */
+    public String getPreferredCategoriesStr() {
+        return preferredCategories.isEmpty() ? "Any" : String.join(", ", preferredCategories);
+    }
+
+    /**
+     * Values for POIRecommendationService.USER_PROMPT, named like the AI service's @V parameters
+     */
+    public Map<String, Object> toTemplateVariables() {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("destinationCity", destinationCity);
+        variables.put("maxRecommendations", maxRecommendations);
+        variables.put("budgetInCents", budgetInCents);
+        variables.put("budgetInDollars", budgetInDollars);
+        variables.put("travelMode", travelMode);
+        variables.put("stayingDays", stayingDays);
+        variables.put("travelPace", travelPace);
+        variables.put("activityIntensity", activityIntensity);
+        variables.put("numberOfTravelers", numberOfTravelers);
+        variables.put("hasChildren", hasChildren);
+        variables.put("hasElderly", hasElderly);
+        variables.put("preferPopularAttractions", preferPopularAttractions);
+        variables.put("preferredCategoriesStr", getPreferredCategoriesStr());
+        variables.put("additionalPreferences", additionalPreferences);
+        return variables;
+    }
+}
@@ -0,0 +1,108 @@
+package org.laioffer.planner.llm;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.io.InterruptedIOException;
+import java.util.Locale;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Service-level LLM metrics, one layer above the model client (see {@link LlmModelMetricsListener}):
+ * <ul>
+ *   <li>{@code llm.attempt} timer per operation, attempt number and outcome (success, empty, error)</li>
+ *   <li>{@code llm.retries} counter per operation and cause of the failed attempt</li>
+ *   <li>{@code llm.failures} counter per operation and cause, once an operation gives up</li>
+ * </ul>
+ * Causes are bucketed so tag cardinality stays bounded: timeout, rate_limit, invalid_output,
+ * empty_response, other. The model client retries on its own (langchain4j max-retries) inside a
+ * single attempt here, so an attempt's time includes those.
+ */
+@Component
+public class LlmMetrics {
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_EMPTY = "empty";
+    public static final String OUTCOME_ERROR = "error";
+
+    public static final String CAUSE_TIMEOUT = "timeout";
+    public static final String CAUSE_RATE_LIMIT = "rate_limit";
+    public static final String CAUSE_INVALID_OUTPUT = "invalid_output";
+    public static final String CAUSE_EMPTY_RESPONSE = "empty_response";
+    public static final String CAUSE_OTHER = "other";
+
+    private final MeterRegistry meterRegistry;
+
+    public LlmMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Stops the sample as one attempt of the operation
+     */
+    public void attempt(Timer.Sample sample, String operation, int attempt, String outcome) {
+        sample.stop(Timer.builder("llm.attempt")
+                .description("Duration of one attempt of an LLM-backed operation")
+                .tag("operation", operation)
+                .tag("attempt", String.valueOf(attempt))
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    public void retry(String operation, String cause) {
+        Counter.builder("llm.retries")
+                .description("LLM attempts that failed and were retried")
+                .tag("operation", operation)
+                .tag("cause", cause)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void retry(String operation, Throwable error) {
+        retry(operation, causeOf(error));
+    }
+
+    public void failure(String operation, String cause) {
+        Counter.builder("llm.failures")
+                .description("LLM-backed operations that failed after all attempts")
+                .tag("operation", operation)
+                .tag("cause", cause)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void failure(String operation, Throwable error) {
+        failure(operation, causeOf(error));
+    }
+
+    /**
+     * Buckets an error by walking its cause chain
+     */
+    public static String causeOf(Throwable error) {
+        Throwable current = error;
+        for (int depth = 0; current != null && depth < 10; depth++, current = current.getCause()) {
+            if (current instanceof TimeoutException || current instanceof InterruptedIOException) {
+                return CAUSE_TIMEOUT;
+            }
+            if (current instanceof JsonProcessingException
+                    || current.getClass().getSimpleName().contains("Parsing")) {
+                return CAUSE_INVALID_OUTPUT;
+            }
+            String message = current.getMessage() != null ? current.getMessage().toLowerCase(Locale.ROOT) : "";
+            if (message.contains("429") || message.contains("rate limit")) {
+                return CAUSE_RATE_LIMIT;
+            }
+            if (message.contains("timed out") || message.contains("timeout")) {
+                return CAUSE_TIMEOUT;
+            }
+        }
+        return CAUSE_OTHER;
+    }
+}
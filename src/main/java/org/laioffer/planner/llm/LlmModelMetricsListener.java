@@ -0,0 +1,137 @@
+package org.laioffer.planner.llm;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.Content;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.TextContent;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.listener.ChatModelErrorContext;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelRequest;
+import dev.langchain4j.model.chat.listener.ChatModelRequestContext;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.model.output.TokenUsage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every chat model round trip, blocking and streaming. The OpenAI starter hands
+ * ChatModelListener beans to the models it builds, so this covers the AI services as well.
+ * <ul>
+ *   <li>{@code llm.model.calls} timer per model and outcome</li>
+ *   <li>{@code llm.tokens} counter per model and type (input, output), from the response's token usage</li>
+ *   <li>{@code llm.prompt.tokens} and {@code llm.prompt.chars} summaries of prompt size per model</li>
+ *   <li>{@code llm.model.errors} counter per model and cause</li>
+ * </ul>
+ */
+@Component
+public class LlmModelMetricsListener implements ChatModelListener {
+
+    private static final String STARTED_AT = LlmModelMetricsListener.class.getName() + ".startedAt";
+
+    private final MeterRegistry meterRegistry;
+
+    public LlmModelMetricsListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void onRequest(ChatModelRequestContext requestContext) {
+        requestContext.attributes().put(STARTED_AT, System.nanoTime());
+        ChatModelRequest request = requestContext.request();
+        DistributionSummary.builder("llm.prompt.chars")
+                .description("Characters of text sent to the model per call")
+                .baseUnit("characters")
+                .tag("model", modelOf(request))
+                .register(meterRegistry)
+                .record(promptChars(request.messages()));
+    }
+
+    @Override
+    public void onResponse(ChatModelResponseContext responseContext) {
+        String model = modelOf(responseContext.request());
+        recordCall(responseContext.attributes().get(STARTED_AT), model, LlmMetrics.OUTCOME_SUCCESS);
+
+        TokenUsage usage = responseContext.response() != null ? responseContext.response().tokenUsage() : null;
+        if (usage == null) {
+            return;
+        }
+        if (usage.inputTokenCount() != null) {
+            tokens(model, "input").increment(usage.inputTokenCount());
+            DistributionSummary.builder("llm.prompt.tokens")
+                    .description("Input tokens per model call")
+                    .baseUnit("tokens")
+                    .tag("model", model)
+                    .register(meterRegistry)
+                    .record(usage.inputTokenCount());
+        }
+        if (usage.outputTokenCount() != null) {
+            tokens(model, "output").increment(usage.outputTokenCount());
+        }
+    }
+
+    @Override
+    public void onError(ChatModelErrorContext errorContext) {
+        String model = modelOf(errorContext.request());
+        recordCall(errorContext.attributes().get(STARTED_AT), model, LlmMetrics.OUTCOME_ERROR);
+        Counter.builder("llm.model.errors")
+                .description("Failed chat model calls")
+                .tag("model", model)
+                .tag("cause", LlmMetrics.causeOf(errorContext.error()))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void recordCall(Object startedAt, String model, String outcome) {
+        if (!(startedAt instanceof Long started)) {
+            return;
+        }
+        Timer.builder("llm.model.calls")
+                .description("Chat model round trips, including the client's own retries")
+                .tag("model", model)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    private Counter tokens(String model, String type) {
+        return Counter.builder("llm.tokens")
+                .description("Tokens consumed, from the model's reported usage")
+                .baseUnit("tokens")
+                .tag("model", model)
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private static String modelOf(ChatModelRequest request) {
+        return request != null && request.model() != null ? request.model() : "unknown";
+    }
+
+    private static long promptChars(List<ChatMessage> messages) {
+        if (messages == null) {
+            return 0;
+        }
+        long chars = 0;
+        for (ChatMessage message : messages) {
+            if (message instanceof SystemMessage system) {
+                chars += system.text().length();
+            } else if (message instanceof UserMessage user) {
+                for (Content content : user.contents()) {
+                    if (content instanceof TextContent text) {
+                        chars += text.text().length();
+                    }
+                }
+            } else if (message instanceof AiMessage ai && ai.text() != null) {
+                chars += ai.text().length();
+            }
+        }
+        return chars;
+    }
+}
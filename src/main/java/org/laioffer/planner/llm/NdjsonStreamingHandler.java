@@ -0,0 +1,102 @@
+package org.laioffer.planner.llm;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.output.Response;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Splits a streamed completion into lines for prompts that ask for newline-delimited JSON, one
+ * object per line. Lines are handed to {@link #onLine} in order, the unterminated tail when the
+ * stream completes.
+ * <p>
+ * The model client offers no handle to stop a stream, so {@link #cancel()} makes the next token
+ * callback throw, which aborts the client's read of the response; nothing is reported after a cancel.
+ */
+public abstract class NdjsonStreamingHandler implements StreamingResponseHandler<AiMessage> {
+
+    private final StringBuilder buffer = new StringBuilder();
+    private volatile boolean cancelled;
+
+    /**
+     * Stops delivering lines and aborts the stream on its next token
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    @Override
+    public final void onNext(String token) {
+        if (cancelled) {
+            throw new CancellationException("Stream cancelled by the caller");
+        }
+        synchronized (buffer) {
+            buffer.append(token);
+            int newline;
+            while ((newline = buffer.indexOf("\n")) >= 0) {
+                String line = buffer.substring(0, newline);
+                buffer.delete(0, newline + 1);
+                onLine(line);
+            }
+        }
+    }
+
+    @Override
+    public final void onComplete(Response<AiMessage> response) {
+        if (cancelled) {
+            return;
+        }
+        synchronized (buffer) {
+            onLine(buffer.toString());
+            buffer.setLength(0);
+        }
+        onEnd();
+    }
+
+    @Override
+    public final void onError(Throwable error) {
+        if (!cancelled) {
+            onFailure(error);
+        }
+    }
+
+    /**
+     * One line of output, without the line break; may be blank or not JSON at all, see {@link #jsonObject}
+     */
+    protected abstract void onLine(String line);
+
+    /**
+     * The stream completed; every line has been delivered
+     */
+    protected abstract void onEnd();
+
+    /**
+     * The stream failed; lines already delivered stand
+     */
+    protected abstract void onFailure(Throwable error);
+
+    /**
+     * The JSON object on a line, tolerating the model wrapping lines in a code fence or a JSON array;
+     * null if the line holds no object
+     */
+    public static String jsonObject(String rawLine) {
+        String line = rawLine.trim();
+        if (line.startsWith("```")) {
+            return null;
+        }
+        if (line.startsWith("[")) {
+            line = line.substring(1).trim();
+        }
+        if (line.endsWith("]")) {
+            line = line.substring(0, line.length() - 1).trim();
+        }
+        if (line.endsWith(",")) {
+            line = line.substring(0, line.length() - 1).trim();
+        }
+        if (line.isEmpty() || !line.startsWith("{")) {
+            return null;
+        }
+        return line;
+    }
+}
@@ -0,0 +1,57 @@
+package org.laioffer.planner.llm;
+
+import dev.langchain4j.model.input.DefaultPromptTemplateFactory;
+import dev.langchain4j.spi.prompt.PromptTemplateFactory;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prompt templates with mustache-style boolean sections: {@code {{#flag}}...{{/flag}}} is kept when the
+ * variable is {@code true} and dropped otherwise, section lines included. Plain {@code {{variable}}}
+ * substitution is left to LangChain4j's default templates.
+ * <p>
+ * Registered through {@code META-INF/services}, so {@code @UserMessage} templates and
+ * {@code PromptTemplate.from} render the same text.
+ */
+public class SectionPromptTemplateFactory implements PromptTemplateFactory {
+
+    private static final Pattern SECTION = Pattern.compile("\\{\\{#(\\w+)}}\\R?(.*?)\\{\\{/\\1}}\\R?", Pattern.DOTALL);
+
+    private final PromptTemplateFactory delegate = new DefaultPromptTemplateFactory();
+
+    @Override
+    public Template create(Input input) {
+        if (!SECTION.matcher(input.getTemplate()).find()) {
+            return delegate.create(input);
+        }
+        return variables -> delegate.create(input(resolveSections(input.getTemplate(), variables), input.getName()))
+                .render(variables);
+    }
+
+    static String resolveSections(String template, Map<String, Object> variables) {
+        Matcher section = SECTION.matcher(template);
+        StringBuilder resolved = new StringBuilder();
+        while (section.find()) {
+            boolean shown = Boolean.TRUE.equals(variables.get(section.group(1)));
+            section.appendReplacement(resolved, shown ? Matcher.quoteReplacement(section.group(2)) : "");
+        }
+        section.appendTail(resolved);
+        return resolved.toString();
+    }
+
+    private static Input input(String template, String name) {
+        return new Input() {
+            @Override
+            public String getTemplate() {
+                return template;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
@@ -1,16 +1,25 @@
 package org.laioffer.planner.model.common;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+/**
+ * Paging metadata. Offset pages carry page number and totals; cursor pages leave the page number
+ * out and carry totals only when asked for. {@code nextCursor} is set whenever more rows follow.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PageMeta {
-    private int page;
+    private Integer page;
     private int size;
 
     @JsonProperty("totalElements")
-    private long totalElements;
+    private Long totalElements;
 
     @JsonProperty("totalPages")
-    private int totalPages;
+    private Integer totalPages;
+
+    @JsonProperty("nextCursor")
+    private String nextCursor;
 
     public PageMeta() {}
 
@@ -21,11 +30,20 @@ public class PageMeta {
         this.totalPages = totalPages;
     }
 
-    public int getPage() {
+    public PageMeta(int size, Long totalElements, String nextCursor) {
+        this.size = size;
+        this.totalElements = totalElements;
+        if (totalElements != null) {
+            this.totalPages = (int) ((totalElements + size - 1) / size);
+        }
+        this.nextCursor = nextCursor;
+    }
+
+    public Integer getPage() {
         return page;
     }
 
-    public void setPage(int page) {
+    public void setPage(Integer page) {
         this.page = page;
     }
 
@@ -37,22 +55,30 @@ public class PageMeta {
         this.size = size;
     }
 
-    public long getTotalElements() {
+    public Long getTotalElements() {
         return totalElements;
     }
 
-    public void setTotalElements(long totalElements) {
+    public void setTotalElements(Long totalElements) {
         this.totalElements = totalElements;
     }
 
-    public int getTotalPages() {
+    public Integer getTotalPages() {
         return totalPages;
     }
 
-    public void setTotalPages(int totalPages) {
+    public void setTotalPages(Integer totalPages) {
         this.totalPages = totalPages;
     }
 
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
     @Override
     public String toString() {
         return "PageMeta{" +
@@ -60,6 +86,7 @@ public class PageMeta {
                 ", size=" + size +
                 ", totalElements=" + totalElements +
                 ", totalPages=" + totalPages +
+                ", nextCursor=" + nextCursor +
                 '}';
     }
 }
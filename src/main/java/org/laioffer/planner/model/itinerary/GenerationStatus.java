@@ -0,0 +1,16 @@
+package org.laioffer.planner.model.itinerary;
+
+/**
+ * Lifecycle of the background POI generation for an itinerary
+ */
+public enum GenerationStatus {
+    QUEUED,     // Waiting for a free model slot
+    PARKED,     // Queue was full; the retry sweep resubmits it
+    RUNNING,
+    COMPLETED,
+    FAILED;
+
+    public boolean isTerminal() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
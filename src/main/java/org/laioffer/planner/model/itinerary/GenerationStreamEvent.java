@@ -0,0 +1,121 @@
+package org.laioffer.planner.model.itinerary;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.laioffer.planner.model.place.PlaceDTO;
+
+import java.util.List;
+
+/**
+ * Payload of one Server-Sent Event on an itinerary's generation channel.
+ * A stream starts with one "snapshot" event (current status and the places linked so far), followed by
+ * "status" and "places" events while generation runs, and ends with "complete" or "error".
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GenerationStreamEvent {
+
+    public static final String SNAPSHOT = "snapshot";
+    public static final String STATUS = "status";
+    public static final String PLACES = "places";
+    public static final String COMPLETE = "complete";
+    public static final String ERROR = "error";
+
+    private String type;
+    private GenerationStatus status;
+    private List<PlaceDTO> places;
+    private Integer generatedCount;
+    private String message;
+
+    public GenerationStreamEvent() {}
+
+    public static GenerationStreamEvent snapshot(GenerationStatus status, List<PlaceDTO> places, String message) {
+        GenerationStreamEvent event = new GenerationStreamEvent();
+        event.type = SNAPSHOT;
+        event.status = status;
+        event.places = places;
+        event.generatedCount = places.size();
+        event.message = message;
+        return event;
+    }
+
+    public static GenerationStreamEvent status(GenerationStatus status) {
+        GenerationStreamEvent event = new GenerationStreamEvent();
+        event.type = STATUS;
+        event.status = status;
+        return event;
+    }
+
+    public static GenerationStreamEvent places(List<PlaceDTO> places, int generatedCount) {
+        GenerationStreamEvent event = new GenerationStreamEvent();
+        event.type = PLACES;
+        event.status = GenerationStatus.RUNNING;
+        event.places = places;
+        event.generatedCount = generatedCount;
+        return event;
+    }
+
+    public static GenerationStreamEvent complete(int generatedCount) {
+        GenerationStreamEvent event = new GenerationStreamEvent();
+        event.type = COMPLETE;
+        event.status = GenerationStatus.COMPLETED;
+        event.generatedCount = generatedCount;
+        return event;
+    }
+
+    public static GenerationStreamEvent error(int generatedCount, String message) {
+        GenerationStreamEvent event = new GenerationStreamEvent();
+        event.type = ERROR;
+        event.status = GenerationStatus.FAILED;
+        event.generatedCount = generatedCount;
+        event.message = message;
+        return event;
+    }
+
+    /**
+     * Whether nothing follows this event on the stream
+     */
+    @JsonIgnore
+    public boolean isTerminal() {
+        return status != null && status.isTerminal();
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public GenerationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(GenerationStatus status) {
+        this.status = status;
+    }
+
+    public List<PlaceDTO> getPlaces() {
+        return places;
+    }
+
+    public void setPlaces(List<PlaceDTO> places) {
+        this.places = places;
+    }
+
+    public Integer getGeneratedCount() {
+        return generatedCount;
+    }
+
+    public void setGeneratedCount(Integer generatedCount) {
+        this.generatedCount = generatedCount;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
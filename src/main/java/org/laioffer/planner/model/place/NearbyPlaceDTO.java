@@ -0,0 +1,34 @@
+package org.laioffer.planner.model.place;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class NearbyPlaceDTO {
+    @JsonProperty("place")
+    private PlaceDTO place;
+
+    @JsonProperty("distanceMeters")
+    private double distanceMeters;
+
+    public NearbyPlaceDTO() {}
+
+    public NearbyPlaceDTO(PlaceDTO place, double distanceMeters) {
+        this.place = place;
+        this.distanceMeters = distanceMeters;
+    }
+
+    public PlaceDTO getPlace() {
+        return place;
+    }
+
+    public void setPlace(PlaceDTO place) {
+        this.place = place;
+    }
+
+    public double getDistanceMeters() {
+        return distanceMeters;
+    }
+
+    public void setDistanceMeters(double distanceMeters) {
+        this.distanceMeters = distanceMeters;
+    }
+}
@@ -0,0 +1,49 @@
+package org.laioffer.planner.model.place;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.laioffer.planner.model.common.GeoPoint;
+
+import java.util.List;
+
+public class NearbyPlacesResponse {
+    @JsonProperty("center")
+    private GeoPoint center;
+
+    @JsonProperty("radiusMeters")
+    private Double radiusMeters;
+
+    @JsonProperty("items")
+    private List<NearbyPlaceDTO> items;
+
+    public NearbyPlacesResponse() {}
+
+    public NearbyPlacesResponse(GeoPoint center, Double radiusMeters, List<NearbyPlaceDTO> items) {
+        this.center = center;
+        this.radiusMeters = radiusMeters;
+        this.items = items;
+    }
+
+    public GeoPoint getCenter() {
+        return center;
+    }
+
+    public void setCenter(GeoPoint center) {
+        this.center = center;
+    }
+
+    public Double getRadiusMeters() {
+        return radiusMeters;
+    }
+
+    public void setRadiusMeters(Double radiusMeters) {
+        this.radiusMeters = radiusMeters;
+    }
+
+    public List<NearbyPlaceDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<NearbyPlaceDTO> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,41 @@
+package org.laioffer.planner.model.planning;
+
+import org.laioffer.planner.model.common.PageMeta;
+
+import java.util.List;
+
+public class PlanHistoryResponse {
+    private List<PlanVersionSummary> items;
+    private PageMeta page;
+
+    public PlanHistoryResponse() {}
+
+    public PlanHistoryResponse(List<PlanVersionSummary> items, PageMeta page) {
+        this.items = items;
+        this.page = page;
+    }
+
+    public List<PlanVersionSummary> getItems() {
+        return items;
+    }
+
+    public void setItems(List<PlanVersionSummary> items) {
+        this.items = items;
+    }
+
+    public PageMeta getPage() {
+        return page;
+    }
+
+    public void setPage(PageMeta page) {
+        this.page = page;
+    }
+
+    @Override
+    public String toString() {
+        return "PlanHistoryResponse{" +
+                "items=" + items +
+                ", page=" + page +
+                '}';
+    }
+}
@@ -23,6 +23,7 @@ public class PlanItineraryRequest {
     private boolean avoidCrowds = false;
     private boolean minimizeTransfers = false;
     private boolean balanceCategories = true;
+    private PlanningMode planningMode;
     
     public PlanItineraryRequest() {}
     
@@ -98,6 +99,14 @@ public class PlanItineraryRequest {
         this.balanceCategories = balanceCategories;
     }
     
+    public PlanningMode getPlanningMode() {
+        return planningMode;
+    }
+    
+    public void setPlanningMode(PlanningMode planningMode) {
+        this.planningMode = planningMode;
+    }
+    
     @Override
     public String toString() {
         return "PlanItineraryRequest{" +
@@ -110,6 +119,7 @@ public class PlanItineraryRequest {
                 ", avoidCrowds=" + avoidCrowds +
                 ", minimizeTransfers=" + minimizeTransfers +
                 ", balanceCategories=" + balanceCategories +
+                ", planningMode=" + planningMode +
                 '}';
     }
 }
\ No newline at end of file
@@ -9,6 +9,8 @@ public class PlanItineraryResponse {
     private UUID itineraryId;
     private List<PlannedDay> days;
     private List<ApiError> warnings;
+    // Persisted plan version; null until the plan has been saved
+    private Integer version;
     
     public PlanItineraryResponse() {}
     
@@ -41,12 +43,21 @@ public class PlanItineraryResponse {
         this.warnings = warnings;
     }
     
+    public Integer getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+    
     @Override
     public String toString() {
         return "PlanItineraryResponse{" +
                 "itineraryId=" + itineraryId +
                 ", days=" + days +
                 ", warnings=" + warnings +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package org.laioffer.planner.model.planning;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Payload of one Server-Sent Event emitted while a plan is being generated.
+ * A stream is zero or more "day" events followed by exactly one "complete" or "error" event.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PlanStreamEvent {
+
+    public static final String DAY = "day";
+    public static final String COMPLETE = "complete";
+    public static final String ERROR = "error";
+
+    private String type;
+    private Integer dayIndex;
+    private PlannedDay day;
+    private PlanItineraryResponse plan;
+    private Integer version;
+    private String message;
+
+    public PlanStreamEvent() {}
+
+    public static PlanStreamEvent day(int dayIndex, PlannedDay day) {
+        PlanStreamEvent event = new PlanStreamEvent();
+        event.type = DAY;
+        event.dayIndex = dayIndex;
+        event.day = day;
+        return event;
+    }
+
+    public static PlanStreamEvent complete(PlanItineraryResponse plan) {
+        PlanStreamEvent event = new PlanStreamEvent();
+        event.type = COMPLETE;
+        event.plan = plan;
+        event.version = plan.getVersion();
+        return event;
+    }
+
+    public static PlanStreamEvent error(String message) {
+        PlanStreamEvent event = new PlanStreamEvent();
+        event.type = ERROR;
+        event.message = message;
+        return event;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Integer getDayIndex() {
+        return dayIndex;
+    }
+
+    public void setDayIndex(Integer dayIndex) {
+        this.dayIndex = dayIndex;
+    }
+
+    public PlannedDay getDay() {
+        return day;
+    }
+
+    public void setDay(PlannedDay day) {
+        this.day = day;
+    }
+
+    public PlanItineraryResponse getPlan() {
+        return plan;
+    }
+
+    public void setPlan(PlanItineraryResponse plan) {
+        this.plan = plan;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
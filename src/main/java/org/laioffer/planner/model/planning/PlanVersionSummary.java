@@ -0,0 +1,84 @@
+package org.laioffer.planner.model.planning;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of an itinerary's plan history; the plan itself is fetched by version
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PlanVersionSummary {
+    private Integer version;
+    private boolean active;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    // Null for plans saved before counts were recorded
+    private Integer dayCount;
+    private Integer stopCount;
+
+    public PlanVersionSummary() {}
+
+    public PlanVersionSummary(Integer version, Boolean active, LocalDateTime createdAt,
+                              Integer dayCount, Integer stopCount) {
+        this.version = version;
+        this.active = Boolean.TRUE.equals(active);
+        this.createdAt = createdAt;
+        this.dayCount = dayCount;
+        this.stopCount = stopCount;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Integer getDayCount() {
+        return dayCount;
+    }
+
+    public void setDayCount(Integer dayCount) {
+        this.dayCount = dayCount;
+    }
+
+    public Integer getStopCount() {
+        return stopCount;
+    }
+
+    public void setStopCount(Integer stopCount) {
+        this.stopCount = stopCount;
+    }
+
+    @Override
+    public String toString() {
+        return "PlanVersionSummary{" +
+                "version=" + version +
+                ", active=" + active +
+                ", createdAt=" + createdAt +
+                ", dayCount=" + dayCount +
+                ", stopCount=" + stopCount +
+                '}';
+    }
+}
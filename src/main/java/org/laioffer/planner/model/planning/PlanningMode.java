@@ -0,0 +1,11 @@
+package org.laioffer.planner.model.planning;
+
+/**
+ * How the stop partitioning and ordering for a plan is produced.
+ */
+public enum PlanningMode {
+    // LLM decides days, order and timing
+    LLM,
+    // Deterministic in-process optimizer; no model call
+    LOCAL
+}
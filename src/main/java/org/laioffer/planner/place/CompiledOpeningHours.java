@@ -0,0 +1,300 @@
+package org.laioffer.planner.place;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Opening hours compiled from the normalized {@code opening_hours} jsonb
+ * ({"monday": {"open": "09:00", "close": "17:00"}, ...}) into minute-of-day intervals, so schedule
+ * checks do not touch maps or strings. Immutable and safe to share between threads.
+ *
+ * Unknown hours (no weekday keys, or a weekday whose times cannot be parsed) mean open all day;
+ * a weekday missing from otherwise known hours means closed. Hours closing at or before they open
+ * run past midnight and carry over into the next day.
+ */
+public final class CompiledOpeningHours {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    /** Declared open/close value for a weekday without hours */
+    public static final int CLOSED = -1;
+    /** Declared open/close value for a weekday whose hours could not be parsed */
+    public static final int UNPARSED = -2;
+
+    /** No hours recorded at all */
+    public static final CompiledOpeningHours UNKNOWN = new CompiledOpeningHours(null, null, null);
+
+    private static final String[] WEEKDAY_KEYS = {
+            "monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday"
+    };
+    private static final short[] ALL_DAY = {0, MINUTES_PER_DAY};
+
+    // Open intervals per weekday (Monday first) as sorted, non-overlapping [start, end) minute pairs;
+    // null when the hours are unknown
+    private final short[][] intervals;
+    // Hours as declared, open and close per weekday, or CLOSED / UNPARSED
+    private final short[] declared;
+    // Human-readable weekly summary, computed once
+    private final String description;
+
+    private CompiledOpeningHours(short[][] intervals, short[] declared, String description) {
+        this.intervals = intervals;
+        this.declared = declared;
+        this.description = description;
+    }
+
+    public static CompiledOpeningHours compile(Map<String, Object> hours) {
+        if (hours == null) {
+            return UNKNOWN;
+        }
+        short[] declared = new short[WEEKDAY_KEYS.length * 2];
+        Arrays.fill(declared, (short) CLOSED);
+        boolean hasWeekdays = false;
+
+        @SuppressWarnings("unchecked")
+        List<int[]>[] open = new List[WEEKDAY_KEYS.length];
+        for (int day = 0; day < WEEKDAY_KEYS.length; day++) {
+            open[day] = new ArrayList<>(2);
+        }
+
+        for (int day = 0; day < WEEKDAY_KEYS.length; day++) {
+            if (!hours.containsKey(WEEKDAY_KEYS[day])) {
+                continue;
+            }
+            hasWeekdays = true;
+            if (!(hours.get(WEEKDAY_KEYS[day]) instanceof Map<?, ?> dayMap)) {
+                continue;
+            }
+            int openMinute = parseMinute(dayMap.get("open"));
+            int closeMinute = parseMinute(dayMap.get("close"));
+            if (openMinute < 0 || closeMinute < 0) {
+                declared[day * 2] = UNPARSED;
+                declared[day * 2 + 1] = UNPARSED;
+                open[day].add(new int[]{0, MINUTES_PER_DAY});
+                continue;
+            }
+            declared[day * 2] = (short) openMinute;
+            declared[day * 2 + 1] = (short) closeMinute;
+
+            if (closeMinute <= openMinute) {
+                open[day].add(new int[]{openMinute, MINUTES_PER_DAY});
+                if (closeMinute > 0) {
+                    open[(day + 1) % WEEKDAY_KEYS.length].add(new int[]{0, closeMinute});
+                }
+            } else {
+                // "23:59" is the usual way of writing "until midnight"
+                open[day].add(new int[]{openMinute, closeMinute == MINUTES_PER_DAY - 1 ? MINUTES_PER_DAY : closeMinute});
+            }
+        }
+
+        String description = describe(hours);
+        if (!hasWeekdays) {
+            return new CompiledOpeningHours(null, declared, description);
+        }
+        short[][] intervals = new short[WEEKDAY_KEYS.length][];
+        for (int day = 0; day < WEEKDAY_KEYS.length; day++) {
+            intervals[day] = merge(open[day]);
+        }
+        return new CompiledOpeningHours(intervals, declared, description);
+    }
+
+    /**
+     * Whether any weekday hours are known; unknown hours are treated as always open
+     */
+    public boolean isKnown() {
+        return intervals != null;
+    }
+
+    public boolean isOpenAt(LocalDateTime dateTime) {
+        return isOpenAt(dateTime.getDayOfWeek(), minuteOf(dateTime));
+    }
+
+    public boolean isOpenAt(DayOfWeek dayOfWeek, int minuteOfDay) {
+        short[] day = intervalsOf(dayOfWeek);
+        for (int i = 0; i < day.length; i += 2) {
+            if (minuteOfDay < day[i]) {
+                return false;
+            }
+            if (minuteOfDay < day[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the place stays open for the whole visit starting at the given time, including
+     * visits that run past midnight into hours carried over to the next day.
+     */
+    public boolean isOpenFor(LocalDateTime start, int durationMinutes) {
+        int end = openUntil(start.getDayOfWeek(), minuteOf(start));
+        return end >= 0 && end - minuteOf(start) >= durationMinutes;
+    }
+
+    /**
+     * Returns the first window, starting no earlier than {@code from}, that stays open for at least
+     * {@code minMinutes}. The window start is clipped to {@code from}. Looks one week ahead.
+     */
+    public Optional<Window> nextOpenWindow(LocalDateTime from, int minMinutes) {
+        LocalDateTime midnight = from.toLocalDate().atStartOfDay();
+        int fromMinute = minuteOf(from);
+        for (int offset = 0; offset <= WEEKDAY_KEYS.length; offset++) {
+            DayOfWeek dayOfWeek = from.getDayOfWeek().plus(offset);
+            short[] day = intervalsOf(dayOfWeek);
+            for (int i = 0; i < day.length; i += 2) {
+                int start = offset == 0 ? Math.max(day[i], fromMinute) : day[i];
+                if (start >= day[i + 1]) {
+                    continue;
+                }
+                int end = openUntil(dayOfWeek, start);
+                if (end - start >= minMinutes) {
+                    LocalDateTime dayStart = midnight.plusDays(offset);
+                    return Optional.of(new Window(dayStart.plusMinutes(start), dayStart.plusMinutes(end)));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the interval of the given weekday that overlaps {@code [from, to)} the most, as
+     * {open, close} minutes (close may be {@link #MINUTES_PER_DAY}), or {0, 0} if none does.
+     * Used by the route planner, which schedules each day against a single window.
+     */
+    public int[] bestWindow(DayOfWeek dayOfWeek, int from, int to) {
+        short[] day = intervalsOf(dayOfWeek);
+        int[] best = {0, 0};
+        int bestOverlap = 0;
+        for (int i = 0; i < day.length; i += 2) {
+            int overlap = Math.min(to, day[i + 1]) - Math.max(from, day[i]);
+            if (overlap > bestOverlap) {
+                bestOverlap = overlap;
+                best = new int[]{day[i], day[i + 1]};
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Declared opening minute for the weekday, or {@link #CLOSED} / {@link #UNPARSED}
+     */
+    public int declaredOpen(DayOfWeek dayOfWeek) {
+        return declared != null ? declared[(dayOfWeek.getValue() - 1) * 2] : CLOSED;
+    }
+
+    /**
+     * Declared closing minute for the weekday, or {@link #CLOSED} / {@link #UNPARSED}
+     */
+    public int declaredClose(DayOfWeek dayOfWeek) {
+        return declared != null ? declared[(dayOfWeek.getValue() - 1) * 2 + 1] : CLOSED;
+    }
+
+    /**
+     * Readable weekly summary, e.g. "Monday: 09:00-17:00, Tuesday: closed, ..."; null when unknown
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    public static String weekdayKey(DayOfWeek dayOfWeek) {
+        return WEEKDAY_KEYS[dayOfWeek.getValue() - 1];
+    }
+
+    public static String formatMinute(int minuteOfDay) {
+        return String.format("%02d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    /**
+     * Minute at which the place closes when it is open at {@code minuteOfDay}, following hours
+     * carried over past midnight; -1 if it is closed then.
+     */
+    private int openUntil(DayOfWeek dayOfWeek, int minuteOfDay) {
+        short[] day = intervalsOf(dayOfWeek);
+        for (int i = 0; i < day.length; i += 2) {
+            if (minuteOfDay >= day[i] && minuteOfDay < day[i + 1]) {
+                if (day[i + 1] < MINUTES_PER_DAY) {
+                    return day[i + 1];
+                }
+                short[] next = intervalsOf(dayOfWeek.plus(1));
+                return next.length > 0 && next[0] == 0 ? MINUTES_PER_DAY + next[1] : MINUTES_PER_DAY;
+            }
+        }
+        return -1;
+    }
+
+    private short[] intervalsOf(DayOfWeek dayOfWeek) {
+        return intervals != null ? intervals[dayOfWeek.getValue() - 1] : ALL_DAY;
+    }
+
+    private static short[] merge(List<int[]> ranges) {
+        if (ranges.isEmpty()) {
+            return new short[0];
+        }
+        ranges.sort((a, b) -> Integer.compare(a[0], b[0]));
+        List<int[]> merged = new ArrayList<>(ranges.size());
+        for (int[] range : ranges) {
+            int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && range[0] <= last[1]) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                merged.add(range.clone());
+            }
+        }
+        short[] packed = new short[merged.size() * 2];
+        for (int i = 0; i < merged.size(); i++) {
+            packed[i * 2] = (short) merged.get(i)[0];
+            packed[i * 2 + 1] = (short) merged.get(i)[1];
+        }
+        return packed;
+    }
+
+    private static int minuteOf(LocalDateTime dateTime) {
+        return dateTime.getHour() * 60 + dateTime.getMinute();
+    }
+
+    private static int parseMinute(Object value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return LocalTime.parse(value.toString()).toSecondOfDay() / 60;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static String describe(Map<String, Object> hours) {
+        StringBuilder text = new StringBuilder();
+        for (int day = 0; day < WEEKDAY_KEYS.length; day++) {
+            if (day > 0) {
+                text.append(", ");
+            }
+            String weekday = WEEKDAY_KEYS[day];
+            text.append(Character.toUpperCase(weekday.charAt(0))).append(weekday.substring(1)).append(": ");
+            if (hours.get(weekday) instanceof Map<?, ?> dayMap
+                    && dayMap.get("open") instanceof String open
+                    && dayMap.get("close") instanceof String close) {
+                text.append(open).append("-").append(close);
+            } else {
+                text.append("closed");
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * An opening window; {@code end} may fall on the following day for hours past midnight
+     */
+    public record Window(LocalDateTime start, LocalDateTime end) {
+
+        public long minutes() {
+            return Duration.between(start, end).toMinutes();
+        }
+    }
+}
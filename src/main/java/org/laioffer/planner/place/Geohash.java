@@ -0,0 +1,78 @@
+package org.laioffer.planner.place;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Minimal geohash encoder used for place deduplication cells.
+ */
+public final class Geohash {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private Geohash() {}
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLng = -180, maxLng = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int ch = 0;
+
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLng + maxLng) / 2;
+                if (longitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLng = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                hash.append(BASE32[ch]);
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * The cell containing the point plus its eight neighbours, so matches across a cell edge are found.
+     */
+    public static Set<String> cellAndNeighbours(double latitude, double longitude, int precision) {
+        int bits = precision * 5;
+        double cellHeight = 180.0 / (1L << (bits / 2));
+        double cellWidth = 360.0 / (1L << ((bits + 1) / 2));
+
+        Set<String> cells = new LinkedHashSet<>(9);
+        cells.add(encode(latitude, longitude, precision));
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                double lat = Math.max(-90, Math.min(90 - 1e-9, latitude + dy * cellHeight));
+                double lng = longitude + dx * cellWidth;
+                if (lng >= 180) {
+                    lng -= 360;
+                } else if (lng < -180) {
+                    lng += 360;
+                }
+                cells.add(encode(lat, lng, precision));
+            }
+        }
+        return cells;
+    }
+}
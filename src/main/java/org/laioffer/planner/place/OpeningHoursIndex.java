@@ -0,0 +1,78 @@
+package org.laioffer.planner.place;
+
+import org.laioffer.planner.cache.TtlCache;
+import org.laioffer.planner.entity.PlaceEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Compiled opening hours by place id, so the jsonb hours of a catalogue place are parsed once
+ * rather than on every DTO conversion or schedule check. An entry is recompiled when the place's
+ * {@code updated_at} no longer matches the one it was compiled from.
+ */
+@Component
+public class OpeningHoursIndex {
+
+    private final TtlCache<UUID, Entry> compiled;
+
+    public OpeningHoursIndex(@Value("${app.places.opening-hours-cache.max-entries:20000}") int maxEntries,
+                             @Value("${app.places.opening-hours-cache.ttl:PT6H}") Duration ttl) {
+        this.compiled = new TtlCache<>(maxEntries, ttl);
+    }
+
+    public CompiledOpeningHours forPlace(PlaceEntity place) {
+        if (place == null || place.getOpeningHours() == null) {
+            return CompiledOpeningHours.UNKNOWN;
+        }
+        if (place.getId() == null) {
+            return CompiledOpeningHours.compile(place.getOpeningHours());
+        }
+        Entry entry = compiled.get(place.getId());
+        if (entry != null && Objects.equals(entry.updatedAt, place.getUpdatedAt())) {
+            return entry.hours;
+        }
+        CompiledOpeningHours hours = CompiledOpeningHours.compile(place.getOpeningHours());
+        compiled.put(place.getId(), new Entry(hours, place.getUpdatedAt()));
+        return hours;
+    }
+
+    /**
+     * Compiled hours for a batch of places, keyed by place id
+     */
+    public Map<UUID, CompiledOpeningHours> forPlaces(Collection<PlaceEntity> places) {
+        Map<UUID, CompiledOpeningHours> result = new HashMap<>(places.size() * 2);
+        for (PlaceEntity place : places) {
+            if (place != null && place.getId() != null) {
+                result.put(place.getId(), forPlace(place));
+            }
+        }
+        return result;
+    }
+
+    public boolean isOpenAt(PlaceEntity place, LocalDateTime dateTime) {
+        return forPlace(place).isOpenAt(dateTime);
+    }
+
+    /**
+     * First window from {@code from} onwards in which the place stays open for {@code minMinutes}
+     */
+    public Optional<CompiledOpeningHours.Window> nextOpenWindow(PlaceEntity place, LocalDateTime from, int minMinutes) {
+        return forPlace(place).nextOpenWindow(from, minMinutes);
+    }
+
+    public void invalidate(UUID placeId) {
+        compiled.invalidate(placeId);
+    }
+
+    private record Entry(CompiledOpeningHours hours, LocalDateTime updatedAt) {
+    }
+}
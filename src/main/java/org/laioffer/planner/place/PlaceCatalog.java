@@ -0,0 +1,121 @@
+package org.laioffer.planner.place;
+
+import org.laioffer.planner.entity.PlaceEntity;
+import org.laioffer.planner.repository.PlaceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves candidate places (e.g. LLM suggestions) against the shared place catalogue so that
+ * one real-world place is stored once and linked to many itineraries.
+ */
+@Component
+public class PlaceCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaceCatalog.class);
+
+    private final PlaceRepository placeRepository;
+
+    public PlaceCatalog(PlaceRepository placeRepository) {
+        this.placeRepository = placeRepository;
+    }
+
+    /**
+     * Matches every candidate against existing catalogue rows with a single IN query on the
+     * dedup key (own geohash cell plus neighbours). Candidates that duplicate each other are
+     * collapsed as well. Candidates must not be persisted yet.
+     */
+    public Resolution resolve(List<PlaceEntity> candidates) {
+        Map<PlaceEntity, Set<String>> candidateKeys = new IdentityHashMap<>();
+        Set<String> allKeys = new LinkedHashSet<>();
+        for (PlaceEntity candidate : candidates) {
+            candidate.refreshDedupKey();
+            Set<String> keys = PlaceDedupKey.candidates(candidate.getName(), candidate.getLatitude(),
+                    candidate.getLongitude(), candidate.getAddress());
+            candidateKeys.put(candidate, keys);
+            allKeys.addAll(keys);
+        }
+
+        Map<String, PlaceEntity> catalogue = new HashMap<>();
+        if (!allKeys.isEmpty()) {
+            List<PlaceEntity> existing = new ArrayList<>(placeRepository.findAllByDedupKeyIn(allKeys));
+            // Oldest row wins when the catalogue itself still holds duplicates
+            existing.sort(Comparator.comparing(PlaceEntity::getCreatedAt,
+                    Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder())));
+            for (PlaceEntity place : existing) {
+                catalogue.putIfAbsent(place.getDedupKey(), place);
+            }
+        }
+
+        Map<String, PlaceEntity> createdInBatch = new HashMap<>();
+        Set<PlaceEntity> places = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<PlaceEntity> orderedPlaces = new ArrayList<>();
+        List<PlaceEntity> newPlaces = new ArrayList<>();
+        int reused = 0;
+
+        for (PlaceEntity candidate : candidates) {
+            PlaceEntity match = null;
+            boolean fromCatalogue = false;
+            for (String key : candidateKeys.get(candidate)) {
+                match = catalogue.get(key);
+                if (match != null) {
+                    fromCatalogue = true;
+                    break;
+                }
+                match = createdInBatch.get(key);
+                if (match != null) {
+                    break;
+                }
+            }
+
+            if (match == null) {
+                match = candidate;
+                newPlaces.add(candidate);
+                if (candidate.getDedupKey() != null) {
+                    createdInBatch.put(candidate.getDedupKey(), candidate);
+                }
+            } else if (fromCatalogue) {
+                reused++;
+            }
+
+            if (places.add(match)) {
+                orderedPlaces.add(match);
+            }
+        }
+
+        logger.debug("Resolved {} candidate places: {} reused from catalogue, {} new, {} duplicates collapsed",
+                candidates.size(), reused, newPlaces.size(), candidates.size() - orderedPlaces.size());
+        return new Resolution(orderedPlaces, newPlaces, reused);
+    }
+
+    /**
+     * Outcome of {@link #resolve}: the distinct places to link, and the subset that must be inserted
+     */
+    public static class Resolution {
+        private final List<PlaceEntity> places;
+        private final List<PlaceEntity> newPlaces;
+        private final int reusedCount;
+
+        Resolution(List<PlaceEntity> places, List<PlaceEntity> newPlaces, int reusedCount) {
+            this.places = places;
+            this.newPlaces = newPlaces;
+            this.reusedCount = reusedCount;
+        }
+
+        public List<PlaceEntity> getPlaces() { return places; }
+        public List<PlaceEntity> getNewPlaces() { return newPlaces; }
+        public int getReusedCount() { return reusedCount; }
+    }
+}
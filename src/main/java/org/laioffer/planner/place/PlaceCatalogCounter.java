@@ -0,0 +1,75 @@
+package org.laioffer.planner.place;
+
+import org.laioffer.planner.repository.PlaceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory size of the place catalogue, so callers do not run COUNT(*) over places per request.
+ * Incremented as places are inserted and reconciled with the table on a schedule, which also
+ * corrects drift from rolled-back imports or rows written outside the application.
+ */
+@Component
+public class PlaceCatalogCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaceCatalogCounter.class);
+    private static final long NOT_LOADED = -1;
+
+    private final PlaceRepository placeRepository;
+    private final AtomicLong totalPlaces = new AtomicLong(NOT_LOADED);
+
+    public PlaceCatalogCounter(PlaceRepository placeRepository) {
+        this.placeRepository = placeRepository;
+    }
+
+    /**
+     * Current catalogue size; only queries the table if the counter has never been loaded
+     */
+    public long getTotalPlaces() {
+        long total = totalPlaces.get();
+        if (total == NOT_LOADED) {
+            refresh();
+            total = totalPlaces.get();
+        }
+        return total;
+    }
+
+    /**
+     * Records newly inserted places, after commit when called inside a transaction
+     */
+    public void recordInserted(int count) {
+        if (count <= 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(count);
+                }
+            });
+        } else {
+            increment(count);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.places.count-refresh-interval:PT10M}")
+    public void refresh() {
+        try {
+            totalPlaces.set(placeRepository.count());
+        } catch (Exception e) {
+            logger.warn("Failed to refresh place catalogue count: {}", e.getMessage());
+        }
+    }
+
+    private void increment(int count) {
+        // Nothing to adjust until the first refresh has loaded a baseline
+        totalPlaces.getAndUpdate(total -> total == NOT_LOADED ? total : total + count);
+    }
+}
@@ -0,0 +1,124 @@
+package org.laioffer.planner.place;
+
+import org.laioffer.planner.model.place.NearbyPlaceDTO;
+import org.laioffer.planner.model.place.NearbyPlacesResponse;
+import org.laioffer.planner.model.place.PlaceDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/places")
+public class PlaceController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaceController.class);
+
+    private final PlaceSearchService placeSearchService;
+
+    public PlaceController(PlaceSearchService placeSearchService) {
+        this.placeSearchService = placeSearchService;
+    }
+
+    /**
+     * Places near a coordinate ("near me"), nearest first
+     *
+     * @param lat Latitude of the search center
+     * @param lng Longitude of the search center
+     * @param radiusMeters Optional search radius; without it the nearest places are returned regardless of distance
+     * @param limit Maximum number of places, default 20
+     * @return Places with their distance from the center, or 503 if the database has no PostGIS
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<NearbyPlacesResponse> findNearby(
+            @RequestParam("lat") double lat,
+            @RequestParam("lng") double lng,
+            @RequestParam(name = "radiusMeters", required = false) Double radiusMeters,
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
+
+        try {
+            return ResponseEntity.ok(placeSearchService.findNearby(lat, lng, radiusMeters, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (SearchUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (Exception e) {
+            logger.error("Error finding places near {}, {}: {}", lat, lng, e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Places near an existing place, e.g. a stop of a generated plan
+     *
+     * @param placeId UUID of the place to search around
+     * @param radiusMeters Optional search radius
+     * @param limit Maximum number of places, default 20
+     * @return Places with their distance from the given place, or 404 if it is unknown or has no coordinates
+     */
+    @GetMapping("/{placeId}/nearby")
+    public ResponseEntity<NearbyPlacesResponse> findNearPlace(
+            @PathVariable UUID placeId,
+            @RequestParam(name = "radiusMeters", required = false) Double radiusMeters,
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
+
+        try {
+            return placeSearchService.findNearPlace(placeId, radiusMeters, limit)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (SearchUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (Exception e) {
+            logger.error("Error finding places near place {}: {}", placeId, e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Places inside a bounding box, e.g. the visible map area
+     */
+    @GetMapping("/within")
+    public ResponseEntity<List<NearbyPlaceDTO>> findWithin(
+            @RequestParam("minLat") double minLat,
+            @RequestParam("maxLat") double maxLat,
+            @RequestParam("minLng") double minLng,
+            @RequestParam("maxLng") double maxLng,
+            @RequestParam(name = "limit", defaultValue = "100") int limit) {
+
+        try {
+            return ResponseEntity.ok(placeSearchService.findInBounds(minLat, maxLat, minLng, maxLng, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Error finding places within bounds: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Keyword search over the place catalogue, ranked by relevance
+     *
+     * @param q Keyword; prefixes and small misspellings of place names also match
+     * @param limit Maximum number of places, default 20
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<PlaceDTO>> search(
+            @RequestParam("q") String q,
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
+
+        try {
+            return ResponseEntity.ok(placeSearchService.searchByText(q, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Error searching places for '{}': {}", q, e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
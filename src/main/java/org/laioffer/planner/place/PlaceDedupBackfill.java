@@ -0,0 +1,72 @@
+package org.laioffer.planner.place;
+
+import org.laioffer.planner.entity.PlaceEntity;
+import org.laioffer.planner.repository.PlaceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Computes dedup keys for places created before the catalogue existed, so they can be matched.
+ * Runs once in the background after startup, in small transactions.
+ */
+@Component
+public class PlaceDedupBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaceDedupBackfill.class);
+
+    private final PlaceRepository placeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    public PlaceDedupBackfill(PlaceRepository placeRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.places.dedup-backfill-enabled:true}") boolean enabled) {
+        this.placeRepository = placeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+
+        UUID lastId = new UUID(0L, 0L);
+        int updated = 0;
+        try {
+            while (true) {
+                UUID after = lastId;
+                List<PlaceEntity> batch = transactionTemplate.execute(status -> {
+                    List<PlaceEntity> places = placeRepository.findTop500ByDedupKeyIsNullAndIdGreaterThanOrderByIdAsc(after);
+                    // Managed entities; the key is flushed on commit
+                    places.forEach(PlaceEntity::refreshDedupKey);
+                    return places;
+                });
+                if (batch == null || batch.isEmpty()) {
+                    break;
+                }
+                updated += batch.size();
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } catch (Exception e) {
+            logger.warn("Place dedup key backfill stopped after {} rows: {}", updated, e.getMessage());
+            return;
+        }
+
+        if (updated > 0) {
+            logger.info("Backfilled dedup keys for {} places", updated);
+        }
+    }
+}
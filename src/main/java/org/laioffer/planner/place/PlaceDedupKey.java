@@ -0,0 +1,73 @@
+package org.laioffer.planner.place;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Builds catalogue dedup keys of the form {@code <normalized name>@<geohash>}.
+ * Places without coordinates fall back to {@code <normalized name>#<normalized address>}.
+ */
+public final class PlaceDedupKey {
+
+    // Precision 6 is roughly 1.2 km x 0.6 km; neighbour cells are checked as well
+    static final int GEOHASH_PRECISION = 6;
+
+    // Accents are folded on Latin letters only; in other scripts (e.g. kana voicing marks) they tell names apart
+    private static final Pattern DIACRITICS = Pattern.compile("(?<=\\p{IsLatin})\\p{M}+");
+    // Letters, digits and marks of every script, so non-Latin names do not normalize to an empty key
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}\\p{M}]+");
+    private static final Pattern LEADING_ARTICLE = Pattern.compile("^(the|la|le|el|il) ");
+
+    private PlaceDedupKey() {}
+
+    /**
+     * The key stored on a place row, or null when the place has no name
+     */
+    public static String of(String name, BigDecimal latitude, BigDecimal longitude, String address) {
+        String normalizedName = normalize(name);
+        if (normalizedName.isEmpty()) {
+            return null;
+        }
+        if (hasLocation(latitude, longitude)) {
+            return normalizedName + "@" + Geohash.encode(latitude.doubleValue(), longitude.doubleValue(), GEOHASH_PRECISION);
+        }
+        return normalizedName + "#" + normalize(address);
+    }
+
+    /**
+     * Every stored key that should be treated as the same place: the place's own cell and its neighbours
+     */
+    public static Set<String> candidates(String name, BigDecimal latitude, BigDecimal longitude, String address) {
+        String normalizedName = normalize(name);
+        Set<String> keys = new LinkedHashSet<>();
+        if (normalizedName.isEmpty()) {
+            return keys;
+        }
+        if (hasLocation(latitude, longitude)) {
+            for (String cell : Geohash.cellAndNeighbours(latitude.doubleValue(), longitude.doubleValue(), GEOHASH_PRECISION)) {
+                keys.add(normalizedName + "@" + cell);
+            }
+        } else {
+            keys.add(normalizedName + "#" + normalize(address));
+        }
+        return keys;
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(
+                DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll(""), Normalizer.Form.NFC);
+        String simplified = NON_ALPHANUMERIC.matcher(folded.toLowerCase(Locale.ROOT).replace("&", " and ")).replaceAll(" ").trim();
+        return LEADING_ARTICLE.matcher(simplified).replaceFirst("");
+    }
+
+    private static boolean hasLocation(BigDecimal latitude, BigDecimal longitude) {
+        return latitude != null && longitude != null && (latitude.signum() != 0 || longitude.signum() != 0);
+    }
+}
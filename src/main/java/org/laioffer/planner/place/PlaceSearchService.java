@@ -0,0 +1,182 @@
+package org.laioffer.planner.place;
+
+import org.laioffer.planner.Recommendation.PlaceMapper;
+import org.laioffer.planner.config.DatabaseFeatures;
+import org.laioffer.planner.entity.PlaceEntity;
+import org.laioffer.planner.model.common.GeoPoint;
+import org.laioffer.planner.model.place.NearbyPlaceDTO;
+import org.laioffer.planner.model.place.NearbyPlacesResponse;
+import org.laioffer.planner.model.place.PlaceDTO;
+import org.laioffer.planner.repository.PlaceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Geographic and text lookups over the shared place catalogue, backed by the PostGIS index on
+ * places.location and the search_vector / trigram indexes. Without PostGIS, bounding-box search
+ * compares the numeric coordinates and nearby search is unavailable; without the search indexes,
+ * keyword search matches substrings ordered by name.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PlaceSearchService {
+
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private final PlaceRepository placeRepository;
+    private final PlaceMapper placeMapper;
+    private final DatabaseFeatures databaseFeatures;
+    private final double maxRadiusMeters;
+    private final int maxResults;
+
+    public PlaceSearchService(PlaceRepository placeRepository,
+                              PlaceMapper placeMapper,
+                              DatabaseFeatures databaseFeatures,
+                              @Value("${app.places.nearby-max-radius-meters:50000}") double maxRadiusMeters,
+                              @Value("${app.places.nearby-max-results:100}") int maxResults) {
+        this.placeRepository = placeRepository;
+        this.placeMapper = placeMapper;
+        this.databaseFeatures = databaseFeatures;
+        this.maxRadiusMeters = maxRadiusMeters;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Places around a point, nearest first. Without a radius this is a pure k-nearest search.
+     */
+    public NearbyPlacesResponse findNearby(double latitude, double longitude, Double radiusMeters, int limit) {
+        validateCoordinates(latitude, longitude);
+        validateLimit(limit);
+
+        List<PlaceEntity> places = search(latitude, longitude, radiusMeters, limit);
+        return toResponse(latitude, longitude, radiusMeters, places, null, limit);
+    }
+
+    /**
+     * Places around an existing catalogue place (e.g. a stop in a plan), excluding the place itself.
+     * Empty if the place does not exist or has no coordinates.
+     */
+    public Optional<NearbyPlacesResponse> findNearPlace(UUID placeId, Double radiusMeters, int limit) {
+        if (placeId == null) {
+            throw new IllegalArgumentException("Place ID cannot be null");
+        }
+        validateLimit(limit);
+
+        Optional<PlaceEntity> origin = placeRepository.findById(placeId)
+                .filter(place -> place.getLatitude() != null && place.getLongitude() != null);
+        if (origin.isEmpty()) {
+            return Optional.empty();
+        }
+
+        double latitude = origin.get().getLatitude().doubleValue();
+        double longitude = origin.get().getLongitude().doubleValue();
+        // One extra row since the origin itself is always its own nearest neighbour
+        List<PlaceEntity> places = search(latitude, longitude, radiusMeters, limit + 1);
+        return Optional.of(toResponse(latitude, longitude, radiusMeters, places, placeId, limit));
+    }
+
+    /**
+     * Places inside a bounding box, in no particular order
+     */
+    public List<NearbyPlaceDTO> findInBounds(double minLatitude, double maxLatitude,
+                                             double minLongitude, double maxLongitude, int limit) {
+        validateCoordinates(minLatitude, minLongitude);
+        validateCoordinates(maxLatitude, maxLongitude);
+        validateLimit(limit);
+        if (minLatitude > maxLatitude || minLongitude > maxLongitude) {
+            throw new IllegalArgumentException("Bounding box minimum must not exceed maximum");
+        }
+
+        double centerLatitude = (minLatitude + maxLatitude) / 2;
+        double centerLongitude = (minLongitude + maxLongitude) / 2;
+        List<PlaceEntity> places = databaseFeatures.spatialSearch()
+                ? placeRepository.findPlacesInBounds(minLatitude, maxLatitude, minLongitude, maxLongitude, limit)
+                : placeRepository.findPlacesInBoundsByCoordinates(BigDecimal.valueOf(minLatitude),
+                        BigDecimal.valueOf(maxLatitude), BigDecimal.valueOf(minLongitude),
+                        BigDecimal.valueOf(maxLongitude), Limit.of(limit));
+        return places.stream()
+                .map(place -> toNearbyPlace(place, centerLatitude, centerLongitude))
+                .toList();
+    }
+
+    /**
+     * Catalogue places matching a keyword, best match first
+     */
+    public List<PlaceDTO> searchByText(String query, int limit) {
+        validateLimit(limit);
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query cannot be empty");
+        }
+
+        String keyword = query.trim();
+        List<PlaceEntity> places = databaseFeatures.rankedSearch()
+                ? placeRepository.searchRanked(PlaceTextQuery.toPrefixTsQuery(keyword), keyword, limit)
+                : placeRepository.searchByKeyword(keyword, Limit.of(limit));
+        return places.stream()
+                .map(placeMapper::toPlaceDTO)
+                .toList();
+    }
+
+    private List<PlaceEntity> search(double latitude, double longitude, Double radiusMeters, int limit) {
+        if (!databaseFeatures.spatialSearch()) {
+            throw new SearchUnavailableException("Nearby search needs PostGIS, which this database does not provide");
+        }
+        if (radiusMeters == null) {
+            return placeRepository.findNearestPlaces(latitude, longitude, limit);
+        }
+        if (radiusMeters <= 0 || radiusMeters > maxRadiusMeters) {
+            throw new IllegalArgumentException("Radius must be between 0 and " + maxRadiusMeters + " meters");
+        }
+        return placeRepository.findPlacesWithinRadius(latitude, longitude, radiusMeters, limit);
+    }
+
+    private NearbyPlacesResponse toResponse(double latitude, double longitude, Double radiusMeters,
+                                            List<PlaceEntity> places, UUID excludedId, int limit) {
+        List<NearbyPlaceDTO> items = places.stream()
+                .filter(place -> !place.getId().equals(excludedId))
+                .limit(limit)
+                .map(place -> toNearbyPlace(place, latitude, longitude))
+                .toList();
+        return new NearbyPlacesResponse(new GeoPoint(latitude, longitude), radiusMeters, items);
+    }
+
+    private NearbyPlaceDTO toNearbyPlace(PlaceEntity place, double latitude, double longitude) {
+        double distance = distanceMeters(latitude, longitude,
+                place.getLatitude().doubleValue(), place.getLongitude().doubleValue());
+        return new NearbyPlaceDTO(placeMapper.toPlaceDTO(place), Math.round(distance * 10) / 10.0);
+    }
+
+    private void validateCoordinates(double latitude, double longitude) {
+        if (latitude < -90 || latitude > 90) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90");
+        }
+        if (longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Longitude must be between -180 and 180");
+        }
+    }
+
+    private void validateLimit(int limit) {
+        if (limit < 1 || limit > maxResults) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxResults);
+        }
+    }
+
+    /**
+     * Great-circle distance on a spherical earth; within ~0.5% of PostGIS' spheroidal distance
+     */
+    static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
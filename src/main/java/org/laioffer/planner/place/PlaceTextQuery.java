@@ -0,0 +1,27 @@
+package org.laioffer.planner.place;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Turns free-text user input into a PostgreSQL prefix tsquery, e.g. "Golden gat" -> "golden:* & gat:*".
+ * Only letters and digits survive, so the result is always valid input for to_tsquery.
+ */
+public final class PlaceTextQuery {
+
+    private PlaceTextQuery() {}
+
+    /**
+     * @return the tsquery text, or an empty string if the input has no searchable terms
+     */
+    public static String toPrefixTsQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        return Arrays.stream(query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
@@ -0,0 +1,11 @@
+package org.laioffer.planner.place;
+
+/**
+ * Thrown when a search needs database features (e.g. PostGIS) that the connected database lacks
+ */
+public class SearchUnavailableException extends RuntimeException {
+
+    public SearchUnavailableException(String message) {
+        super(message);
+    }
+}
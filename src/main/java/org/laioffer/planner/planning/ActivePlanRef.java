@@ -0,0 +1,26 @@
+package org.laioffer.planner.planning;
+
+import org.laioffer.planner.cache.EntityTags;
+
+import java.util.UUID;
+
+/**
+ * Identity of an itinerary's active plan row, read without the plan document. A plan version is
+ * never rewritten while it is active, so the row id and version fully determine the response.
+ */
+public record ActivePlanRef(UUID planId, Integer version) {
+
+    /**
+     * Strong entity tag for the plan's JSON representation
+     */
+    public String etag() {
+        return "\"" + planId + "-v" + version + "\"";
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header names this plan's entity tag (weak comparison)
+     */
+    public boolean matches(String ifNoneMatch) {
+        return EntityTags.matches(ifNoneMatch, etag());
+    }
+}
@@ -0,0 +1,55 @@
+package org.laioffer.planner.planning;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.laioffer.planner.cache.TtlCache;
+import org.laioffer.planner.model.planning.PlanItineraryResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Serialized JSON of active plans, keyed by plan row and version. Repeat reads of an unchanged
+ * active plan skip both decoding the stored document and Jackson serialization. Bytes are written
+ * with the application ObjectMapper, so they match what the message converter would produce.
+ */
+@Component
+public class ActivePlanResponseCache {
+
+    private final ObjectWriter writer;
+    private final TtlCache<ActivePlanRef, byte[]> serialized;
+
+    public ActivePlanResponseCache(ObjectMapper objectMapper,
+                                   @Value("${app.planning.active-plan-cache.max-entries:2000}") int maxEntries,
+                                   @Value("${app.planning.active-plan-cache.ttl:PT30M}") Duration ttl) {
+        this.writer = objectMapper.writerFor(PlanItineraryResponse.class);
+        this.serialized = new TtlCache<>(maxEntries, ttl);
+    }
+
+    /**
+     * Returns the plan's JSON, loading and serializing it on a miss; empty if the loader finds nothing
+     */
+    public Optional<byte[]> get(ActivePlanRef ref, Supplier<Optional<PlanItineraryResponse>> loader) {
+        byte[] bytes = serialized.get(ref);
+        if (bytes != null) {
+            return Optional.of(bytes);
+        }
+        return loader.get().map(plan -> {
+            byte[] json = serialize(plan);
+            serialized.put(ref, json);
+            return json;
+        });
+    }
+
+    private byte[] serialize(PlanItineraryResponse plan) {
+        try {
+            return writer.writeValueAsBytes(plan);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize plan for itinerary " + plan.getItineraryId(), e);
+        }
+    }
+}
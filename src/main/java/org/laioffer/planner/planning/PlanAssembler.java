@@ -0,0 +1,108 @@
+package org.laioffer.planner.planning;
+
+import org.laioffer.planner.Recommendation.PlaceMapper;
+import org.laioffer.planner.entity.ItineraryPlaceEntity;
+import org.laioffer.planner.model.planning.PlanItineraryResponse;
+import org.laioffer.planner.model.planning.PlannedDay;
+import org.laioffer.planner.model.planning.PlannedStop;
+import org.laioffer.planner.planning.ai.model.AiPlanResponse;
+import org.laioffer.planner.planning.ai.model.AiPlannedDay;
+import org.laioffer.planner.planning.ai.model.AiPlannedStop;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Turns an AI (or locally optimized) plan into the API response format.
+ * Stops are resolved against an in-memory placeId index built from places that were already
+ * loaded with their PlaceEntity, so assembly issues no queries of its own.
+ */
+@Component
+public class PlanAssembler {
+
+    private final PlaceMapper placeMapper;
+
+    public PlanAssembler(PlaceMapper placeMapper) {
+        this.placeMapper = placeMapper;
+    }
+
+    /**
+     * Builds a placeId -> ItineraryPlaceEntity index. The entities should have their place fetched.
+     */
+    public Map<UUID, ItineraryPlaceEntity> indexByPlaceId(List<ItineraryPlaceEntity> itineraryPlaces) {
+        Map<UUID, ItineraryPlaceEntity> index = new HashMap<>(itineraryPlaces.size() * 2);
+        for (ItineraryPlaceEntity itineraryPlace : itineraryPlaces) {
+            index.put(itineraryPlace.getPlaceId(), itineraryPlace);
+        }
+        return index;
+    }
+
+    /**
+     * Converts the AI response into the API response format.
+     */
+    public PlanItineraryResponse toPlanResponse(UUID itineraryId, AiPlanResponse aiResponse,
+                                                Map<UUID, ItineraryPlaceEntity> placeIndex) {
+        PlanItineraryResponse response = new PlanItineraryResponse();
+
+        // Set the itinerary ID
+        response.setItineraryId(itineraryId);
+
+        // Convert AI days to API format
+        List<PlannedDay> days = aiResponse.getDays().stream()
+                .map(aiDay -> toPlannedDay(aiDay, placeIndex))
+                .collect(Collectors.toList());
+        response.setDays(days);
+
+        return response;
+    }
+
+    /**
+     * Converts an AI planned day to the API PlannedDay format.
+     */
+    public PlannedDay toPlannedDay(AiPlannedDay aiDay, Map<UUID, ItineraryPlaceEntity> placeIndex) {
+        PlannedDay day = new PlannedDay();
+
+        // Convert date to String format
+        day.setDate(aiDay.getDate() != null ? aiDay.getDate().toString() : null);
+
+        // Convert stops with order
+        List<PlannedStop> stops = new ArrayList<>();
+        for (int i = 0; i < aiDay.getStops().size(); i++) {
+            stops.add(toPlannedStop(aiDay.getStops().get(i), i + 1, placeIndex));
+        }
+        day.setStops(stops);
+
+        return day;
+    }
+
+    /**
+     * Converts an AI planned stop to the API PlannedStop format.
+     */
+    private PlannedStop toPlannedStop(AiPlannedStop aiStop, int order, Map<UUID, ItineraryPlaceEntity> placeIndex) {
+        PlannedStop stop = new PlannedStop();
+
+        // Set order
+        stop.setOrder(order);
+
+        // Set timing information
+        stop.setArrivalLocal(aiStop.getArrivalTime() != null ? aiStop.getArrivalTime().toString() : null);
+        stop.setDepartLocal(aiStop.getDepartureTime() != null ? aiStop.getDepartureTime().toString() : null);
+        stop.setStayMinutes(aiStop.getDurationMinutes() != null ? aiStop.getDurationMinutes() : 0);
+        stop.setNote(aiStop.getActivity());
+
+        // Resolve place information from the index if placeId is available
+        if (aiStop.getPlaceId() != null) {
+            ItineraryPlaceEntity itineraryPlace = placeIndex.get(aiStop.getPlaceId());
+            if (itineraryPlace != null) {
+                stop.setPlace(placeMapper.toItineraryPlaceDTO(itineraryPlace));
+            }
+        }
+
+        return stop;
+    }
+}
@@ -0,0 +1,164 @@
+package org.laioffer.planner.planning;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.laioffer.planner.model.common.ApiError;
+import org.laioffer.planner.model.planning.PlanItineraryResponse;
+import org.laioffer.planner.model.planning.PlannedDay;
+import org.laioffer.planner.model.planning.PlannedStop;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Structural diff between two plan versions, stored in place of a full plan document for older
+ * versions. Days are addressed by index; a changed day is either replaced whole (new day or new
+ * date) or patched stop by stop. Built by {@link PlanDocumentCodec#diff}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PlanDelta {
+
+    private int dayCount;
+    private List<DayChange> days = new ArrayList<>();
+    private boolean warningsChanged;
+    private List<ApiError> warnings;
+
+    /**
+     * Rebuilds the target plan from the base plan. The base plan's lists are modified in place.
+     */
+    public PlanItineraryResponse applyTo(PlanItineraryResponse base) {
+        List<PlannedDay> planDays = base.getDays() != null ? new ArrayList<>(base.getDays()) : new ArrayList<>();
+        resize(planDays, dayCount);
+        for (DayChange change : days) {
+            if (change.getDay() != null) {
+                planDays.set(change.getIndex(), change.getDay());
+                continue;
+            }
+            PlannedDay day = planDays.get(change.getIndex());
+            List<PlannedStop> stops = day.getStops() != null ? new ArrayList<>(day.getStops()) : new ArrayList<>();
+            resize(stops, change.getStopCount());
+            for (StopChange stopChange : change.getStops()) {
+                stops.set(stopChange.getIndex(), stopChange.getStop());
+            }
+            day.setStops(stops);
+        }
+        base.setDays(planDays);
+        if (warningsChanged) {
+            base.setWarnings(warnings);
+        }
+        return base;
+    }
+
+    private static <T> void resize(List<T> list, int size) {
+        while (list.size() > size) {
+            list.remove(list.size() - 1);
+        }
+        while (list.size() < size) {
+            list.add(null);
+        }
+    }
+
+    public int getDayCount() {
+        return dayCount;
+    }
+
+    public void setDayCount(int dayCount) {
+        this.dayCount = dayCount;
+    }
+
+    public List<DayChange> getDays() {
+        return days;
+    }
+
+    public void setDays(List<DayChange> days) {
+        this.days = days;
+    }
+
+    public boolean isWarningsChanged() {
+        return warningsChanged;
+    }
+
+    public void setWarningsChanged(boolean warningsChanged) {
+        this.warningsChanged = warningsChanged;
+    }
+
+    public List<ApiError> getWarnings() {
+        return warnings;
+    }
+
+    public void setWarnings(List<ApiError> warnings) {
+        this.warnings = warnings;
+    }
+
+    /**
+     * A changed day: {@code day} replaces it whole, otherwise {@code stops} patch it to {@code stopCount} stops
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class DayChange {
+        private int index;
+        private PlannedDay day;
+        private int stopCount;
+        private List<StopChange> stops = new ArrayList<>();
+
+        public DayChange() {}
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public PlannedDay getDay() {
+            return day;
+        }
+
+        public void setDay(PlannedDay day) {
+            this.day = day;
+        }
+
+        public int getStopCount() {
+            return stopCount;
+        }
+
+        public void setStopCount(int stopCount) {
+            this.stopCount = stopCount;
+        }
+
+        public List<StopChange> getStops() {
+            return stops;
+        }
+
+        public void setStops(List<StopChange> stops) {
+            this.stops = stops;
+        }
+    }
+
+    public static class StopChange {
+        private int index;
+        private PlannedStop stop;
+
+        public StopChange() {}
+
+        public StopChange(int index, PlannedStop stop) {
+            this.index = index;
+            this.stop = stop;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public PlannedStop getStop() {
+            return stop;
+        }
+
+        public void setStop(PlannedStop stop) {
+            this.stop = stop;
+        }
+    }
+}
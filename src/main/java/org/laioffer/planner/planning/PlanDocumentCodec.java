@@ -0,0 +1,147 @@
+package org.laioffer.planner.planning;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.laioffer.planner.entity.PlanEntity;
+import org.laioffer.planner.model.planning.PlanItineraryResponse;
+import org.laioffer.planner.model.planning.PlannedDay;
+import org.laioffer.planner.model.planning.PlannedStop;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reads and writes the plan document stored in {@code plans.plan_data}. Plans are bound directly
+ * to {@link PlanItineraryResponse} with a reader and writer built once, instead of going through
+ * an intermediate {@code Map<String, Object>} graph.
+ *
+ * Schema versions: 1 (or null) is the original map document {itineraryId, days, warnings}, which
+ * has the same shape and is read as is; 2 is the typed document written since.
+ *
+ * Older plan versions may instead hold a {@link PlanDelta} against the next newer version, see
+ * {@link #diff}.
+ */
+@Component
+public class PlanDocumentCodec {
+
+    public static final int CURRENT_SCHEMA_VERSION = 2;
+
+    private final ObjectMapper storageMapper;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    private final ObjectReader deltaReader;
+    private final ObjectWriter deltaWriter;
+
+    public PlanDocumentCodec(ObjectMapper objectMapper) {
+        // Stored documents must stay readable as the DTOs gain fields, whatever the web mapper's settings
+        this.storageMapper = objectMapper.copy()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        this.reader = storageMapper.readerFor(PlanItineraryResponse.class);
+        this.writer = storageMapper.writerFor(PlanItineraryResponse.class);
+        this.deltaReader = storageMapper.readerFor(PlanDelta.class);
+        this.deltaWriter = storageMapper.writerFor(PlanDelta.class);
+    }
+
+    public String encode(PlanItineraryResponse plan) {
+        try {
+            return writer.writeValueAsString(plan);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize plan for itinerary " + plan.getItineraryId(), e);
+        }
+    }
+
+    /**
+     * Decodes a stored plan; the itinerary id and version are taken from the row, not the document
+     */
+    public PlanItineraryResponse decode(PlanEntity planEntity) {
+        Integer schemaVersion = planEntity.getSchemaVersion();
+        if (schemaVersion != null && schemaVersion > CURRENT_SCHEMA_VERSION) {
+            throw new IllegalStateException("Plan " + planEntity.getId() + " has unsupported schema version " + schemaVersion);
+        }
+        PlanItineraryResponse plan = decode(planEntity.getPlanData());
+        plan.setItineraryId(planEntity.getItinerary().getId());
+        plan.setVersion(planEntity.getVersion());
+        return plan;
+    }
+
+    public PlanItineraryResponse decode(String planData) {
+        try {
+            return reader.readValue(planData);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read stored plan document", e);
+        }
+    }
+
+    public String encodeDelta(PlanDelta delta) {
+        try {
+            return deltaWriter.writeValueAsString(delta);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize plan delta", e);
+        }
+    }
+
+    public PlanDelta decodeDelta(String planData) {
+        try {
+            return deltaReader.readValue(planData);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read stored plan delta", e);
+        }
+    }
+
+    /**
+     * Computes the delta that turns {@code base} into {@code target}. Days and stops are compared by
+     * their stored JSON, so only what would be written differently is recorded.
+     */
+    public PlanDelta diff(PlanItineraryResponse base, PlanItineraryResponse target) {
+        List<PlannedDay> baseDays = base.getDays() != null ? base.getDays() : List.of();
+        List<PlannedDay> targetDays = target.getDays() != null ? target.getDays() : List.of();
+
+        PlanDelta delta = new PlanDelta();
+        delta.setDayCount(targetDays.size());
+        for (int i = 0; i < targetDays.size(); i++) {
+            PlannedDay targetDay = targetDays.get(i);
+            PlannedDay baseDay = i < baseDays.size() ? baseDays.get(i) : null;
+
+            PlanDelta.DayChange change = new PlanDelta.DayChange();
+            change.setIndex(i);
+            if (baseDay == null || !Objects.equals(baseDay.getDate(), targetDay.getDate())) {
+                change.setDay(targetDay);
+                delta.getDays().add(change);
+                continue;
+            }
+
+            List<PlannedStop> baseStops = baseDay.getStops() != null ? baseDay.getStops() : List.of();
+            List<PlannedStop> targetStops = targetDay.getStops() != null ? targetDay.getStops() : List.of();
+            for (int j = 0; j < targetStops.size(); j++) {
+                if (j >= baseStops.size() || !sameJson(baseStops.get(j), targetStops.get(j))) {
+                    change.getStops().add(new PlanDelta.StopChange(j, targetStops.get(j)));
+                }
+            }
+            if (!change.getStops().isEmpty() || baseStops.size() != targetStops.size()) {
+                change.setStopCount(targetStops.size());
+                delta.getDays().add(change);
+            }
+        }
+
+        if (!sameJson(base.getWarnings(), target.getWarnings())) {
+            delta.setWarningsChanged(true);
+            delta.setWarnings(target.getWarnings());
+        }
+        return delta;
+    }
+
+    private boolean sameJson(Object a, Object b) {
+        JsonNode left = storageMapper.valueToTree(a);
+        JsonNode right = storageMapper.valueToTree(b);
+        return Objects.equals(left, right);
+    }
+}
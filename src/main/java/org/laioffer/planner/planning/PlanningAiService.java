@@ -8,7 +8,10 @@ import org.laioffer.planner.planning.ai.model.AiPlanResponse;
 @AiService(chatModel = "openAiChatModel")
 public interface PlanningAiService {
 
-    @SystemMessage("""
+    /**
+     * Shared with the streaming planner in PlanningLLMService
+     */
+    String SYSTEM_PROMPT = """
         You are an expert travel itinerary planner assistant that creates optimized daily travel schedules.
 
         CRITICAL CONSTRAINT:
@@ -40,6 +43,8 @@ public interface PlanningAiService {
         - Each day should have a date, summary, and list of stops
         - Each stop must include placeId, arrival/departure times, activity description
         - Include transportation mode and duration between stops
-        """)
+        """;
+
+    @SystemMessage(SYSTEM_PROMPT)
     AiPlanResponse generatePlan(@UserMessage String userPrompt);
 }
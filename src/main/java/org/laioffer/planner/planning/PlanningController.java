@@ -1,15 +1,27 @@
 package org.laioffer.planner.planning;
 
 import org.laioffer.planner.entity.UserEntity;
+import org.laioffer.planner.model.common.PageMeta;
+import org.laioffer.planner.model.planning.PlanHistoryResponse;
 import org.laioffer.planner.model.planning.PlanItineraryRequest;
 import org.laioffer.planner.model.planning.PlanItineraryResponse;
+import org.laioffer.planner.model.planning.PlanStreamEvent;
+import org.laioffer.planner.model.planning.PlanVersionSummary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -18,9 +30,11 @@ public class PlanningController {
 
     private static final Logger logger = LoggerFactory.getLogger(PlanningController.class);
     private final PlanningService planningService;
+    private final ActivePlanResponseCache activePlanCache;
 
-    public PlanningController(PlanningService planningService) {
+    public PlanningController(PlanningService planningService, ActivePlanResponseCache activePlanCache) {
         this.planningService = planningService;
+        this.activePlanCache = activePlanCache;
     }
 
     @PostMapping("/{itineraryId}/plan")
@@ -41,44 +55,136 @@ public class PlanningController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Generate a plan and stream each day as a Server-Sent Event as soon as it is ready.
+     * The final "complete" event carries the persisted plan and its version.
+     *
+     * @param itineraryId UUID of the itinerary
+     * @param request Planning options
+     * @param user Authenticated user from JWT token
+     * @return SSE stream of plan events, 400 for invalid place IDs, 403 if not owner, 404 if not found;
+     *         a failure after streaming has started arrives as a final "error" event
+     */
+    @PostMapping(value = "/{itineraryId}/plan/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<PlanStreamEvent>>> streamItineraryPlan(
+            @PathVariable UUID itineraryId,
+            @RequestBody PlanItineraryRequest request,
+            @AuthenticationPrincipal UserEntity user) {
+
+        logger.info("Streaming planning request for itinerary {} by user: {}", itineraryId, user.getEmail());
+
+        // Check ownership
+        if (!planningService.isItineraryOwnedByUser(itineraryId, user.getId())) {
+            logger.warn("User {} attempted to plan itinerary {} they don't own", user.getEmail(), itineraryId);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        Flux<PlanStreamEvent> plan;
+        try {
+            plan = planningService.streamPlan(itineraryId, request);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid streaming planning request for itinerary {}: {}", itineraryId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        Flux<ServerSentEvent<PlanStreamEvent>> events = plan
+                .map(event -> ServerSentEvent.builder(event).event(event.getType()).build());
+        return ResponseEntity.ok(events);
+    }
+
     /**
      * Get the active plan for an itinerary
      *
      * @param itineraryId UUID of the itinerary
+     * @param ifNoneMatch ETag from a previous response, if any
      * @param user Authenticated user from JWT token
-     * @return The active plan if it exists, 404 if not found
+     * @return The active plan's JSON if it exists, 304 if unchanged, 403 if not owner, 404 if not found
      */
     @GetMapping("/{itineraryId}/plan")
-    public ResponseEntity<PlanItineraryResponse> getActivePlan(
+    public ResponseEntity<byte[]> getActivePlan(
             @PathVariable UUID itineraryId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             @AuthenticationPrincipal UserEntity user) {
 
         logger.info("Get active plan request for itinerary {} by user: {}", itineraryId, user.getEmail());
 
+        // Check ownership and find the active plan row in one query, without its document
+        Optional<ActivePlanRef> ref = planningService.getActivePlanRef(itineraryId, user.getId());
+        if (ref.isEmpty()) {
+            if (!planningService.isItineraryOwnedByUser(itineraryId, user.getId())) {
+                logger.warn("User {} attempted to access itinerary {} they don't own", user.getEmail(), itineraryId);
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+            return ResponseEntity.notFound().build();
+        }
+
+        String etag = ref.get().etag();
+        if (ref.get().matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        // Load the exact version the ETag names, even if a newer plan was saved since
+        return activePlanCache.get(ref.get(), () -> planningService.getPlanVersion(itineraryId, ref.get().version()))
+                .map(json -> ResponseEntity.ok()
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(json))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get the plan history for an itinerary, one summary per saved version
+     *
+     * @param itineraryId UUID of the itinerary
+     * @param page Page number (0-indexed)
+     * @param size Page size
+     * @param user Authenticated user from JWT token
+     * @return Page of plan versions, newest first
+     */
+    @GetMapping("/{itineraryId}/plans")
+    public ResponseEntity<PlanHistoryResponse> getPlanHistory(
+            @PathVariable UUID itineraryId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal UserEntity user) {
+
+        logger.info("Get plan history request for itinerary {} by user: {}", itineraryId, user.getEmail());
+
         // Check ownership
         if (!planningService.isItineraryOwnedByUser(itineraryId, user.getId())) {
             logger.warn("User {} attempted to access itinerary {} they don't own", user.getEmail(), itineraryId);
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        return planningService.getActivePlan(itineraryId)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        if (page < 0 || size < 1 || size > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Page<PlanVersionSummary> versions = planningService.getPlanHistory(itineraryId, PageRequest.of(page, size));
+        PageMeta pageMeta = new PageMeta(
+                versions.getNumber(),
+                versions.getSize(),
+                versions.getTotalElements(),
+                versions.getTotalPages()
+        );
+        return ResponseEntity.ok(new PlanHistoryResponse(versions.getContent(), pageMeta));
     }
 
     /**
-     * Get all plans (history) for an itinerary
+     * Get one saved version of an itinerary's plan
      *
      * @param itineraryId UUID of the itinerary
+     * @param version Plan version, as listed in the plan history
      * @param user Authenticated user from JWT token
-     * @return List of all plans for the itinerary, ordered by creation date (newest first)
+     * @return The plan as saved in that version, 404 if there is no such version
      */
-    @GetMapping("/{itineraryId}/plans")
-    public ResponseEntity<java.util.List<PlanItineraryResponse>> getPlanHistory(
+    @GetMapping("/{itineraryId}/plans/{version}")
+    public ResponseEntity<PlanItineraryResponse> getPlanVersion(
             @PathVariable UUID itineraryId,
+            @PathVariable int version,
             @AuthenticationPrincipal UserEntity user) {
 
-        logger.info("Get plan history request for itinerary {} by user: {}", itineraryId, user.getEmail());
+        logger.info("Get plan version {} request for itinerary {} by user: {}", version, itineraryId, user.getEmail());
 
         // Check ownership
         if (!planningService.isItineraryOwnedByUser(itineraryId, user.getId())) {
@@ -86,7 +192,8 @@ public class PlanningController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        java.util.List<PlanItineraryResponse> plans = planningService.getPlanHistory(itineraryId);
-        return ResponseEntity.ok(plans);
+        return planningService.getPlanVersion(itineraryId, version)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 }
@@ -1,27 +1,63 @@
 package org.laioffer.planner.planning;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import io.micrometer.core.instrument.Timer;
+import org.laioffer.planner.concurrent.LlmCallExecutor;
+import org.laioffer.planner.llm.LlmMetrics;
+import org.laioffer.planner.llm.NdjsonStreamingHandler;
 import org.laioffer.planner.planning.ai.model.AiPlaceInfo;
 import org.laioffer.planner.planning.ai.model.AiPlanResponse;
+import org.laioffer.planner.planning.ai.model.AiPlannedDay;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class PlanningLLMService {
 
     private static final Logger logger = LoggerFactory.getLogger(PlanningLLMService.class);
     private static final int MAX_RETRIES = 3;
+    private static final String OP_GENERATE = "plan.generate";
+    private static final String OP_STREAM = "plan.stream";
 
     private final PlanningAiService planningAiService;
-
-    public PlanningLLMService(PlanningAiService planningAiService) {
+    private final ObjectProvider<StreamingChatLanguageModel> streamingChatModel;
+    private final ObjectReader dayReader;
+    private final LlmCallExecutor llmCallExecutor;
+    private final LlmMetrics llmMetrics;
+
+    public PlanningLLMService(
+            PlanningAiService planningAiService,
+            ObjectProvider<StreamingChatLanguageModel> streamingChatModel,
+            ObjectMapper objectMapper,
+            LlmCallExecutor llmCallExecutor,
+            LlmMetrics llmMetrics) {
         this.planningAiService = planningAiService;
+        this.streamingChatModel = streamingChatModel;
+        this.llmCallExecutor = llmCallExecutor;
+        this.llmMetrics = llmMetrics;
+        // The model may add fields we do not map; a streamed day should not be lost for that
+        this.dayReader = objectMapper.readerFor(AiPlannedDay.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
     }
 
     public AiPlanResponse generatePlan(
@@ -43,20 +79,27 @@ public class PlanningLLMService {
         List<String> errorLog = new ArrayList<>();
 
         for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
+            Timer.Sample sample = llmMetrics.start();
             try {
                 logger.debug("LangChain4j planning attempt {} for itinerary {}", attempt, itineraryId);
 
                 AiPlanResponse response = planningAiService.generatePlan(prompt);
 
                 if (response != null && response.getDays() != null && !response.getDays().isEmpty()) {
+                    llmMetrics.attempt(sample, OP_GENERATE, attempt, LlmMetrics.OUTCOME_SUCCESS);
                     logger.info("Successfully generated plan with {} days for itinerary {} using LangChain4j",
                             response.getDays().size(), itineraryId);
                     return response;
                 }
 
+                llmMetrics.attempt(sample, OP_GENERATE, attempt, LlmMetrics.OUTCOME_EMPTY);
+                if (attempt < MAX_RETRIES) {
+                    llmMetrics.retry(OP_GENERATE, LlmMetrics.CAUSE_EMPTY_RESPONSE);
+                }
                 errorLog.add("No valid days were returned from the AI service");
 
             } catch (Exception e) {
+                llmMetrics.attempt(sample, OP_GENERATE, attempt, LlmMetrics.OUTCOME_ERROR);
                 String errorMessage = "Attempt " + attempt + " failed: " + e.getMessage();
                 errorLog.add(errorMessage);
 
@@ -66,18 +109,154 @@ public class PlanningLLMService {
                 if (attempt == MAX_RETRIES) {
                     logger.error("All {} attempts failed for itinerary {}. Error log: {}",
                             MAX_RETRIES, itineraryId, errorLog);
+                    llmMetrics.failure(OP_GENERATE, e);
                     throw new Exception("Failed to generate plan after " + MAX_RETRIES + " attempts. Last error: " + e.getMessage(), e);
                 }
 
+                llmMetrics.retry(OP_GENERATE, e);
                 // Exponential backoff: wait 1s, 2s, 4s between attempts
                 long waitTime = (long) Math.pow(2, attempt - 1) * 1000;
                 Thread.sleep(waitTime);
             }
         }
 
+        llmMetrics.failure(OP_GENERATE, LlmMetrics.CAUSE_EMPTY_RESPONSE);
         throw new Exception("Failed to generate valid plan after " + MAX_RETRIES + " attempts");
     }
 
+    /**
+     * Streams the plan one day at a time. The model is asked for newline-delimited JSON (one day per
+     * line) and each line is emitted as soon as it is complete. Falls back to the blocking call when no
+     * streaming model is configured. Retries only while nothing has been emitted yet.
+     */
+    public Flux<AiPlannedDay> streamPlanDays(
+            UUID itineraryId,
+            String destinationCity,
+            LocalDate startDate,
+            LocalDate endDate,
+            String travelMode,
+            Integer budgetInCents,
+            Double budgetInDollars,
+            LocalTime dailyStart,
+            LocalTime dailyEnd,
+            List<AiPlaceInfo> interestedPlaces) {
+
+        StreamingChatLanguageModel model = streamingChatModel.getIfAvailable();
+        if (model == null) {
+            logger.info("No streaming chat model configured, using blocking generation for itinerary {}", itineraryId);
+            return Mono.fromCallable(() -> generatePlan(itineraryId, destinationCity, startDate, endDate, travelMode,
+                            budgetInCents, budgetInDollars, dailyStart, dailyEnd, interestedPlaces))
+                    .subscribeOn(llmCallExecutor.scheduler())
+                    .flatMapIterable(AiPlanResponse::getDays);
+        }
+
+        String prompt = buildPrompt(destinationCity, startDate, endDate, travelMode,
+                budgetInCents, budgetInDollars, dailyStart, dailyEnd, interestedPlaces)
+                + buildStreamingFormatInstructions();
+        List<ChatMessage> messages = List.of(
+                SystemMessage.from(PlanningAiService.SYSTEM_PROMPT),
+                UserMessage.from(prompt));
+
+        AtomicInteger attempts = new AtomicInteger();
+        return Flux.defer(() -> {
+                    int attempt = attempts.incrementAndGet();
+                    Timer.Sample sample = llmMetrics.start();
+                    return streamOnce(model, messages, itineraryId)
+                            .doOnComplete(() -> llmMetrics.attempt(sample, OP_STREAM, attempt, LlmMetrics.OUTCOME_SUCCESS))
+                            .doOnError(e -> {
+                                llmMetrics.attempt(sample, OP_STREAM, attempt,
+                                        isEmptyStream(e) ? LlmMetrics.OUTCOME_EMPTY : LlmMetrics.OUTCOME_ERROR);
+                                // Only a failure before the first day is retried, and only while attempts remain
+                                if (!(e instanceof NothingStreamedException) || attempt == MAX_RETRIES) {
+                                    llmMetrics.failure(OP_STREAM, streamCause(e));
+                                }
+                            });
+                })
+                .retryWhen(Retry.backoff(MAX_RETRIES - 1, Duration.ofSeconds(1))
+                        .filter(e -> e instanceof NothingStreamedException)
+                        .doBeforeRetry(signal -> {
+                            llmMetrics.retry(OP_STREAM, streamCause(signal.failure()));
+                            logger.warn("Streaming planning attempt {} failed for itinerary {}: {}",
+                                    signal.totalRetries() + 1, itineraryId, signal.failure().getMessage());
+                        })
+                        .onRetryExhaustedThrow((spec, signal) -> new Exception(
+                                "Failed to generate plan after " + MAX_RETRIES + " attempts. Last error: "
+                                        + signal.failure().getMessage(), signal.failure().getCause())));
+    }
+
+    /**
+     * A stream that completed without a single parseable day, as opposed to an error from the model
+     */
+    private static boolean isEmptyStream(Throwable error) {
+        return error instanceof NothingStreamedException && error.getCause() == null;
+    }
+
+    private static String streamCause(Throwable error) {
+        if (isEmptyStream(error)) {
+            return LlmMetrics.CAUSE_EMPTY_RESPONSE;
+        }
+        return LlmMetrics.causeOf(error instanceof NothingStreamedException ? error.getCause() : error);
+    }
+
+    private Flux<AiPlannedDay> streamOnce(StreamingChatLanguageModel model, List<ChatMessage> messages, UUID itineraryId) {
+        return Flux.create(sink -> {
+            AtomicInteger emitted = new AtomicInteger();
+
+            NdjsonStreamingHandler handler = new NdjsonStreamingHandler() {
+                @Override
+                protected void onLine(String line) {
+                    emitLine(line, sink, emitted, itineraryId);
+                }
+
+                @Override
+                protected void onEnd() {
+                    if (emitted.get() == 0) {
+                        sink.error(new NothingStreamedException("No valid days were returned from the AI service", null));
+                    } else {
+                        logger.info("Streamed {} days for itinerary {}", emitted.get(), itineraryId);
+                        sink.complete();
+                    }
+                }
+
+                @Override
+                protected void onFailure(Throwable error) {
+                    sink.error(emitted.get() == 0 ? new NothingStreamedException(error.getMessage(), error) : error);
+                }
+            };
+            // A subscriber that goes away (client disconnect, timeout) stops the model as well
+            sink.onCancel(handler::cancel);
+            model.generate(messages, handler);
+        });
+    }
+
+    private void emitLine(String rawLine, FluxSink<AiPlannedDay> sink, AtomicInteger emitted, UUID itineraryId) {
+        String line = NdjsonStreamingHandler.jsonObject(rawLine);
+        if (line == null) {
+            return;
+        }
+
+        try {
+            AiPlannedDay day = dayReader.readValue(line);
+            if (day.getStops() == null) {
+                day.setStops(new ArrayList<>());
+            }
+            emitted.incrementAndGet();
+            sink.next(day);
+        } catch (Exception e) {
+            logger.warn("Skipping unparseable streamed day for itinerary {}: {}", itineraryId, e.getMessage());
+        }
+    }
+
+    private String buildStreamingFormatInstructions() {
+        return "\nOutput Format (IMPORTANT):\n"
+                + "- Respond with one JSON object per line, one line per day, in chronological order\n"
+                + "- Do NOT wrap the lines in a JSON array or markdown code fences, and add no other text\n"
+                + "- Each line must look like:\n"
+                + "{\"date\":\"YYYY-MM-DD\",\"summary\":\"...\",\"stops\":[{\"placeId\":\"<uuid>\",\"placeName\":\"...\","
+                + "\"arrivalTime\":\"HH:mm\",\"departureTime\":\"HH:mm\",\"durationMinutes\":90,\"activity\":\"...\","
+                + "\"transportMode\":\"...\",\"transportDurationMinutes\":15}]}\n";
+    }
+
     private String buildPrompt(String destinationCity, LocalDate startDate, LocalDate endDate,
                                 String travelMode, Integer budgetInCents, Double budgetInDollars,
                                 LocalTime dailyStart, LocalTime dailyEnd, List<AiPlaceInfo> interestedPlaces) {
@@ -151,4 +330,13 @@ public class PlanningLLMService {
 
         return prompt.toString();
     }
+
+    /**
+     * Signals a streaming failure before any day was emitted, which is safe to retry
+     */
+    private static class NothingStreamedException extends RuntimeException {
+        NothingStreamedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
 }
@@ -2,14 +2,29 @@ package org.laioffer.planner.planning;
 
 import org.laioffer.planner.model.planning.PlanItineraryRequest;
 import org.laioffer.planner.model.planning.PlanItineraryResponse;
+import org.laioffer.planner.model.planning.PlanStreamEvent;
+import org.laioffer.planner.model.planning.PlanVersionSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
 
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface PlanningService {
     PlanItineraryResponse generatePlan(UUID itineraryId, PlanItineraryRequest request);
 
+    /**
+     * Generate a plan and stream it day by day as it is produced
+     *
+     * @param itineraryId UUID of the itinerary
+     * @param request Planning options
+     * @return "day" events in order, then a "complete" event carrying the persisted version (or an "error" event)
+     * @throws org.laioffer.planner.planning.exception.ItineraryNotFoundException if the itinerary does not exist,
+     *         before anything is streamed
+     */
+    Flux<PlanStreamEvent> streamPlan(UUID itineraryId, PlanItineraryRequest request);
+
     boolean isItineraryOwnedByUser(UUID itineraryId, Long userId);
 
     /**
@@ -30,10 +45,29 @@ public interface PlanningService {
     Optional<PlanItineraryResponse> getActivePlan(UUID itineraryId);
 
     /**
-     * Get all plans for an itinerary (history)
+     * Get the id and version of the active plan, without reading the plan document
+     *
+     * @param itineraryId UUID of the itinerary
+     * @param userId ID of the user who must own the itinerary
+     * @return Optional containing the active plan's identity, or empty if there is none or the user does not own it
+     */
+    Optional<ActivePlanRef> getActivePlanRef(UUID itineraryId, Long userId);
+
+    /**
+     * Get a page of an itinerary's plan history, as summaries
+     *
+     * @param itineraryId UUID of the itinerary
+     * @param pageable Page to return
+     * @return Plan versions ordered newest first
+     */
+    Page<PlanVersionSummary> getPlanHistory(UUID itineraryId, Pageable pageable);
+
+    /**
+     * Get one version of an itinerary's plan
      *
      * @param itineraryId UUID of the itinerary
-     * @return List of all plans ordered by creation date (newest first)
+     * @param version Plan version
+     * @return Optional containing the plan as saved in that version, or empty if there is no such version
      */
-    List<PlanItineraryResponse> getPlanHistory(UUID itineraryId);
+    Optional<PlanItineraryResponse> getPlanVersion(UUID itineraryId, int version);
 }
@@ -2,24 +2,47 @@ package org.laioffer.planner.planning;
 
 import org.laioffer.planner.model.planning.PlanItineraryRequest;
 import org.laioffer.planner.model.planning.PlanItineraryResponse;
+import org.laioffer.planner.model.planning.PlanStreamEvent;
+import org.laioffer.planner.model.planning.PlanVersionSummary;
 import org.laioffer.planner.model.planning.PlannedDay;
-import org.laioffer.planner.model.planning.PlannedStop;
+import org.laioffer.planner.model.planning.PlanningMode;
+import org.laioffer.planner.config.DatabaseFeatures;
 import org.laioffer.planner.entity.ItineraryEntity;
 import org.laioffer.planner.entity.ItineraryPlaceEntity;
+import org.laioffer.planner.place.CompiledOpeningHours;
+import org.laioffer.planner.place.OpeningHoursIndex;
 import org.laioffer.planner.planning.ai.model.*;
 import org.laioffer.planner.planning.exception.ItineraryNotFoundException;
+import org.laioffer.planner.planning.exception.PlanConflictException;
+import org.laioffer.planner.planning.optimizer.LocalRoutePlanner;
 import org.laioffer.planner.repository.ItineraryPlaceRepository;
 import org.laioffer.planner.repository.ItineraryRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.CollectionUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -27,24 +50,49 @@ import java.util.stream.Collectors;
 public class PlanningServiceImpl implements PlanningService {
 
     private static final Logger logger = LoggerFactory.getLogger(PlanningServiceImpl.class);
+    private static final int MAX_SAVE_ATTEMPTS = 3;
 
     private final ItineraryRepository itineraryRepository;
     private final ItineraryPlaceRepository itineraryPlaceRepository;
     private final PlanningLLMService planningLLMService;
-    private final org.laioffer.planner.Recommendation.PlaceMapper placeMapper;
+    private final PlanAssembler planAssembler;
     private final org.laioffer.planner.repository.PlanRepository planRepository;
+    private final LocalRoutePlanner localRoutePlanner;
+    private final PlanDocumentCodec planDocumentCodec;
+    private final OpeningHoursIndex openingHoursIndex;
+    private final DatabaseFeatures databaseFeatures;
+    private final PlanningMode defaultPlanningMode;
+    private final int snapshotInterval;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
 
     public PlanningServiceImpl(
             ItineraryRepository itineraryRepository,
             ItineraryPlaceRepository itineraryPlaceRepository,
             PlanningLLMService planningLLMService,
-            org.laioffer.planner.Recommendation.PlaceMapper placeMapper,
-            org.laioffer.planner.repository.PlanRepository planRepository) {
+            PlanAssembler planAssembler,
+            org.laioffer.planner.repository.PlanRepository planRepository,
+            LocalRoutePlanner localRoutePlanner,
+            PlanDocumentCodec planDocumentCodec,
+            OpeningHoursIndex openingHoursIndex,
+            DatabaseFeatures databaseFeatures,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.planning.default-mode:LLM}") PlanningMode defaultPlanningMode,
+            @Value("${app.planning.history.snapshot-interval:10}") int snapshotInterval) {
         this.itineraryRepository = itineraryRepository;
         this.itineraryPlaceRepository = itineraryPlaceRepository;
         this.planningLLMService = planningLLMService;
-        this.placeMapper = placeMapper;
+        this.planAssembler = planAssembler;
         this.planRepository = planRepository;
+        this.localRoutePlanner = localRoutePlanner;
+        this.planDocumentCodec = planDocumentCodec;
+        this.openingHoursIndex = openingHoursIndex;
+        this.databaseFeatures = databaseFeatures;
+        this.defaultPlanningMode = defaultPlanningMode;
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
     @Override
@@ -52,9 +100,114 @@ public class PlanningServiceImpl implements PlanningService {
         return itineraryRepository.existsByIdAndUserId(itineraryId, userId);
     }
 
+    /**
+     * Generates and saves a plan in three stages so that no database connection is held while the
+     * model works: a read-only snapshot, the (possibly minute-long) planning call with no transaction,
+     * and a short write that fails with {@link PlanConflictException} if another plan was saved meanwhile.
+     */
     @Override
-    @Transactional
     public PlanItineraryResponse generatePlan(UUID itineraryId, PlanItineraryRequest request) {
+        // 1-4. Load the itinerary and the places to plan, and resolve planning parameters
+        PlanningInput input = readOnlyTransactionTemplate.execute(status -> preparePlanningInput(itineraryId, request));
+
+        // 5. Build the plan, either with the local optimizer or the LLM (with retry logic)
+        AiPlanResponse aiResponse;
+        try {
+            if (input.planningMode == PlanningMode.LOCAL) {
+                aiResponse = localRoutePlanner.generatePlan(input.aiPlaces, input.startDate, input.endDate,
+                        input.travelMode, input.dailyStart, input.dailyEnd, input.travelPace);
+            } else {
+                aiResponse = planningLLMService.generatePlan(
+                        itineraryId,
+                        input.destinationCity,
+                        input.startDate,
+                        input.endDate,
+                        input.travelMode,
+                        input.budgetInCents,
+                        input.budgetInDollars,
+                        input.dailyStart,
+                        input.dailyEnd,
+                        input.aiPlaces
+                );
+            }
+        } catch (Exception e) {
+            logger.error("Failed to generate plan for itinerary {}: {}", itineraryId, e.getMessage(), e);
+            throw new RuntimeException("Failed to generate travel plan: " + e.getMessage(), e);
+        }
+
+        // 6. Validate and deduplicate the AI response to ensure no duplicate POIs and no closed stops
+        aiResponse = validateAndDeduplicatePlan(aiResponse, input.openingHours, input.placeIndex);
+
+        // 7. Process the AI response and format it into PlanItineraryResponse
+        PlanItineraryResponse planResponse = planAssembler.toPlanResponse(itineraryId, aiResponse, input.placeIndex);
+
+        // 8. Save the generated plan to database, checking no other plan was saved since step 1
+        saveGeneratedPlan(itineraryId, planResponse, input);
+
+        return planResponse;
+    }
+
+    /**
+     * Streaming variant of {@link #generatePlan}. Each day is deduplicated, converted and emitted as
+     * soon as the model produces it; the plan is persisted once the last day has arrived.
+     * The planning input is loaded before the stream is returned, so a missing itinerary or an invalid
+     * request fails the call instead of the stream, whose 200 response is already committed.
+     * Later database work runs in short transactions on boundedElastic so no servlet thread is held.
+     */
+    @Override
+    public Flux<PlanStreamEvent> streamPlan(UUID itineraryId, PlanItineraryRequest request) {
+        PlanningInput input = readOnlyTransactionTemplate.execute(status -> preparePlanningInput(itineraryId, request));
+        Set<UUID> seenPlaceIds = new HashSet<>();
+        List<PlannedDay> days = new ArrayList<>();
+
+        return planDays(itineraryId, input)
+                .subscribeOn(Schedulers.boundedElastic())
+                .publishOn(Schedulers.boundedElastic())
+                .map(aiDay -> {
+                    deduplicateDay(aiDay, seenPlaceIds);
+                    enforceOpeningHours(aiDay, input.openingHours, input.placeIndex);
+                    // Places in the index were fetched with their PlaceEntity, so no session is needed
+                    PlannedDay day = planAssembler.toPlannedDay(aiDay, input.placeIndex);
+                    days.add(day);
+                    return PlanStreamEvent.day(days.size() - 1, day);
+                })
+                .concatWith(Mono.fromCallable(() -> {
+                    PlanItineraryResponse plan = new PlanItineraryResponse(itineraryId, days);
+                    saveGeneratedPlan(itineraryId, plan, input);
+                    return PlanStreamEvent.complete(plan);
+                }))
+                // Once streaming the status can no longer change; the failure becomes the last event
+                .onErrorResume(e -> {
+                    logger.error("Failed to stream plan for itinerary {}: {}", itineraryId, e.getMessage(), e);
+                    return Flux.just(PlanStreamEvent.error("Failed to generate travel plan: " + e.getMessage()));
+                });
+    }
+
+    private Flux<AiPlannedDay> planDays(UUID itineraryId, PlanningInput input) {
+        if (input.planningMode == PlanningMode.LOCAL) {
+            return Mono.fromCallable(() -> localRoutePlanner.generatePlan(input.aiPlaces, input.startDate,
+                            input.endDate, input.travelMode, input.dailyStart, input.dailyEnd, input.travelPace))
+                    .flatMapIterable(AiPlanResponse::getDays);
+        }
+        return planningLLMService.streamPlanDays(
+                itineraryId,
+                input.destinationCity,
+                input.startDate,
+                input.endDate,
+                input.travelMode,
+                input.budgetInCents,
+                input.budgetInDollars,
+                input.dailyStart,
+                input.dailyEnd,
+                input.aiPlaces
+        );
+    }
+
+    /**
+     * Loads the itinerary and the places to plan and resolves all planning parameters.
+     * Must run inside a transaction because place details are loaded lazily.
+     */
+    private PlanningInput preparePlanningInput(UUID itineraryId, PlanItineraryRequest request) {
         // 1. Fetch the core itinerary information from the database.
         // If not found, this will throw an ItineraryNotFoundException.
         ItineraryEntity itinerary = itineraryRepository.findById(itineraryId)
@@ -63,77 +216,66 @@ public class PlanningServiceImpl implements PlanningService {
         logger.info("Generating plan for itinerary {} in {}", itineraryId, itinerary.getDestinationCity());
 
         // 2. Fetch the list of places the user is interested in.
+        // All itinerary places are loaded once, with their PlaceEntity, and indexed by placeId so that
+        // plan assembly can resolve every stop without further queries.
         // If the request specifies a list of places, use that. Otherwise, use only
         // pinned places (user-selected) from the itinerary's interest list.
+        List<ItineraryPlaceEntity> allPlaces = itineraryPlaceRepository.findAllWithPlaceByItineraryId(itineraryId);
         List<ItineraryPlaceEntity> interestedPlaces;
         if (CollectionUtils.isEmpty(request.getInterestPlaceIds())) {
-            List<ItineraryPlaceEntity> allPlaces = itineraryPlaceRepository.findAllByItineraryId(itineraryId);
             interestedPlaces = allPlaces.stream()
                     .filter(ItineraryPlaceEntity::isPinned)
                     .collect(Collectors.toList());
             logger.debug("Filtered {} pinned places out of {} total places for planning",
                     interestedPlaces.size(), allPlaces.size());
         } else {
-            List<UUID> placeIds = request.getInterestPlaceIds().stream().map(UUID::fromString).toList();
-            interestedPlaces = itineraryPlaceRepository.findAllByItineraryIdAndIdIn(itineraryId, placeIds);
+            Set<UUID> placeIds = request.getInterestPlaceIds().stream()
+                    .map(UUID::fromString)
+                    .collect(Collectors.toSet());
+            interestedPlaces = allPlaces.stream()
+                    .filter(itineraryPlace -> placeIds.contains(itineraryPlace.getId()))
+                    .collect(Collectors.toList());
             logger.debug("Using {} explicitly specified places for planning", interestedPlaces.size());
         }
 
         // 3. Convert places to AI format
-        List<AiPlaceInfo> aiPlaces = interestedPlaces.stream()
-                .map(this::convertToAiPlaceInfo)
+        PlanningInput input = new PlanningInput();
+        input.placeIndex = planAssembler.indexByPlaceId(allPlaces);
+        input.openingHours = openingHoursIndex.forPlaces(allPlaces.stream()
+                .map(ItineraryPlaceEntity::getPlace)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+        input.aiPlaces = interestedPlaces.stream()
+                .map(itineraryPlace -> convertToAiPlaceInfo(itineraryPlace, input.openingHours))
                 .collect(Collectors.toList());
 
         logger.debug("Converted {} places to AI format. First place note value: '{}'",
-                aiPlaces.size(), aiPlaces.isEmpty() ? "N/A" : aiPlaces.get(0).getNote());
+                input.aiPlaces.size(), input.aiPlaces.isEmpty() ? "N/A" : input.aiPlaces.get(0).getNote());
 
         // 4. Prepare parameters for AI service
-        LocalDate startDate = itinerary.getStartDate().toLocalDate();
-        LocalDate endDate = itinerary.getEndDate().toLocalDate();
-        String travelMode = itinerary.getTravelMode() != null ? itinerary.getTravelMode().name() : "WALKING";
-        Integer budgetInCents = itinerary.getBudgetInCents() != null ? itinerary.getBudgetInCents() : 0;
-        Double budgetInDollars = budgetInCents / 100.0;
+        input.planVersion = itinerary.getPlanVersion() != null ? itinerary.getPlanVersion() : 0;
+        input.previousPlan = previousForDelta(itineraryId, input.planVersion);
+        input.destinationCity = itinerary.getDestinationCity();
+        input.startDate = itinerary.getStartDate().toLocalDate();
+        input.endDate = itinerary.getEndDate().toLocalDate();
+        input.travelMode = itinerary.getTravelMode() != null ? itinerary.getTravelMode().name() : "WALKING";
+        input.travelPace = itinerary.getTravelPace() != null ? itinerary.getTravelPace().name() : "MODERATE";
+        input.budgetInCents = itinerary.getBudgetInCents() != null ? itinerary.getBudgetInCents() : 0;
+        input.budgetInDollars = input.budgetInCents / 100.0;
 
         // Parse daily start/end times from request, or use defaults
-        LocalTime dailyStart = request.getDailyStart() != null ? LocalTime.parse(request.getDailyStart()) : LocalTime.of(9, 0);
-        LocalTime dailyEnd = request.getDailyEnd() != null ? LocalTime.parse(request.getDailyEnd()) : LocalTime.of(20, 0);
-
-        // 5. Call LangChain4j AI service with retry logic
-        AiPlanResponse aiResponse;
-        try {
-            aiResponse = planningLLMService.generatePlan(
-                    itineraryId,
-                    itinerary.getDestinationCity(),
-                    startDate,
-                    endDate,
-                    travelMode,
-                    budgetInCents,
-                    budgetInDollars,
-                    dailyStart,
-                    dailyEnd,
-                    aiPlaces
-            );
-        } catch (Exception e) {
-            logger.error("Failed to generate plan for itinerary {}: {}", itineraryId, e.getMessage(), e);
-            throw new RuntimeException("Failed to generate travel plan: " + e.getMessage(), e);
-        }
-
-        // 6. Validate and deduplicate the AI response to ensure no duplicate POIs
-        aiResponse = validateAndDeduplicatePlan(aiResponse);
-
-        // 7. Process the AI response and format it into PlanItineraryResponse
-        PlanItineraryResponse planResponse = buildPlanResponse(itineraryId, aiResponse);
+        input.dailyStart = request.getDailyStart() != null ? LocalTime.parse(request.getDailyStart()) : LocalTime.of(9, 0);
+        input.dailyEnd = request.getDailyEnd() != null ? LocalTime.parse(request.getDailyEnd()) : LocalTime.of(20, 0);
+        input.planningMode = request.getPlanningMode() != null ? request.getPlanningMode() : defaultPlanningMode;
 
-        // 8. Save the generated plan to database
-        savePlan(itineraryId, planResponse);
-
-        return planResponse;
+        return input;
     }
 
     /**
      * Converts an ItineraryPlaceEntity to AiPlaceInfo for the AI request.
      */
-    private AiPlaceInfo convertToAiPlaceInfo(ItineraryPlaceEntity itineraryPlace) {
+    private AiPlaceInfo convertToAiPlaceInfo(ItineraryPlaceEntity itineraryPlace,
+                                             Map<UUID, CompiledOpeningHours> openingHours) {
         AiPlaceInfo aiPlace = new AiPlaceInfo();
 
         aiPlace.setPlaceId(itineraryPlace.getPlaceId());
@@ -147,6 +289,8 @@ public class PlanningServiceImpl implements PlanningService {
             aiPlace.setLatitude(itineraryPlace.getPlace().getLatitude());
             aiPlace.setLongitude(itineraryPlace.getPlace().getLongitude());
             aiPlace.setDescription(itineraryPlace.getPlace().getDescription() != null ? itineraryPlace.getPlace().getDescription() : "");
+            aiPlace.setOpeningHours(itineraryPlace.getPlace().getOpeningHours());
+            aiPlace.setCompiledOpeningHours(openingHours.get(itineraryPlace.getPlaceId()));
         } else {
             aiPlace.setAddress("");
             aiPlace.setDescription("");
@@ -155,97 +299,129 @@ public class PlanningServiceImpl implements PlanningService {
         return aiPlace;
     }
 
-    /**
-     * Converts the AI response into the API response format.
-     */
-    private PlanItineraryResponse buildPlanResponse(UUID itineraryId, AiPlanResponse aiResponse) {
-        PlanItineraryResponse response = new PlanItineraryResponse();
-
-        // Set the itinerary ID
-        response.setItineraryId(itineraryId);
-
-        // Convert AI days to API format
-        List<PlannedDay> days = aiResponse.getDays().stream()
-                .map(aiDay -> convertToPlannedDay(itineraryId, aiDay))
-                .collect(Collectors.toList());
-        response.setDays(days);
-
-        return response;
+    @Override
+    @Transactional
+    public PlanItineraryResponse savePlan(UUID itineraryId, PlanItineraryResponse plan) {
+        // A direct save replaces whatever is active, so a save that lost the race to a concurrent one
+        // simply goes again on top of it
+        for (int attempt = 1; ; attempt++) {
+            int planVersion = itineraryRepository.findPlanVersionById(itineraryId)
+                    .orElseThrow(() -> new ItineraryNotFoundException("Itinerary with id " + itineraryId + " not found."));
+            if (storePlan(itineraryId, plan, planVersion, previousForDelta(itineraryId, planVersion))) {
+                return plan;
+            }
+            if (attempt == MAX_SAVE_ATTEMPTS) {
+                throw new PlanConflictException("Itinerary " + itineraryId + " kept receiving concurrent plan saves");
+            }
+        }
     }
 
     /**
-     * Converts an AI planned day to the API PlannedDay format.
+     * Saves a generated plan in its own short transaction, provided no other plan was saved for the
+     * itinerary since the plan was generated from it. Only the plan counter is compared: the
+     * itinerary's optimistic version also moves on writes that do not concern planning, such as POI
+     * generation progress, and would reject every plan requested while places are still streaming in.
      */
-    private PlannedDay convertToPlannedDay(UUID itineraryId, AiPlannedDay aiDay) {
-        PlannedDay day = new PlannedDay();
-
-        // Convert date to String format
-        day.setDate(aiDay.getDate() != null ? aiDay.getDate().toString() : null);
-
-        // Convert stops with order
-        List<PlannedStop> stops = new java.util.ArrayList<>();
-        for (int i = 0; i < aiDay.getStops().size(); i++) {
-            stops.add(convertToPlannedStop(itineraryId, aiDay.getStops().get(i), i + 1));
+    private void saveGeneratedPlan(UUID itineraryId, PlanItineraryResponse plan, PlanningInput input) {
+        boolean stored;
+        try {
+            stored = Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                    storePlan(itineraryId, plan, input.planVersion, input.previousPlan)));
+        } catch (DataIntegrityViolationException e) {
+            // Only possible if plans disagree with the counter, e.g. rows written around it
+            throw new PlanConflictException("Itinerary " + itineraryId + " was updated concurrently", e);
+        }
+        if (!stored) {
+            throw new PlanConflictException("Another plan was saved for itinerary " + itineraryId
+                    + " while planning from version " + input.planVersion);
         }
-        day.setStops(stops);
-
-        return day;
     }
 
     /**
-     * Converts an AI planned stop to the API PlannedStop format.
+     * Stores the plan as the new active version, provided the itinerary's plan counter is still
+     * expectedPlanVersion. The newest version is always a full document; the previous one is
+     * rewritten as a delta against it, except every {@code snapshotInterval}-th version, which stays
+     * full so reading an old version never applies more than that many deltas.
+     * On PostgreSQL this is a single statement; elsewhere the counter update comes first and holds
+     * the itinerary row lock for the rest of the transaction.
+     *
+     * @param previous the active version, if it is to be rewritten as a delta (see {@link #previousForDelta})
+     * @return false, with nothing written, if the counter had moved on or the itinerary is gone
      */
-    private PlannedStop convertToPlannedStop(UUID itineraryId, AiPlannedStop aiStop, int order) {
-        PlannedStop stop = new PlannedStop();
-
-        // Set order
-        stop.setOrder(order);
-
-        // Set timing information
-        stop.setArrivalLocal(aiStop.getArrivalTime() != null ? aiStop.getArrivalTime().toString() : null);
-        stop.setDepartLocal(aiStop.getDepartureTime() != null ? aiStop.getDepartureTime().toString() : null);
-        stop.setStayMinutes(aiStop.getDurationMinutes() != null ? aiStop.getDurationMinutes() : 0);
-        stop.setNote(aiStop.getActivity());
-
-        // Fetch and set place information if placeId is available
-        if (aiStop.getPlaceId() != null) {
-            itineraryPlaceRepository.findByItineraryIdAndPlaceId(itineraryId, aiStop.getPlaceId()).ifPresent(itineraryPlace -> {
-                // Use PlaceMapper to convert ItineraryPlaceEntity to PlaceDTO
-                org.laioffer.planner.model.place.PlaceDTO placeDTO = placeMapper.toItineraryPlaceDTO(itineraryPlace);
-                stop.setPlace(placeDTO);
-            });
-        }
-
-        return stop;
-    }
-
-    @Override
-    @Transactional
-    public PlanItineraryResponse savePlan(UUID itineraryId, PlanItineraryResponse plan) {
-        // Fetch the itinerary
-        ItineraryEntity itinerary = itineraryRepository.findById(itineraryId)
-                .orElseThrow(() -> new ItineraryNotFoundException("Itinerary with id " + itineraryId + " not found."));
-
+    private boolean storePlan(UUID itineraryId, PlanItineraryResponse plan, int expectedPlanVersion,
+                              org.laioffer.planner.entity.PlanEntity previous) {
         logger.info("Saving plan for itinerary {}", itineraryId);
 
-        // Convert PlanItineraryResponse to JSON Map
-        Map<String, Object> planData = convertPlanToMap(plan);
+        int nextVersion = expectedPlanVersion + 1;
+        plan.setVersion(nextVersion);
 
-        // Get next version number
-        Integer nextVersion = planRepository.findMaxVersionByItineraryId(itineraryId) + 1;
+        // Serialize PlanItineraryResponse to the stored plan document
+        String planData = planDocumentCodec.encode(plan);
+        List<PlannedDay> days = plan.getDays() != null ? plan.getDays() : List.of();
+        int stopCount = days.stream().mapToInt(day -> day.getStops() != null ? day.getStops().size() : 0).sum();
+        String deltaData = previous != null ? encodeDeltaOrNull(previous, plan, nextVersion) : null;
 
-        // Deactivate all existing plans for this itinerary
-        planRepository.deactivateAllPlansByItineraryId(itineraryId);
+        if (databaseFeatures.isPostgres()) {
+            if (planRepository.replaceActivePlan(UUID.randomUUID(), itineraryId, planData,
+                    PlanDocumentCodec.CURRENT_SCHEMA_VERSION, days.size(), stopCount,
+                    expectedPlanVersion, deltaData, LocalDateTime.now()) == 0) {
+                return false;
+            }
+        } else {
+            if (itineraryRepository.advancePlanVersion(itineraryId, expectedPlanVersion) == 0) {
+                return false;
+            }
+            planRepository.findByItineraryIdAndIsActiveTrue(itineraryId).ifPresent(entity -> {
+                entity.setIsActive(false);
+                if (deltaData != null && entity.getVersion() == expectedPlanVersion) {
+                    entity.setPlanData(deltaData);
+                    entity.setSchemaVersion(PlanDocumentCodec.CURRENT_SCHEMA_VERSION);
+                    entity.setSnapshot(false);
+                    entity.setBaseVersion(nextVersion);
+                }
+                // Written before the insert below, which the one-active-plan unique index would reject
+                planRepository.flush();
+            });
 
-        // Create and save new plan entity
-        org.laioffer.planner.entity.PlanEntity planEntity = new org.laioffer.planner.entity.PlanEntity(
-                itinerary, planData, nextVersion
-        );
-        planRepository.save(planEntity);
+            org.laioffer.planner.entity.PlanEntity planEntity = new org.laioffer.planner.entity.PlanEntity(
+                    itineraryRepository.getReferenceById(itineraryId), planData,
+                    PlanDocumentCodec.CURRENT_SCHEMA_VERSION, nextVersion
+            );
+            planEntity.setDayCount(days.size());
+            planEntity.setStopCount(stopCount);
+            planRepository.save(planEntity);
+        }
 
         logger.info("Plan saved successfully for itinerary {} with version {}", itineraryId, nextVersion);
 
-        return plan;
+        return true;
+    }
+
+    /**
+     * The active version, loaded only if the next save rewrites it as a delta; null otherwise,
+     * which includes every {@code snapshotInterval}-th version and an itinerary never planned
+     */
+    private org.laioffer.planner.entity.PlanEntity previousForDelta(UUID itineraryId, int planVersion) {
+        if (planVersion == 0 || planVersion % snapshotInterval == 0) {
+            return null;
+        }
+        return planRepository.findByItineraryIdAndVersion(itineraryId, planVersion)
+                .filter(org.laioffer.planner.entity.PlanEntity::isSnapshot)
+                .orElse(null);
+    }
+
+    /**
+     * The previous version as a delta against the new one, or null if it should stay a full document
+     */
+    private String encodeDeltaOrNull(org.laioffer.planner.entity.PlanEntity previous, PlanItineraryResponse plan,
+                                     int nextVersion) {
+        if (!previous.isSnapshot() || previous.getVersion() != nextVersion - 1
+                || previous.getVersion() % snapshotInterval == 0) {
+            return null;
+        }
+        PlanDelta delta = planDocumentCodec.diff(plan, planDocumentCodec.decode(previous));
+        String deltaData = planDocumentCodec.encodeDelta(delta);
+        return deltaData.length() < previous.getPlanData().length() ? deltaData : null;
     }
 
     @Override
@@ -254,150 +430,86 @@ public class PlanningServiceImpl implements PlanningService {
         logger.info("Retrieving active plan for itinerary {}", itineraryId);
 
         return planRepository.findByItineraryIdAndIsActiveTrue(itineraryId)
-                .map(planEntity -> convertMapToPlan(planEntity.getPlanData(), itineraryId));
+                .map(this::loadPlan);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public java.util.List<PlanItineraryResponse> getPlanHistory(UUID itineraryId) {
-        logger.info("Retrieving plan history for itinerary {}", itineraryId);
-
-        return planRepository.findAllByItineraryIdOrderByCreatedAtDesc(itineraryId).stream()
-                .map(planEntity -> convertMapToPlan(planEntity.getPlanData(), itineraryId))
-                .collect(Collectors.toList());
+    public java.util.Optional<ActivePlanRef> getActivePlanRef(UUID itineraryId, Long userId) {
+        return planRepository.findActivePlanRef(itineraryId, userId);
     }
 
-    /**
-     * Convert PlanItineraryResponse to Map for JSON storage
-     */
-    private Map<String, Object> convertPlanToMap(PlanItineraryResponse plan) {
-        Map<String, Object> planMap = new java.util.HashMap<>();
-        planMap.put("itineraryId", plan.getItineraryId().toString());
-        planMap.put("days", plan.getDays());
-        if (plan.getWarnings() != null) {
-            planMap.put("warnings", plan.getWarnings());
-        }
-        return planMap;
-    }
-
-    /**
-     * Convert Map from JSON storage to PlanItineraryResponse
-     */
-    private PlanItineraryResponse convertMapToPlan(Map<String, Object> planData, UUID itineraryId) {
-        PlanItineraryResponse response = new PlanItineraryResponse();
-        response.setItineraryId(itineraryId);
-
-        // Convert days
-        @SuppressWarnings("unchecked")
-        List<Map<String, Object>> daysData = (List<Map<String, Object>>) planData.get("days");
-        if (daysData != null) {
-            List<PlannedDay> days = daysData.stream()
-                    .map(this::convertMapToPlannedDay)
-                    .collect(Collectors.toList());
-            response.setDays(days);
-        }
-
-        // Convert warnings if present
-        if (planData.containsKey("warnings")) {
-            @SuppressWarnings("unchecked")
-            List<org.laioffer.planner.model.common.ApiError> warnings =
-                (List<org.laioffer.planner.model.common.ApiError>) planData.get("warnings");
-            response.setWarnings(warnings);
-        }
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PlanVersionSummary> getPlanHistory(UUID itineraryId, Pageable pageable) {
+        logger.info("Retrieving plan history for itinerary {}, page {}", itineraryId, pageable);
 
-        return response;
+        return planRepository.findVersionSummaries(itineraryId, pageable);
     }
 
-    /**
-     * Convert Map to PlannedDay
-     */
-    private PlannedDay convertMapToPlannedDay(Map<String, Object> dayData) {
-        PlannedDay day = new PlannedDay();
-        day.setDate((String) dayData.get("date"));
-
-        @SuppressWarnings("unchecked")
-        List<Map<String, Object>> stopsData = (List<Map<String, Object>>) dayData.get("stops");
-        if (stopsData != null) {
-            List<PlannedStop> stops = stopsData.stream()
-                    .map(this::convertMapToPlannedStop)
-                    .collect(Collectors.toList());
-            day.setStops(stops);
-        }
+    @Override
+    @Transactional(readOnly = true)
+    public java.util.Optional<PlanItineraryResponse> getPlanVersion(UUID itineraryId, int version) {
+        logger.info("Retrieving plan version {} for itinerary {}", version, itineraryId);
 
-        return day;
+        return planRepository.findByItineraryIdAndVersion(itineraryId, version)
+                .map(this::loadPlan);
     }
 
     /**
-     * Convert Map to PlannedStop
+     * Decodes a stored version, applying deltas from the nearest newer full snapshot if needed
      */
-    private PlannedStop convertMapToPlannedStop(Map<String, Object> stopData) {
-        PlannedStop stop = new PlannedStop();
-
-        if (stopData.get("order") != null) {
-            stop.setOrder(((Number) stopData.get("order")).intValue());
-        }
-        stop.setArrivalLocal((String) stopData.get("arrivalLocal"));
-        stop.setDepartLocal((String) stopData.get("departLocal"));
-        if (stopData.get("stayMinutes") != null) {
-            stop.setStayMinutes(((Number) stopData.get("stayMinutes")).intValue());
+    private PlanItineraryResponse loadPlan(org.laioffer.planner.entity.PlanEntity planEntity) {
+        if (planEntity.isSnapshot()) {
+            return planDocumentCodec.decode(planEntity);
         }
-        stop.setNote((String) stopData.get("note"));
-
-        // Convert place data if present
-        @SuppressWarnings("unchecked")
-        Map<String, Object> placeData = (Map<String, Object>) stopData.get("place");
-        if (placeData != null) {
-            org.laioffer.planner.model.place.PlaceDTO placeDTO = convertMapToPlaceDTO(placeData);
-            stop.setPlace(placeDTO);
+
+        UUID itineraryId = planEntity.getItinerary().getId();
+        Integer snapshotVersion = planRepository.findSnapshotVersionAtOrAfter(itineraryId, planEntity.getVersion());
+        if (snapshotVersion == null) {
+            throw new IllegalStateException("No full plan to rebuild version " + planEntity.getVersion()
+                    + " of itinerary " + itineraryId + " from");
         }
 
-        return stop;
+        List<org.laioffer.planner.entity.PlanEntity> chain = planRepository
+                .findByItineraryIdAndVersionBetweenOrderByVersionDesc(itineraryId, planEntity.getVersion(), snapshotVersion);
+        PlanItineraryResponse plan = planDocumentCodec.decode(chain.get(0));
+        for (int i = 1; i < chain.size(); i++) {
+            org.laioffer.planner.entity.PlanEntity delta = chain.get(i);
+            if (!Objects.equals(delta.getBaseVersion(), chain.get(i - 1).getVersion())) {
+                throw new IllegalStateException("Plan version " + delta.getVersion() + " of itinerary " + itineraryId
+                        + " is based on " + delta.getBaseVersion() + ", not " + chain.get(i - 1).getVersion());
+            }
+            plan = planDocumentCodec.decodeDelta(delta.getPlanData()).applyTo(plan);
+        }
+        plan.setVersion(planEntity.getVersion());
+        return plan;
     }
 
     /**
      * Validates the AI-generated plan and removes duplicate POIs.
      * If the same placeId appears multiple times across different days,
      * only the first occurrence is kept, and subsequent duplicates are removed.
+     * Stops are then checked against the places' opening hours.
      *
      * @param aiResponse the AI-generated plan response
+     * @param openingHours compiled opening hours by placeId
+     * @param placeIndex itinerary places by placeId, to tell pinned stops apart
      * @return the validated and deduplicated plan response
      */
-    private AiPlanResponse validateAndDeduplicatePlan(AiPlanResponse aiResponse) {
+    private AiPlanResponse validateAndDeduplicatePlan(AiPlanResponse aiResponse,
+                                                      Map<UUID, CompiledOpeningHours> openingHours,
+                                                      Map<UUID, ItineraryPlaceEntity> placeIndex) {
         if (aiResponse == null || aiResponse.getDays() == null) {
             return aiResponse;
         }
 
-        java.util.Set<UUID> seenPlaceIds = new java.util.HashSet<>();
+        Set<UUID> seenPlaceIds = new HashSet<>();
         int totalRemovedDuplicates = 0;
 
         for (AiPlannedDay day : aiResponse.getDays()) {
-            if (day.getStops() == null) {
-                continue;
-            }
-
-            List<AiPlannedStop> originalStops = new java.util.ArrayList<>(day.getStops());
-            List<AiPlannedStop> validStops = new java.util.ArrayList<>();
-
-            for (AiPlannedStop stop : originalStops) {
-                UUID placeId = stop.getPlaceId();
-
-                if (placeId == null) {
-                    // Keep stops without placeId (e.g., free time, breaks)
-                    validStops.add(stop);
-                } else if (!seenPlaceIds.contains(placeId)) {
-                    // First occurrence of this place - keep it
-                    seenPlaceIds.add(placeId);
-                    validStops.add(stop);
-                } else {
-                    // Duplicate detected - skip this stop
-                    totalRemovedDuplicates++;
-                    logger.warn("Duplicate POI detected and removed: placeId={}, placeName={}, date={}",
-                            placeId, stop.getPlaceName(), day.getDate());
-                }
-            }
-
-            // Update the day with deduplicated stops
-            day.setStops(validStops);
+            totalRemovedDuplicates += deduplicateDay(day, seenPlaceIds);
+            enforceOpeningHours(day, openingHours, placeIndex);
         }
 
         if (totalRemovedDuplicates > 0) {
@@ -410,39 +522,133 @@ public class PlanningServiceImpl implements PlanningService {
     }
 
     /**
-     * Convert Map to PlaceDTO
+     * Removes stops whose placeId was already seen on this or an earlier day.
+     *
+     * @return the number of stops removed
      */
-    private org.laioffer.planner.model.place.PlaceDTO convertMapToPlaceDTO(Map<String, Object> placeData) {
-        org.laioffer.planner.model.place.PlaceDTO placeDTO = new org.laioffer.planner.model.place.PlaceDTO();
+    private int deduplicateDay(AiPlannedDay day, Set<UUID> seenPlaceIds) {
+        if (day.getStops() == null) {
+            return 0;
+        }
 
-        if (placeData.get("id") != null) {
-            placeDTO.setId(UUID.fromString((String) placeData.get("id")));
+        List<AiPlannedStop> validStops = new ArrayList<>();
+        int removed = 0;
+
+        for (AiPlannedStop stop : day.getStops()) {
+            UUID placeId = stop.getPlaceId();
+
+            if (placeId == null) {
+                // Keep stops without placeId (e.g., free time, breaks)
+                validStops.add(stop);
+            } else if (seenPlaceIds.add(placeId)) {
+                // First occurrence of this place - keep it
+                validStops.add(stop);
+            } else {
+                // Duplicate detected - skip this stop
+                removed++;
+                logger.warn("Duplicate POI detected and removed: placeId={}, placeName={}, date={}",
+                        placeId, stop.getPlaceName(), day.getDate());
+            }
         }
-        placeDTO.setName((String) placeData.get("name"));
-        placeDTO.setAddress((String) placeData.get("address"));
-
-        @SuppressWarnings("unchecked")
-        Map<String, Object> locationData = (Map<String, Object>) placeData.get("location");
-        if (locationData != null) {
-            org.laioffer.planner.model.common.GeoPoint location = new org.laioffer.planner.model.common.GeoPoint(
-                    ((Number) locationData.get("lat")).doubleValue(),
-                    ((Number) locationData.get("lng")).doubleValue()
-            );
-            placeDTO.setLocation(location);
+
+        // Update the day with deduplicated stops
+        day.setStops(validStops);
+        return removed;
+    }
+
+    /**
+     * Checks each stop against its place's opening hours. A stop scheduled while the place is closed
+     * is moved to the next opening later that day when the visit still ends before the following
+     * stop; otherwise it is removed, unless the place is pinned, in which case it is kept as planned.
+     *
+     * @return the number of stops removed
+     */
+    private int enforceOpeningHours(AiPlannedDay day, Map<UUID, CompiledOpeningHours> openingHours,
+                                    Map<UUID, ItineraryPlaceEntity> placeIndex) {
+        if (day.getStops() == null || day.getDate() == null || openingHours == null || openingHours.isEmpty()) {
+            return 0;
         }
 
-        placeDTO.setDescription((String) placeData.get("description"));
-        placeDTO.setImageUrl((String) placeData.get("imageUrl"));
+        List<AiPlannedStop> stops = day.getStops();
+        List<AiPlannedStop> openStops = new ArrayList<>(stops.size());
+        int removed = 0;
+
+        for (int i = 0; i < stops.size(); i++) {
+            AiPlannedStop stop = stops.get(i);
+            CompiledOpeningHours hours = stop.getPlaceId() != null ? openingHours.get(stop.getPlaceId()) : null;
+            if (hours == null || !hours.isKnown() || stop.getArrivalTime() == null) {
+                openStops.add(stop);
+                continue;
+            }
+
+            int visitMinutes = visitMinutes(stop);
+            LocalDateTime arrival = day.getDate().atTime(stop.getArrivalTime());
+            if (hours.isOpenFor(arrival, visitMinutes)) {
+                openStops.add(stop);
+                continue;
+            }
 
-        if (placeData.get("itineraryPlaceRecordId") != null) {
-            placeDTO.setItineraryPlaceRecordId(UUID.fromString((String) placeData.get("itineraryPlaceRecordId")));
+            LocalTime nextArrival = i + 1 < stops.size() ? stops.get(i + 1).getArrivalTime() : null;
+            Optional<CompiledOpeningHours.Window> window = hours.nextOpenWindow(arrival, visitMinutes);
+            if (window.isPresent()) {
+                LocalDateTime shiftedDeparture = window.get().start().plusMinutes(visitMinutes);
+                if (shiftedDeparture.toLocalDate().equals(day.getDate())
+                        && (nextArrival == null || !shiftedDeparture.toLocalTime().isAfter(nextArrival))) {
+                    logger.info("Moved stop {} on {} from {} to {} to match opening hours",
+                            stop.getPlaceName(), day.getDate(), stop.getArrivalTime(), window.get().start().toLocalTime());
+                    stop.setArrivalTime(window.get().start().toLocalTime());
+                    stop.setDepartureTime(shiftedDeparture.toLocalTime());
+                    openStops.add(stop);
+                    continue;
+                }
+            }
+
+            ItineraryPlaceEntity itineraryPlace = placeIndex != null ? placeIndex.get(stop.getPlaceId()) : null;
+            if (itineraryPlace != null && itineraryPlace.isPinned()) {
+                logger.warn("Pinned stop {} on {} at {} falls outside opening hours; keeping it",
+                        stop.getPlaceName(), day.getDate(), stop.getArrivalTime());
+                openStops.add(stop);
+            } else {
+                removed++;
+                logger.warn("Stop {} on {} at {} falls outside opening hours and was removed",
+                        stop.getPlaceName(), day.getDate(), stop.getArrivalTime());
+            }
         }
 
-        if (placeData.get("pinned") != null) {
-            placeDTO.setPinned((Boolean) placeData.get("pinned"));
+        day.setStops(openStops);
+        return removed;
+    }
+
+    private static int visitMinutes(AiPlannedStop stop) {
+        if (stop.getDurationMinutes() != null && stop.getDurationMinutes() > 0) {
+            return stop.getDurationMinutes();
         }
-        placeDTO.setNote((String) placeData.get("note"));
+        if (stop.getDepartureTime() != null && stop.getDepartureTime().isAfter(stop.getArrivalTime())) {
+            return (int) Duration.between(stop.getArrivalTime(), stop.getDepartureTime()).toMinutes();
+        }
+        return 0;
+    }
 
-        return placeDTO;
+    /**
+     * Everything the planners need, resolved from the itinerary and request inside a transaction.
+     * The plan counter is kept so the plan can be saved only if no other plan was saved since, and
+     * the active version with it if the save will rewrite it as a delta.
+     */
+    private static final class PlanningInput {
+        private int planVersion;
+        private org.laioffer.planner.entity.PlanEntity previousPlan;
+        private String destinationCity;
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private String travelMode;
+        private String travelPace;
+        private Integer budgetInCents;
+        private Double budgetInDollars;
+        private LocalTime dailyStart;
+        private LocalTime dailyEnd;
+        private PlanningMode planningMode;
+        private List<AiPlaceInfo> aiPlaces;
+        private Map<UUID, ItineraryPlaceEntity> placeIndex;
+        private Map<UUID, CompiledOpeningHours> openingHours;
     }
 }
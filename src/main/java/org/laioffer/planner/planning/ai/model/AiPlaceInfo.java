@@ -1,6 +1,9 @@
 package org.laioffer.planner.planning.ai.model;
 
+import org.laioffer.planner.place.CompiledOpeningHours;
+
 import java.math.BigDecimal;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -17,6 +20,10 @@ public class AiPlaceInfo {
     private String description = "";
     private boolean pinned = false;
     private String note = "";
+    // Normalized weekly hours, e.g. {"monday": {"open": "09:00", "close": "17:00"}}; null when unknown
+    private Map<String, Object> openingHours;
+    // The same hours compiled for schedule checks; compiled on demand when not set
+    private CompiledOpeningHours compiledOpeningHours;
 
     // Constructors
     public AiPlaceInfo() {}
@@ -85,4 +92,20 @@ public class AiPlaceInfo {
     public void setNote(String note) {
         this.note = note;
     }
+
+    public Map<String, Object> getOpeningHours() {
+        return openingHours;
+    }
+
+    public void setOpeningHours(Map<String, Object> openingHours) {
+        this.openingHours = openingHours;
+    }
+
+    public CompiledOpeningHours getCompiledOpeningHours() {
+        return compiledOpeningHours;
+    }
+
+    public void setCompiledOpeningHours(CompiledOpeningHours compiledOpeningHours) {
+        this.compiledOpeningHours = compiledOpeningHours;
+    }
 }
@@ -0,0 +1,18 @@
+package org.laioffer.planner.planning.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Another plan was saved for the itinerary while a plan was being generated from it.
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT, reason = "Another plan was saved while this plan was being generated.")
+public class PlanConflictException extends RuntimeException {
+    public PlanConflictException(String message) {
+        super(message);
+    }
+
+    public PlanConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
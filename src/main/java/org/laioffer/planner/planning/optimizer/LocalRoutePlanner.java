@@ -0,0 +1,476 @@
+package org.laioffer.planner.planning.optimizer;
+
+import org.laioffer.planner.place.CompiledOpeningHours;
+import org.laioffer.planner.planning.ai.model.AiPlaceInfo;
+import org.laioffer.planner.planning.ai.model.AiPlanResponse;
+import org.laioffer.planner.planning.ai.model.AiPlannedDay;
+import org.laioffer.planner.planning.ai.model.AiPlannedStop;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Deterministic alternative to the LLM planner.
+ *
+ * Places are partitioned into days by capacitated k-means on their coordinates, then each day is
+ * solved as an open TSP with time windows (daily window intersected with opening hours) using
+ * nearest-neighbour construction followed by 2-opt / Or-opt improvement. Stops that cannot be
+ * scheduled are moved to another day where possible, unpinned stops first.
+ */
+@Service
+public class LocalRoutePlanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalRoutePlanner.class);
+
+    private static final int MINUTES_PER_DAY = CompiledOpeningHours.MINUTES_PER_DAY;
+    private static final int MAX_CLUSTER_ITERATIONS = 20;
+    // Objective weights: minutes of travel are the unit
+    private static final double WAIT_WEIGHT = 0.25;
+    private static final double UNPINNED_MISS_PENALTY = 1_000.0;
+    private static final double PINNED_MISS_PENALTY = 10_000.0;
+
+    /**
+     * Builds a plan for the given places. The result uses the same shape as the LLM response
+     * so the downstream validation and response assembly are shared.
+     */
+    public AiPlanResponse generatePlan(List<AiPlaceInfo> places,
+                                       LocalDate startDate,
+                                       LocalDate endDate,
+                                       String travelMode,
+                                       LocalTime dailyStart,
+                                       LocalTime dailyEnd,
+                                       String travelPace) {
+        long started = System.nanoTime();
+
+        Problem problem = new Problem(places, tripDates(startDate, endDate), travelMode,
+                dailyStart.toSecondOfDay() / 60, dailyEnd.toSecondOfDay() / 60, stayMinutes(travelPace));
+
+        List<List<Integer>> dayNodes = clusterIntoDays(problem);
+        int[][] routes = new int[problem.dayCount()][];
+        for (int day = 0; day < routes.length; day++) {
+            routes[day] = optimiseDay(problem, day, toArray(dayNodes.get(day)));
+        }
+
+        List<Integer> unscheduled = repair(problem, routes);
+
+        AiPlanResponse response = buildResponse(problem, routes, unscheduled);
+        logger.info("Local planner scheduled {} of {} places over {} days in {} ms",
+                places.size() - unscheduled.size(), places.size(), problem.dayCount(),
+                (System.nanoTime() - started) / 1_000_000);
+        return response;
+    }
+
+    /**
+     * Capacitated k-means: farthest-first seeding, then assignment ordered by regret (how much a
+     * place loses by not getting its nearest day) so tight places claim capacity first.
+     */
+    private List<List<Integer>> clusterIntoDays(Problem problem) {
+        int days = problem.dayCount();
+        List<List<Integer>> clusters = new ArrayList<>(days);
+        for (int d = 0; d < days; d++) {
+            clusters.add(new ArrayList<>());
+        }
+
+        TravelTimeMatrix matrix = problem.matrix;
+        List<Integer> located = new ArrayList<>();
+        List<Integer> unlocated = new ArrayList<>();
+        for (int i = 0; i < matrix.size(); i++) {
+            (matrix.isLocated(i) ? located : unlocated).add(i);
+        }
+
+        int capacity = (int) Math.ceil((double) matrix.size() / days);
+
+        if (days == 1 || located.size() <= days) {
+            // Nothing to cluster; spread round-robin
+            int d = 0;
+            for (Integer node : located) {
+                clusters.get(d++ % days).add(node);
+            }
+        } else {
+            double[] centreLat = new double[days];
+            double[] centreLng = new double[days];
+            seedCentres(matrix, located, centreLat, centreLng);
+
+            int[] assignment = new int[matrix.size()];
+            for (int iteration = 0; iteration < MAX_CLUSTER_ITERATIONS; iteration++) {
+                for (List<Integer> cluster : clusters) {
+                    cluster.clear();
+                }
+                assignWithCapacity(matrix, located, centreLat, centreLng, capacity, clusters);
+
+                boolean changed = false;
+                for (int d = 0; d < days; d++) {
+                    for (Integer node : clusters.get(d)) {
+                        if (iteration == 0 || assignment[node] != d) {
+                            changed = true;
+                        }
+                        assignment[node] = d;
+                    }
+                    recomputeCentre(matrix, clusters.get(d), centreLat, centreLng, d);
+                }
+                if (!changed) {
+                    break;
+                }
+            }
+        }
+
+        // Places without coordinates go to the least loaded day
+        for (Integer node : unlocated) {
+            clusters.stream().min(Comparator.comparingInt(List::size)).ifPresent(c -> c.add(node));
+        }
+        return clusters;
+    }
+
+    private void seedCentres(TravelTimeMatrix matrix, List<Integer> located, double[] lat, double[] lng) {
+        // Deterministic start: the most northern-western place, then repeatedly the farthest one
+        int first = located.stream()
+                .max(Comparator.comparingDouble((Integer i) -> matrix.latitude(i) - matrix.longitude(i)))
+                .orElseThrow();
+        lat[0] = matrix.latitude(first);
+        lng[0] = matrix.longitude(first);
+
+        double[] nearest = new double[matrix.size()];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        for (int c = 1; c < lat.length; c++) {
+            int farthest = -1;
+            double farthestDistance = -1;
+            for (Integer node : located) {
+                double d = TravelTimeMatrix.haversineKm(matrix.latitude(node), matrix.longitude(node), lat[c - 1], lng[c - 1]);
+                nearest[node] = Math.min(nearest[node], d);
+                if (nearest[node] > farthestDistance) {
+                    farthestDistance = nearest[node];
+                    farthest = node;
+                }
+            }
+            lat[c] = matrix.latitude(farthest);
+            lng[c] = matrix.longitude(farthest);
+        }
+    }
+
+    private void assignWithCapacity(TravelTimeMatrix matrix, List<Integer> located,
+                                    double[] centreLat, double[] centreLng,
+                                    int capacity, List<List<Integer>> clusters) {
+        int days = centreLat.length;
+        double[][] distance = new double[matrix.size()][];
+        double[] regret = new double[matrix.size()];
+        for (Integer node : located) {
+            double[] row = new double[days];
+            for (int d = 0; d < days; d++) {
+                row[d] = TravelTimeMatrix.haversineKm(matrix.latitude(node), matrix.longitude(node), centreLat[d], centreLng[d]);
+            }
+            distance[node] = row;
+            double[] sorted = row.clone();
+            Arrays.sort(sorted);
+            regret[node] = sorted[1] - sorted[0];
+        }
+
+        List<Integer> order = new ArrayList<>(located);
+        order.sort(Comparator.comparingDouble((Integer i) -> -regret[i]).thenComparingInt(i -> i));
+
+        for (Integer node : order) {
+            int best = -1;
+            for (int d = 0; d < days; d++) {
+                if (clusters.get(d).size() < capacity && (best < 0 || distance[node][d] < distance[node][best])) {
+                    best = d;
+                }
+            }
+            clusters.get(best).add(node);
+        }
+    }
+
+    private void recomputeCentre(TravelTimeMatrix matrix, List<Integer> cluster,
+                                 double[] centreLat, double[] centreLng, int day) {
+        if (cluster.isEmpty()) {
+            return;
+        }
+        double lat = 0;
+        double lng = 0;
+        for (Integer node : cluster) {
+            lat += matrix.latitude(node);
+            lng += matrix.longitude(node);
+        }
+        centreLat[day] = lat / cluster.size();
+        centreLng[day] = lng / cluster.size();
+    }
+
+    private int[] optimiseDay(Problem problem, int day, int[] nodes) {
+        if (nodes.length == 0) {
+            return nodes;
+        }
+        TourOptimizer.RouteCost objective = (route, length) -> simulate(problem, day, route, length).cost;
+        int[] route = TourOptimizer.nearestNeighbour(nodes, problem.matrix, objective);
+        TourOptimizer.improve(route, objective);
+        return route;
+    }
+
+    /**
+     * Walks the route from the daily start time, waiting for opening time where needed.
+     * A stop that cannot be fully visited inside its window is marked infeasible and skipped.
+     */
+    private Schedule simulate(Problem problem, int day, int[] route, int length) {
+        Schedule schedule = new Schedule(length);
+        int clock = problem.dayStart;
+        int previous = -1;
+        double travel = 0;
+        double waiting = 0;
+        double penalty = 0;
+
+        for (int i = 0; i < length; i++) {
+            int node = route[i];
+            int leg = 0;
+            if (previous >= 0) {
+                double minutes = problem.matrix.get(previous, node);
+                travel += minutes;
+                leg = (int) Math.ceil(minutes);
+            }
+            int reachable = clock + leg;
+            int open = Math.max(problem.dayStart, problem.openMinute(node, day));
+            int close = Math.min(problem.dayEnd, problem.closeMinute(node, day));
+            int arrival = Math.max(reachable, open);
+
+            if (arrival + problem.stayMinutes > close) {
+                schedule.feasible[i] = false;
+                penalty += problem.places.get(node).isPinned() ? PINNED_MISS_PENALTY : UNPINNED_MISS_PENALTY;
+                // Undo the leg so skipping does not distort the rest of the route
+                if (previous >= 0) {
+                    travel -= problem.matrix.get(previous, node);
+                }
+                continue;
+            }
+
+            waiting += arrival - reachable;
+            schedule.feasible[i] = true;
+            schedule.arrival[i] = arrival;
+            schedule.legMinutes[i] = leg;
+            clock = arrival + problem.stayMinutes;
+            previous = node;
+        }
+
+        schedule.cost = travel + WAIT_WEIGHT * waiting + penalty;
+        return schedule;
+    }
+
+    /**
+     * Removes infeasible stops from their day and re-inserts them at the cheapest feasible
+     * position on any day. Returns the nodes that could not be placed anywhere.
+     */
+    private List<Integer> repair(Problem problem, int[][] routes) {
+        List<Integer> pending = new ArrayList<>();
+        for (int day = 0; day < routes.length; day++) {
+            Schedule schedule = simulate(problem, day, routes[day], routes[day].length);
+            List<Integer> kept = new ArrayList<>();
+            for (int i = 0; i < routes[day].length; i++) {
+                if (schedule.feasible[i]) {
+                    kept.add(routes[day][i]);
+                } else {
+                    pending.add(routes[day][i]);
+                }
+            }
+            routes[day] = toArray(kept);
+        }
+
+        // Pinned places get first pick of the remaining capacity
+        pending.sort(Comparator.comparing((Integer i) -> !problem.places.get(i).isPinned()).thenComparingInt(i -> i));
+
+        List<Integer> unscheduled = new ArrayList<>();
+        for (Integer node : pending) {
+            int bestDay = -1;
+            int[] bestRoute = null;
+            double bestDelta = Double.POSITIVE_INFINITY;
+
+            for (int day = 0; day < routes.length; day++) {
+                int[] current = routes[day];
+                double baseCost = simulate(problem, day, current, current.length).cost;
+                int[] candidate = new int[current.length + 1];
+                for (int position = 0; position <= current.length; position++) {
+                    System.arraycopy(current, 0, candidate, 0, position);
+                    candidate[position] = node;
+                    System.arraycopy(current, position, candidate, position + 1, current.length - position);
+
+                    Schedule schedule = simulate(problem, day, candidate, candidate.length);
+                    if (allFeasible(schedule) && schedule.cost - baseCost < bestDelta) {
+                        bestDelta = schedule.cost - baseCost;
+                        bestDay = day;
+                        bestRoute = candidate.clone();
+                    }
+                }
+            }
+
+            if (bestDay >= 0) {
+                routes[bestDay] = bestRoute;
+            } else {
+                unscheduled.add(node);
+            }
+        }
+
+        if (!unscheduled.isEmpty()) {
+            logger.warn("Local planner could not fit {} place(s) into the daily window", unscheduled.size());
+        }
+        return unscheduled;
+    }
+
+    private static boolean allFeasible(Schedule schedule) {
+        for (boolean feasible : schedule.feasible) {
+            if (!feasible) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private AiPlanResponse buildResponse(Problem problem, int[][] routes, List<Integer> unscheduled) {
+        List<AiPlannedDay> days = new ArrayList<>();
+        for (int day = 0; day < routes.length; day++) {
+            int[] route = routes[day];
+            Schedule schedule = simulate(problem, day, route, route.length);
+
+            List<AiPlannedStop> stops = new ArrayList<>();
+            for (int i = 0; i < route.length; i++) {
+                AiPlaceInfo place = problem.places.get(route[i]);
+                AiPlannedStop stop = new AiPlannedStop();
+                stop.setPlaceId(place.getPlaceId());
+                stop.setPlaceName(place.getName());
+                stop.setArrivalTime(toLocalTime(schedule.arrival[i]));
+                stop.setDepartureTime(toLocalTime(schedule.arrival[i] + problem.stayMinutes));
+                stop.setDurationMinutes(problem.stayMinutes);
+                stop.setActivity(describe(place));
+                if (i + 1 < route.length) {
+                    stop.setTransportMode(problem.travelMode.toLowerCase(Locale.ROOT));
+                    stop.setTransportDurationMinutes(schedule.legMinutes[i + 1]);
+                }
+                stops.add(stop);
+            }
+
+            AiPlannedDay plannedDay = new AiPlannedDay();
+            plannedDay.setDate(problem.dates.get(day));
+            plannedDay.setSummary(stops.isEmpty() ? "Free day" : stops.size() + " stops");
+            plannedDay.setStops(stops);
+            days.add(plannedDay);
+        }
+
+        AiPlanResponse response = new AiPlanResponse();
+        response.setDays(days);
+        String summary = "Optimized route for " + (problem.places.size() - unscheduled.size()) + " places";
+        if (!unscheduled.isEmpty()) {
+            summary += "; could not fit: " + unscheduled.stream()
+                    .map(i -> problem.places.get(i).getName())
+                    .reduce((a, b) -> a + ", " + b)
+                    .orElse("");
+        }
+        response.setSummary(summary);
+        return response;
+    }
+
+    private static String describe(AiPlaceInfo place) {
+        String activity = "Visit " + place.getName();
+        if (place.getNote() != null && !place.getNote().isBlank()) {
+            activity += " (" + place.getNote().trim() + ")";
+        }
+        return activity;
+    }
+
+    private static LocalTime toLocalTime(int minuteOfDay) {
+        int clamped = Math.min(minuteOfDay, MINUTES_PER_DAY - 1);
+        return LocalTime.of(clamped / 60, clamped % 60);
+    }
+
+    private static List<LocalDate> tripDates(LocalDate startDate, LocalDate endDate) {
+        long days = Math.max(1, ChronoUnit.DAYS.between(startDate, endDate) + 1);
+        List<LocalDate> dates = new ArrayList<>((int) days);
+        for (int i = 0; i < days; i++) {
+            dates.add(startDate.plusDays(i));
+        }
+        return dates;
+    }
+
+    static int stayMinutes(String travelPace) {
+        if (travelPace == null) {
+            return 120;
+        }
+        return switch (travelPace.toUpperCase(Locale.ROOT)) {
+            case "RELAXED" -> 150;
+            case "PACKED" -> 90;
+            default -> 120;
+        };
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Immutable inputs shared by all phases, with opening windows precomputed per place and day.
+     */
+    private static final class Problem {
+        private final List<AiPlaceInfo> places;
+        private final List<LocalDate> dates;
+        private final String travelMode;
+        private final TravelTimeMatrix matrix;
+        private final int dayStart;
+        private final int dayEnd;
+        private final int stayMinutes;
+        // windows[place * days * 2 + day * 2] = open, +1 = close; the opening interval that best
+        // overlaps the daily window when a place opens more than once a day
+        private final int[] windows;
+
+        private Problem(List<AiPlaceInfo> places, List<LocalDate> dates, String travelMode,
+                        int dayStart, int dayEnd, int stayMinutes) {
+            this.places = places;
+            this.dates = dates;
+            this.travelMode = travelMode != null ? travelMode : "WALKING";
+            this.matrix = TravelTimeMatrix.build(places, this.travelMode);
+            this.dayStart = dayStart;
+            this.dayEnd = dayEnd;
+            this.stayMinutes = stayMinutes;
+            this.windows = new int[places.size() * dates.size() * 2];
+            for (int p = 0; p < places.size(); p++) {
+                AiPlaceInfo place = places.get(p);
+                CompiledOpeningHours hours = place.getCompiledOpeningHours() != null
+                        ? place.getCompiledOpeningHours()
+                        : CompiledOpeningHours.compile(place.getOpeningHours());
+                for (int d = 0; d < dates.size(); d++) {
+                    int[] window = hours.bestWindow(dates.get(d).getDayOfWeek(), dayStart, dayEnd);
+                    windows[(p * dates.size() + d) * 2] = window[0];
+                    windows[(p * dates.size() + d) * 2 + 1] = window[1];
+                }
+            }
+        }
+
+        private int dayCount() {
+            return dates.size();
+        }
+
+        private int openMinute(int place, int day) {
+            return windows[(place * dates.size() + day) * 2];
+        }
+
+        private int closeMinute(int place, int day) {
+            return windows[(place * dates.size() + day) * 2 + 1];
+        }
+    }
+
+    /**
+     * Result of simulating one day's route.
+     */
+    private static final class Schedule {
+        private final boolean[] feasible;
+        private final int[] arrival;
+        private final int[] legMinutes;
+        private double cost;
+
+        private Schedule(int length) {
+            this.feasible = new boolean[length];
+            this.arrival = new int[length];
+            this.legMinutes = new int[length];
+        }
+    }
+}
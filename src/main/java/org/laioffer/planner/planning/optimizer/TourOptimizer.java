@@ -0,0 +1,169 @@
+package org.laioffer.planner.planning.optimizer;
+
+import java.util.Arrays;
+
+/**
+ * Construction and local-search heuristics for open (non-returning) tours.
+ * Routes are primitive arrays of matrix indices; the objective is supplied by the caller
+ * so time-window penalties can be folded into the same search.
+ */
+final class TourOptimizer {
+
+    private static final int MAX_PASSES = 50;
+    private static final int MAX_OR_OPT_SEGMENT = 3;
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Objective function over the first {@code length} entries of a route
+     */
+    @FunctionalInterface
+    interface RouteCost {
+        double cost(int[] route, int length);
+    }
+
+    private TourOptimizer() {}
+
+    /**
+     * Builds a tour by repeatedly visiting the closest unvisited node, trying every start node
+     * and keeping the cheapest result under the supplied objective.
+     */
+    static int[] nearestNeighbour(int[] nodes, TravelTimeMatrix matrix, RouteCost objective) {
+        int n = nodes.length;
+        if (n <= 1) {
+            return nodes.clone();
+        }
+
+        int[] best = null;
+        double bestCost = Double.POSITIVE_INFINITY;
+        int[] candidate = new int[n];
+        boolean[] visited = new boolean[n];
+
+        for (int start = 0; start < n; start++) {
+            Arrays.fill(visited, false);
+            candidate[0] = nodes[start];
+            visited[start] = true;
+            int current = start;
+            for (int position = 1; position < n; position++) {
+                int next = -1;
+                double nextDistance = Double.POSITIVE_INFINITY;
+                for (int k = 0; k < n; k++) {
+                    if (!visited[k]) {
+                        double distance = matrix.get(nodes[current], nodes[k]);
+                        if (distance < nextDistance) {
+                            nextDistance = distance;
+                            next = k;
+                        }
+                    }
+                }
+                visited[next] = true;
+                candidate[position] = nodes[next];
+                current = next;
+            }
+
+            double cost = objective.cost(candidate, n);
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = candidate.clone();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Improves a route in place with 2-opt segment reversals and Or-opt segment moves
+     * until neither finds an improving move.
+     */
+    static void improve(int[] route, RouteCost objective) {
+        int n = route.length;
+        if (n < 3) {
+            if (n == 2) {
+                // Only possible change is the visiting order itself
+                double cost = objective.cost(route, n);
+                swap(route, 0, 1);
+                if (objective.cost(route, n) >= cost - EPSILON) {
+                    swap(route, 0, 1);
+                }
+            }
+            return;
+        }
+
+        double current = objective.cost(route, n);
+        int[] scratch = new int[n];
+
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            boolean improved = false;
+
+            // 2-opt: reverse route[i..j]
+            for (int i = 0; i < n - 1; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    reverse(route, i, j);
+                    double cost = objective.cost(route, n);
+                    if (cost < current - EPSILON) {
+                        current = cost;
+                        improved = true;
+                    } else {
+                        reverse(route, i, j);
+                    }
+                }
+            }
+
+            // Or-opt: move a segment of 1..3 nodes to another position
+            for (int segment = 1; segment <= MAX_OR_OPT_SEGMENT && segment < n; segment++) {
+                for (int from = 0; from + segment <= n; from++) {
+                    for (int to = 0; to <= n - segment; to++) {
+                        if (to == from) {
+                            continue;
+                        }
+                        moveSegment(route, scratch, from, segment, to);
+                        double cost = objective.cost(scratch, n);
+                        if (cost < current - EPSILON) {
+                            System.arraycopy(scratch, 0, route, 0, n);
+                            current = cost;
+                            improved = true;
+                        }
+                    }
+                }
+            }
+
+            if (!improved) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Copies {@code route} into {@code target} with the segment starting at {@code from}
+     * removed and re-inserted so that it begins at index {@code to} of the result.
+     */
+    private static void moveSegment(int[] route, int[] target, int from, int length, int to) {
+        int n = route.length;
+        int write = 0;
+        int remaining = 0;
+        for (int read = 0; read < n; read++) {
+            if (read >= from && read < from + length) {
+                continue;
+            }
+            if (remaining == to) {
+                System.arraycopy(route, from, target, write, length);
+                write += length;
+            }
+            target[write++] = route[read];
+            remaining++;
+        }
+        if (remaining == to) {
+            System.arraycopy(route, from, target, write, length);
+        }
+    }
+
+    private static void reverse(int[] route, int i, int j) {
+        while (i < j) {
+            swap(route, i++, j--);
+        }
+    }
+
+    private static void swap(int[] route, int i, int j) {
+        int tmp = route[i];
+        route[i] = route[j];
+        route[j] = tmp;
+    }
+}
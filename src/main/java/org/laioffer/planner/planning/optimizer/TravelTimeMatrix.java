@@ -0,0 +1,118 @@
+package org.laioffer.planner.planning.optimizer;
+
+import org.laioffer.planner.planning.ai.model.AiPlaceInfo;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Dense travel-time matrix (minutes) between places, stored row-major in a primitive array.
+ * Times are estimated from great-circle distance, a detour factor and a per-mode speed.
+ */
+final class TravelTimeMatrix {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double DETOUR_FACTOR = 1.3;
+    // Used when one of the two places has no usable coordinates
+    private static final double UNKNOWN_LEG_MINUTES = 20.0;
+
+    private final int size;
+    private final double[] minutes;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final boolean[] located;
+
+    private TravelTimeMatrix(int size) {
+        this.size = size;
+        this.minutes = new double[size * size];
+        this.latitudes = new double[size];
+        this.longitudes = new double[size];
+        this.located = new boolean[size];
+    }
+
+    static TravelTimeMatrix build(List<AiPlaceInfo> places, String travelMode) {
+        int n = places.size();
+        TravelTimeMatrix matrix = new TravelTimeMatrix(n);
+
+        for (int i = 0; i < n; i++) {
+            AiPlaceInfo place = places.get(i);
+            BigDecimal lat = place.getLatitude();
+            BigDecimal lng = place.getLongitude();
+            // AiPlaceInfo defaults coordinates to zero, which we treat as "unknown"
+            if (lat != null && lng != null && (lat.signum() != 0 || lng.signum() != 0)) {
+                matrix.latitudes[i] = lat.doubleValue();
+                matrix.longitudes[i] = lng.doubleValue();
+                matrix.located[i] = true;
+            }
+        }
+
+        double speedKmh = speedKmh(travelMode);
+        double overhead = legOverheadMinutes(travelMode);
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double value;
+                if (matrix.located[i] && matrix.located[j]) {
+                    double km = haversineKm(matrix.latitudes[i], matrix.longitudes[i],
+                            matrix.latitudes[j], matrix.longitudes[j]) * DETOUR_FACTOR;
+                    value = overhead + km / speedKmh * 60.0;
+                } else {
+                    value = UNKNOWN_LEG_MINUTES;
+                }
+                matrix.minutes[i * n + j] = value;
+                matrix.minutes[j * n + i] = value;
+            }
+        }
+        return matrix;
+    }
+
+    double get(int from, int to) {
+        return minutes[from * size + to];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isLocated(int index) {
+        return located[index];
+    }
+
+    double latitude(int index) {
+        return latitudes[index];
+    }
+
+    double longitude(int index) {
+        return longitudes[index];
+    }
+
+    static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private static double speedKmh(String travelMode) {
+        return switch (normalizeMode(travelMode)) {
+            case "DRIVING" -> 28.0;
+            case "BICYCLING" -> 14.0;
+            case "TRANSIT", "MIXED" -> 18.0;
+            default -> 4.5;
+        };
+    }
+
+    private static double legOverheadMinutes(String travelMode) {
+        return switch (normalizeMode(travelMode)) {
+            // Parking, waiting for a vehicle, walking to a station
+            case "DRIVING", "TRANSIT", "MIXED" -> 5.0;
+            default -> 0.0;
+        };
+    }
+
+    private static String normalizeMode(String travelMode) {
+        return travelMode != null ? travelMode.toUpperCase(Locale.ROOT) : "WALKING";
+    }
+}
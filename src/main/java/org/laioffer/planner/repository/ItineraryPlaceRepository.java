@@ -1,6 +1,8 @@
 package org.laioffer.planner.repository;
 
 import org.laioffer.planner.entity.ItineraryPlaceEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -20,6 +22,39 @@ public interface ItineraryPlaceRepository extends JpaRepository<ItineraryPlaceEn
      */
     List<ItineraryPlaceEntity> findAllByItineraryId(UUID itineraryId);
 
+    /**
+     * Find all places for a specific itinerary with their PlaceEntity loaded in the same query.
+     * Used when every place will be mapped, so the lazy place association is not hit per row.
+     */
+    @Query("SELECT ip FROM ItineraryPlaceEntity ip LEFT JOIN FETCH ip.place WHERE ip.itineraryId = :itineraryId")
+    List<ItineraryPlaceEntity> findAllWithPlaceByItineraryId(@Param("itineraryId") UUID itineraryId);
+
+    /**
+     * Relevance-ranked keyword search within an itinerary (PostgreSQL only; needs the search_vector
+     * column from text_search.sql, see DatabaseFeatures.rankedSearch). Matches term prefixes through the tsvector and misspelled
+     * names through trigram word similarity; best matches first.
+     *
+     * @param tsQuery prefix tsquery from PlaceTextQuery.toPrefixTsQuery
+     * @param query the raw keyword, used for trigram similarity
+     * @param minSimilarity lowest word_similarity accepted as a fuzzy name match
+     */
+    @Query(value = "SELECT ip.* FROM itinerary_places ip " +
+           "WHERE ip.itinerary_id = :itineraryId " +
+           "AND (ip.search_vector @@ to_tsquery('simple', :tsQuery) " +
+           " OR word_similarity(:query, ip.name) >= :minSimilarity) " +
+           "ORDER BY ts_rank_cd(ip.search_vector, to_tsquery('simple', :tsQuery)) " +
+           " + word_similarity(:query, ip.name) DESC, ip.name ASC, ip.id ASC",
+           countQuery = "SELECT count(*) FROM itinerary_places ip " +
+           "WHERE ip.itinerary_id = :itineraryId " +
+           "AND (ip.search_vector @@ to_tsquery('simple', :tsQuery) " +
+           " OR word_similarity(:query, ip.name) >= :minSimilarity)",
+           nativeQuery = true)
+    Page<ItineraryPlaceEntity> searchRankedByItineraryId(@Param("itineraryId") UUID itineraryId,
+                                                         @Param("tsQuery") String tsQuery,
+                                                         @Param("query") String query,
+                                                         @Param("minSimilarity") double minSimilarity,
+                                                         Pageable pageable);
+
     /**
      * Find a subset of places for a specific itinerary by their IDs.
      */
@@ -71,6 +106,18 @@ public interface ItineraryPlaceRepository extends JpaRepository<ItineraryPlaceEn
      */
     long countByItineraryIdAndPinned(UUID itineraryId, boolean pinned);
     
+    /**
+     * Total and pinned place counts for an itinerary in a single aggregate query
+     */
+    @Query("SELECT COUNT(ip) AS total, COUNT(ip) FILTER (WHERE ip.pinned = true) AS pinned " +
+           "FROM ItineraryPlaceEntity ip WHERE ip.itineraryId = :itineraryId")
+    PlaceCounts countPlacesByItineraryId(@Param("itineraryId") UUID itineraryId);
+    
+    interface PlaceCounts {
+        long getTotal();
+        long getPinned();
+    }
+    
     /**
      * Get place IDs for an itinerary (useful for recommendation filtering)
      */
@@ -86,22 +133,41 @@ public interface ItineraryPlaceRepository extends JpaRepository<ItineraryPlaceEn
     /**
      * Update pinned status for a specific itinerary-place combination
      */
-    @Modifying
     @Transactional
+    default void updatePinnedStatus(UUID itineraryId, UUID placeId, boolean pinned) {
+        setPinnedStatus(itineraryId, placeId, pinned);
+        bumpItineraryContentVersion(itineraryId);
+    }
+    
+    @Modifying
     @Query("UPDATE ItineraryPlaceEntity ip SET ip.pinned = :pinned WHERE ip.itineraryId = :itineraryId AND ip.placeId = :placeId")
-    void updatePinnedStatus(@Param("itineraryId") UUID itineraryId, 
-                           @Param("placeId") UUID placeId, 
-                           @Param("pinned") boolean pinned);
+    void setPinnedStatus(@Param("itineraryId") UUID itineraryId, 
+                         @Param("placeId") UUID placeId, 
+                         @Param("pinned") boolean pinned);
     
     /**
      * Update note for a specific itinerary-place combination
      */
-    @Modifying
     @Transactional
+    default void updateNote(UUID itineraryId, UUID placeId, String note) {
+        setNote(itineraryId, placeId, note);
+        bumpItineraryContentVersion(itineraryId);
+    }
+    
+    @Modifying
     @Query("UPDATE ItineraryPlaceEntity ip SET ip.note = :note WHERE ip.itineraryId = :itineraryId AND ip.placeId = :placeId")
-    void updateNote(@Param("itineraryId") UUID itineraryId,
-                    @Param("placeId") UUID placeId,
-                    @Param("note") String note);
+    void setNote(@Param("itineraryId") UUID itineraryId,
+                 @Param("placeId") UUID placeId,
+                 @Param("note") String note);
+    
+    /**
+     * Advance the itinerary's content version after its places change, so cached itinerary
+     * responses and their ETags are no longer served. Every write to itinerary places goes through this.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ItineraryEntity i SET i.contentVersion = COALESCE(i.contentVersion, 0) + 1 WHERE i.id = :itineraryId")
+    void bumpItineraryContentVersion(@Param("itineraryId") UUID itineraryId);
 
     /**
      * Find ItineraryPlace by ID and verify user ownership in a single query.
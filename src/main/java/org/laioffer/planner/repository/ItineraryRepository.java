@@ -1,6 +1,9 @@
 package org.laioffer.planner.repository;
 
+import org.laioffer.planner.cache.ItineraryStamp;
 import org.laioffer.planner.entity.ItineraryEntity;
+import org.laioffer.planner.model.itinerary.ItinerarySummaryDTO;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,7 +13,9 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -22,24 +27,82 @@ public interface ItineraryRepository extends JpaRepository<ItineraryEntity, UUID
     // 分页查询用户的行程
     Page<ItineraryEntity> findByUserId(Long userId, Pageable pageable);
 
+    // 列表摘要 - 只读取摘要需要的列，不加载偏好类别集合和 jsonb 字段
+    @Query(value = "SELECT new org.laioffer.planner.model.itinerary.ItinerarySummaryDTO(" +
+            "i.id, i.destinationCity, i.startDate, i.endDate, i.travelMode, i.budgetInCents, i.travelPace, i.createdAt) " +
+            "FROM ItineraryEntity i WHERE i.user.id = :userId",
+            countQuery = "SELECT COUNT(i) FROM ItineraryEntity i WHERE i.user.id = :userId")
+    Page<ItinerarySummaryDTO> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    // 键集分页 - 从游标 (created_at, id) 之后继续读取，不使用 OFFSET 和 COUNT
+    @Query("SELECT new org.laioffer.planner.model.itinerary.ItinerarySummaryDTO(" +
+            "i.id, i.destinationCity, i.startDate, i.endDate, i.travelMode, i.budgetInCents, i.travelPace, i.createdAt) " +
+            "FROM ItineraryEntity i WHERE i.user.id = :userId " +
+            "AND (i.createdAt < :createdAt OR (i.createdAt = :createdAt AND i.id < :id)) " +
+            "ORDER BY i.createdAt DESC, i.id DESC")
+    List<ItinerarySummaryDTO> findSummariesByUserIdAfter(@Param("userId") Long userId,
+                                                         @Param("createdAt") LocalDateTime createdAt,
+                                                         @Param("id") UUID id,
+                                                         Limit limit);
+
+    // 详情 - 一次查询加载行程、行程地点及地点
+    @Query("SELECT i FROM ItineraryEntity i LEFT JOIN FETCH i.itineraryPlaces ip LEFT JOIN FETCH ip.place " +
+           "WHERE i.id = :id")
+    Optional<ItineraryEntity> findWithPlacesById(@Param("id") UUID id);
+
     // 按城市查询
     List<ItineraryEntity> findByDestinationCity(String destinationCity);
     List<ItineraryEntity> findByUserIdAndDestinationCity(Long userId, String destinationCity);
 
+    // 计划版本 - 读取行程最近保存的计划版本号（从未保存过为 0），不加载整行
+    @Query("SELECT COALESCE(i.planVersion, 0) FROM ItineraryEntity i WHERE i.id = :id")
+    Optional<Integer> findPlanVersionById(@Param("id") UUID id);
+
+    // 计划版本 - 仅当计数器仍为 expectedPlanVersion 时递增（持有行锁至提交），返回 0 表示已被并发保存抢先
+    @Modifying
+    @Query("UPDATE ItineraryEntity i SET i.planVersion = COALESCE(i.planVersion, 0) + 1, i.version = i.version + 1 " +
+           "WHERE i.id = :id AND COALESCE(i.planVersion, 0) = :expectedPlanVersion")
+    int advancePlanVersion(@Param("id") UUID id, @Param("expectedPlanVersion") int expectedPlanVersion);
+
     // 权限验证 - 检查行程是否属于用户
     boolean existsByIdAndUserId(UUID itineraryId, Long userId);
 
+    // 缓存校验 - 读取行程的版本戳（同时校验归属），不加载整行
+    @Query("SELECT new org.laioffer.planner.cache.ItineraryStamp(" +
+            "i.id, COALESCE(i.version, 0L), COALESCE(i.contentVersion, 0L)) " +
+            "FROM ItineraryEntity i WHERE i.id = :id AND i.user.id = :userId")
+    Optional<ItineraryStamp> findStampByIdAndUserId(@Param("id") UUID id, @Param("userId") Long userId);
+
+    @Query("SELECT new org.laioffer.planner.cache.ItineraryStamp(" +
+            "i.id, COALESCE(i.version, 0L), COALESCE(i.contentVersion, 0L)) " +
+            "FROM ItineraryEntity i WHERE i.id = :id")
+    Optional<ItineraryStamp> findStampById(@Param("id") UUID id);
+
     // 统计查询
     long countByUserId(Long userId);
 
     // 自定义更新操作（参考 UserRepository 的 updateUsernameById 模式）
     @Modifying
     @Transactional
-    @Query("UPDATE ItineraryEntity i SET i.destinationCity = :city WHERE i.id = :id")
+    @Query("UPDATE ItineraryEntity i SET i.destinationCity = :city, i.version = i.version + 1 WHERE i.id = :id")
     void updateDestinationCity(@Param("id") UUID id, @Param("city") String city);
 
     @Modifying
     @Transactional
-    @Query("UPDATE ItineraryEntity i SET i.budgetInCents = :budget WHERE i.id = :id")
+    @Query("UPDATE ItineraryEntity i SET i.budgetInCents = :budget, i.version = i.version + 1 WHERE i.id = :id")
     void updateBudget(@Param("id") UUID id, @Param("budget") Integer budget);
-}
\ No newline at end of file
+
+    // 生成重试 - 因生成队列已满而挂起、等待重新提交的行程（最早创建的优先）
+    @Query(value = "SELECT i.id AS itineraryId, i.user_id AS userId, " +
+           "CAST(i.ai_metadata ->> 'recommended_poi_count' AS integer) AS poiCount " +
+           "FROM itineraries i WHERE i.ai_metadata ->> 'generation_retry' = 'true' " +
+           "ORDER BY i.created_at LIMIT :limit",
+           nativeQuery = true)
+    List<PendingGeneration> findPendingGenerationRetries(@Param("limit") int limit);
+
+    interface PendingGeneration {
+        UUID getItineraryId();
+        Long getUserId();
+        Integer getPoiCount();
+    }
+}
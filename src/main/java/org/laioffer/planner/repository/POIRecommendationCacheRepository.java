@@ -0,0 +1,29 @@
+package org.laioffer.planner.repository;
+
+import org.laioffer.planner.entity.POIRecommendationCacheEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface POIRecommendationCacheRepository extends JpaRepository<POIRecommendationCacheEntity, String> {
+
+    /**
+     * Find a cached recommendation that has not expired yet
+     */
+    Optional<POIRecommendationCacheEntity> findByCacheKeyAndExpiresAtAfter(String cacheKey, LocalDateTime now);
+
+    /**
+     * Remove expired cache rows
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM POIRecommendationCacheEntity c WHERE c.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,161 @@
+package org.laioffer.planner.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.laioffer.planner.entity.ItineraryPlaceEntity;
+import org.laioffer.planner.entity.PlaceEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Multi-row INSERT ... ON CONFLICT writer for places and itinerary places, used for large imports
+ * where even batched JPA inserts spend most of their time in per-row statement overhead.
+ * UUIDs are assigned client side. PostgreSQL only; callers should check {@link #isSupported()}.
+ */
+@Repository
+public class PlaceBulkWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaceBulkWriter.class);
+
+    // 15 parameters per places row keeps each statement far below the 32767 bind parameter limit
+    private static final int ROWS_PER_STATEMENT = 500;
+
+    private static final String PLACES_INSERT_PREFIX =
+            "INSERT INTO places (id, name, address, latitude, longitude, website, phone, image_url, description, " +
+            "opening_hours, contact_info, metadata, source, dedup_key, created_at) VALUES ";
+    private static final String PLACES_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?::jsonb, ?::jsonb, ?::jsonb, ?, ?, ?)";
+    private static final String PLACES_CONFLICT = " ON CONFLICT (id) DO NOTHING";
+
+    private static final String ITINERARY_PLACES_INSERT_PREFIX =
+            "INSERT INTO itinerary_places (id, itinerary_id, place_id, name, description, pinned, note, added_at) VALUES ";
+    private static final String ITINERARY_PLACES_ROW = "(?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String ITINERARY_PLACES_CONFLICT = " ON CONFLICT (itinerary_id, place_id) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private volatile Boolean supported;
+
+    public PlaceBulkWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Whether the connected database understands the PostgreSQL-specific SQL used here
+     */
+    public boolean isSupported() {
+        Boolean result = supported;
+        if (result == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            result = "PostgreSQL".equalsIgnoreCase(product);
+            supported = result;
+        }
+        return result;
+    }
+
+    /**
+     * Inserts places, assigning ids and creation timestamps to the passed entities first.
+     *
+     * @return number of rows actually inserted
+     */
+    public int insertPlaces(List<PlaceEntity> places) {
+        LocalDateTime now = LocalDateTime.now();
+        int inserted = 0;
+
+        for (int from = 0; from < places.size(); from += ROWS_PER_STATEMENT) {
+            List<PlaceEntity> chunk = places.subList(from, Math.min(from + ROWS_PER_STATEMENT, places.size()));
+            StringBuilder sql = new StringBuilder(PLACES_INSERT_PREFIX);
+            List<Object> args = new ArrayList<>(chunk.size() * 15);
+
+            for (int i = 0; i < chunk.size(); i++) {
+                PlaceEntity place = chunk.get(i);
+                if (place.getId() == null) {
+                    place.setId(UUID.randomUUID());
+                }
+                // Entity callbacks do not run on this path
+                place.refreshDerivedColumns();
+                sql.append(i == 0 ? "" : ", ").append(PLACES_ROW);
+                args.add(place.getId());
+                args.add(place.getName());
+                args.add(place.getAddress());
+                args.add(place.getLatitude());
+                args.add(place.getLongitude());
+                args.add(place.getWebsite());
+                args.add(place.getPhone());
+                args.add(place.getImageUrl());
+                args.add(place.getDescription());
+                args.add(toJson(place.getOpeningHours()));
+                args.add(toJson(place.getContactInfo()));
+                args.add(toJson(place.getMetadata()));
+                args.add(place.getSource());
+                args.add(place.getDedupKey());
+                args.add(Timestamp.valueOf(now));
+            }
+            sql.append(PLACES_CONFLICT);
+            inserted += jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+
+        logger.debug("Bulk inserted {} of {} places", inserted, places.size());
+        return inserted;
+    }
+
+    /**
+     * Inserts itinerary-place links, skipping places already linked to the itinerary.
+     *
+     * @return number of rows actually inserted
+     */
+    public int insertItineraryPlaces(List<ItineraryPlaceEntity> itineraryPlaces) {
+        LocalDateTime now = LocalDateTime.now();
+        int inserted = 0;
+
+        for (int from = 0; from < itineraryPlaces.size(); from += ROWS_PER_STATEMENT) {
+            List<ItineraryPlaceEntity> chunk =
+                    itineraryPlaces.subList(from, Math.min(from + ROWS_PER_STATEMENT, itineraryPlaces.size()));
+            StringBuilder sql = new StringBuilder(ITINERARY_PLACES_INSERT_PREFIX);
+            List<Object> args = new ArrayList<>(chunk.size() * 8);
+
+            for (int i = 0; i < chunk.size(); i++) {
+                ItineraryPlaceEntity itineraryPlace = chunk.get(i);
+                if (itineraryPlace.getId() == null) {
+                    itineraryPlace.setId(UUID.randomUUID());
+                }
+                sql.append(i == 0 ? "" : ", ").append(ITINERARY_PLACES_ROW);
+                args.add(itineraryPlace.getId());
+                args.add(itineraryPlace.getItineraryId());
+                args.add(itineraryPlace.getPlaceId());
+                args.add(itineraryPlace.getName());
+                args.add(itineraryPlace.getDescription());
+                args.add(itineraryPlace.isPinned());
+                args.add(itineraryPlace.getNote());
+                args.add(Timestamp.valueOf(now));
+            }
+            sql.append(ITINERARY_PLACES_CONFLICT);
+            inserted += jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+
+        logger.debug("Bulk inserted {} of {} itinerary places", inserted, itineraryPlaces.size());
+        return inserted;
+    }
+
+    private String toJson(Map<String, Object> value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize JSON column", e);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.laioffer.planner.repository;
 
 import org.laioffer.planner.entity.ItineraryPlaceEntity;
 import org.laioffer.planner.entity.PlaceEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,6 +10,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -33,18 +36,122 @@ public interface PlaceRepository extends JpaRepository<PlaceEntity, UUID> {
             @Param("query") String query,
             Pageable pageable
     );
+
+    /**
+     * Keyset page of itinerary places ordered by (name, id), starting after the given cursor row.
+     * Reads only the requested rows: no OFFSET scan and no COUNT query.
+     */
+    @Query("SELECT ip FROM ItineraryPlaceEntity ip " +
+           "WHERE ip.itineraryId = :itineraryId " +
+           "AND (:query IS NULL OR :query = '' OR " +
+           " LOWER(ip.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+           " LOWER(ip.description) LIKE LOWER(CONCAT('%', :query, '%'))) " +
+           "AND (ip.name > :name OR (ip.name = :name AND ip.id > :id)) " +
+           "ORDER BY ip.name, ip.id")
+    List<ItineraryPlaceEntity> findItineraryPlacesByItineraryAfter(
+            @Param("itineraryId") UUID itineraryId,
+            @Param("query") String query,
+            @Param("name") String name,
+            @Param("id") UUID id,
+            Limit limit
+    );
+
+    @Query("SELECT COUNT(ip) FROM ItineraryPlaceEntity ip " +
+           "WHERE ip.itineraryId = :itineraryId " +
+           "AND (:query IS NULL OR :query = '' OR " +
+           " LOWER(ip.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+           " LOWER(ip.description) LIKE LOWER(CONCAT('%', :query, '%')))")
+    long countItineraryPlacesByItinerary(@Param("itineraryId") UUID itineraryId, @Param("query") String query);
     
     /**
-     * Find places within a geographic bounding box (for future location-based recommendations)
-     * This is a placeholder for future geographic filtering
+     * Places inside a bounding box, compared on the numeric columns (used without PostGIS)
      */
     @Query("SELECT p FROM PlaceEntity p WHERE " +
            "p.latitude BETWEEN :minLat AND :maxLat AND " +
            "p.longitude BETWEEN :minLng AND :maxLng")
+    List<PlaceEntity> findPlacesInBoundsByCoordinates(
+            @Param("minLat") BigDecimal minLatitude,
+            @Param("maxLat") BigDecimal maxLatitude,
+            @Param("minLng") BigDecimal minLongitude,
+            @Param("maxLng") BigDecimal maxLongitude,
+            Limit limit
+    );
+
+    /**
+     * Places inside a bounding box, using the GiST index on places.location (PostgreSQL/PostGIS only)
+     */
+    @Query(value = "SELECT p.* FROM places p " +
+           "WHERE p.location && ST_MakeEnvelope(:minLng, :minLat, :maxLng, :maxLat, 4326)::geography " +
+           "LIMIT :limit",
+           nativeQuery = true)
     List<PlaceEntity> findPlacesInBounds(
-            @Param("minLat") Double minLatitude,
-            @Param("maxLat") Double maxLatitude,
-            @Param("minLng") Double minLongitude,
-            @Param("maxLng") Double maxLongitude
+            @Param("minLat") double minLatitude,
+            @Param("maxLat") double maxLatitude,
+            @Param("minLng") double minLongitude,
+            @Param("maxLng") double maxLongitude,
+            @Param("limit") int limit
+    );
+
+    /**
+     * Places within radiusMeters of a point, nearest first (PostgreSQL/PostGIS only)
+     */
+    @Query(value = "SELECT p.* FROM places p " +
+           "WHERE ST_DWithin(p.location, ST_SetSRID(ST_MakePoint(:lng, :lat), 4326)::geography, :radiusMeters) " +
+           "ORDER BY p.location <-> ST_SetSRID(ST_MakePoint(:lng, :lat), 4326)::geography " +
+           "LIMIT :limit",
+           nativeQuery = true)
+    List<PlaceEntity> findPlacesWithinRadius(
+            @Param("lat") double latitude,
+            @Param("lng") double longitude,
+            @Param("radiusMeters") double radiusMeters,
+            @Param("limit") int limit
+    );
+
+    /**
+     * The k places nearest to a point, via an index-assisted KNN scan (PostgreSQL/PostGIS only)
+     */
+    @Query(value = "SELECT p.* FROM places p " +
+           "WHERE p.location IS NOT NULL " +
+           "ORDER BY p.location <-> ST_SetSRID(ST_MakePoint(:lng, :lat), 4326)::geography " +
+           "LIMIT :limit",
+           nativeQuery = true)
+    List<PlaceEntity> findNearestPlaces(
+            @Param("lat") double latitude,
+            @Param("lng") double longitude,
+            @Param("limit") int limit
     );
-}
\ No newline at end of file
+
+    /**
+     * Relevance-ranked catalogue search (PostgreSQL only; needs the search_vector column and trigram
+     * index from text_search.sql, see DatabaseFeatures.rankedSearch). Uses the <% operator so fuzzy name matches stay index-assisted;
+     * its cut-off is pg_trgm.word_similarity_threshold.
+     */
+    @Query(value = "SELECT p.* FROM places p " +
+           "WHERE p.search_vector @@ to_tsquery('simple', :tsQuery) OR :query <% p.name " +
+           "ORDER BY ts_rank_cd(p.search_vector, to_tsquery('simple', :tsQuery)) " +
+           " + word_similarity(:query, p.name) DESC, p.name ASC " +
+           "LIMIT :limit",
+           nativeQuery = true)
+    List<PlaceEntity> searchRanked(@Param("tsQuery") String tsQuery,
+                                   @Param("query") String query,
+                                   @Param("limit") int limit);
+
+    /**
+     * Catalogue keyword search by substring, ordered by name (used without ranked search)
+     */
+    @Query("SELECT p FROM PlaceEntity p WHERE " +
+           "LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+           "LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%')) " +
+           "ORDER BY p.name, p.id")
+    List<PlaceEntity> searchByKeyword(@Param("query") String query, Limit limit);
+
+    /**
+     * Catalogue lookup for deduplication; keys come from PlaceDedupKey.candidates
+     */
+    List<PlaceEntity> findAllByDedupKeyIn(Collection<String> dedupKeys);
+
+    /**
+     * Next batch of places without a dedup key, in id order (used by the backfill)
+     */
+    List<PlaceEntity> findTop500ByDedupKeyIsNullAndIdGreaterThanOrderByIdAsc(UUID id);
+}
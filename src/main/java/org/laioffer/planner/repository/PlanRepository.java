@@ -1,12 +1,18 @@
 package org.laioffer.planner.repository;
 
 import org.laioffer.planner.entity.PlanEntity;
+import org.laioffer.planner.planning.ActivePlanRef;
+import org.laioffer.planner.model.planning.PlanVersionSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,21 +25,85 @@ public interface PlanRepository extends JpaRepository<PlanEntity, UUID> {
      */
     Optional<PlanEntity> findByItineraryIdAndIsActiveTrue(UUID itineraryId);
 
+    /**
+     * Id and version of the active plan of an itinerary owned by the user, without the plan document
+     */
+    @Query("SELECT new org.laioffer.planner.planning.ActivePlanRef(p.id, p.version) FROM PlanEntity p " +
+            "WHERE p.itinerary.id = :itineraryId AND p.itinerary.user.id = :userId AND p.isActive = true")
+    Optional<ActivePlanRef> findActivePlanRef(@Param("itineraryId") UUID itineraryId, @Param("userId") Long userId);
+
     /**
      * Find all plans for a specific itinerary, ordered by creation date (newest first)
      */
     List<PlanEntity> findAllByItineraryIdOrderByCreatedAtDesc(UUID itineraryId);
 
     /**
-     * Get the highest version number for an itinerary's plans
+     * Page through an itinerary's plan versions (newest first) without loading the plan documents
+     */
+    @Query(value = "SELECT new org.laioffer.planner.model.planning.PlanVersionSummary(" +
+            "p.version, p.isActive, p.createdAt, p.dayCount, p.stopCount) " +
+            "FROM PlanEntity p WHERE p.itinerary.id = :itineraryId ORDER BY p.version DESC",
+            countQuery = "SELECT COUNT(p) FROM PlanEntity p WHERE p.itinerary.id = :itineraryId")
+    Page<PlanVersionSummary> findVersionSummaries(@Param("itineraryId") UUID itineraryId, Pageable pageable);
+
+    Optional<PlanEntity> findByItineraryIdAndVersion(UUID itineraryId, Integer version);
+
+    /**
+     * The oldest full snapshot at or after the given version; reading that version starts there
+     */
+    @Query("SELECT MIN(p.version) FROM PlanEntity p WHERE p.itinerary.id = :itineraryId " +
+            "AND p.version >= :version AND (p.snapshot IS NULL OR p.snapshot = true)")
+    Integer findSnapshotVersionAtOrAfter(@Param("itineraryId") UUID itineraryId, @Param("version") Integer version);
+
+    /**
+     * Plan versions in a range, newest first, i.e. in the order their deltas are applied
      */
-    @Query("SELECT COALESCE(MAX(p.version), 0) FROM PlanEntity p WHERE p.itinerary.id = :itineraryId")
-    Integer findMaxVersionByItineraryId(@Param("itineraryId") UUID itineraryId);
+    List<PlanEntity> findByItineraryIdAndVersionBetweenOrderByVersionDesc(UUID itineraryId, Integer from, Integer to);
 
     /**
-     * Deactivate all plans for a specific itinerary
+     * Saves the next plan version in one statement (PostgreSQL only): advances the itinerary's plan
+     * counter, provided it is still expectedPlanVersion, deactivates the active plan and inserts the
+     * new active version numbered from the counter. With deltaData the previous version is also
+     * rewritten as a delta against the new one. The counter update takes the itinerary row lock, so
+     * concurrent saves run one after the other and all but the first find the counter moved on.
+     *
+     * @return number of rows inserted: 1, or 0 if the counter had moved on or the itinerary is gone
      */
     @Modifying
-    @Query("UPDATE PlanEntity p SET p.isActive = false WHERE p.itinerary.id = :itineraryId AND p.isActive = true")
-    void deactivateAllPlansByItineraryId(@Param("itineraryId") UUID itineraryId);
+    @Transactional
+    @Query(value = "WITH bumped AS (" +
+            " UPDATE itineraries SET plan_version = COALESCE(plan_version, 0) + 1," +
+            " version = COALESCE(version, 0) + 1" +
+            " WHERE id = :itineraryId AND COALESCE(plan_version, 0) = :expectedPlanVersion" +
+            " RETURNING plan_version), " +
+            "deactivated AS (" +
+            " UPDATE plans SET is_active = false," +
+            " plan_data = CASE WHEN version = :expectedPlanVersion" +
+            " THEN COALESCE(CAST(:deltaData AS jsonb), plan_data) ELSE plan_data END," +
+            " is_snapshot = CASE WHEN version = :expectedPlanVersion AND CAST(:deltaData AS text) IS NOT NULL" +
+            " THEN false ELSE is_snapshot END," +
+            " base_version = CASE WHEN version = :expectedPlanVersion AND CAST(:deltaData AS text) IS NOT NULL" +
+            " THEN :expectedPlanVersion + 1 ELSE base_version END," +
+            " schema_version = CASE WHEN version = :expectedPlanVersion AND CAST(:deltaData AS text) IS NOT NULL" +
+            " THEN :schemaVersion ELSE schema_version END," +
+            " updated_at = :now" +
+            " WHERE itinerary_id = :itineraryId AND is_active = true AND EXISTS (SELECT 1 FROM bumped)" +
+            " RETURNING id) " +
+            "INSERT INTO plans (id, itinerary_id, plan_data, schema_version, version, is_snapshot, " +
+            "day_count, stop_count, is_active, created_at, updated_at) " +
+            "SELECT :id, :itineraryId, CAST(:planData AS jsonb), :schemaVersion, b.plan_version, true, " +
+            ":dayCount, :stopCount, true, :now, :now " +
+            // Reading the update's row count makes it run first, so ux_plans_active_itinerary never
+            // sees two active rows
+            "FROM bumped b, (SELECT count(*) FROM deactivated) d",
+            nativeQuery = true)
+    int replaceActivePlan(@Param("id") UUID id,
+                          @Param("itineraryId") UUID itineraryId,
+                          @Param("planData") String planData,
+                          @Param("schemaVersion") int schemaVersion,
+                          @Param("dayCount") int dayCount,
+                          @Param("stopCount") int stopCount,
+                          @Param("expectedPlanVersion") int expectedPlanVersion,
+                          @Param("deltaData") String deltaData,
+                          @Param("now") LocalDateTime now);
 }
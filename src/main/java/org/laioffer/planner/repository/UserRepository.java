@@ -23,6 +23,9 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
 
     boolean existsByEmail(String email);
 
+    // The bulk updates below bypass entity listeners: callers must evict the user from
+    // UserPrincipalCache so authenticated requests stop seeing the old password or role
+
     @Modifying
     @Transactional
     @Query("UPDATE UserEntity u SET u.username = :username WHERE u.email = :email")
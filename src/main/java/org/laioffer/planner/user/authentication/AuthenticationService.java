@@ -4,6 +4,7 @@ import org.laioffer.planner.entity.UserEntity;
 import org.laioffer.planner.repository.UserRepository;
 import org.laioffer.planner.user.model.UserRole;
 import org.laioffer.planner.user.security.JwtHandler;
+import org.laioffer.planner.user.security.UserPrincipalCache;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -20,14 +21,17 @@ public class AuthenticationService {
   private final PasswordEncoder passwordEncoder;
   private final UserRepository userRepository;
   private final EmailService emailService;
+  private final UserPrincipalCache userPrincipalCache;
 
   public AuthenticationService(AuthenticationManager authenticationManager, JwtHandler jwtHandler,
-      PasswordEncoder passwordEncoder, UserRepository userRepository, EmailService emailService) {
+      PasswordEncoder passwordEncoder, UserRepository userRepository, EmailService emailService,
+      UserPrincipalCache userPrincipalCache) {
     this.authenticationManager = authenticationManager;
     this.jwtHandler = jwtHandler;
     this.passwordEncoder = passwordEncoder;
     this.userRepository = userRepository;
     this.emailService = emailService;
+    this.userPrincipalCache = userPrincipalCache;
   }
 
   public UserEntity register(String email, String password, UserRole role, String username,
@@ -69,5 +73,6 @@ public class AuthenticationService {
 
     String encodedPassword = passwordEncoder.encode(newPassword);
     userRepository.updatePasswordAndClearResetToken(user.getId(), encodedPassword);
+    userPrincipalCache.evict(user.getEmail());
   }
 }
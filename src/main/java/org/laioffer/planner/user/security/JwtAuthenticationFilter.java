@@ -9,7 +9,6 @@ import jakarta.validation.constraints.NotNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -26,15 +25,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
 
     private final JwtHandler jwtHandler;
-    private final UserDetailsService userDetailsService;
+    private final UserPrincipalCache userPrincipalCache;
 
 
     public JwtAuthenticationFilter(
             JwtHandler jwtHandler,
-            UserDetailsService userDetailsService
+            UserPrincipalCache userPrincipalCache
     ) {
         this.jwtHandler = jwtHandler;
-        this.userDetailsService = userDetailsService;
+        this.userPrincipalCache = userPrincipalCache;
     }
 
 
@@ -48,7 +47,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (jwt != null && !jwt.isBlank()) {
             try {
                 final String username = jwtHandler.parsedUsername(jwt);
-                final UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                final UserDetails userDetails = userPrincipalCache.load(username);
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
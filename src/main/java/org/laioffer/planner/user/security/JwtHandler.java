@@ -1,13 +1,17 @@
 package org.laioffer.planner.user.security;
 
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.laioffer.planner.cache.TtlCache;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.Date;
 
@@ -18,20 +22,49 @@ public class JwtHandler {
 
     final Key signingKey;
 
+    // JwtParser is immutable and thread-safe, so one instance serves every request
+    private final JwtParser parser;
 
-    public JwtHandler(@Value("${travelplanner.jwt.secret-key}") String secretKey) {
+    // Verified claims by token; entries never outlive the token's own expiry
+    private final TtlCache<String, Claims> verifiedClaims;
+    private final Duration claimsTtl;
+
+
+    public JwtHandler(@Value("${travelplanner.jwt.secret-key}") String secretKey,
+                      @Value("${app.security.jwt-cache.max-entries:10000}") int maxCachedTokens,
+                      @Value("${app.security.jwt-cache.ttl:10m}") Duration claimsTtl) {
         byte[] bytes = Base64.getDecoder().decode(secretKey);
         signingKey = Keys.hmacShaKeyFor(bytes);
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.verifiedClaims = new TtlCache<>(maxCachedTokens, claimsTtl);
+        this.claimsTtl = claimsTtl;
     }
 
 
     public String parsedUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseClaims(token).getSubject();
+    }
+
+
+    /**
+     * Verifies the token, skipping signature verification for tokens verified recently
+     */
+    Claims parseClaims(String token) {
+        Claims cached = verifiedClaims.get(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Duration ttl = claimsTtl;
+        if (claims.getExpiration() != null) {
+            Duration untilExpiry = Duration.ofMillis(claims.getExpiration().getTime() - System.currentTimeMillis());
+            ttl = untilExpiry.compareTo(ttl) < 0 ? untilExpiry : ttl;
+        }
+        verifiedClaims.put(token, claims, ttl);
+        return claims;
     }
 
 
@@ -0,0 +1,47 @@
+package org.laioffer.planner.user.security;
+
+import org.laioffer.planner.cache.TtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Short-lived cache of authenticated principals by email, so requests carrying a valid JWT do not
+ * load the user from the database every time. Only the JWT filter reads through it; login always
+ * goes to the database. Must be evicted whenever a user's password or role changes.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final UserDetailsService userDetailsService;
+    private final TtlCache<String, UserDetails> principals;
+
+    public UserPrincipalCache(UserDetailsService userDetailsService,
+                              @Value("${app.security.principal-cache.max-entries:10000}") int maxEntries,
+                              @Value("${app.security.principal-cache.ttl:60s}") Duration ttl) {
+        this.userDetailsService = userDetailsService;
+        this.principals = new TtlCache<>(maxEntries, ttl);
+    }
+
+    /**
+     * Returns the cached principal, loading it through the UserDetailsService on a miss
+     */
+    public UserDetails load(String email) {
+        UserDetails cached = principals.get(email);
+        if (cached != null) {
+            return cached;
+        }
+        UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+        principals.put(email, userDetails);
+        return userDetails;
+    }
+
+    public void evict(String email) {
+        if (email != null) {
+            principals.invalidate(email);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.laioffer.planner.user.security;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.laioffer.planner.entity.UserEntity;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts a user's cached principal whenever the entity is updated or deleted through JPA,
+ * e.g. a role change saved via UserRepository.save.
+ */
+@Component
+public class UserPrincipalEvictionListener {
+
+    // Resolved lazily: the cache depends on UserRepository, which needs the EntityManagerFactory
+    // that instantiates this listener
+    private final ObjectProvider<UserPrincipalCache> userPrincipalCache;
+
+    public UserPrincipalEvictionListener(ObjectProvider<UserPrincipalCache> userPrincipalCache) {
+        this.userPrincipalCache = userPrincipalCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void evict(UserEntity user) {
+        UserPrincipalCache cache = userPrincipalCache.getIfAvailable();
+        if (cache != null) {
+            cache.evict(user.getEmail());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+-- Plan version bookkeeping the application relies on but Hibernate cannot declare.
+-- Applied by DatabaseFeatures at startup after Hibernate has created the tables; safe to re-run.
+
+-- Seed itineraries.plan_version for itineraries planned before the counter existed, so the next
+-- save continues from their newest stored version
+UPDATE itineraries i
+SET plan_version = p.max_version
+FROM (SELECT itinerary_id, MAX(version) AS max_version FROM plans GROUP BY itinerary_id) p
+WHERE p.itinerary_id = i.id AND i.plan_version IS NULL;
+
+-- At most one active plan per itinerary. DatabaseFeatures refuses to start while older data has
+-- more than one, rather than choosing which plans to deactivate.
+CREATE UNIQUE INDEX IF NOT EXISTS ux_plans_active_itinerary ON plans (itinerary_id) WHERE is_active;
@@ -2,9 +2,17 @@
 CREATE EXTENSION IF NOT EXISTS postgis;
 
 -- Create custom ENUM types that Hibernate needs
-DO $$ 
+DO $$
 BEGIN
     IF NOT EXISTS (SELECT 1 FROM pg_type WHERE typname = 'travel_mode') THEN
         CREATE TYPE travel_mode AS ENUM ('DRIVING', 'TRANSIT', 'WALKING', 'BICYCLING');
     END IF;
 END $$;
+
+-- places.location: geography point generated from latitude/longitude, GiST-indexed for nearby and
+-- bounding-box search. The database keeps it current on every write path, including older rows.
+-- Applied by DatabaseFeatures at startup after Hibernate has created the places table; safe to re-run.
+ALTER TABLE places ADD COLUMN IF NOT EXISTS location geography(Point, 4326)
+    GENERATED ALWAYS AS (ST_SetSRID(ST_MakePoint(longitude::float8, latitude::float8), 4326)::geography) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_places_location ON places USING GIST (location);
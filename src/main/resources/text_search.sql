@@ -0,0 +1,27 @@
+-- Ranked text search for places and itinerary places: a weighted tsvector (name > description) for
+-- prefix matching, plus trigram indexes on names for typo tolerance.
+-- Applied by DatabaseFeatures at startup after Hibernate has created the tables; safe to re-run.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+DO $$
+BEGIN
+    IF to_regclass('places') IS NOT NULL THEN
+        ALTER TABLE places ADD COLUMN IF NOT EXISTS search_vector tsvector
+            GENERATED ALWAYS AS (
+                setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+                setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+            ) STORED;
+        CREATE INDEX IF NOT EXISTS idx_places_search_vector ON places USING GIN (search_vector);
+        CREATE INDEX IF NOT EXISTS idx_places_name_trgm ON places USING GIN (name gin_trgm_ops);
+    END IF;
+
+    IF to_regclass('itinerary_places') IS NOT NULL THEN
+        ALTER TABLE itinerary_places ADD COLUMN IF NOT EXISTS search_vector tsvector
+            GENERATED ALWAYS AS (
+                setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+                setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+            ) STORED;
+        CREATE INDEX IF NOT EXISTS idx_itinerary_places_search_vector ON itinerary_places USING GIN (search_vector);
+        CREATE INDEX IF NOT EXISTS idx_itinerary_places_name_trgm ON itinerary_places USING GIN (name gin_trgm_ops);
+    END IF;
+END $$;
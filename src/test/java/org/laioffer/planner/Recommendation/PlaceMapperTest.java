@@ -0,0 +1,33 @@
+package org.laioffer.planner.Recommendation;
+
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.entity.PlaceEntity;
+import org.laioffer.planner.model.place.DailyHours;
+import org.laioffer.planner.model.place.OpeningHoursDTO;
+import org.laioffer.planner.place.OpeningHoursIndex;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlaceMapperTest {
+
+    private final PlaceMapper placeMapper = new PlaceMapper(new OpeningHoursIndex(100, Duration.ofMinutes(5)));
+
+    @Test
+    void keepsDaysWhoseTimesCannotBeParsedAsWritten() {
+        PlaceEntity place = new PlaceEntity();
+        place.setName("Night Market");
+        place.setOpeningHours(Map.<String, Object>of(
+                "monday", Map.of("open", "09:00", "close", "17:00"),
+                "friday", Map.of("open", "dusk", "close", "late")));
+
+        OpeningHoursDTO hours = placeMapper.toPlaceDTO(place).getOpeningHours();
+
+        assertThat(hours.getNormalized()).extracting(DailyHours::getWeekday).containsExactly("monday", "friday");
+        assertThat(hours.getNormalized().get(0).getTimes().get(0).getStartLocal()).isEqualTo("09:00");
+        assertThat(hours.getNormalized().get(1).getTimes().get(0).getStartLocal()).isEqualTo("dusk");
+        assertThat(hours.getNormalized().get(1).getTimes().get(0).getEndLocal()).isEqualTo("late");
+    }
+}
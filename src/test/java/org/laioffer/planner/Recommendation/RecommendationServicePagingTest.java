@@ -0,0 +1,100 @@
+package org.laioffer.planner.Recommendation;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.config.DatabaseFeatures;
+import org.laioffer.planner.entity.ItineraryEntity;
+import org.laioffer.planner.entity.ItineraryPlaceEntity;
+import org.laioffer.planner.entity.PlaceEntity;
+import org.laioffer.planner.entity.UserEntity;
+import org.laioffer.planner.model.itinerary.GetRecommendationsResponse;
+import org.laioffer.planner.model.itinerary.TravelMode;
+import org.laioffer.planner.model.place.PlaceDTO;
+import org.laioffer.planner.user.model.UserRole;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyword paging on a database without the ranked search schema (H2), where the LIKE query and
+ * its derived count query must agree on which places match.
+ */
+@SpringBootTest
+@Transactional
+@TestPropertySource(locations = "classpath:application-test.yml")
+class RecommendationServicePagingTest {
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private DatabaseFeatures databaseFeatures;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void likeFallbackPagesAndCountsOnlyMatchingPlaces() {
+        UUID itineraryId = itineraryWithPlaces("Rodin Museum", "Louvre Museum", "Eiffel Tower",
+                "Museum of Modern Art", "Jardin des Plantes");
+
+        assertThat(databaseFeatures.rankedSearch()).isFalse();
+        GetRecommendationsResponse first = recommendationService.getRecommendations(itineraryId, "museum", 0, 2);
+        GetRecommendationsResponse second = recommendationService.getRecommendations(itineraryId, "museum", 1, 2);
+
+        assertThat(first.getItems()).extracting(PlaceDTO::getName).containsExactly("Louvre Museum", "Museum of Modern Art");
+        assertThat(second.getItems()).extracting(PlaceDTO::getName).containsExactly("Rodin Museum");
+        assertThat(first.getPage().getTotalElements()).isEqualTo(3);
+        assertThat(first.getPage().getTotalPages()).isEqualTo(2);
+        assertThat(second.getPage().getNextCursor()).isNull();
+    }
+
+    @Test
+    void cursorContinuesTheLikeFallbackWhereThePageEnded() {
+        UUID itineraryId = itineraryWithPlaces("Rodin Museum", "Louvre Museum", "Eiffel Tower",
+                "Museum of Modern Art", "Jardin des Plantes");
+
+        GetRecommendationsResponse first = recommendationService.getRecommendations(itineraryId, "museum", 0, 2);
+        GetRecommendationsResponse next = recommendationService.getRecommendationsAfter(itineraryId, "museum",
+                first.getPage().getNextCursor(), 2, true);
+
+        assertThat(next.getItems()).extracting(PlaceDTO::getName).containsExactly("Rodin Museum");
+        assertThat(next.getPage().getTotalElements()).isEqualTo(3);
+        assertThat(next.getPage().getNextCursor()).isNull();
+    }
+
+    private UUID itineraryWithPlaces(String... names) {
+        UserEntity user = new UserEntity(UserRole.USER, "search-" + UUID.randomUUID() + "@example.com",
+                "search", "password");
+        entityManager.persist(user);
+
+        ItineraryEntity itinerary = new ItineraryEntity();
+        itinerary.setUser(user);
+        itinerary.setDestinationCity("Paris");
+        itinerary.setStartDate(OffsetDateTime.parse("2024-05-01T09:00:00+02:00"));
+        itinerary.setEndDate(OffsetDateTime.parse("2024-05-04T20:00:00+02:00"));
+        itinerary.setTravelMode(TravelMode.WALKING);
+        itinerary.setBudgetInCents(100000);
+        entityManager.persist(itinerary);
+
+        for (String name : List.of(names)) {
+            PlaceEntity place = new PlaceEntity();
+            place.setName(name);
+            place.setAddress(name + ", Paris");
+            place.setLatitude(BigDecimal.valueOf(48.86));
+            place.setLongitude(BigDecimal.valueOf(2.34));
+            entityManager.persist(place);
+            entityManager.persist(new ItineraryPlaceEntity(itinerary, place));
+        }
+        entityManager.flush();
+        return itinerary.getId();
+    }
+}
@@ -0,0 +1,117 @@
+package org.laioffer.planner.Recommendation;
+
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.config.DatabaseFeatures;
+import org.laioffer.planner.entity.ItineraryPlaceEntity;
+import org.laioffer.planner.model.itinerary.GetRecommendationsResponse;
+import org.laioffer.planner.model.place.PlaceDTO;
+import org.laioffer.planner.place.OpeningHoursIndex;
+import org.laioffer.planner.place.PlaceCatalogCounter;
+import org.laioffer.planner.repository.ItineraryPlaceRepository;
+import org.laioffer.planner.repository.PlaceRepository;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecommendationServiceTest {
+
+    private final ItineraryPlaceRepository itineraryPlaceRepository = mock(ItineraryPlaceRepository.class);
+    private final PlaceRepository placeRepository = mock(PlaceRepository.class);
+    private final DatabaseFeatures databaseFeatures = mock(DatabaseFeatures.class);
+    private final RecommendationService service = new RecommendationService(itineraryPlaceRepository, placeRepository,
+            new PlaceMapper(new OpeningHoursIndex(100, Duration.ofMinutes(5))), mock(PlaceCatalogCounter.class),
+            databaseFeatures, 0.3);
+
+    private final UUID itineraryId = UUID.randomUUID();
+
+    @Test
+    void keywordSearchIsRankedWhenTheSearchSchemaIsPresent() {
+        when(databaseFeatures.rankedSearch()).thenReturn(true);
+        when(itineraryPlaceRepository.searchRankedByItineraryId(eq(itineraryId), eq("louvre:*"), eq("louvre"),
+                eq(0.3), any())).thenReturn(new PageImpl<>(List.of(itineraryPlace("The Louvre")),
+                PageRequest.of(0, 1), 3));
+
+        GetRecommendationsResponse response = service.getRecommendations(itineraryId, " louvre ", 0, 1);
+
+        assertThat(response.getItems()).extracting(PlaceDTO::getName).containsExactly("The Louvre");
+        assertThat(response.getPage().getTotalElements()).isEqualTo(3);
+        // Relevance order has no name key to continue from
+        assertThat(response.getPage().getNextCursor()).isNull();
+        verify(placeRepository, never()).findItineraryPlacesByItinerary(any(), any(), any());
+    }
+
+    @Test
+    void keywordSearchFallsBackToLikeWithoutTheSearchSchema() {
+        when(databaseFeatures.rankedSearch()).thenReturn(false);
+        when(placeRepository.findItineraryPlacesByItinerary(eq(itineraryId), eq("louvre"), any()))
+                .thenReturn(new PageImpl<>(List.of(itineraryPlace("The Louvre")), PageRequest.of(0, 1), 3));
+
+        GetRecommendationsResponse response = service.getRecommendations(itineraryId, "louvre", 0, 1);
+
+        assertThat(response.getItems()).extracting(PlaceDTO::getName).containsExactly("The Louvre");
+        assertThat(response.getPage().getTotalPages()).isEqualTo(3);
+        assertThat(response.getPage().getNextCursor()).isNotNull();
+        verify(itineraryPlaceRepository, never()).searchRankedByItineraryId(any(), anyString(), anyString(),
+                anyDouble(), any());
+    }
+
+    @Test
+    void listingWithoutKeywordIsOrderedByNameEvenWithRankedSearch() {
+        when(databaseFeatures.rankedSearch()).thenReturn(true);
+        when(placeRepository.findItineraryPlacesByItinerary(eq(itineraryId), isNull(), any()))
+                .thenReturn(new PageImpl<>(List.of()));
+
+        service.getRecommendations(itineraryId, "  ", 0, 20);
+
+        verify(placeRepository).findItineraryPlacesByItinerary(eq(itineraryId), isNull(),
+                eq(PageRequest.of(0, 20, Sort.by("name").ascending().and(Sort.by("id")))));
+        verify(itineraryPlaceRepository, never()).searchRankedByItineraryId(any(), anyString(), anyString(),
+                anyDouble(), any());
+    }
+
+    @Test
+    void cursorPagingIsRejectedOnlyForRankedKeywordSearch() {
+        when(databaseFeatures.rankedSearch()).thenReturn(true);
+
+        assertThatThrownBy(() -> service.getRecommendationsAfter(itineraryId, "louvre", "cursor", 20, false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("ranked keyword search");
+    }
+
+    @Test
+    void rankedCountQueryFiltersTheSameRowsAsItsSelect() throws Exception {
+        Query query = ItineraryPlaceRepository.class.getMethod("searchRankedByItineraryId", UUID.class,
+                String.class, String.class, double.class, Pageable.class).getAnnotation(Query.class);
+
+        String selectFilter = query.value().substring(query.value().indexOf(" FROM "), query.value().indexOf("ORDER BY"));
+        String countFilter = query.countQuery().substring(query.countQuery().indexOf(" FROM "));
+        assertThat(countFilter.strip()).isEqualTo(selectFilter.strip());
+        assertThat(query.countQuery()).startsWith("SELECT count(*)");
+    }
+
+    private static ItineraryPlaceEntity itineraryPlace(String name) {
+        ItineraryPlaceEntity itineraryPlace = new ItineraryPlaceEntity();
+        itineraryPlace.setId(UUID.randomUUID());
+        itineraryPlace.setPlaceId(UUID.randomUUID());
+        itineraryPlace.setName(name);
+        return itineraryPlace;
+    }
+}
@@ -0,0 +1,44 @@
+package org.laioffer.planner.cache;
+
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.repository.ItineraryRepository;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ItineraryResponseCacheTest {
+
+    private final ItineraryResponseCache cache =
+            new ItineraryResponseCache(mock(ItineraryRepository.class), 100, Duration.ofMinutes(10));
+
+    @Test
+    void rebuildsResponseOnceTheStampMoves() {
+        UUID itineraryId = UUID.randomUUID();
+        ItineraryStamp stamp = new ItineraryStamp(itineraryId, 3L, 7L);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.<String>get(stamp, "detail", () -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+        assertThat(cache.<String>get(stamp, "detail", () -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+        assertThat(cache.<String>get(stamp, "plan", () -> "p" + loads.incrementAndGet())).isEqualTo("p2");
+
+        // A write to the itinerary's places bumps the content version
+        ItineraryStamp bumped = new ItineraryStamp(itineraryId, 3L, 8L);
+        assertThat(cache.<String>get(bumped, "detail", () -> "v" + loads.incrementAndGet())).isEqualTo("v3");
+        assertThat(cache.<String>get(stamp, "missing", () -> null)).isNull();
+    }
+
+    @Test
+    void matchesIfNoneMatchAgainstTheStampEtag() {
+        ItineraryStamp stamp = new ItineraryStamp(UUID.randomUUID(), 3L, 7L);
+
+        assertThat(stamp.matches(stamp.etag())).isTrue();
+        assertThat(stamp.matches("\"other\", W/" + stamp.etag())).isTrue();
+        assertThat(stamp.matches("*")).isTrue();
+        assertThat(stamp.matches(new ItineraryStamp(stamp.itineraryId(), 4L, 7L).etag())).isFalse();
+        assertThat(stamp.matches(null)).isFalse();
+    }
+}
@@ -0,0 +1,83 @@
+package org.laioffer.planner.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TtlCacheTest {
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntryOnceFull() {
+        TtlCache<String, String> cache = new TtlCache<>(2, Duration.ofMinutes(10));
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        // Reading "a" makes "b" the eldest
+        assertThat(cache.get("a")).isEqualTo("1");
+        cache.put("c", "3");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(cache.get("c")).isEqualTo("3");
+    }
+
+    @Test
+    void expiresEntriesAfterTheirOwnTtl() throws InterruptedException {
+        TtlCache<String, String> cache = new TtlCache<>(10, Duration.ofMinutes(10));
+        cache.put("short", "1", Duration.ofMillis(20));
+        cache.put("long", "2");
+
+        Thread.sleep(50);
+
+        assertThat(cache.get("short")).isNull();
+        assertThat(cache.get("long")).isEqualTo("2");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void purgeRemovesOnlyExpiredEntries() throws InterruptedException {
+        TtlCache<String, String> cache = new TtlCache<>(10, Duration.ofMinutes(10));
+        cache.put("a", "1", Duration.ofMillis(20));
+        cache.put("b", "2", Duration.ofMillis(20));
+        cache.put("c", "3");
+
+        Thread.sleep(50);
+
+        assertThat(cache.purgeExpired()).isEqualTo(2);
+        assertThat(cache.purgeExpired()).isZero();
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresNullValuesAndNonPositiveTtls() {
+        TtlCache<String, String> cache = new TtlCache<>(10, Duration.ofMinutes(10));
+        cache.put("null", null);
+        cache.put("zero", "1", Duration.ZERO);
+        cache.put("negative", "2", Duration.ofSeconds(-5));
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        TtlCache<String, String> cache = new TtlCache<>(10, Duration.ofMinutes(10));
+        cache.put("a", "1");
+
+        cache.get("a");
+        cache.get("a");
+        cache.get("missing");
+
+        assertThat(cache.getHitCount()).isEqualTo(2);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsANonPositiveCapacity() {
+        assertThatThrownBy(() -> new TtlCache<String, String>(0, Duration.ofMinutes(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,109 @@
+package org.laioffer.planner.concurrent;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares platform and virtual threads at 1,000 concurrent in-flight plan requests.
+ *
+ * Each simulated request mirrors PlanningServiceImpl.generatePlan after the transaction split: a
+ * short read holding one of 10 pooled connections, an LLM call through {@link LlmCallExecutor}
+ * (simulated latency, no connection held), then a short write. Platform mode serves requests from a
+ * pool of 200 threads like Tomcat's default; virtual mode gives every request its own virtual thread.
+ * Wall-clock times are logged for comparison but not asserted, since they depend on the machine;
+ * only the thread footprint is. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class VirtualThreadPlanningBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPlanningBenchmarkTest.class);
+
+    private static final int IN_FLIGHT_REQUESTS = 1_000;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int CONNECTION_POOL_SIZE = 10;
+    private static final Duration LLM_LATENCY = Duration.ofMillis(500);
+    private static final Duration QUERY_TIME = Duration.ofMillis(2);
+
+    @Test
+    void virtualThreadsServeThousandInFlightPlansWithFewerThreads() throws Exception {
+        // Warm-up so class loading and JIT do not count against the first mode
+        run(false, 100);
+        run(true, 100);
+
+        Result platform = run(false, IN_FLIGHT_REQUESTS);
+        Result virtual = run(true, IN_FLIGHT_REQUESTS);
+
+        logger.info("platform: {} plans  wall={} ms  peak threads={}",
+                IN_FLIGHT_REQUESTS, platform.wallMillis, platform.peakThreads);
+        logger.info("virtual:  {} plans  wall={} ms  peak threads={}",
+                IN_FLIGHT_REQUESTS, virtual.wallMillis, virtual.peakThreads);
+
+        assertThat(virtual.peakThreads).isLessThan(platform.peakThreads);
+    }
+
+    private Result run(boolean virtualThreads, int requests) throws Exception {
+        LlmCallExecutor llmCalls = new LlmCallExecutor(virtualThreads, Duration.ofMinutes(1));
+        ExecutorService requestThreads = virtualThreads
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        Semaphore connections = new Semaphore(CONNECTION_POOL_SIZE, true);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        try {
+            threads.resetPeakThreadCount();
+            long started = System.nanoTime();
+
+            List<Future<String>> plans = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                int request = i;
+                plans.add(requestThreads.submit(() -> {
+                    query(connections);
+                    Callable<String> llmCall = () -> {
+                        Thread.sleep(LLM_LATENCY);
+                        return "plan-" + request;
+                    };
+                    String plan = llmCalls.invokeAllSettled(List.of(llmCall)).get(0).value();
+                    query(connections);
+                    return plan;
+                }));
+            }
+            for (Future<String> plan : plans) {
+                assertThat(plan.get(2, TimeUnit.MINUTES)).startsWith("plan-");
+            }
+
+            long wallMillis = (System.nanoTime() - started) / 1_000_000;
+            return new Result(wallMillis, threads.getPeakThreadCount());
+        } finally {
+            requestThreads.shutdownNow();
+            llmCalls.destroy();
+        }
+    }
+
+    private static void query(Semaphore connections) throws InterruptedException {
+        connections.acquire();
+        try {
+            Thread.sleep(QUERY_TIME);
+        } finally {
+            connections.release();
+        }
+    }
+
+    private record Result(long wallMillis, int peakThreads) {
+    }
+}
@@ -0,0 +1,54 @@
+package org.laioffer.planner.itinerary;
+
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.model.itinerary.GenerationStatus;
+import org.laioffer.planner.model.itinerary.GenerationStreamEvent;
+import org.laioffer.planner.model.place.PlaceDTO;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class GenerationEventBusTest {
+
+    @SuppressWarnings("unchecked")
+    private final GenerationEventBus bus = new GenerationEventBus(mock(ObjectProvider.class));
+
+    @Test
+    void deliversEventsPublishedBeforeSubscriptionAndCompletesOnTerminalEvent() {
+        UUID itineraryId = UUID.randomUUID();
+        Flux<GenerationStreamEvent> events = bus.subscribe(itineraryId);
+
+        PlaceDTO place = new PlaceDTO();
+        place.setName("The Louvre");
+        bus.onStatus(new PoiGenerationStatusEvent(itineraryId, GenerationStatus.RUNNING, 0, null));
+        bus.onProgress(new PoiGenerationProgressEvent(itineraryId, List.of(place), 1));
+        bus.onStatus(new PoiGenerationStatusEvent(UUID.randomUUID(), GenerationStatus.COMPLETED, 3, null));
+        bus.onStatus(new PoiGenerationStatusEvent(itineraryId, GenerationStatus.COMPLETED, 1, null));
+
+        List<GenerationStreamEvent> received = events.collectList().block(Duration.ofSeconds(5));
+
+        assertThat(received).extracting(GenerationStreamEvent::getType).containsExactly(
+                GenerationStreamEvent.STATUS, GenerationStreamEvent.PLACES, GenerationStreamEvent.COMPLETE);
+        assertThat(received.get(1).getPlaces()).extracting(PlaceDTO::getName).containsExactly("The Louvre");
+        assertThat(bus.getSubscriberCount(itineraryId)).isZero();
+    }
+
+    @Test
+    void fansOutToEverySubscriberOfTheItinerary() {
+        UUID itineraryId = UUID.randomUUID();
+        Flux<GenerationStreamEvent> first = bus.subscribe(itineraryId);
+        Flux<GenerationStreamEvent> second = bus.subscribe(itineraryId);
+        assertThat(bus.getSubscriberCount(itineraryId)).isEqualTo(2);
+
+        bus.onStatus(new PoiGenerationStatusEvent(itineraryId, GenerationStatus.FAILED, 0, "model unavailable"));
+
+        assertThat(first.blockLast(Duration.ofSeconds(5)).getMessage()).isEqualTo("model unavailable");
+        assertThat(second.blockLast(Duration.ofSeconds(5)).getStatus()).isEqualTo(GenerationStatus.FAILED);
+    }
+}
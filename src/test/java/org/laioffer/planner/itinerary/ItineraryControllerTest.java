@@ -2,6 +2,7 @@ package org.laioffer.planner.itinerary;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
+import org.laioffer.planner.cache.ItineraryResponseCache;
 import org.laioffer.planner.model.itinerary.CreateItineraryRequest;
 import org.laioffer.planner.model.itinerary.TravelMode;
 import org.laioffer.planner.model.common.TravelPace;
@@ -32,6 +33,11 @@ class ItineraryControllerTest {
         public ItineraryService mockItineraryService() {
             return mock(ItineraryService.class);
         }
+
+        @Bean
+        public ItineraryResponseCache mockItineraryResponseCache() {
+            return mock(ItineraryResponseCache.class);
+        }
     }
 
     @Autowired
@@ -0,0 +1,141 @@
+package org.laioffer.planner.itinerary;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.entity.ItineraryEntity;
+import org.laioffer.planner.entity.ItineraryPlaceEntity;
+import org.laioffer.planner.entity.PlaceEntity;
+import org.laioffer.planner.entity.UserEntity;
+import org.laioffer.planner.model.itinerary.ItinerarySummaryDTO;
+import org.laioffer.planner.model.itinerary.TravelMode;
+import org.laioffer.planner.repository.ItineraryRepository;
+import org.laioffer.planner.user.model.UserRole;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Regression test: the itinerary list and detail reads must issue the same number of SQL
+ * statements regardless of how many itineraries or places they return.
+ */
+@SpringBootTest
+@Transactional
+@TestPropertySource(
+        locations = "classpath:application-test.yml",
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ItineraryReadQueryCountTest {
+
+    @Autowired
+    private ItineraryRepository itineraryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void summaryListQueryCountDoesNotGrowWithNumberOfItineraries() {
+        long fewItineraries = countStatementsForSummaries(3);
+        long manyItineraries = countStatementsForSummaries(12);
+
+        // One select for the page and one count
+        assertThat(manyItineraries).isEqualTo(fewItineraries).isEqualTo(2);
+    }
+
+    @Test
+    void detailReadLoadsPlacesWithoutLazyFetches() {
+        long fewPlaces = countStatementsForDetail(2);
+        long manyPlaces = countStatementsForDetail(15);
+
+        // The itinerary, its places and their catalogue entries come from one join; the eager
+        // preferred-category collection is the only other statement
+        assertThat(manyPlaces).isEqualTo(fewPlaces).isEqualTo(2);
+    }
+
+    private long countStatementsForSummaries(int itineraryCount) {
+        UserEntity user = user();
+        for (int i = 0; i < itineraryCount; i++) {
+            itinerary(user, List.of("Museums", "Food"));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        Page<ItinerarySummaryDTO> page = itineraryRepository.findSummariesByUserId(user.getId(),
+                PageRequest.of(0, 2, Sort.by("createdAt").descending()));
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getTotalElements()).isEqualTo(itineraryCount);
+        // Summaries are projections: no entities or category collections are loaded
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long countStatementsForDetail(int placeCount) {
+        ItineraryEntity itinerary = itinerary(user(), List.of("Museums", "Food"));
+        for (int i = 0; i < placeCount; i++) {
+            PlaceEntity place = new PlaceEntity();
+            place.setName("Place " + i);
+            place.setAddress(i + " Rue de Rivoli");
+            place.setLatitude(BigDecimal.valueOf(48.86 + i * 0.001));
+            place.setLongitude(BigDecimal.valueOf(2.34));
+            entityManager.persist(place);
+            entityManager.persist(new ItineraryPlaceEntity(itinerary, place, i % 2 == 0));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        ItineraryEntity loaded = itineraryRepository.findWithPlacesById(itinerary.getId()).orElseThrow();
+        assertThat(loaded.getItineraryPlaces()).hasSize(placeCount);
+        assertThat(loaded.getItineraryPlaces()).allMatch(ip -> ip.getPlace().getName().startsWith("Place "));
+        assertThat(loaded.getPreferredCategories()).containsExactlyInAnyOrder("Museums", "Food");
+
+        assertThat(statistics.getEntityFetchCount()).isZero();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private UserEntity user() {
+        UserEntity user = new UserEntity(UserRole.USER, "reader-" + UUID.randomUUID() + "@example.com",
+                "reader", "password");
+        entityManager.persist(user);
+        return user;
+    }
+
+    private ItineraryEntity itinerary(UserEntity user, List<String> categories) {
+        ItineraryEntity itinerary = new ItineraryEntity();
+        itinerary.setUser(user);
+        itinerary.setDestinationCity("Paris");
+        itinerary.setStartDate(OffsetDateTime.parse("2024-05-01T09:00:00+02:00"));
+        itinerary.setEndDate(OffsetDateTime.parse("2024-05-04T20:00:00+02:00"));
+        itinerary.setTravelMode(TravelMode.WALKING);
+        itinerary.setBudgetInCents(100000);
+        itinerary.setPreferredCategories(categories);
+        entityManager.persist(itinerary);
+        return itinerary;
+    }
+}
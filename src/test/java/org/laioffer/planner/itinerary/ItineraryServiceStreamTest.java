@@ -0,0 +1,77 @@
+package org.laioffer.planner.itinerary;
+
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.Recommendation.PlaceMapper;
+import org.laioffer.planner.entity.ItineraryEntity;
+import org.laioffer.planner.model.itinerary.GenerationStreamEvent;
+import org.laioffer.planner.repository.ItineraryPlaceRepository;
+import org.laioffer.planner.repository.ItineraryRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItineraryServiceStreamTest {
+
+    private final ItineraryRepository itineraryRepository = mock(ItineraryRepository.class);
+    private final ItineraryPlaceRepository itineraryPlaceRepository = mock(ItineraryPlaceRepository.class);
+    @SuppressWarnings("unchecked")
+    private final GenerationEventBus bus = new GenerationEventBus(mock(ObjectProvider.class));
+    private final ItineraryServiceImpl service = new ItineraryServiceImpl(itineraryRepository,
+            mock(PoiGenerationScheduler.class), mock(PoiGenerationWorker.class), mock(ApplicationEventPublisher.class),
+            itineraryPlaceRepository, mock(PlaceMapper.class), bus);
+
+    private final UUID itineraryId = UUID.randomUUID();
+
+    @Test
+    void keepsTheRegistrationForARunningGeneration() {
+        when(itineraryRepository.findById(itineraryId)).thenReturn(Optional.of(itinerary(Map.of("generation_pending", true))));
+        when(itineraryPlaceRepository.findAllWithPlaceByItineraryId(itineraryId)).thenReturn(List.of());
+
+        Optional<Flux<GenerationStreamEvent>> events = service.streamGenerationEvents(itineraryId);
+
+        assertThat(events).isPresent();
+        assertThat(bus.getSubscriberCount(itineraryId)).isEqualTo(1);
+    }
+
+    @Test
+    void releasesTheRegistrationForFinishedAndUnknownItineraries() {
+        when(itineraryRepository.findById(itineraryId)).thenReturn(Optional.of(itinerary(Map.of())));
+        when(itineraryPlaceRepository.findAllWithPlaceByItineraryId(itineraryId)).thenReturn(List.of());
+        UUID unknownId = UUID.randomUUID();
+        when(itineraryRepository.findById(unknownId)).thenReturn(Optional.empty());
+
+        assertThat(service.streamGenerationEvents(itineraryId)).isPresent();
+        assertThat(service.streamGenerationEvents(unknownId)).isEmpty();
+
+        assertThat(bus.getSubscriberCount(itineraryId)).isZero();
+        assertThat(bus.getSubscriberCount(unknownId)).isZero();
+    }
+
+    @Test
+    void releasesTheRegistrationWhenTheSnapshotReadFails() {
+        when(itineraryRepository.findById(itineraryId)).thenReturn(Optional.of(itinerary(Map.of("generation_pending", true))));
+        when(itineraryPlaceRepository.findAllWithPlaceByItineraryId(itineraryId))
+                .thenThrow(new QueryTimeoutException("statement timeout"));
+
+        assertThatThrownBy(() -> service.streamGenerationEvents(itineraryId)).isInstanceOf(QueryTimeoutException.class);
+        assertThat(bus.getSubscriberCount(itineraryId)).isZero();
+    }
+
+    private ItineraryEntity itinerary(Map<String, Object> aiMetadata) {
+        ItineraryEntity itinerary = new ItineraryEntity();
+        itinerary.setId(itineraryId);
+        itinerary.setAiMetadata(aiMetadata);
+        return itinerary;
+    }
+}
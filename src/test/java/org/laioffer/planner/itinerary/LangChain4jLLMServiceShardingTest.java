@@ -0,0 +1,131 @@
+package org.laioffer.planner.itinerary;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.concurrent.LlmCallExecutor;
+import org.laioffer.planner.entity.ItineraryEntity;
+import org.laioffer.planner.itinerary.model.llm.LLMRecommendedPOI;
+import org.laioffer.planner.itinerary.model.llm.POIRecommendationResponse;
+import org.laioffer.planner.llm.LlmMetrics;
+import org.laioffer.planner.model.common.GeoPoint;
+import org.laioffer.planner.model.place.PlaceDTO;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LangChain4jLLMServiceShardingTest {
+
+    private final POIRecommendationService poiRecommendationService = mock(POIRecommendationService.class);
+    private final POIRecommendationCache recommendationCache = mock(POIRecommendationCache.class);
+    private final LlmCallExecutor llmCallExecutor = new LlmCallExecutor(false, Duration.ofSeconds(10));
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LangChain4jLLMService service = new LangChain4jLLMService(poiRecommendationService,
+            recommendationCache, llmCallExecutor, new LlmMetrics(meterRegistry), mock(ObjectProvider.class), new ObjectMapper(), false, Duration.ofSeconds(10),
+            true, 4, 3, List.of("city center", "north", "south", "east", "west"));
+
+    @AfterEach
+    void tearDown() {
+        llmCallExecutor.destroy();
+    }
+
+    @Test
+    void mergesShardsPerCategoryAndSkipsDuplicatesAndFailedShards() throws Exception {
+        whenCategory("Museums").thenReturn(response(
+                poi("The Louvre", 48.8606, 2.3376),
+                poi("Musée d'Orsay", 48.8600, 2.3266),
+                poi("Centre Pompidou", 48.8607, 2.3522)));
+        whenCategory("Food").thenThrow(new RuntimeException("model timed out"));
+        whenCategory("Parks").thenReturn(response(
+                poi("Louvre", 48.8607, 2.3378),
+                poi("Jardin du Luxembourg", 48.8462, 2.3372),
+                poi("Parc des Buttes-Chaumont", 48.8809, 2.3828)));
+
+        List<PlaceDTO> places = service.generatePOIRecommendations(itinerary(List.of("Museums", "Food", "Parks")), 9);
+
+        assertThat(places).extracting(PlaceDTO::getName).containsExactly(
+                "The Louvre", "Musée d'Orsay", "Centre Pompidou", "Jardin du Luxembourg", "Parc des Buttes-Chaumont");
+        verify(poiRecommendationService, times(3)).generatePOIRecommendations(anyString(), eq(3), any(), any(),
+                anyString(), any(), anyString(), anyString(), any(), anyBoolean(), anyBoolean(), anyBoolean(),
+                anyString(), anyString());
+        // Partial results are returned but not cached
+        verify(recommendationCache, never()).put(any(), any());
+        assertThat(meterRegistry.get("llm.failures").tags("operation", "poi.shard", "cause", "timeout").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("llm.attempt").tags("operation", "poi.shard", "outcome", "success").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void fallsBackToSingleCompletionWhenTooFewPlacesToShard() throws Exception {
+        when(poiRecommendationService.generatePOIRecommendations(anyString(), anyInt(), any(), any(), anyString(),
+                any(), anyString(), anyString(), any(), anyBoolean(), anyBoolean(), anyBoolean(), anyString(), anyString()))
+                .thenReturn(response(poi("The Louvre", 48.8606, 2.3376), poi("Musée d'Orsay", 48.8600, 2.3266)));
+
+        List<PlaceDTO> places = service.generatePOIRecommendations(itinerary(List.of("Museums", "Parks")), 2);
+
+        assertThat(places).hasSize(2);
+        verify(poiRecommendationService, times(1)).generatePOIRecommendations(anyString(), eq(2), any(), any(),
+                anyString(), any(), anyString(), anyString(), any(), anyBoolean(), anyBoolean(), anyBoolean(),
+                anyString(), anyString());
+    }
+
+    @Test
+    void recordsABlockingAttemptOnceWhenCachingItsResultFails() {
+        when(poiRecommendationService.generatePOIRecommendations(anyString(), anyInt(), any(), any(), anyString(),
+                any(), anyString(), anyString(), any(), anyBoolean(), anyBoolean(), anyBoolean(), anyString(), anyString()))
+                .thenReturn(response(poi("The Louvre", 48.8606, 2.3376), poi("Musée d'Orsay", 48.8600, 2.3266)));
+        doThrow(new IllegalStateException("cache unavailable")).when(recommendationCache).put(any(), any());
+
+        catchThrowable(() -> service.generatePOIRecommendations(itinerary(List.of("Museums", "Parks")), 2));
+
+        assertThat(meterRegistry.find("llm.attempt").tags("operation", "poi.recommend", "attempt", "1").timers())
+                .extracting(timer -> timer.getId().getTag("outcome") + "=" + timer.count())
+                .containsExactly("error=1");
+    }
+
+    private org.mockito.stubbing.OngoingStubbing<POIRecommendationResponse> whenCategory(String category) {
+        return when(poiRecommendationService.generatePOIRecommendations(anyString(), anyInt(), any(), any(), anyString(),
+                any(), anyString(), anyString(), any(), anyBoolean(), anyBoolean(), anyBoolean(), eq(category), anyString()));
+    }
+
+    private static ItineraryEntity itinerary(List<String> categories) {
+        ItineraryEntity itinerary = new ItineraryEntity();
+        itinerary.setDestinationCity("Paris");
+        itinerary.setStartDate(OffsetDateTime.parse("2024-05-01T09:00:00+02:00"));
+        itinerary.setEndDate(OffsetDateTime.parse("2024-05-04T20:00:00+02:00"));
+        itinerary.setPreferredCategories(categories);
+        return itinerary;
+    }
+
+    private static POIRecommendationResponse response(LLMRecommendedPOI... pois) {
+        return new POIRecommendationResponse(List.of(pois));
+    }
+
+    private static LLMRecommendedPOI poi(String name, double latitude, double longitude) {
+        LLMRecommendedPOI poi = new LLMRecommendedPOI();
+        poi.setName(name);
+        poi.setAddress(name + ", Paris");
+        poi.setDescription("A place in Paris");
+        poi.setLocation(new GeoPoint(latitude, longitude));
+        return poi;
+    }
+}
@@ -0,0 +1,123 @@
+package org.laioffer.planner.itinerary;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.concurrent.LlmCallExecutor;
+import org.laioffer.planner.entity.ItineraryEntity;
+import org.laioffer.planner.itinerary.model.llm.LLMRecommendedPOI;
+import org.laioffer.planner.itinerary.model.llm.POIRecommendationResponse;
+import org.laioffer.planner.llm.LlmMetrics;
+import org.laioffer.planner.model.common.GeoPoint;
+import org.laioffer.planner.model.place.PlaceDTO;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class LangChain4jLLMServiceStreamingTest {
+
+    private final POIRecommendationService poiRecommendationService = mock(POIRecommendationService.class);
+    private final POIRecommendationCache recommendationCache = mock(POIRecommendationCache.class);
+    private final StreamingChatLanguageModel streamingModel = mock(StreamingChatLanguageModel.class);
+    private final LlmCallExecutor llmCallExecutor = new LlmCallExecutor(false, Duration.ofSeconds(10));
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LangChain4jLLMService service;
+
+    @SuppressWarnings("unchecked")
+    LangChain4jLLMServiceStreamingTest() {
+        ObjectProvider<StreamingChatLanguageModel> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(streamingModel);
+        service = new LangChain4jLLMService(poiRecommendationService, recommendationCache, llmCallExecutor,
+                new LlmMetrics(meterRegistry), provider, new ObjectMapper(), true, Duration.ofSeconds(10),
+                false, 4, 3, List.of("north", "south"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        llmCallExecutor.destroy();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deliversEachValidPlaceAsSoonAsItsLineIsComplete() throws Exception {
+        List<String> tokens = List.of(
+                "```json\n{\"name\":\"The Louvre\",\"address\":\"Rue de Rivoli\",\"description\":\"Museum\",",
+                "\"location\":{\"latitude\":48.8606,\"longitude\":2.3376}}\n",
+                "{\"name\":\"Missing address\",\"description\":\"x\",\"location\":{\"latitude\":1,\"longitude\":1}}\n",
+                "{\"name\":\"Louvre\",\"address\":\"Rue de Rivoli\",\"description\":\"Again\",\"location\":{\"latitude\":48.8607,\"longitude\":2.3377}}\n",
+                "{\"name\":\"Jardin du Luxembourg\",\"address\":\"Rue de Medicis\",\"description\":\"Park\",",
+                "\"location\":{\"latitude\":48.8462,\"longitude\":2.3372},\"extra\":true}\n```");
+        doAnswer(invocation -> {
+            StreamingResponseHandler<AiMessage> handler = invocation.getArgument(1);
+            tokens.forEach(handler::onNext);
+            handler.onComplete(Response.from(AiMessage.from(String.join("", tokens))));
+            return null;
+        }).when(streamingModel).generate(anyList(), any(StreamingResponseHandler.class));
+
+        List<List<PlaceDTO>> batches = new ArrayList<>();
+        int delivered = service.generatePOIRecommendations(itinerary(), 5, batches::add);
+
+        assertThat(delivered).isEqualTo(2);
+        assertThat(batches).hasSize(2).allSatisfy(batch -> assertThat(batch).hasSize(1));
+        assertThat(batches).extracting(batch -> batch.get(0).getName())
+                .containsExactly("The Louvre", "Jardin du Luxembourg");
+        verify(recommendationCache).put(any(), any());
+        verifyNoInteractions(poiRecommendationService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fallsBackToBlockingGenerationWhenTheStreamIsRejectedUpFront() throws Exception {
+        doThrow(new IllegalStateException("streaming client closed"))
+                .when(streamingModel).generate(anyList(), any(StreamingResponseHandler.class));
+        LLMRecommendedPOI louvre = new LLMRecommendedPOI();
+        louvre.setName("The Louvre");
+        louvre.setAddress("Rue de Rivoli");
+        louvre.setDescription("Museum");
+        louvre.setLocation(new GeoPoint(48.8606, 2.3376));
+        when(poiRecommendationService.generatePOIRecommendations(anyString(), anyInt(), any(), any(), anyString(),
+                any(), anyString(), anyString(), any(), anyBoolean(), anyBoolean(), anyBoolean(), anyString(), anyString()))
+                .thenReturn(new POIRecommendationResponse(List.of(louvre)));
+
+        List<List<PlaceDTO>> batches = new ArrayList<>();
+        int delivered = service.generatePOIRecommendations(itinerary(), 5, batches::add);
+
+        assertThat(delivered).isEqualTo(1);
+        assertThat(batches).singleElement().satisfies(batch ->
+                assertThat(batch).extracting(PlaceDTO::getName).containsExactly("The Louvre"));
+        assertThat(meterRegistry.get("llm.attempt").tags("operation", "poi.stream", "outcome", "error").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("llm.failures").tags("operation", "poi.stream").counter().count())
+                .isEqualTo(1);
+    }
+
+    private static ItineraryEntity itinerary() {
+        ItineraryEntity itinerary = new ItineraryEntity();
+        itinerary.setDestinationCity("Paris");
+        itinerary.setStartDate(OffsetDateTime.parse("2024-05-01T09:00:00+02:00"));
+        itinerary.setEndDate(OffsetDateTime.parse("2024-05-03T20:00:00+02:00"));
+        return itinerary;
+    }
+}
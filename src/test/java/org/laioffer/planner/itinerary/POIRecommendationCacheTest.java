@@ -0,0 +1,173 @@
+package org.laioffer.planner.itinerary;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.entity.ItineraryEntity;
+import org.laioffer.planner.entity.POIRecommendationCacheEntity;
+import org.laioffer.planner.itinerary.model.llm.LLMRecommendedPOI;
+import org.laioffer.planner.itinerary.model.llm.POIRecommendationProfile;
+import org.laioffer.planner.itinerary.model.llm.POIRecommendationResponse;
+import org.laioffer.planner.repository.POIRecommendationCacheRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class POIRecommendationCacheTest {
+
+    private final POIRecommendationCacheRepository repository = mock(POIRecommendationCacheRepository.class);
+    private final POIRecommendationCache cache = cache(true, false);
+
+    @Test
+    void equivalentProfilesShareAKey() {
+        ItineraryEntity base = itinerary();
+        ItineraryEntity equivalent = itinerary();
+        equivalent.setDestinationCity("  PARIS ");
+        equivalent.setPreferredCategories(List.of("Museum ", "park", "museum"));
+        equivalent.setBudgetInCents(140_000);
+        equivalent.setNumberOfTravelers(4);
+
+        assertThat(cache.keyFor(profile(equivalent))).isEqualTo(cache.keyFor(profile(base)));
+    }
+
+    @Test
+    void additionalPreferencesAreNormalizedBeforeHashing() {
+        ItineraryEntity base = itinerary();
+        base.setAdditionalPreferences("vegetarian food, no stairs");
+        ItineraryEntity spaced = itinerary();
+        spaced.setAdditionalPreferences("  Vegetarian   FOOD,\n no\tstairs ");
+        ItineraryEntity different = itinerary();
+        different.setAdditionalPreferences("vegetarian food");
+
+        assertThat(cache.keyFor(profile(spaced))).isEqualTo(cache.keyFor(profile(base)));
+        assertThat(cache.keyFor(profile(different))).isNotEqualTo(cache.keyFor(profile(base)));
+    }
+
+    @Test
+    void differentProfilesGetDifferentKeys() {
+        String key = cache.keyFor(profile(itinerary()));
+
+        ItineraryEntity otherCity = itinerary();
+        otherCity.setDestinationCity("Lyon");
+        ItineraryEntity longerTrip = itinerary();
+        longerTrip.setEndDate(longerTrip.getEndDate().plusDays(1));
+        ItineraryEntity withChildren = itinerary();
+        withChildren.setHasChildren(true);
+        ItineraryEntity biggerBudget = itinerary();
+        biggerBudget.setBudgetInCents(150_000);
+
+        assertThat(List.of(otherCity, longerTrip, withChildren, biggerBudget))
+                .extracting(itinerary -> cache.keyFor(profile(itinerary)))
+                .doesNotContain(key)
+                .doesNotHaveDuplicates();
+        assertThat(cache.keyFor(POIRecommendationProfile.from(itinerary(), 20))).isNotEqualTo(key);
+    }
+
+    @Test
+    void servesStoredResponsesFromMemory() {
+        POIRecommendationProfile profile = profile(itinerary());
+        POIRecommendationResponse response = response();
+
+        cache.put(profile, response);
+
+        assertThat(cache.get(profile)).hasValueSatisfying(cached ->
+                assertThat(cached.getRecommendations()).extracting(LLMRecommendedPOI::getName)
+                        .containsExactly("Louvre Museum"));
+        verify(repository, never()).findByCacheKeyAndExpiresAtAfter(anyString(), any());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void skipsEmptyResponsesAndDisabledCaches() {
+        POIRecommendationProfile profile = profile(itinerary());
+        cache.put(profile, new POIRecommendationResponse(List.of()));
+        assertThat(cache.get(profile)).isEmpty();
+
+        POIRecommendationCache disabled = cache(false, true);
+        disabled.put(profile, response());
+        assertThat(disabled.get(profile)).isEmpty();
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void promotesPersistentHitsToMemory() {
+        POIRecommendationCache persistent = cache(true, true);
+        POIRecommendationProfile profile = profile(itinerary());
+        String key = persistent.keyFor(profile);
+        POIRecommendationResponse response = response();
+        when(repository.findByCacheKeyAndExpiresAtAfter(eq(key), any()))
+                .thenReturn(Optional.of(new POIRecommendationCacheEntity(
+                        key, "Paris", response, LocalDateTime.now().plusHours(1))));
+
+        assertThat(persistent.get(profile)).containsSame(response);
+        assertThat(persistent.get(profile)).hasValueSatisfying(cached ->
+                assertThat(cached.getRecommendations()).extracting(LLMRecommendedPOI::getName)
+                        .containsExactly("Louvre Museum"));
+
+        verify(repository, times(1)).findByCacheKeyAndExpiresAtAfter(eq(key), any());
+    }
+
+    @Test
+    void hitsAreCopiesThatCallersCannotCorrupt() {
+        POIRecommendationProfile profile = profile(itinerary());
+        POIRecommendationResponse response = response();
+        cache.put(profile, response);
+
+        // Neither the stored response nor a served hit is shared with the cache
+        response.getRecommendations().get(0).setName("Changed after put");
+        cache.get(profile).orElseThrow().getRecommendations().get(0).setName("Changed by a reader");
+
+        assertThat(cache.get(profile)).hasValueSatisfying(cached ->
+                assertThat(cached.getRecommendations()).extracting(LLMRecommendedPOI::getName)
+                        .containsExactly("Louvre Museum"));
+    }
+
+    @Test
+    void writesThroughToThePersistentTier() {
+        POIRecommendationCache persistent = cache(true, true);
+        POIRecommendationProfile profile = profile(itinerary());
+
+        persistent.put(profile, response());
+
+        verify(repository).save(any(POIRecommendationCacheEntity.class));
+    }
+
+    private POIRecommendationCache cache(boolean enabled, boolean persistentEnabled) {
+        return new POIRecommendationCache(repository, new ObjectMapper(), enabled, persistentEnabled, 10,
+                Duration.ofDays(7));
+    }
+
+    private static POIRecommendationProfile profile(ItineraryEntity itinerary) {
+        return POIRecommendationProfile.from(itinerary, 15);
+    }
+
+    private static ItineraryEntity itinerary() {
+        ItineraryEntity itinerary = new ItineraryEntity();
+        itinerary.setDestinationCity("Paris");
+        itinerary.setStartDate(OffsetDateTime.of(2024, 5, 1, 9, 0, 0, 0, ZoneOffset.UTC));
+        itinerary.setEndDate(OffsetDateTime.of(2024, 5, 4, 18, 0, 0, 0, ZoneOffset.UTC));
+        itinerary.setBudgetInCents(120_000);
+        itinerary.setNumberOfTravelers(3);
+        itinerary.setPreferredCategories(List.of("park", "museum"));
+        return itinerary;
+    }
+
+    private static POIRecommendationResponse response() {
+        LLMRecommendedPOI poi = new LLMRecommendedPOI();
+        poi.setName("Louvre Museum");
+        return new POIRecommendationResponse(List.of(poi));
+    }
+}
@@ -0,0 +1,192 @@
+package org.laioffer.planner.itinerary;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.laioffer.planner.entity.ItineraryEntity;
+import org.laioffer.planner.entity.ItineraryPlaceEntity;
+import org.laioffer.planner.entity.PlaceEntity;
+import org.laioffer.planner.entity.UserEntity;
+import org.laioffer.planner.model.common.TravelPace;
+import org.laioffer.planner.model.itinerary.TravelMode;
+import org.laioffer.planner.repository.ItineraryPlaceRepository;
+import org.laioffer.planner.repository.PlaceBulkWriter;
+import org.laioffer.planner.repository.PlaceRepository;
+import org.laioffer.planner.user.model.UserRole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the place insert strategies used by POIService at itinerary size (16) and
+ * catalogue-import size (500). Needs a real PostgreSQL database, so it only runs under
+ * {@code ./gradlew benchmark} with BENCHMARK_DATABASE_URL (plus _USERNAME/_PASSWORD) set.
+ * Every run is rolled back.
+ */
+@Tag("benchmark")
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_DATABASE_URL", matches = ".+")
+@SpringBootTest
+class POIServiceInsertBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(POIServiceInsertBenchmarkTest.class);
+
+    private static final int WARMUP_RUNS = 2;
+    private static final int MEASURED_RUNS = 5;
+
+    @DynamicPropertySource
+    static void benchmarkDatabase(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("BENCHMARK_DATABASE_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv().getOrDefault("BENCHMARK_DATABASE_USERNAME", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getenv().getOrDefault("BENCHMARK_DATABASE_PASSWORD", ""));
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("logging.level.org.hibernate.SQL", () -> "WARN");
+        registry.add("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", () -> "WARN");
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlaceRepository placeRepository;
+
+    @Autowired
+    private ItineraryPlaceRepository itineraryPlaceRepository;
+
+    @Autowired
+    private PlaceBulkWriter placeBulkWriter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void compareInsertStrategies() {
+        assertThat(placeBulkWriter.isSupported()).isTrue();
+
+        for (int size : new int[]{16, 500}) {
+            double rowByRow = measure(size, this::insertRowByRow);
+            double jpaBatch = measure(size, this::insertWithJpaBatching);
+            double multiRow = measure(size, this::insertWithMultiRowStatements);
+
+            logger.info(String.format("places=%d  row-by-row=%.1f ms  jpa-batch=%.1f ms  multi-row=%.1f ms",
+                    size, rowByRow, jpaBatch, multiRow));
+        }
+    }
+
+    /**
+     * Median wall time over the measured runs, each in its own rolled-back transaction
+     */
+    private double measure(int size, BiConsumer<List<PlaceEntity>, ItineraryEntity> strategy) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        double[] timings = new double[MEASURED_RUNS];
+
+        for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+            int measuredRun = run - WARMUP_RUNS;
+            transactionTemplate.executeWithoutResult(status -> {
+                ItineraryEntity itinerary = persistItinerary();
+                List<PlaceEntity> places = buildPlaces(size);
+
+                long started = System.nanoTime();
+                strategy.accept(places, itinerary);
+                entityManager.flush();
+                long elapsed = System.nanoTime() - started;
+
+                if (measuredRun >= 0) {
+                    timings[measuredRun] = elapsed / 1_000_000.0;
+                }
+                assertThat(itineraryPlaceRepository.countByItineraryId(itinerary.getId())).isEqualTo(size);
+                status.setRollbackOnly();
+            });
+            entityManager.clear();
+        }
+
+        Arrays.sort(timings);
+        return timings[MEASURED_RUNS / 2];
+    }
+
+    // Previous behaviour: one INSERT round trip per row
+    private void insertRowByRow(List<PlaceEntity> places, ItineraryEntity itinerary) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+        try {
+            for (PlaceEntity place : places) {
+                PlaceEntity savedPlace = placeRepository.save(place);
+                itineraryPlaceRepository.save(new ItineraryPlaceEntity(itinerary, savedPlace, false, null));
+            }
+            entityManager.flush();
+        } finally {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(null);
+        }
+    }
+
+    private void insertWithJpaBatching(List<PlaceEntity> places, ItineraryEntity itinerary) {
+        List<PlaceEntity> savedPlaces = placeRepository.saveAll(places);
+        List<ItineraryPlaceEntity> itineraryPlaces = new ArrayList<>(savedPlaces.size());
+        for (PlaceEntity savedPlace : savedPlaces) {
+            itineraryPlaces.add(new ItineraryPlaceEntity(itinerary, savedPlace, false, null));
+        }
+        itineraryPlaceRepository.saveAll(itineraryPlaces);
+    }
+
+    private void insertWithMultiRowStatements(List<PlaceEntity> places, ItineraryEntity itinerary) {
+        for (PlaceEntity place : places) {
+            place.setId(UUID.randomUUID());
+        }
+        placeBulkWriter.insertPlaces(places);
+        List<ItineraryPlaceEntity> itineraryPlaces = new ArrayList<>(places.size());
+        for (PlaceEntity place : places) {
+            itineraryPlaces.add(new ItineraryPlaceEntity(itinerary, place, false, null));
+        }
+        placeBulkWriter.insertItineraryPlaces(itineraryPlaces);
+    }
+
+    private ItineraryEntity persistItinerary() {
+        UserEntity user = new UserEntity(UserRole.USER, "bench-" + UUID.randomUUID() + "@example.com", "bench", "password");
+        entityManager.persist(user);
+
+        ItineraryEntity itinerary = new ItineraryEntity();
+        itinerary.setUser(user);
+        itinerary.setDestinationCity("San Francisco");
+        itinerary.setStartDate(OffsetDateTime.parse("2024-03-01T09:00:00-08:00"));
+        itinerary.setEndDate(OffsetDateTime.parse("2024-03-07T20:00:00-08:00"));
+        itinerary.setTravelMode(TravelMode.WALKING);
+        itinerary.setBudgetInCents(100000);
+        itinerary.setTravelPace(TravelPace.MODERATE);
+        entityManager.persist(itinerary);
+        entityManager.flush();
+        return itinerary;
+    }
+
+    private static List<PlaceEntity> buildPlaces(int size) {
+        List<PlaceEntity> places = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            PlaceEntity place = new PlaceEntity();
+            place.setName("Benchmark Place " + i);
+            place.setAddress(i + " Market St, San Francisco, CA");
+            place.setDescription("Generated for the insert benchmark");
+            place.setLatitude(BigDecimal.valueOf(37.77 + i * 0.0001));
+            place.setLongitude(BigDecimal.valueOf(-122.41));
+            place.setSource("LLM_GENERATED");
+            place.setOpeningHours(Map.of("raw", "Mon-Sun 09:00-17:00"));
+            place.setMetadata(Map.of("generated_from", "benchmark"));
+            places.add(place);
+        }
+        return places;
+    }
+}
@@ -0,0 +1,117 @@
+package org.laioffer.planner.itinerary;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.repository.ItineraryRepository;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PoiGenerationSchedulerTest {
+
+    private static final long USER_ID = 7L;
+
+    private final PoiGenerationWorker worker = mock(PoiGenerationWorker.class);
+    private final ItineraryRepository itineraryRepository = mock(ItineraryRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void blockGeneration() {
+        // Keeps every started job running until the test ends
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(worker).generate(any(), anyInt());
+    }
+
+    @AfterEach
+    void releaseGeneration() {
+        release.countDown();
+    }
+
+    @Test
+    void parksJobsOnceTheQueueIsFull() {
+        PoiGenerationScheduler scheduler = scheduler(1, 1);
+
+        assertThat(scheduler.submit(UUID.randomUUID(), USER_ID, 5)).isTrue();
+        assertThat(scheduler.submit(UUID.randomUUID(), USER_ID, 5)).isTrue();
+        assertThat(scheduler.submit(UUID.randomUUID(), USER_ID, 5)).isFalse();
+
+        assertThat(scheduler.getRunningCount()).isEqualTo(1);
+        assertThat(scheduler.getQueuedCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("poi.generation.rejected").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void resubmitSkipsJobsAlreadyAdmittedAndCountsOnlyNewOnes() {
+        PoiGenerationScheduler scheduler = scheduler(2, 1);
+        UUID running = UUID.randomUUID();
+        UUID parked = UUID.randomUUID();
+        UUID parkedLater = UUID.randomUUID();
+        assertThat(scheduler.submit(running, USER_ID, 5)).isTrue();
+
+        // The running job is still flagged for retry and comes first; the sweep reads past it
+        when(itineraryRepository.findPendingGenerationRetries(2))
+                .thenReturn(List.of(pending(running), pending(parked)));
+        scheduler.resubmitParked();
+
+        verify(itineraryRepository).findPendingGenerationRetries(2);
+        assertThat(scheduler.getQueuedCount()).isEqualTo(1);
+
+        when(itineraryRepository.findPendingGenerationRetries(3))
+                .thenReturn(List.of(pending(running), pending(parked), pending(parkedLater)));
+        scheduler.resubmitParked();
+
+        assertThat(scheduler.getQueuedCount()).isEqualTo(2);
+        assertThat(scheduler.submit(parkedLater, USER_ID, 5)).isTrue();
+        assertThat(scheduler.getQueuedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void resubmitDoesNothingWhileTheQueueIsFull() {
+        PoiGenerationScheduler scheduler = scheduler(1, 1);
+        scheduler.submit(UUID.randomUUID(), USER_ID, 5);
+        scheduler.submit(UUID.randomUUID(), USER_ID, 5);
+
+        scheduler.resubmitParked();
+
+        verify(itineraryRepository, never()).findPendingGenerationRetries(anyInt());
+    }
+
+    private PoiGenerationScheduler scheduler(int queueCapacity, int retryBatchSize) {
+        return new PoiGenerationScheduler(worker, itineraryRepository, meterRegistry,
+                1, queueCapacity, 3, retryBatchSize, false);
+    }
+
+    private static ItineraryRepository.PendingGeneration pending(UUID itineraryId) {
+        return new ItineraryRepository.PendingGeneration() {
+            @Override
+            public UUID getItineraryId() {
+                return itineraryId;
+            }
+
+            @Override
+            public Long getUserId() {
+                return USER_ID;
+            }
+
+            @Override
+            public Integer getPoiCount() {
+                return 5;
+            }
+        };
+    }
+}
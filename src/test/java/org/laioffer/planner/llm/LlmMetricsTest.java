@@ -0,0 +1,45 @@
+package org.laioffer.planner.llm;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmMetricsTest {
+
+    @Test
+    void bucketsTimeouts() {
+        assertThat(LlmMetrics.causeOf(new TimeoutException())).isEqualTo(LlmMetrics.CAUSE_TIMEOUT);
+        assertThat(LlmMetrics.causeOf(new RuntimeException("request failed", new SocketTimeoutException())))
+                .isEqualTo(LlmMetrics.CAUSE_TIMEOUT);
+        assertThat(LlmMetrics.causeOf(new RuntimeException("Read timed out"))).isEqualTo(LlmMetrics.CAUSE_TIMEOUT);
+    }
+
+    @Test
+    void bucketsRateLimits() {
+        assertThat(LlmMetrics.causeOf(new RuntimeException("status code: 429; Too Many Requests")))
+                .isEqualTo(LlmMetrics.CAUSE_RATE_LIMIT);
+        assertThat(LlmMetrics.causeOf(new RuntimeException("call failed", new IllegalStateException("Rate limit reached"))))
+                .isEqualTo(LlmMetrics.CAUSE_RATE_LIMIT);
+    }
+
+    @Test
+    void bucketsInvalidOutput() {
+        JsonParseException parseError = new JsonParseException((JsonParser) null, "Unexpected character");
+
+        assertThat(LlmMetrics.causeOf(parseError)).isEqualTo(LlmMetrics.CAUSE_INVALID_OUTPUT);
+        assertThat(LlmMetrics.causeOf(new RuntimeException("could not map the answer", parseError)))
+                .isEqualTo(LlmMetrics.CAUSE_INVALID_OUTPUT);
+    }
+
+    @Test
+    void bucketsEverythingElseAsOther() {
+        assertThat(LlmMetrics.causeOf(new IllegalStateException("model unavailable"))).isEqualTo(LlmMetrics.CAUSE_OTHER);
+        assertThat(LlmMetrics.causeOf(new RuntimeException((String) null))).isEqualTo(LlmMetrics.CAUSE_OTHER);
+        assertThat(LlmMetrics.causeOf(null)).isEqualTo(LlmMetrics.CAUSE_OTHER);
+    }
+}
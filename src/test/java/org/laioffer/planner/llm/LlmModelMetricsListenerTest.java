@@ -0,0 +1,71 @@
+package org.laioffer.planner.llm;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.listener.ChatModelErrorContext;
+import dev.langchain4j.model.chat.listener.ChatModelRequest;
+import dev.langchain4j.model.chat.listener.ChatModelRequestContext;
+import dev.langchain4j.model.chat.listener.ChatModelResponse;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.model.output.TokenUsage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmModelMetricsListenerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LlmModelMetricsListener listener = new LlmModelMetricsListener(meterRegistry);
+    private final Map<Object, Object> attributes = new HashMap<>();
+    private final ChatModelRequest request = ChatModelRequest.builder()
+            .model("gpt-4o-mini")
+            .messages(List.of(SystemMessage.from("You plan trips."), UserMessage.from("Paris, 3 days")))
+            .build();
+
+    @Test
+    void recordsPromptSizeAndTokenUsage() {
+        listener.onRequest(new ChatModelRequestContext(request, attributes));
+        listener.onResponse(new ChatModelResponseContext(ChatModelResponse.builder()
+                .aiMessage(AiMessage.from("{}"))
+                .tokenUsage(new TokenUsage(120, 30))
+                .build(), request, attributes));
+
+        assertThat(meterRegistry.get("llm.prompt.chars").tag("model", "gpt-4o-mini").summary().totalAmount())
+                .isEqualTo("You plan trips.".length() + "Paris, 3 days".length());
+        assertThat(meterRegistry.get("llm.prompt.tokens").summary().totalAmount()).isEqualTo(120.0);
+        assertThat(meterRegistry.get("llm.tokens").tag("type", "input").counter().count()).isEqualTo(120.0);
+        assertThat(meterRegistry.get("llm.tokens").tag("type", "output").counter().count()).isEqualTo(30.0);
+        assertThat(meterRegistry.get("llm.model.calls").tag("outcome", LlmMetrics.OUTCOME_SUCCESS).timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void skipsTokensWhenTheResponseReportsNoUsage() {
+        listener.onRequest(new ChatModelRequestContext(request, attributes));
+        listener.onResponse(new ChatModelResponseContext(ChatModelResponse.builder()
+                .aiMessage(AiMessage.from("{}"))
+                .build(), request, attributes));
+
+        assertThat(meterRegistry.find("llm.tokens").counter()).isNull();
+        assertThat(meterRegistry.find("llm.prompt.tokens").summary()).isNull();
+        assertThat(meterRegistry.get("llm.model.calls").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void recordsFailedCallsByCause() {
+        listener.onRequest(new ChatModelRequestContext(request, attributes));
+        listener.onError(new ChatModelErrorContext(new RuntimeException(new TimeoutException()), request, null, attributes));
+
+        assertThat(meterRegistry.get("llm.model.errors").tag("cause", LlmMetrics.CAUSE_TIMEOUT).counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("llm.model.calls").tag("outcome", LlmMetrics.OUTCOME_ERROR).timer().count())
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,64 @@
+package org.laioffer.planner.llm;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NdjsonStreamingHandlerTest {
+
+    private final List<String> events = new ArrayList<>();
+    private final NdjsonStreamingHandler handler = new NdjsonStreamingHandler() {
+        @Override
+        protected void onLine(String line) {
+            events.add("line:" + line);
+        }
+
+        @Override
+        protected void onEnd() {
+            events.add("end");
+        }
+
+        @Override
+        protected void onFailure(Throwable error) {
+            events.add("error:" + error.getMessage());
+        }
+    };
+
+    @Test
+    void splitsTokensIntoLinesAndFlushesTheTailOnCompletion() {
+        handler.onNext("{\"a\":");
+        handler.onNext("1}\n{\"b\"");
+        handler.onNext(":2}\n{\"c\":3}");
+        handler.onComplete(Response.from(AiMessage.from("")));
+
+        assertThat(events).containsExactly("line:{\"a\":1}", "line:{\"b\":2}", "line:{\"c\":3}", "end");
+    }
+
+    @Test
+    void cancelAbortsTheStreamAndSilencesLaterCallbacks() {
+        handler.onNext("{\"a\":1}\n");
+        handler.cancel();
+
+        assertThatThrownBy(() -> handler.onNext("{\"b\":2}\n")).isInstanceOf(CancellationException.class);
+        handler.onError(new IllegalStateException("connection closed"));
+        handler.onComplete(Response.from(AiMessage.from("")));
+
+        assertThat(events).containsExactly("line:{\"a\":1}");
+    }
+
+    @Test
+    void extractsTheJsonObjectFromWrappedLines() {
+        assertThat(NdjsonStreamingHandler.jsonObject("  [{\"a\":1},  ")).isEqualTo("{\"a\":1}");
+        assertThat(NdjsonStreamingHandler.jsonObject("{\"a\":1}]")).isEqualTo("{\"a\":1}");
+        assertThat(NdjsonStreamingHandler.jsonObject("```json")).isNull();
+        assertThat(NdjsonStreamingHandler.jsonObject("Here are your places:")).isNull();
+        assertThat(NdjsonStreamingHandler.jsonObject("")).isNull();
+    }
+}
@@ -0,0 +1,63 @@
+package org.laioffer.planner.llm;
+
+import dev.langchain4j.model.input.PromptTemplate;
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.itinerary.POIRecommendationService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SectionPromptTemplateFactoryTest {
+
+    @Test
+    void keepsSectionsWhoseFlagIsTrueAndDropsTheRest() {
+        String prompt = PromptTemplate.from(POIRecommendationService.USER_PROMPT)
+                .apply(variables(true, false))
+                .text();
+
+        assertThat(prompt)
+                .contains("- Prefer popular attractions: true\n"
+                        + "- Traveling with children: yes (prioritize family-friendly attractions)\n"
+                        + "- Preferred categories: Museums\n")
+                .doesNotContain("elderly")
+                .doesNotContain("{{");
+    }
+
+    @Test
+    void dropsAllSectionsForAnAdultsOnlyTrip() {
+        String prompt = PromptTemplate.from(POIRecommendationService.USER_PROMPT)
+                .apply(variables(false, false))
+                .text();
+
+        assertThat(prompt).contains("- Prefer popular attractions: true\n- Preferred categories: Museums\n");
+    }
+
+    @Test
+    void leavesTemplatesWithoutSectionsUnchanged() {
+        assertThat(SectionPromptTemplateFactory.resolveSections("Plan {{days}} days", Map.of("days", 3)))
+                .isEqualTo("Plan {{days}} days");
+        assertThat(PromptTemplate.from("Plan {{days}} days").apply(Map.of("days", 3)).text())
+                .isEqualTo("Plan 3 days");
+    }
+
+    private static Map<String, Object> variables(boolean hasChildren, boolean hasElderly) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("destinationCity", "Paris");
+        variables.put("maxRecommendations", 5);
+        variables.put("budgetInCents", 100000);
+        variables.put("budgetInDollars", 1000.0);
+        variables.put("travelMode", "WALKING");
+        variables.put("stayingDays", 3);
+        variables.put("travelPace", "MODERATE");
+        variables.put("activityIntensity", "MODERATE");
+        variables.put("numberOfTravelers", 2);
+        variables.put("hasChildren", hasChildren);
+        variables.put("hasElderly", hasElderly);
+        variables.put("preferPopularAttractions", true);
+        variables.put("preferredCategoriesStr", "Museums");
+        variables.put("additionalPreferences", "");
+        return variables;
+    }
+}
@@ -0,0 +1,33 @@
+package org.laioffer.planner.model.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+    @Test
+    void roundTripsKeysContainingSeparatorsAsUrlSafeToken() {
+        UUID id = UUID.randomUUID();
+        String token = PageCursor.of("Café de Flore\nSaint-Germain", id).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(PageCursor.decode(token)).isEqualTo(new PageCursor("Café de Flore\nSaint-Germain", id));
+
+        LocalDateTime createdAt = LocalDateTime.of(2026, 5, 4, 9, 30, 15, 123_456_000);
+        assertThat(PageCursor.decode(PageCursor.of(createdAt, id).encode()).keyAsDateTime()).isEqualTo(createdAt);
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        assertThatThrownBy(() -> PageCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        String noId = PageCursor.of("Louvre", UUID.randomUUID()).encode().substring(0, 8);
+        assertThatThrownBy(() -> PageCursor.decode(noId)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new PageCursor("Louvre", UUID.randomUUID()).keyAsDateTime())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
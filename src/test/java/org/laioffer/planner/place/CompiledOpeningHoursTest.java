@@ -0,0 +1,65 @@
+package org.laioffer.planner.place;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledOpeningHoursTest {
+
+    // 2026-05-04 is a Monday
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2026, 5, 4, 0, 0);
+
+    @Test
+    void answersOpenQueriesIncludingHoursPastMidnight() {
+        CompiledOpeningHours hours = CompiledOpeningHours.compile(Map.of(
+                "monday", Map.of("open", "09:00", "close", "17:00"),
+                "friday", Map.of("open", "20:00", "close", "02:00")));
+
+        assertThat(hours.isKnown()).isTrue();
+        assertThat(hours.isOpenAt(MONDAY.withHour(9))).isTrue();
+        assertThat(hours.isOpenAt(MONDAY.withHour(17))).isFalse();
+        assertThat(hours.isOpenAt(MONDAY.plusDays(1).withHour(12))).isFalse();
+        // Friday night hours carry over into Saturday
+        assertThat(hours.isOpenAt(DayOfWeek.SATURDAY, 90)).isTrue();
+        assertThat(hours.isOpenFor(MONDAY.plusDays(4).withHour(23), 150)).isTrue();
+        assertThat(hours.isOpenFor(MONDAY.withHour(16), 90)).isFalse();
+    }
+
+    @Test
+    void findsNextWindowLongEnoughForTheVisit() {
+        CompiledOpeningHours hours = CompiledOpeningHours.compile(Map.of(
+                "monday", Map.of("open", "09:00", "close", "17:00"),
+                "wednesday", Map.of("open", "10:00", "close", "23:59")));
+
+        assertThat(hours.nextOpenWindow(MONDAY.withHour(8), 60)).hasValueSatisfying(window -> {
+            assertThat(window.start()).isEqualTo(MONDAY.withHour(9));
+            assertThat(window.minutes()).isEqualTo(8 * 60);
+        });
+        // Too late on Monday for a two-hour visit; Tuesday is closed
+        assertThat(hours.nextOpenWindow(MONDAY.withHour(16), 120)).hasValueSatisfying(window -> {
+            assertThat(window.start()).isEqualTo(MONDAY.plusDays(2).withHour(10));
+            assertThat(window.end()).isEqualTo(MONDAY.plusDays(3));
+        });
+    }
+
+    @Test
+    void treatsUnknownHoursAsOpenAndKeepsDeclaredHoursForDisplay() {
+        CompiledOpeningHours unknown = CompiledOpeningHours.compile(Map.of("raw", "Daily 9-5"));
+        assertThat(unknown.isKnown()).isFalse();
+        assertThat(unknown.isOpenAt(MONDAY.withHour(3))).isTrue();
+        assertThat(unknown.bestWindow(DayOfWeek.MONDAY, 540, 1200)).containsExactly(0, 1440);
+
+        CompiledOpeningHours split = CompiledOpeningHours.compile(Map.of(
+                "sunday", Map.of("open", "18:00", "close", "03:00"),
+                "monday", Map.of("open", "11:00", "close", "15:00")));
+        assertThat(split.bestWindow(DayOfWeek.MONDAY, 540, 1200)).containsExactly(660, 900);
+        assertThat(split.declaredOpen(DayOfWeek.SUNDAY)).isEqualTo(18 * 60);
+        assertThat(split.declaredClose(DayOfWeek.SUNDAY)).isEqualTo(3 * 60);
+        assertThat(split.declaredOpen(DayOfWeek.TUESDAY)).isEqualTo(CompiledOpeningHours.CLOSED);
+        assertThat(split.getDescription()).startsWith("Monday: 11:00-15:00, Tuesday: closed");
+    }
+}
@@ -0,0 +1,35 @@
+package org.laioffer.planner.place;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeohashTest {
+
+    @Test
+    void encodesKnownPoints() {
+        assertThat(Geohash.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+        assertThat(Geohash.encode(57.64911, 10.40744, 6)).isEqualTo("u4pruy");
+        assertThat(Geohash.encode(0, 0, 1)).isEqualTo("s");
+        assertThat(Geohash.encode(-90, -180, 2)).isEqualTo("00");
+    }
+
+    @Test
+    void neighboursAreTheEightSurroundingCells() {
+        Set<String> cells = Geohash.cellAndNeighbours(57.64911, 10.40744, 6);
+
+        assertThat(cells).hasSize(9).first().isEqualTo("u4pruy");
+        assertThat(cells).allSatisfy(cell -> assertThat(cell).hasSize(6));
+        // A point just across the cell edge lands in one of the neighbours
+        assertThat(cells).contains(Geohash.encode(57.64911 + 0.006, 10.40744, 6));
+    }
+
+    @Test
+    void neighboursWrapAroundTheAntimeridian() {
+        Set<String> cells = Geohash.cellAndNeighbours(10, 179.999, 5);
+
+        assertThat(cells).contains(Geohash.encode(10, -179.999, 5));
+    }
+}
@@ -0,0 +1,60 @@
+package org.laioffer.planner.place;
+
+import org.laioffer.planner.entity.PlaceEntity;
+import org.laioffer.planner.repository.PlaceRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PlaceCatalogTest {
+
+    private final PlaceRepository placeRepository = mock(PlaceRepository.class);
+    private final PlaceCatalog catalog = new PlaceCatalog(placeRepository);
+
+    @Test
+    void reusesCatalogueRowsAndCollapsesDuplicateCandidates() {
+        PlaceEntity stored = place("The Louvre", "48.8606", "2.3376");
+        stored.setId(UUID.randomUUID());
+        stored.refreshDedupKey();
+        when(placeRepository.findAllByDedupKeyIn(anyCollection())).thenReturn(List.of(stored));
+
+        PlaceEntity louvre = place("Louvre", "48.8607", "2.3377");
+        PlaceEntity tower = place("Eiffel Tower", "48.8584", "2.2945");
+        PlaceEntity towerAgain = place("eiffel tower!", "48.8584", "2.2945");
+
+        PlaceCatalog.Resolution resolution = catalog.resolve(List.of(louvre, tower, towerAgain));
+
+        assertThat(resolution.getPlaces()).containsExactly(stored, tower);
+        assertThat(resolution.getNewPlaces()).containsExactly(tower);
+        assertThat(resolution.getReusedCount()).isEqualTo(1);
+        verify(placeRepository, times(1)).findAllByDedupKeyIn(anyCollection());
+    }
+
+    @Test
+    void keepsPlacesWithTheSameNameInDifferentCities() {
+        PlaceEntity paris = place("Hard Rock Cafe", "48.8718", "2.3422");
+        PlaceEntity london = place("Hard Rock Cafe", "51.5030", "-0.1532");
+
+        PlaceCatalog.Resolution resolution = catalog.resolve(List.of(paris, london));
+
+        assertThat(resolution.getNewPlaces()).containsExactly(paris, london);
+        assertThat(resolution.getReusedCount()).isZero();
+    }
+
+    private static PlaceEntity place(String name, String latitude, String longitude) {
+        PlaceEntity place = new PlaceEntity();
+        place.setName(name);
+        place.setLatitude(new BigDecimal(latitude));
+        place.setLongitude(new BigDecimal(longitude));
+        return place;
+    }
+}
@@ -0,0 +1,131 @@
+package org.laioffer.planner.place;
+
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.model.common.GeoPoint;
+import org.laioffer.planner.model.place.NearbyPlaceDTO;
+import org.laioffer.planner.model.place.NearbyPlacesResponse;
+import org.laioffer.planner.model.place.PlaceDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PlaceController.class)
+@WithMockUser(username = "test@example.com")
+class PlaceControllerTest {
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        @Primary
+        public PlaceSearchService mockPlaceSearchService() {
+            return mock(PlaceSearchService.class);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PlaceSearchService placeSearchService;
+
+    @Test
+    void returnsNearbyPlacesWithTheirDistance() throws Exception {
+        when(placeSearchService.findNearby(48.8606, 2.3376, 500.0, 20)).thenReturn(new NearbyPlacesResponse(
+                new GeoPoint(48.8606, 2.3376), 500.0, List.of(new NearbyPlaceDTO(place("Louvre"), 12.5))));
+
+        mockMvc.perform(get("/api/places/nearby")
+                        .param("lat", "48.8606")
+                        .param("lng", "2.3376")
+                        .param("radiusMeters", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.radiusMeters").value(500.0))
+                .andExpect(jsonPath("$.items[0].place.name").value("Louvre"))
+                .andExpect(jsonPath("$.items[0].distanceMeters").value(12.5));
+    }
+
+    @Test
+    void answersBadRequestForInvalidSearchParameters() throws Exception {
+        when(placeSearchService.findNearby(anyDouble(), anyDouble(), eq(100_000.0), anyInt()))
+                .thenThrow(new IllegalArgumentException("Radius must be between 0 and 50000.0 meters"));
+        when(placeSearchService.findInBounds(anyDouble(), anyDouble(), anyDouble(), anyDouble(), eq(0)))
+                .thenThrow(new IllegalArgumentException("Limit must be between 1 and 100"));
+        when(placeSearchService.searchByText(anyString(), anyInt()))
+                .thenThrow(new IllegalArgumentException("Search query cannot be empty"));
+
+        mockMvc.perform(get("/api/places/nearby").param("lat", "48.86").param("lng", "2.34")
+                        .param("radiusMeters", "100000"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/places/within").param("minLat", "48.8").param("maxLat", "48.9")
+                        .param("minLng", "2.3").param("maxLng", "2.4").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/places/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+        // Missing or malformed coordinates never reach the service
+        mockMvc.perform(get("/api/places/nearby").param("lat", "north"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void answersServiceUnavailableWithoutPostgis() throws Exception {
+        when(placeSearchService.findNearby(anyDouble(), anyDouble(), isNull(), anyInt()))
+                .thenThrow(new SearchUnavailableException("Nearby search needs PostGIS"));
+        UUID placeId = UUID.randomUUID();
+        when(placeSearchService.findNearPlace(eq(placeId), isNull(), anyInt()))
+                .thenThrow(new SearchUnavailableException("Nearby search needs PostGIS"));
+
+        mockMvc.perform(get("/api/places/nearby").param("lat", "48.86").param("lng", "2.34"))
+                .andExpect(status().isServiceUnavailable());
+        mockMvc.perform(get("/api/places/{placeId}/nearby", placeId))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void answersNotFoundForAnUnknownOriginPlace() throws Exception {
+        UUID placeId = UUID.randomUUID();
+        when(placeSearchService.findNearPlace(eq(placeId), isNull(), anyInt())).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/places/{placeId}/nearby", placeId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void returnsPlacesWithinBoundsAndSearchResults() throws Exception {
+        when(placeSearchService.findInBounds(48.8, 48.9, 2.3, 2.4, 100))
+                .thenReturn(List.of(new NearbyPlaceDTO(place("Louvre"), 640.2)));
+        when(placeSearchService.searchByText("louvre", 5)).thenReturn(List.of(place("Louvre")));
+
+        mockMvc.perform(get("/api/places/within").param("minLat", "48.8").param("maxLat", "48.9")
+                        .param("minLng", "2.3").param("maxLng", "2.4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].place.name").value("Louvre"));
+        mockMvc.perform(get("/api/places/search").param("q", "louvre").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Louvre"));
+    }
+
+    private static PlaceDTO place(String name) {
+        PlaceDTO place = new PlaceDTO();
+        place.setId(UUID.randomUUID());
+        place.setName(name);
+        return place;
+    }
+}
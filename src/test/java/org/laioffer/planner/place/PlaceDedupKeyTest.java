@@ -0,0 +1,52 @@
+package org.laioffer.planner.place;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlaceDedupKeyTest {
+
+    private static final BigDecimal LAT = new BigDecimal("48.8606");
+    private static final BigDecimal LNG = new BigDecimal("2.3376");
+
+    @Test
+    void normalizesCaseAccentsPunctuationAndLeadingArticles() {
+        assertThat(PlaceDedupKey.normalize("The Louvre")).isEqualTo("louvre");
+        assertThat(PlaceDedupKey.normalize("  Café de Flore! ")).isEqualTo("cafe de flore");
+        assertThat(PlaceDedupKey.normalize("Shakespeare & Co.")).isEqualTo("shakespeare and co");
+        assertThat(PlaceDedupKey.normalize(null)).isEmpty();
+    }
+
+    @Test
+    void keepsNonLatinNames() {
+        assertThat(PlaceDedupKey.normalize("故宫博物院")).isEqualTo("故宫博物院");
+        assertThat(PlaceDedupKey.normalize("Музей Эрмитаж")).isEqualTo("музей эрмитаж");
+        assertThat(PlaceDedupKey.normalize("東京タワー")).isNotEmpty();
+        // Kana voicing marks distinguish names and are not folded like Latin accents
+        assertThat(PlaceDedupKey.normalize("がっこう")).isNotEqualTo(PlaceDedupKey.normalize("かっこう"));
+        assertThat(PlaceDedupKey.of("故宫", LAT, LNG, null)).isNotEqualTo(PlaceDedupKey.of("天坛", LAT, LNG, null));
+    }
+
+    @Test
+    void buildsGeohashKeysAndFallsBackToTheAddress() {
+        assertThat(PlaceDedupKey.of("Louvre", LAT, LNG, "Rue de Rivoli"))
+                .isEqualTo("louvre@" + Geohash.encode(LAT.doubleValue(), LNG.doubleValue(), PlaceDedupKey.GEOHASH_PRECISION));
+        assertThat(PlaceDedupKey.of("Louvre", null, null, "Rue de Rivoli, Paris"))
+                .isEqualTo("louvre#rue de rivoli paris");
+        // 0,0 is treated as a missing location
+        assertThat(PlaceDedupKey.of("Louvre", BigDecimal.ZERO, BigDecimal.ZERO, "Paris")).isEqualTo("louvre#paris");
+        assertThat(PlaceDedupKey.of("!!!", LAT, LNG, null)).isNull();
+    }
+
+    @Test
+    void candidatesCoverTheOwnCellAndItsNeighbours() {
+        String key = PlaceDedupKey.of("Louvre", LAT, LNG, null);
+
+        assertThat(PlaceDedupKey.candidates("the louvre", LAT, LNG, null))
+                .hasSize(9)
+                .first().isEqualTo(key);
+        assertThat(PlaceDedupKey.candidates("", LAT, LNG, null)).isEmpty();
+    }
+}
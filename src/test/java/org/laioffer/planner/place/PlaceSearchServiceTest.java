@@ -0,0 +1,165 @@
+package org.laioffer.planner.place;
+
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.Recommendation.PlaceMapper;
+import org.laioffer.planner.config.DatabaseFeatures;
+import org.laioffer.planner.entity.PlaceEntity;
+import org.laioffer.planner.model.place.NearbyPlaceDTO;
+import org.laioffer.planner.model.place.NearbyPlacesResponse;
+import org.laioffer.planner.model.place.PlaceDTO;
+import org.laioffer.planner.repository.PlaceRepository;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PlaceSearchServiceTest {
+
+    private final PlaceRepository placeRepository = mock(PlaceRepository.class);
+    private final DatabaseFeatures databaseFeatures = mock(DatabaseFeatures.class);
+    private final PlaceSearchService service = new PlaceSearchService(placeRepository,
+            new PlaceMapper(new OpeningHoursIndex(100, Duration.ofMinutes(5))), databaseFeatures, 50_000, 100);
+
+    @Test
+    void nearbySearchIsUnavailableWithoutPostgis() {
+        when(databaseFeatures.spatialSearch()).thenReturn(false);
+
+        assertThatThrownBy(() -> service.findNearby(48.86, 2.34, 1000.0, 20))
+                .isInstanceOf(SearchUnavailableException.class);
+        verifyNoInteractions(placeRepository);
+    }
+
+    @Test
+    void rejectsInvalidCoordinatesRadiusAndLimit() {
+        when(databaseFeatures.spatialSearch()).thenReturn(true);
+
+        assertThatThrownBy(() -> service.findNearby(91, 2.34, null, 20)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.findNearby(48.86, -181, null, 20)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.findNearby(48.86, 2.34, 0.0, 20)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.findNearby(48.86, 2.34, 50_001.0, 20)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.findNearby(48.86, 2.34, null, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.findNearby(48.86, 2.34, null, 101)).isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(placeRepository);
+    }
+
+    @Test
+    void nearbyWithoutRadiusIsANearestNeighbourSearch() {
+        when(databaseFeatures.spatialSearch()).thenReturn(true);
+        when(placeRepository.findNearestPlaces(48.8606, 2.3376, 5)).thenReturn(List.of(place("Louvre", 48.8606, 2.3376)));
+
+        NearbyPlacesResponse response = service.findNearby(48.8606, 2.3376, null, 5);
+
+        assertThat(response.getRadiusMeters()).isNull();
+        assertThat(response.getItems()).extracting(item -> item.getPlace().getName()).containsExactly("Louvre");
+        assertThat(response.getItems().get(0).getDistanceMeters()).isZero();
+        verify(placeRepository, never()).findPlacesWithinRadius(anyDouble(), anyDouble(), anyDouble(), anyInt());
+    }
+
+    @Test
+    void nearPlaceExcludesTheOriginItself() {
+        when(databaseFeatures.spatialSearch()).thenReturn(true);
+        PlaceEntity origin = place("Louvre", 48.8606, 2.3376);
+        PlaceEntity orsay = place("Musée d'Orsay", 48.8600, 2.3266);
+        PlaceEntity tuileries = place("Jardin des Tuileries", 48.8635, 2.3275);
+        when(placeRepository.findById(origin.getId())).thenReturn(Optional.of(origin));
+        // One more than the limit, since the origin is its own nearest neighbour
+        when(placeRepository.findPlacesWithinRadius(48.8606, 2.3376, 2000.0, 3))
+                .thenReturn(List.of(origin, tuileries, orsay));
+
+        Optional<NearbyPlacesResponse> response = service.findNearPlace(origin.getId(), 2000.0, 2);
+
+        assertThat(response).hasValueSatisfying(nearby -> assertThat(nearby.getItems())
+                .extracting(item -> item.getPlace().getName())
+                .containsExactly("Jardin des Tuileries", "Musée d'Orsay"));
+    }
+
+    @Test
+    void nearPlaceIsEmptyForUnknownPlacesAndPlacesWithoutCoordinates() {
+        when(databaseFeatures.spatialSearch()).thenReturn(true);
+        PlaceEntity unlocated = place("Somewhere", 0, 0);
+        unlocated.setLatitude(null);
+        when(placeRepository.findById(unlocated.getId())).thenReturn(Optional.of(unlocated));
+
+        assertThat(service.findNearPlace(UUID.randomUUID(), null, 5)).isEmpty();
+        assertThat(service.findNearPlace(unlocated.getId(), null, 5)).isEmpty();
+        verify(placeRepository, never()).findNearestPlaces(anyDouble(), anyDouble(), anyInt());
+    }
+
+    @Test
+    void boundsUseTheSpatialIndexWhenAvailable() {
+        when(databaseFeatures.spatialSearch()).thenReturn(true);
+        when(placeRepository.findPlacesInBounds(48.8, 48.9, 2.3, 2.4, 10))
+                .thenReturn(List.of(place("Louvre", 48.8606, 2.3376)));
+
+        List<NearbyPlaceDTO> places = service.findInBounds(48.8, 48.9, 2.3, 2.4, 10);
+
+        assertThat(places).hasSize(1);
+        verify(placeRepository, never()).findPlacesInBoundsByCoordinates(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void boundsCompareCoordinatesWithoutPostgis() {
+        when(databaseFeatures.spatialSearch()).thenReturn(false);
+        when(placeRepository.findPlacesInBoundsByCoordinates(BigDecimal.valueOf(48.8), BigDecimal.valueOf(48.9),
+                BigDecimal.valueOf(2.3), BigDecimal.valueOf(2.4), Limit.of(10)))
+                .thenReturn(List.of(place("Louvre", 48.8606, 2.3376)));
+
+        List<NearbyPlaceDTO> places = service.findInBounds(48.8, 48.9, 2.3, 2.4, 10);
+
+        assertThat(places).extracting(item -> item.getPlace().getName()).containsExactly("Louvre");
+        verify(placeRepository, never()).findPlacesInBounds(anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyInt());
+    }
+
+    @Test
+    void rejectsInvertedBounds() {
+        assertThatThrownBy(() -> service.findInBounds(48.9, 48.8, 2.3, 2.4, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.findInBounds(48.8, 48.9, 2.4, 2.3, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.findInBounds(48.8, 91, 2.3, 2.4, 10)).isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(placeRepository);
+    }
+
+    @Test
+    void textSearchIsRankedWhenTheSearchSchemaIsPresent() {
+        when(databaseFeatures.rankedSearch()).thenReturn(true);
+        when(placeRepository.searchRanked("musee:* & d:* & orsay:*", "Musee d'Orsay", 10))
+                .thenReturn(List.of(place("Musée d'Orsay", 48.8600, 2.3266)));
+
+        assertThat(service.searchByText("  Musee d'Orsay ", 10)).extracting(PlaceDTO::getName)
+                .containsExactly("Musée d'Orsay");
+        verify(placeRepository, never()).searchByKeyword(anyString(), any());
+    }
+
+    @Test
+    void textSearchFallsBackToLikeWithoutTheSearchSchema() {
+        when(databaseFeatures.rankedSearch()).thenReturn(false);
+        when(placeRepository.searchByKeyword("orsay", Limit.of(10)))
+                .thenReturn(List.of(place("Musée d'Orsay", 48.8600, 2.3266)));
+
+        assertThat(service.searchByText("orsay", 10)).extracting(PlaceDTO::getName).containsExactly("Musée d'Orsay");
+        verify(placeRepository, never()).searchRanked(anyString(), anyString(), anyInt());
+    }
+
+    private static PlaceEntity place(String name, double latitude, double longitude) {
+        PlaceEntity place = new PlaceEntity();
+        place.setId(UUID.randomUUID());
+        place.setName(name);
+        place.setLatitude(BigDecimal.valueOf(latitude));
+        place.setLongitude(BigDecimal.valueOf(longitude));
+        return place;
+    }
+}
@@ -0,0 +1,52 @@
+package org.laioffer.planner.planning;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.model.planning.PlanItineraryResponse;
+import org.laioffer.planner.model.planning.PlannedDay;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ActivePlanResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final ActivePlanResponseCache cache = new ActivePlanResponseCache(objectMapper, 100, Duration.ofMinutes(30));
+
+    @Test
+    void servesSerializedPlanWithoutReloadingUntilTheActiveRowChanges() throws Exception {
+        PlanItineraryResponse plan = new PlanItineraryResponse(UUID.randomUUID(),
+                List.of(new PlannedDay("2026-05-04", List.of())));
+        plan.setVersion(4);
+        ActivePlanRef ref = new ActivePlanRef(UUID.randomUUID(), 4);
+        AtomicInteger loads = new AtomicInteger();
+
+        byte[] first = cache.get(ref, () -> {
+            loads.incrementAndGet();
+            return Optional.of(plan);
+        }).orElseThrow();
+        byte[] second = cache.get(ref, () -> {
+            loads.incrementAndGet();
+            return Optional.of(plan);
+        }).orElseThrow();
+
+        assertThat(first).isEqualTo(objectMapper.writeValueAsBytes(plan));
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.get(new ActivePlanRef(UUID.randomUUID(), 5), Optional::empty)).isEmpty();
+    }
+
+    @Test
+    void etagNamesThePlanRowAndVersion() {
+        ActivePlanRef ref = new ActivePlanRef(UUID.randomUUID(), 4);
+
+        assertThat(ref.matches("W/" + ref.etag())).isTrue();
+        assertThat(ref.matches(new ActivePlanRef(ref.planId(), 5).etag())).isFalse();
+    }
+}
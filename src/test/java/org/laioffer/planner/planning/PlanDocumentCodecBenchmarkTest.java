@@ -0,0 +1,121 @@
+package org.laioffer.planner.planning;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.model.common.GeoPoint;
+import org.laioffer.planner.model.place.PlaceDTO;
+import org.laioffer.planner.model.planning.PlanItineraryResponse;
+import org.laioffer.planner.model.planning.PlannedDay;
+import org.laioffer.planner.model.planning.PlannedStop;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the plan storage round trip (serialize on save, deserialize on read) for a 7-day,
+ * 35-stop plan: the previous path through a {@code Map<String, Object>} graph, as JsonType stored
+ * and loaded it, against {@link PlanDocumentCodec} binding straight to the DTOs.
+ * Reports mean latency and bytes allocated per round trip. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class PlanDocumentCodecBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlanDocumentCodecBenchmarkTest.class);
+
+    private static final int DAYS = 7;
+    private static final int STOPS_PER_DAY = 5;
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 50_000;
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final PlanDocumentCodec codec = new PlanDocumentCodec(objectMapper);
+
+    @Test
+    void typedDocumentRoundTripAllocatesLessAndRunsFaster() throws Exception {
+        PlanItineraryResponse plan = samplePlan();
+
+        RoundTrip viaMap = () -> {
+            Map<String, Object> planMap = new HashMap<>();
+            planMap.put("itineraryId", plan.getItineraryId().toString());
+            planMap.put("days", plan.getDays());
+            String stored = objectMapper.writeValueAsString(planMap);
+            Map<String, Object> loaded = objectMapper.readValue(stored, MAP_TYPE);
+            return objectMapper.convertValue(loaded, PlanItineraryResponse.class);
+        };
+        RoundTrip viaCodec = () -> codec.decode(codec.encode(plan));
+
+        Result map = measure(viaMap);
+        Result typed = measure(viaCodec);
+
+        logger.info(String.format("map graph:  %,.1f us/op  %,d bytes/op", map.nanosPerOp / 1_000.0, map.bytesPerOp));
+        logger.info(String.format("typed:      %,.1f us/op  %,d bytes/op", typed.nanosPerOp / 1_000.0, typed.bytesPerOp));
+
+        assertThat(viaCodec.run().getDays()).hasSize(DAYS);
+        assertThat(typed.bytesPerOp).isLessThan(map.bytesPerOp);
+        assertThat(typed.nanosPerOp).isLessThan(map.nanosPerOp);
+    }
+
+    private static Result measure(RoundTrip roundTrip) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            roundTrip.run();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long started = System.nanoTime();
+        int days = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            days += roundTrip.run().getDays().size();
+        }
+        long elapsed = System.nanoTime() - started;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        assertThat(days).isEqualTo(DAYS * MEASURED_ITERATIONS);
+        return new Result((double) elapsed / MEASURED_ITERATIONS, allocated / MEASURED_ITERATIONS);
+    }
+
+    private static PlanItineraryResponse samplePlan() {
+        LocalDate start = LocalDate.of(2026, 5, 4);
+        List<PlannedDay> days = new ArrayList<>();
+        for (int d = 0; d < DAYS; d++) {
+            List<PlannedStop> stops = new ArrayList<>();
+            for (int s = 0; s < STOPS_PER_DAY; s++) {
+                PlaceDTO place = new PlaceDTO(UUID.randomUUID(), "Place " + d + "-" + s,
+                        new GeoPoint(48.85 + d * 0.01, 2.35 + s * 0.01), s + " Rue de Rivoli, Paris");
+                place.setDescription("A well-known sight worth a couple of hours");
+                place.setItineraryPlaceRecordId(UUID.randomUUID());
+                place.setPinned(s % 2 == 0);
+                place.setAddedAt(LocalDateTime.of(2026, 4, 20, 12, 0));
+                String arrival = String.format("%02d:00", 9 + s * 2);
+                String departure = String.format("%02d:30", 10 + s * 2);
+                stops.add(new PlannedStop(s + 1, place, arrival, departure, 90));
+            }
+            PlannedDay day = new PlannedDay();
+            day.setDate(start.plusDays(d).toString());
+            day.setStops(stops);
+            days.add(day);
+        }
+        return new PlanItineraryResponse(UUID.randomUUID(), days);
+    }
+
+    @FunctionalInterface
+    private interface RoundTrip {
+        PlanItineraryResponse run() throws Exception;
+    }
+
+    private record Result(double nanosPerOp, long bytesPerOp) {
+    }
+}
@@ -0,0 +1,98 @@
+package org.laioffer.planner.planning;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.entity.ItineraryEntity;
+import org.laioffer.planner.entity.PlanEntity;
+import org.laioffer.planner.model.common.GeoPoint;
+import org.laioffer.planner.model.place.PlaceDTO;
+import org.laioffer.planner.model.planning.PlanItineraryResponse;
+import org.laioffer.planner.model.planning.PlannedDay;
+import org.laioffer.planner.model.planning.PlannedStop;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlanDocumentCodecTest {
+
+    private final PlanDocumentCodec codec = new PlanDocumentCodec(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    @Test
+    void roundTripsPlanWithRowIdentity() {
+        PlaceDTO place = new PlaceDTO(UUID.randomUUID(), "The Louvre", new GeoPoint(48.8606, 2.3376), "Rue de Rivoli");
+        place.setPinned(true);
+        place.setAddedAt(LocalDateTime.of(2026, 5, 1, 10, 30));
+        PlannedDay day = new PlannedDay();
+        day.setDate("2026-05-04");
+        day.setStops(List.of(new PlannedStop(1, place, "09:00", "11:00", 120)));
+        PlanItineraryResponse plan = new PlanItineraryResponse(UUID.randomUUID(), List.of(day));
+
+        PlanItineraryResponse decoded = codec.decode(entity(codec.encode(plan), PlanDocumentCodec.CURRENT_SCHEMA_VERSION));
+
+        assertThat(decoded.getVersion()).isEqualTo(3);
+        PlannedStop stop = decoded.getDays().get(0).getStops().get(0);
+        assertThat(stop.getPlace().getLocation()).isEqualTo(new GeoPoint(48.8606, 2.3376));
+        assertThat(stop.getPlace().getAddedAt()).isEqualTo(LocalDateTime.of(2026, 5, 1, 10, 30));
+        assertThat(stop.getStayMinutes()).isEqualTo(120);
+    }
+
+    @Test
+    void readsUnversionedMapDocumentsAndRejectsNewerSchemas() {
+        String legacy = """
+                {"itineraryId":"6f1c1d2e-0000-4000-8000-000000000001","days":[{"date":"2026-05-04","stops":[
+                {"order":1,"place":{"id":"6f1c1d2e-0000-4000-8000-000000000002","name":"Louvre",
+                "location":{"lat":48.86,"lng":2.33},"pinned":true},"arrivalLocal":"09:00","departLocal":"11:00",
+                "stayMinutes":120}]}],"warnings":[{"code":"DROPPED","message":"1 stop removed"}]}""";
+
+        PlanItineraryResponse decoded = codec.decode(entity(legacy, null));
+
+        assertThat(decoded.getDays().get(0).getStops().get(0).getPlace().getName()).isEqualTo("Louvre");
+        assertThat(decoded.getWarnings().get(0).getCode()).isEqualTo("DROPPED");
+        assertThatThrownBy(() -> codec.decode(entity(legacy, PlanDocumentCodec.CURRENT_SCHEMA_VERSION + 1)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void deltaRebuildsOlderVersionFromNewerOne() {
+        PlanItineraryResponse older = new PlanItineraryResponse(UUID.randomUUID(), new ArrayList<>(List.of(
+                day("2026-05-04", "Louvre", "Orsay"),
+                day("2026-05-05", "Pompidou", "Marais", "Bastille"),
+                day("2026-05-06", "Montmartre"))));
+        PlanItineraryResponse newer = new PlanItineraryResponse(older.getItineraryId(), List.of(
+                day("2026-05-04", "Louvre", "Orsay"),
+                day("2026-05-05", "Pompidou", "Marais"),
+                day("2026-05-07", "Versailles"),
+                day("2026-05-08", "Giverny")));
+
+        PlanDelta delta = codec.diff(newer, older);
+        String stored = codec.encodeDelta(delta);
+        PlanItineraryResponse rebuilt = codec.decodeDelta(stored).applyTo(codec.decode(codec.encode(newer)));
+
+        // Unchanged first day is not recorded; second is patched; third replaced; fourth dropped
+        assertThat(delta.getDays()).extracting(PlanDelta.DayChange::getIndex).containsExactly(1, 2);
+        assertThat(delta.getDays().get(0).getDay()).isNull();
+        assertThat(codec.encode(rebuilt)).isEqualTo(codec.encode(older));
+    }
+
+    private static PlannedDay day(String date, String... placeNames) {
+        List<PlannedStop> stops = new ArrayList<>();
+        for (int i = 0; i < placeNames.length; i++) {
+            PlaceDTO place = new PlaceDTO(UUID.nameUUIDFromBytes(placeNames[i].getBytes()), placeNames[i],
+                    new GeoPoint(48.85, 2.35), placeNames[i] + ", Paris");
+            stops.add(new PlannedStop(i + 1, place, String.format("%02d:00", 9 + i * 2), String.format("%02d:30", 10 + i * 2), 90));
+        }
+        return new PlannedDay(date, stops);
+    }
+
+    private static PlanEntity entity(String planData, Integer schemaVersion) {
+        ItineraryEntity itinerary = new ItineraryEntity();
+        itinerary.setId(UUID.randomUUID());
+        return new PlanEntity(itinerary, planData, schemaVersion, 3);
+    }
+}
@@ -0,0 +1,239 @@
+package org.laioffer.planner.planning;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.laioffer.planner.entity.ItineraryEntity;
+import org.laioffer.planner.entity.ItineraryPlaceEntity;
+import org.laioffer.planner.entity.PlaceEntity;
+import org.laioffer.planner.entity.UserEntity;
+import org.laioffer.planner.model.common.TravelPace;
+import org.laioffer.planner.model.itinerary.TravelMode;
+import org.laioffer.planner.model.planning.PlanItineraryRequest;
+import org.laioffer.planner.model.planning.PlanItineraryResponse;
+import org.laioffer.planner.planning.ai.model.AiPlanResponse;
+import org.laioffer.planner.planning.ai.model.AiPlannedDay;
+import org.laioffer.planner.planning.ai.model.AiPlannedStop;
+import org.laioffer.planner.user.model.UserRole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Load test: many concurrent plan generations must not pin pooled connections while the model works.
+ * The pool has 2 connections and 12 requests plan at once; the mocked LLM call only returns once all
+ * 12 are inside it, which is impossible if each request held a connection across the call.
+ * Needs a real PostgreSQL database, so it only runs under {@code ./gradlew benchmark} with
+ * BENCHMARK_DATABASE_URL (plus _USERNAME/_PASSWORD) set.
+ */
+@Tag("benchmark")
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_DATABASE_URL", matches = ".+")
+@SpringBootTest
+class PlanningConnectionPoolLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlanningConnectionPoolLoadTest.class);
+
+    private static final int POOL_SIZE = 2;
+    private static final int CONCURRENT_PLANS = 12;
+
+    @DynamicPropertySource
+    static void benchmarkDatabase(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("BENCHMARK_DATABASE_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv().getOrDefault("BENCHMARK_DATABASE_USERNAME", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getenv().getOrDefault("BENCHMARK_DATABASE_PASSWORD", ""));
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> String.valueOf(POOL_SIZE));
+        registry.add("spring.datasource.hikari.connection-timeout", () -> "5000");
+        registry.add("app.planning.default-mode", () -> "LLM");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("logging.level.org.hibernate.SQL", () -> "WARN");
+        registry.add("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", () -> "WARN");
+    }
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        @Primary
+        public PlanningLLMService mockPlanningLLMService() {
+            return mock(PlanningLLMService.class);
+        }
+    }
+
+    @Autowired
+    private PlanningService planningService;
+
+    @Autowired
+    private PlanningLLMService planningLLMService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long userId;
+    private final List<UUID> itineraryIds = new ArrayList<>();
+    private final List<UUID> placeIds = new ArrayList<>();
+
+    @Test
+    void connectionsAreNotHeldDuringModelCalls() throws Exception {
+        Map<UUID, UUID> placeByItinerary = createItineraries();
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+
+        AtomicInteger inModelCall = new AtomicInteger();
+        AtomicInteger activeConnectionsWhileAllInModel = new AtomicInteger(-1);
+        AtomicBoolean transactionSeenDuringModelCall = new AtomicBoolean();
+        CountDownLatch allInModelCall = new CountDownLatch(1);
+
+        when(planningLLMService.generatePlan(any(), anyString(), any(), any(), anyString(),
+                any(), any(), any(), any(), anyList())).thenAnswer(invocation -> {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                transactionSeenDuringModelCall.set(true);
+            }
+            if (inModelCall.incrementAndGet() == CONCURRENT_PLANS) {
+                // Every request is parked in the model call right now
+                activeConnectionsWhileAllInModel.set(pool.getHikariPoolMXBean().getActiveConnections());
+                allInModelCall.countDown();
+            }
+            allInModelCall.await(30, TimeUnit.SECONDS);
+            UUID itineraryId = invocation.getArgument(0);
+            return singleStopPlan(placeByItinerary.get(itineraryId));
+        });
+
+        ExecutorService callers = Executors.newFixedThreadPool(CONCURRENT_PLANS);
+        try {
+            long started = System.nanoTime();
+            List<Future<PlanItineraryResponse>> results = new ArrayList<>();
+            for (UUID itineraryId : itineraryIds) {
+                results.add(callers.submit(() -> planningService.generatePlan(itineraryId, new PlanItineraryRequest())));
+            }
+            for (Future<PlanItineraryResponse> result : results) {
+                assertThat(result.get(60, TimeUnit.SECONDS).getVersion()).isEqualTo(1);
+            }
+            logger.info("plans={} pool={}  wall={} ms  active connections while all in model call={}",
+                    CONCURRENT_PLANS, POOL_SIZE, String.format("%.1f", (System.nanoTime() - started) / 1_000_000.0),
+                    activeConnectionsWhileAllInModel.get());
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertThat(allInModelCall.getCount()).isZero();
+        assertThat(activeConnectionsWhileAllInModel.get()).isZero();
+        assertThat(transactionSeenDuringModelCall).isFalse();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (UUID itineraryId : itineraryIds) {
+            jdbcTemplate.update("DELETE FROM plans WHERE itinerary_id = ?", itineraryId);
+            jdbcTemplate.update("DELETE FROM itinerary_places WHERE itinerary_id = ?", itineraryId);
+            jdbcTemplate.update("DELETE FROM itineraries WHERE id = ?", itineraryId);
+        }
+        for (UUID placeId : placeIds) {
+            jdbcTemplate.update("DELETE FROM places WHERE id = ?", placeId);
+        }
+        if (userId != null) {
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        }
+    }
+
+    /**
+     * Commits one itinerary with one pinned place per concurrent request, so the plans do not
+     * conflict with each other on the itinerary version
+     */
+    private Map<UUID, UUID> createItineraries() {
+        Map<UUID, UUID> placeByItinerary = new ConcurrentHashMap<>();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            String suffix = UUID.randomUUID().toString().substring(0, 8);
+            UserEntity user = new UserEntity(UserRole.USER, "load-" + suffix + "@example.com", "load-" + suffix, "password");
+            entityManager.persist(user);
+            userId = user.getId();
+
+            for (int i = 0; i < CONCURRENT_PLANS; i++) {
+                ItineraryEntity itinerary = new ItineraryEntity();
+                itinerary.setUser(user);
+                itinerary.setDestinationCity("San Francisco");
+                itinerary.setStartDate(OffsetDateTime.parse("2024-03-01T09:00:00-08:00"));
+                itinerary.setEndDate(OffsetDateTime.parse("2024-03-02T20:00:00-08:00"));
+                itinerary.setTravelMode(TravelMode.WALKING);
+                itinerary.setBudgetInCents(100000);
+                itinerary.setTravelPace(TravelPace.MODERATE);
+                entityManager.persist(itinerary);
+
+                PlaceEntity place = new PlaceEntity();
+                place.setName("Load test place " + i);
+                place.setAddress(i + " Market St");
+                place.setLatitude(BigDecimal.valueOf(37.77 + i * 0.001));
+                place.setLongitude(BigDecimal.valueOf(-122.41));
+                entityManager.persist(place);
+                entityManager.persist(new ItineraryPlaceEntity(itinerary, place, true));
+
+                itineraryIds.add(itinerary.getId());
+                placeIds.add(place.getId());
+                placeByItinerary.put(itinerary.getId(), place.getId());
+            }
+        });
+        entityManager.clear();
+        return placeByItinerary;
+    }
+
+    private static AiPlanResponse singleStopPlan(UUID placeId) {
+        AiPlannedStop stop = new AiPlannedStop();
+        stop.setPlaceId(placeId);
+        stop.setPlaceName("Load test place");
+        stop.setArrivalTime(LocalTime.of(9, 0));
+        stop.setDepartureTime(LocalTime.of(11, 0));
+        stop.setDurationMinutes(120);
+
+        AiPlannedDay day = new AiPlannedDay();
+        day.setDate(LocalDate.of(2024, 3, 1));
+        day.setStops(List.of(stop));
+
+        AiPlanResponse response = new AiPlanResponse();
+        response.setDays(List.of(day));
+        return response;
+    }
+}
@@ -0,0 +1,127 @@
+package org.laioffer.planner.planning;
+
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.entity.UserEntity;
+import org.laioffer.planner.model.planning.PlanItineraryResponse;
+import org.laioffer.planner.model.planning.PlanStreamEvent;
+import org.laioffer.planner.model.planning.PlannedDay;
+import org.laioffer.planner.planning.exception.ItineraryNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-test.yml")
+class PlanningControllerStreamTest {
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        @Primary
+        public PlanningService mockPlanningService() {
+            return mock(PlanningService.class);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PlanningService planningService;
+
+    @Test
+    void streamsDaysToTheAuthenticatedOwner() throws Exception {
+        UUID itineraryId = UUID.randomUUID();
+        PlannedDay day = new PlannedDay("2024-05-01", List.of());
+        when(planningService.isItineraryOwnedByUser(itineraryId, 1L)).thenReturn(true);
+        when(planningService.streamPlan(eq(itineraryId), any())).thenReturn(Flux.just(
+                PlanStreamEvent.day(0, day),
+                PlanStreamEvent.complete(new PlanItineraryResponse(itineraryId, List.of(day)))));
+
+        MvcResult started = mockMvc.perform(streamRequest(itineraryId).with(owner()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // The async dispatch that writes the events carries no JWT and must still be let through
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("event:day")))
+                .andExpect(content().string(containsString("event:complete")));
+    }
+
+    @Test
+    void rejectsAnonymousStreamRequests() throws Exception {
+        mockMvc.perform(streamRequest(UUID.randomUUID()))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void answersWithAStatusWhenPlanningFailsBeforeStreaming() throws Exception {
+        UUID itineraryId = UUID.randomUUID();
+        when(planningService.isItineraryOwnedByUser(itineraryId, 1L)).thenReturn(true);
+        when(planningService.streamPlan(eq(itineraryId), any()))
+                .thenThrow(new ItineraryNotFoundException("Itinerary with id " + itineraryId + " not found."));
+
+        mockMvc.perform(streamRequest(itineraryId).with(owner()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void endsWithAnErrorEventWhenPlanningFailsMidStream() throws Exception {
+        UUID itineraryId = UUID.randomUUID();
+        when(planningService.isItineraryOwnedByUser(itineraryId, 1L)).thenReturn(true);
+        when(planningService.streamPlan(eq(itineraryId), any())).thenReturn(Flux.just(
+                PlanStreamEvent.day(0, new PlannedDay("2024-05-01", List.of())),
+                PlanStreamEvent.error("Failed to generate travel plan: model unavailable")));
+
+        MvcResult started = mockMvc.perform(streamRequest(itineraryId).with(owner()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("event:error")))
+                .andExpect(content().string(containsString("model unavailable")));
+    }
+
+    private static MockHttpServletRequestBuilder streamRequest(UUID itineraryId) {
+        return post("/api/itineraries/{itineraryId}/plan/stream", itineraryId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .content("{}");
+    }
+
+    private static RequestPostProcessor owner() {
+        UserEntity user = new UserEntity();
+        user.setId(1L);
+        user.setEmail("owner@example.com");
+        return authentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+}
@@ -0,0 +1,192 @@
+package org.laioffer.planner.planning;
+
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.entity.ItineraryEntity;
+import org.laioffer.planner.entity.ItineraryPlaceEntity;
+import org.laioffer.planner.entity.PlaceEntity;
+import org.laioffer.planner.entity.PlanEntity;
+import org.laioffer.planner.entity.UserEntity;
+import org.laioffer.planner.model.itinerary.TravelMode;
+import org.laioffer.planner.model.planning.PlanItineraryRequest;
+import org.laioffer.planner.model.planning.PlanItineraryResponse;
+import org.laioffer.planner.planning.ai.model.AiPlanResponse;
+import org.laioffer.planner.planning.ai.model.AiPlannedDay;
+import org.laioffer.planner.planning.ai.model.AiPlannedStop;
+import org.laioffer.planner.planning.exception.PlanConflictException;
+import org.laioffer.planner.repository.ItineraryPlaceRepository;
+import org.laioffer.planner.repository.ItineraryRepository;
+import org.laioffer.planner.repository.PlaceRepository;
+import org.laioffer.planner.repository.PlanRepository;
+import org.laioffer.planner.repository.UserRepository;
+import org.laioffer.planner.user.model.UserRole;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Plan saves against writes that commit while a plan is being generated. Not transactional: the
+ * planning stages and the concurrent writes each commit on their own, as in production.
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.yml")
+class PlanningServiceConcurrencyTest {
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        @Primary
+        public PlanningLLMService mockPlanningLLMService() {
+            return mock(PlanningLLMService.class);
+        }
+    }
+
+    @Autowired
+    private PlanningService planningService;
+
+    @Autowired
+    private PlanningLLMService planningLLMService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItineraryRepository itineraryRepository;
+
+    @Autowired
+    private PlaceRepository placeRepository;
+
+    @Autowired
+    private ItineraryPlaceRepository itineraryPlaceRepository;
+
+    @Autowired
+    private PlanRepository planRepository;
+
+    @Test
+    void savesThePlanWhenUnrelatedItineraryWritesCommitDuringPlanning() throws Exception {
+        ItineraryEntity itinerary = itineraryWithOnePlace();
+        UUID itineraryId = itinerary.getId();
+        whenPlanning(itineraryId, () -> {
+            // Like POI generation progress, these edits bump the itinerary's optimistic version
+            itineraryRepository.updateBudget(itineraryId, 250000);
+            itineraryRepository.updateDestinationCity(itineraryId, "Oakland");
+        });
+
+        PlanItineraryResponse plan = planningService.generatePlan(itineraryId, new PlanItineraryRequest());
+
+        assertThat(plan.getVersion()).isEqualTo(1);
+        assertThat(planningService.getActivePlan(itineraryId)).hasValueSatisfying(
+                active -> assertThat(active.getVersion()).isEqualTo(1));
+    }
+
+    @Test
+    void rejectsTheGeneratedPlanWhenAnotherPlanWasSavedDuringPlanning() throws Exception {
+        ItineraryEntity itinerary = itineraryWithOnePlace();
+        UUID itineraryId = itinerary.getId();
+        whenPlanning(itineraryId, () ->
+                planningService.savePlan(itineraryId, new PlanItineraryResponse(itineraryId, List.of())));
+
+        assertThatThrownBy(() -> planningService.generatePlan(itineraryId, new PlanItineraryRequest()))
+                .isInstanceOf(PlanConflictException.class);
+        assertThat(planningService.getActivePlan(itineraryId)).hasValueSatisfying(
+                active -> assertThat(active.getVersion()).isEqualTo(1));
+    }
+
+    @Test
+    void concurrentSavesGetDistinctVersionsAndLeaveOneActivePlan() throws Exception {
+        UUID itineraryId = itineraryWithOnePlace().getId();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<PlanItineraryResponse>> saves = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                saves.add(executor.submit(() -> {
+                    start.await();
+                    return planningService.savePlan(itineraryId, new PlanItineraryResponse(itineraryId, List.of()));
+                }));
+            }
+            start.countDown();
+
+            List<Integer> versions = new ArrayList<>();
+            for (Future<PlanItineraryResponse> save : saves) {
+                versions.add(save.get(30, TimeUnit.SECONDS).getVersion());
+            }
+            assertThat(versions).containsExactlyInAnyOrder(1, 2);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<PlanEntity> plans = planRepository.findAllByItineraryIdOrderByCreatedAtDesc(itineraryId);
+        assertThat(plans).extracting(PlanEntity::getVersion).containsExactlyInAnyOrder(1, 2);
+        assertThat(plans).filteredOn(PlanEntity::getIsActive).extracting(PlanEntity::getVersion).containsExactly(2);
+        assertThat(itineraryRepository.findPlanVersionById(itineraryId)).contains(2);
+    }
+
+    private void whenPlanning(UUID itineraryId, Runnable concurrentWrite) throws Exception {
+        PlaceEntity place = itineraryPlaceRepository.findAllWithPlaceByItineraryId(itineraryId).get(0).getPlace();
+        AiPlannedStop stop = new AiPlannedStop();
+        stop.setPlaceId(place.getId());
+        stop.setPlaceName(place.getName());
+        stop.setArrivalTime(LocalTime.of(9, 0));
+        stop.setDepartureTime(LocalTime.of(10, 0));
+        stop.setDurationMinutes(60);
+        AiPlannedDay day = new AiPlannedDay();
+        day.setDate(LocalDate.of(2024, 3, 1));
+        day.setStops(List.of(stop));
+        AiPlanResponse aiResponse = new AiPlanResponse();
+        aiResponse.setDays(List.of(day));
+
+        when(planningLLMService.generatePlan(eq(itineraryId), anyString(), any(), any(), anyString(),
+                any(), any(), any(), any(), anyList())).thenAnswer(invocation -> {
+            concurrentWrite.run();
+            return aiResponse;
+        });
+    }
+
+    private ItineraryEntity itineraryWithOnePlace() {
+        UserEntity user = userRepository.save(new UserEntity(UserRole.USER,
+                "planner-" + UUID.randomUUID() + "@example.com", "planner", "password"));
+
+        ItineraryEntity itinerary = new ItineraryEntity();
+        itinerary.setUser(user);
+        itinerary.setDestinationCity("San Francisco");
+        itinerary.setStartDate(OffsetDateTime.parse("2024-03-01T09:00:00-08:00"));
+        itinerary.setEndDate(OffsetDateTime.parse("2024-03-02T20:00:00-08:00"));
+        itinerary.setTravelMode(TravelMode.WALKING);
+        itinerary.setBudgetInCents(100000);
+        itinerary = itineraryRepository.save(itinerary);
+
+        PlaceEntity place = new PlaceEntity();
+        place.setName("Ferry Building " + UUID.randomUUID());
+        place.setAddress("1 Ferry Building");
+        place.setLatitude(BigDecimal.valueOf(37.7955));
+        place.setLongitude(BigDecimal.valueOf(-122.3937));
+        place = placeRepository.save(place);
+        itineraryPlaceRepository.save(new ItineraryPlaceEntity(itinerary, place, true));
+        return itinerary;
+    }
+}
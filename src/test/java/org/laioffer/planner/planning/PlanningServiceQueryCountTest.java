@@ -0,0 +1,146 @@
+package org.laioffer.planner.planning;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.entity.ItineraryEntity;
+import org.laioffer.planner.entity.ItineraryPlaceEntity;
+import org.laioffer.planner.entity.PlaceEntity;
+import org.laioffer.planner.entity.UserEntity;
+import org.laioffer.planner.model.common.TravelPace;
+import org.laioffer.planner.model.itinerary.TravelMode;
+import org.laioffer.planner.model.planning.PlanItineraryRequest;
+import org.laioffer.planner.model.planning.PlanItineraryResponse;
+import org.laioffer.planner.planning.ai.model.AiPlanResponse;
+import org.laioffer.planner.planning.ai.model.AiPlannedDay;
+import org.laioffer.planner.planning.ai.model.AiPlannedStop;
+import org.laioffer.planner.user.model.UserRole;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Regression test: plan generation must issue the same number of SQL statements
+ * regardless of how many stops the plan contains.
+ */
+@SpringBootTest
+@Transactional
+@TestPropertySource(
+        locations = "classpath:application-test.yml",
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PlanningServiceQueryCountTest {
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        @Primary
+        public PlanningLLMService mockPlanningLLMService() {
+            return mock(PlanningLLMService.class);
+        }
+    }
+
+    @Autowired
+    private PlanningService planningService;
+
+    @Autowired
+    private PlanningLLMService planningLLMService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        user = new UserEntity(UserRole.USER, "planner@example.com", "planner", "password");
+        entityManager.persist(user);
+    }
+
+    @Test
+    void queryCountDoesNotGrowWithNumberOfStops() throws Exception {
+        long smallPlanStatements = countStatementsForPlan(2);
+        long largePlanStatements = countStatementsForPlan(14);
+
+        assertThat(largePlanStatements).isEqualTo(smallPlanStatements);
+    }
+
+    private long countStatementsForPlan(int stopCount) throws Exception {
+        ItineraryEntity itinerary = new ItineraryEntity();
+        itinerary.setUser(user);
+        itinerary.setDestinationCity("San Francisco");
+        itinerary.setStartDate(OffsetDateTime.parse("2024-03-01T09:00:00-08:00"));
+        itinerary.setEndDate(OffsetDateTime.parse("2024-03-07T20:00:00-08:00"));
+        itinerary.setTravelMode(TravelMode.WALKING);
+        itinerary.setBudgetInCents(100000);
+        itinerary.setTravelPace(TravelPace.PACKED);
+        entityManager.persist(itinerary);
+
+        List<AiPlannedStop> stops = new ArrayList<>();
+        for (int i = 0; i < stopCount; i++) {
+            PlaceEntity place = new PlaceEntity();
+            place.setName("Place " + i);
+            place.setAddress(i + " Market St");
+            place.setLatitude(BigDecimal.valueOf(37.77 + i * 0.001));
+            place.setLongitude(BigDecimal.valueOf(-122.41));
+            entityManager.persist(place);
+            entityManager.persist(new ItineraryPlaceEntity(itinerary, place, true));
+
+            AiPlannedStop stop = new AiPlannedStop();
+            stop.setPlaceId(place.getId());
+            stop.setPlaceName(place.getName());
+            stop.setArrivalTime(LocalTime.of(9, 0));
+            stop.setDepartureTime(LocalTime.of(10, 0));
+            stop.setDurationMinutes(60);
+            stops.add(stop);
+        }
+
+        AiPlannedDay day = new AiPlannedDay();
+        day.setDate(LocalDate.of(2024, 3, 1));
+        day.setStops(stops);
+        AiPlanResponse aiResponse = new AiPlanResponse();
+        aiResponse.setDays(List.of(day));
+
+        UUID itineraryId = itinerary.getId();
+        when(planningLLMService.generatePlan(eq(itineraryId), anyString(), any(), any(), anyString(),
+                any(), any(), any(), any(), anyList())).thenReturn(aiResponse);
+
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        PlanItineraryResponse plan = planningService.generatePlan(itineraryId, new PlanItineraryRequest());
+        entityManager.flush();
+
+        assertThat(plan.getDays().get(0).getStops()).hasSize(stopCount);
+        assertThat(plan.getDays().get(0).getStops()).allMatch(stop -> stop.getPlace() != null);
+        return statistics.getPrepareStatementCount();
+    }
+}
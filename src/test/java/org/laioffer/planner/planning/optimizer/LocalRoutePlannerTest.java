@@ -0,0 +1,112 @@
+package org.laioffer.planner.planning.optimizer;
+
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.planning.ai.model.AiPlaceInfo;
+import org.laioffer.planner.planning.ai.model.AiPlanResponse;
+import org.laioffer.planner.planning.ai.model.AiPlannedDay;
+import org.laioffer.planner.planning.ai.model.AiPlannedStop;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalRoutePlannerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 5, 4); // Monday
+
+    private final LocalRoutePlanner planner = new LocalRoutePlanner();
+
+    @Test
+    void ordersCollinearPlacesWithoutBacktracking() {
+        // Shuffled input along a west-east line
+        List<AiPlaceInfo> places = List.of(
+                place("C", 37.7750, -122.4150),
+                place("A", 37.7750, -122.4350),
+                place("D", 37.7750, -122.4050),
+                place("B", 37.7750, -122.4250));
+
+        AiPlanResponse plan = planner.generatePlan(places, DAY, DAY, "WALKING",
+                LocalTime.of(9, 0), LocalTime.of(20, 0), "PACKED");
+
+        List<String> names = plan.getDays().get(0).getStops().stream()
+                .map(AiPlannedStop::getPlaceName)
+                .toList();
+        assertThat(names).satisfiesAnyOf(
+                n -> assertThat(n).containsExactly("A", "B", "C", "D"),
+                n -> assertThat(n).containsExactly("D", "C", "B", "A"));
+    }
+
+    @Test
+    void respectsOpeningHours() {
+        AiPlaceInfo evening = place("Evening", 37.7750, -122.4200);
+        evening.setOpeningHours(Map.of("monday", Map.of("open", "17:00", "close", "22:00")));
+        List<AiPlaceInfo> places = List.of(
+                evening,
+                place("Morning", 37.7760, -122.4210),
+                place("Noon", 37.7770, -122.4220));
+
+        AiPlanResponse plan = planner.generatePlan(places, DAY, DAY, "WALKING",
+                LocalTime.of(9, 0), LocalTime.of(21, 0), "MODERATE");
+
+        AiPlannedStop eveningStop = plan.getDays().get(0).getStops().stream()
+                .filter(stop -> stop.getPlaceName().equals("Evening"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(eveningStop.getArrivalTime()).isAfterOrEqualTo(LocalTime.of(17, 0));
+        assertThat(plan.getDays().get(0).getStops()).hasSize(3);
+    }
+
+    @Test
+    void dropsUnpinnedPlacesBeforePinnedOnesWhenDayIsFull() {
+        List<AiPlaceInfo> places = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            AiPlaceInfo place = place("P" + i, 37.7750 + i * 0.001, -122.4200);
+            place.setPinned(i >= 3);
+            places.add(place);
+        }
+
+        // Four hours fit two 90-minute visits plus travel
+        AiPlanResponse plan = planner.generatePlan(places, DAY, DAY, "WALKING",
+                LocalTime.of(9, 0), LocalTime.of(13, 0), "PACKED");
+
+        List<AiPlannedStop> stops = plan.getDays().get(0).getStops();
+        assertThat(stops).hasSize(2);
+        assertThat(stops).extracting(AiPlannedStop::getPlaceName).allMatch(name -> name.compareTo("P3") >= 0);
+        assertThat(plan.getSummary()).contains("could not fit");
+    }
+
+    @Test
+    void spreadsPlacesAcrossTripDaysByArea() {
+        List<AiPlaceInfo> places = new ArrayList<>();
+        // Two distant neighbourhoods, three places each
+        for (int i = 0; i < 3; i++) {
+            places.add(place("North" + i, 37.8000 + i * 0.001, -122.4100));
+            places.add(place("South" + i, 37.7200 + i * 0.001, -122.4500));
+        }
+
+        AiPlanResponse plan = planner.generatePlan(places, DAY, DAY.plusDays(1), "TRANSIT",
+                LocalTime.of(9, 0), LocalTime.of(20, 0), "MODERATE");
+
+        assertThat(plan.getDays()).hasSize(2);
+        for (AiPlannedDay day : plan.getDays()) {
+            assertThat(day.getStops()).hasSize(3);
+            String area = day.getStops().get(0).getPlaceName().substring(0, 5);
+            assertThat(day.getStops()).allMatch(stop -> stop.getPlaceName().startsWith(area));
+        }
+    }
+
+    private static AiPlaceInfo place(String name, double lat, double lng) {
+        AiPlaceInfo place = new AiPlaceInfo();
+        place.setPlaceId(UUID.randomUUID());
+        place.setName(name);
+        place.setLatitude(BigDecimal.valueOf(lat));
+        place.setLongitude(BigDecimal.valueOf(lng));
+        return place;
+    }
+}
@@ -0,0 +1,41 @@
+package org.laioffer.planner.user.authentication;
+
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.entity.UserEntity;
+import org.laioffer.planner.repository.UserRepository;
+import org.laioffer.planner.user.security.JwtHandler;
+import org.laioffer.planner.user.security.UserPrincipalCache;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthenticationServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final UserPrincipalCache userPrincipalCache = mock(UserPrincipalCache.class);
+    private final AuthenticationService authenticationService = new AuthenticationService(
+            mock(AuthenticationManager.class), mock(JwtHandler.class), passwordEncoder, userRepository,
+            mock(EmailService.class), userPrincipalCache);
+
+    @Test
+    void passwordResetEvictsTheCachedPrincipal() {
+        UserEntity user = new UserEntity();
+        user.setId(7L);
+        user.setEmail("traveler@example.com");
+        user.setResetTokenExpiry(LocalDateTime.now().plusMinutes(30));
+        when(userRepository.findByResetToken("reset-token")).thenReturn(Optional.of(user));
+        when(passwordEncoder.encode("new-password")).thenReturn("new-hash");
+
+        authenticationService.resetPassword("reset-token", "new-password");
+
+        verify(userRepository).updatePasswordAndClearResetToken(7L, "new-hash");
+        verify(userPrincipalCache).evict("traveler@example.com");
+    }
+}
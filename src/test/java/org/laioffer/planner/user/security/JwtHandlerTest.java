@@ -0,0 +1,58 @@
+package org.laioffer.planner.user.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtHandlerTest {
+
+    private static final String SECRET_KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private final JwtHandler jwtHandler = new JwtHandler(SECRET_KEY, 100, Duration.ofMinutes(10));
+
+    @Test
+    void reusesVerifiedClaimsForTheSameToken() {
+        String token = jwtHandler.generateToken("traveler@example.com");
+
+        Claims first = jwtHandler.parseClaims(token);
+
+        assertThat(first.getSubject()).isEqualTo("traveler@example.com");
+        assertThat(jwtHandler.parseClaims(token)).isSameAs(first);
+        assertThat(jwtHandler.parsedUsername(token)).isEqualTo("traveler@example.com");
+    }
+
+    @Test
+    void cachedClaimsDoNotOutliveTheToken() throws InterruptedException {
+        // JWT expiry has second precision, so this token expires between 0.5s and 1.5s from now
+        String token = Jwts.builder()
+                .setSubject("traveler@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 1500))
+                .signWith(jwtHandler.signingKey, SignatureAlgorithm.HS256)
+                .compact();
+        assertThat(jwtHandler.parsedUsername(token)).isEqualTo("traveler@example.com");
+
+        Thread.sleep(1600);
+
+        assertThatThrownBy(() -> jwtHandler.parsedUsername(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherKey() {
+        byte[] otherKey = new byte[32];
+        otherKey[0] = 1;
+        String forged = new JwtHandler(Base64.getEncoder().encodeToString(otherKey), 100, Duration.ofMinutes(10))
+                .generateToken("traveler@example.com");
+
+        assertThatThrownBy(() -> jwtHandler.parsedUsername(forged)).isInstanceOf(SignatureException.class);
+    }
+}
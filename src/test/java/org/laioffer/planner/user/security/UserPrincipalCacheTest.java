@@ -0,0 +1,55 @@
+package org.laioffer.planner.user.security;
+
+import org.junit.jupiter.api.Test;
+import org.laioffer.planner.entity.UserEntity;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserPrincipalCacheTest {
+
+    private static final String EMAIL = "traveler@example.com";
+
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private final UserPrincipalCache cache = new UserPrincipalCache(userDetailsService, 100, Duration.ofMinutes(1));
+
+    @Test
+    void loadsEachPrincipalOnceUntilEvicted() {
+        UserDetails principal = User.withUsername(EMAIL).password("hash").roles("USER").build();
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(principal);
+
+        assertThat(cache.load(EMAIL)).isSameAs(principal);
+        assertThat(cache.load(EMAIL)).isSameAs(principal);
+        verify(userDetailsService, times(1)).loadUserByUsername(EMAIL);
+
+        cache.evict(EMAIL);
+        cache.load(EMAIL);
+        verify(userDetailsService, times(2)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void entityListenerEvictsTheUpdatedUser() {
+        when(userDetailsService.loadUserByUsername(EMAIL))
+                .thenReturn(User.withUsername(EMAIL).password("hash").roles("USER").build());
+        ObjectProvider<UserPrincipalCache> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(cache);
+        UserEntity user = new UserEntity();
+        user.setEmail(EMAIL);
+
+        cache.load(EMAIL);
+        new UserPrincipalEvictionListener(provider).evict(user);
+        cache.load(EMAIL);
+
+        verify(userDetailsService, times(2)).loadUserByUsername(EMAIL);
+    }
+}